@@ -3,11 +3,27 @@ package ar.edu.itba.tav.game_rooms;
 
 import akka.actor.ActorRef;
 import akka.actor.ActorSystem;
+import ar.edu.itba.tav.game_rooms.core.GameRoomsEngine;
+import ar.edu.itba.tav.game_rooms.http.HttpServerSettings;
+import ar.edu.itba.tav.game_rooms.http.RequestBudget;
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
 /**
  * Entry point.
  */
@@ -18,6 +34,11 @@ public class Main {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(Main.class);
 
+    /**
+     * The name of the {@link ActorSystem} (which must be the same in all the nodes of a cluster).
+     */
+    private static final String ACTOR_SYSTEM_NAME = "game_rooms";
+
     /**
      * Entry point.
      *
@@ -34,9 +55,16 @@ public class Main {
             return;
         }
 
-        final ActorSystem system = ActorSystem.create("game_rooms");
+        final HttpServerSettings httpServerSettings = HttpServerSettings.create(arguments.getHttpRequestHandlers(),
+                arguments.getCompressionThreshold(), arguments.isCompressionCache(),
+                arguments.getListStalenessWindow(), parseBudgets(arguments.getBudgets()));
+        final ActorSystem system = arguments.getGameRoomsEngine() == GameRoomsEngine.CLUSTER ?
+                ActorSystem.create(ACTOR_SYSTEM_NAME, clusterConfig(arguments)) :
+                ActorSystem.create(ACTOR_SYSTEM_NAME);
         MainActor.StartSystemMessage startSystemMessage = MainActor.StartSystemMessage
-                .createMessage(arguments.getHttpServerHostname(), arguments.getHttpServerPort());
+                .createMessage(arguments.getHttpServerHostname(), arguments.getHttpServerPort(), httpServerSettings,
+                        arguments.getGameRoomsEngine(), arguments.getGameRoomsManagerShards(),
+                        TimeUnit.SECONDS.toMillis(arguments.getGameRoomsIdleTimeout()), arguments.isSingleGameRoom());
 
         system.actorOf(MainActor.getProps()).tell(startSystemMessage, ActorRef.noSender());
     }
@@ -53,11 +81,78 @@ public class Main {
         final ProgramArguments arguments = new ProgramArguments();
         jCommander.addObject(arguments);
         jCommander.parse(args);
+        validateEngineArguments(arguments);
         LOGGER.debug("Program arguments initialized.");
 
         return arguments;
     }
 
+    /**
+     * Validates that the selected engine supports the given game rooms options,
+     * so the system never runs with semantics that differ from the ones it was asked for.
+     * Only the {@link GameRoomsEngine#ACTORS} engine passivates idle game rooms (the other ones have no actor to stop,
+     * or shard them across the cluster), and players are not indexed across the cluster.
+     *
+     * @param arguments The {@link ProgramArguments} to be validated.
+     * @throws ParameterException If the selected engine does not support any of the given options.
+     */
+    private static void validateEngineArguments(ProgramArguments arguments) throws ParameterException {
+        final GameRoomsEngine engine = arguments.getGameRoomsEngine();
+        final String engineName = engine.name().toLowerCase();
+        if (arguments.getGameRoomsIdleTimeout() != 0 && engine != GameRoomsEngine.ACTORS) {
+            throw new ParameterException("The --idle-timeout option is not supported by the " + engineName +
+                    " engine (only by the actors engine)");
+        }
+        if (arguments.isSingleGameRoom() && engine == GameRoomsEngine.CLUSTER) {
+            throw new ParameterException("The --single-game-room option is not supported by the " + engineName +
+                    " engine");
+        }
+    }
+
+    /**
+     * Parses the given time budgets of the http routes, each one as route=milliseconds (e.g list-game-rooms=3000).
+     *
+     * @param budgets The time budgets to be parsed.
+     * @return A {@link Map} holding the time budget (in milliseconds) of each given route.
+     * @throws ParameterException If any of the {@code budgets} is not well formed.
+     */
+    private static Map<RequestBudget, Long> parseBudgets(List<String> budgets) throws ParameterException {
+        final Map<RequestBudget, Long> parsed = new EnumMap<>(RequestBudget.class);
+        for (String budget : budgets) {
+            final String[] parts = budget.split("=", 2);
+            try {
+                parsed.put(RequestBudget.fromName(parts[0]), Long.parseLong(parts[1].trim()));
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+                throw new ParameterException("Invalid request budget \"" + budget + "\" " +
+                        "(expected route=milliseconds, with route one of " +
+                        Arrays.toString(RequestBudget.values()) + ")");
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Creates the {@link Config} of the {@link ActorSystem} when game rooms are sharded in a cluster,
+     * joining this node to the given seed nodes (or starting a new cluster with this node if there are none).
+     *
+     * @param arguments The {@link ProgramArguments} holding the cluster arguments.
+     * @return The created {@link Config}.
+     */
+    private static Config clusterConfig(ProgramArguments arguments) {
+        final String self = arguments.getClusterHostname() + ":" + arguments.getClusterPort();
+        final List<String> seedNodes = (arguments.getSeedNodes().isEmpty() ?
+                Collections.singletonList(self) : arguments.getSeedNodes()).stream()
+                .map(seedNode -> "akka.tcp://" + ACTOR_SYSTEM_NAME + "@" + seedNode)
+                .collect(Collectors.toList());
+        final Map<String, Object> settings = new HashMap<>();
+        settings.put("akka.remote.netty.tcp.hostname", arguments.getClusterHostname());
+        settings.put("akka.remote.netty.tcp.port", arguments.getClusterPort());
+        settings.put("akka.cluster.seed-nodes", seedNodes);
+        return ConfigFactory.parseMap(settings)
+                .withFallback(ConfigFactory.parseResources("cluster.conf"))
+                .withFallback(ConfigFactory.load());
+    }
+
 
     /**
      * Container class holding the program arguments.
@@ -82,6 +177,89 @@ public class Main {
         @Parameter(names = {"-p", "--port"}, description = "Sets the http server port")
         private int httpServerPort = 9000;
 
+        /**
+         * The amount of http request handlers for the http server.
+         */
+        @Parameter(names = {"-w", "--handlers"}, description = "Sets the amount of http request handlers")
+        private int httpRequestHandlers = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * The min. size (in bytes) a response entity must have in order to be compressed.
+         */
+        @Parameter(names = {"-c", "--compression-threshold"},
+                description = "Sets the min. size (in bytes) of compressed responses (a negative value disables it)")
+        private int compressionThreshold = 1024;
+
+        /**
+         * Indicates whether compressed response entities must be cached.
+         */
+        @Parameter(names = {"--compression-cache"}, description = "Caches compressed responses")
+        private boolean compressionCache;
+
+        /**
+         * The time (in milliseconds) during which a retrieved page of game rooms is shared with new requests.
+         */
+        @Parameter(names = {"--list-staleness"},
+                description = "Sets the time (in milliseconds) during which a listed page of game rooms is shared " +
+                        "with new requests of the same page (0 only shares it while it is being listed)")
+        private long listStalenessWindow = 0;
+
+        /**
+         * The time budgets (as route=milliseconds) of the http routes.
+         */
+        @Parameter(names = {"--budget"},
+                description = "Sets the time (in milliseconds) within which requests of a route must be answered " +
+                        "(as route=milliseconds, comma separated; e.g list-game-rooms=3000,player-operation=1000)")
+        private List<String> budgets = new ArrayList<>();
+
+        /**
+         * The engine that holds the game rooms.
+         */
+        @Parameter(names = {"-e", "--engine"}, description = "Sets the engine that holds the game rooms")
+        private GameRoomsEngine gameRoomsEngine = GameRoomsEngine.ACTORS;
+
+        /**
+         * The amount of shards in which game rooms are split.
+         */
+        @Parameter(names = {"-s", "--shards"}, description = "Sets the amount of shards in which game rooms are split")
+        private int gameRoomsManagerShards = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * The time (in seconds) without messages after which a game room is passivated.
+         */
+        @Parameter(names = {"-i", "--idle-timeout"},
+                description = "Sets the time (in seconds) without operations after which a game room is passivated " +
+                        "(0 disables it)")
+        private long gameRoomsIdleTimeout = 0;
+
+        /**
+         * Indicates whether a player can only be in one game room.
+         */
+        @Parameter(names = {"--single-game-room"},
+                description = "Makes players leave their game room when they join another one")
+        private boolean singleGameRoom;
+
+        /**
+         * The hostname through which this node is reached by the other nodes of the cluster.
+         */
+        @Parameter(names = {"--cluster-host"},
+                description = "Sets the hostname through which this node is reached by the cluster")
+        private String clusterHostname = "127.0.0.1";
+
+        /**
+         * The port through which this node is reached by the other nodes of the cluster.
+         */
+        @Parameter(names = {"--cluster-port"},
+                description = "Sets the port through which this node is reached by the cluster")
+        private int clusterPort = 2552;
+
+        /**
+         * The nodes (as hostname:port) used to join the cluster.
+         */
+        @Parameter(names = {"--seed-nodes"},
+                description = "Sets the nodes (as hostname:port, comma separated) used to join the cluster")
+        private List<String> seedNodes = new ArrayList<>();
+
         /**
          * Private constructor.
          */
@@ -110,5 +288,89 @@ public class Main {
         private int getHttpServerPort() {
             return httpServerPort;
         }
+
+        /**
+         * @return The amount of http request handlers for the http server.
+         */
+        private int getHttpRequestHandlers() {
+            return httpRequestHandlers;
+        }
+
+        /**
+         * @return The min. size (in bytes) a response entity must have in order to be compressed.
+         */
+        private int getCompressionThreshold() {
+            return compressionThreshold;
+        }
+
+        /**
+         * @return {@code true} if compressed response entities must be cached, or {@code false} otherwise.
+         */
+        private boolean isCompressionCache() {
+            return compressionCache;
+        }
+
+        /**
+         * @return The time (in milliseconds) during which a retrieved page of game rooms is shared with new requests.
+         */
+        private long getListStalenessWindow() {
+            return listStalenessWindow;
+        }
+
+        /**
+         * @return The time budgets (as route=milliseconds) of the http routes.
+         */
+        private List<String> getBudgets() {
+            return budgets;
+        }
+
+        /**
+         * @return The engine that holds the game rooms.
+         */
+        private GameRoomsEngine getGameRoomsEngine() {
+            return gameRoomsEngine;
+        }
+
+        /**
+         * @return The amount of shards in which game rooms are split.
+         */
+        private int getGameRoomsManagerShards() {
+            return gameRoomsManagerShards;
+        }
+
+        /**
+         * @return The time (in seconds) without messages after which a game room is passivated.
+         */
+        private long getGameRoomsIdleTimeout() {
+            return gameRoomsIdleTimeout;
+        }
+
+        /**
+         * @return {@code true} if a player can only be in one game room, or {@code false} otherwise.
+         */
+        private boolean isSingleGameRoom() {
+            return singleGameRoom;
+        }
+
+        /**
+         * @return The hostname through which this node is reached by the other nodes of the cluster.
+         */
+        private String getClusterHostname() {
+            return clusterHostname;
+        }
+
+        /**
+         * @return The port through which this node is reached by the other nodes of the cluster.
+         */
+        private int getClusterPort() {
+            return clusterPort;
+        }
+
+        /**
+         * @return The nodes (as hostname:port) used to join the cluster.
+         */
+        private List<String> getSeedNodes() {
+            return seedNodes;
+        }
     }
 }
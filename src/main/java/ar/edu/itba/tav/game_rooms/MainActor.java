@@ -3,9 +3,15 @@ package ar.edu.itba.tav.game_rooms;
 import akka.actor.*;
 import akka.japi.pf.DeciderBuilder;
 import akka.japi.pf.ReceiveBuilder;
-import ar.edu.itba.tav.game_rooms.core.GameRoomsManagerActor;
+import ar.edu.itba.tav.game_rooms.core.ClusteredGameRoomsManagerActor;
+import ar.edu.itba.tav.game_rooms.core.GameRoomDirectory;
+import ar.edu.itba.tav.game_rooms.core.GameRoomStore;
+import ar.edu.itba.tav.game_rooms.core.GameRoomsEngine;
+import ar.edu.itba.tav.game_rooms.core.PlayerDirectory;
+import ar.edu.itba.tav.game_rooms.core.ShardedGameRoomsManagerActor;
 import ar.edu.itba.tav.game_rooms.core.SystemMonitorActor;
 import ar.edu.itba.tav.game_rooms.http.HttpServer;
+import ar.edu.itba.tav.game_rooms.http.HttpServerSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,16 +51,42 @@ public class MainActor extends AbstractActor {
      * @param message The start system message containing data used for starting the system.
      */
     private void startSystem(StartSystemMessage message) {
-        // Create game manager actor
-        final ActorRef gameRoomsManager = getContext()
-                .actorOf(GameRoomsManagerActor.getProps(), "game_rooms_manager");
-
         // Create a system monitor (will start alone)
         final ActorRef systemMonitor = getContext().actorOf(SystemMonitorActor.getProps(), "system_monitor");
 
+        // Create the game rooms engine, and the http server that uses it
+        final HttpServer httpServer;
+        final PlayerDirectory playerDirectory = new PlayerDirectory(message.isSingleGameRoom());
+        if (message.getGameRoomsEngine() == GameRoomsEngine.STORE) {
+            httpServer = HttpServer.createServer(getContext().getSystem(), new GameRoomStore(playerDirectory),
+                    systemMonitor, message.getHttpServerSettings());
+        } else if (message.getGameRoomsEngine() == GameRoomsEngine.CLUSTER) {
+            // Create the game manager actor of this node, which sends operations to the game rooms across the cluster
+            final ActorRef gameRoomsManager = getContext()
+                    .actorOf(ClusteredGameRoomsManagerActor.getProps(), "game_rooms_manager");
+            // Players are not indexed across the cluster
+            httpServer = HttpServer.createServer(getContext().getSystem(), gameRoomsManager, null, systemMonitor,
+                    message.getHttpServerSettings());
+        } else if (message.getGameRoomsEngine() == GameRoomsEngine.OFF_HEAP) {
+            // Create game manager actor (split into shards), which holds the game rooms off-heap
+            final ActorRef gameRoomsManager = getContext()
+                    .actorOf(ShardedGameRoomsManagerActor.getOffHeapProps(message.getGameRoomsManagerShards(),
+                            playerDirectory), "game_rooms_manager");
+            httpServer = HttpServer.createServer(getContext().getSystem(), gameRoomsManager, playerDirectory,
+                    systemMonitor, message.getHttpServerSettings());
+        } else {
+            // Create game manager actor (split into shards), which publishes game rooms in the directory
+            final GameRoomDirectory gameRoomDirectory = new GameRoomDirectory();
+            final ActorRef gameRoomsManager = getContext()
+                    .actorOf(ShardedGameRoomsManagerActor.getProps(message.getGameRoomsManagerShards(),
+                            gameRoomDirectory, playerDirectory, message.getGameRoomsIdleTimeout()),
+                            "game_rooms_manager");
+            httpServer = HttpServer.createServer(getContext().getSystem(), gameRoomsManager, gameRoomDirectory,
+                    playerDirectory, systemMonitor, message.getHttpServerSettings());
+        }
+
         // Start http server
-        HttpServer.createServer(getContext().getSystem(), gameRoomsManager, systemMonitor)
-                .start(message.getHttpServerHostname(), message.getHttpServerPort());
+        httpServer.start(message.getHttpServerHostname(), message.getHttpServerPort());
 
         this.started = true;
     }
@@ -89,15 +121,55 @@ public class MainActor extends AbstractActor {
          */
         private final int httpServerPort;
 
+        /**
+         * The settings for the http server.
+         */
+        private final HttpServerSettings httpServerSettings;
+
+        /**
+         * The engine that holds the game rooms.
+         */
+        private final GameRoomsEngine gameRoomsEngine;
+
+        /**
+         * The amount of shards in which game rooms are split (when held by actors).
+         */
+        private final int gameRoomsManagerShards;
+
+        /**
+         * The time (in milliseconds) without messages after which a game room is passivated (when held by actors),
+         * or a non-positive value if game rooms must never be passivated.
+         */
+        private final long gameRoomsIdleTimeout;
+
+        /**
+         * Indicates whether a player can only be in one game room.
+         */
+        private final boolean singleGameRoom;
+
         /**
          * Private constructor.
          *
-         * @param httpServerHostname The hostname for the http server.
-         * @param httpServerPort     The port for the http server.
+         * @param httpServerHostname     The hostname for the http server.
+         * @param httpServerPort         The port for the http server.
+         * @param httpServerSettings     The settings for the http server.
+         * @param gameRoomsEngine        The engine that holds the game rooms.
+         * @param gameRoomsManagerShards The amount of shards in which game rooms are split (when held by actors).
+         * @param gameRoomsIdleTimeout   The time (in milliseconds) without messages after which a game room
+         *                               is passivated (when held by actors), or a non-positive value if game rooms
+         *                               must never be passivated.
+         * @param singleGameRoom         Indicates whether a player can only be in one game room.
          */
-        private StartSystemMessage(String httpServerHostname, int httpServerPort) {
+        private StartSystemMessage(String httpServerHostname, int httpServerPort,
+                                   HttpServerSettings httpServerSettings, GameRoomsEngine gameRoomsEngine,
+                                   int gameRoomsManagerShards, long gameRoomsIdleTimeout, boolean singleGameRoom) {
             this.httpServerHostname = httpServerHostname;
             this.httpServerPort = httpServerPort;
+            this.httpServerSettings = httpServerSettings;
+            this.gameRoomsEngine = gameRoomsEngine;
+            this.gameRoomsManagerShards = gameRoomsManagerShards;
+            this.gameRoomsIdleTimeout = gameRoomsIdleTimeout;
+            this.singleGameRoom = singleGameRoom;
         }
 
         /**
@@ -114,16 +186,63 @@ public class MainActor extends AbstractActor {
             return httpServerHostname;
         }
 
+        /**
+         * @return The settings for the http server.
+         */
+        private HttpServerSettings getHttpServerSettings() {
+            return httpServerSettings;
+        }
+
+        /**
+         * @return The engine that holds the game rooms.
+         */
+        private GameRoomsEngine getGameRoomsEngine() {
+            return gameRoomsEngine;
+        }
+
+        /**
+         * @return The amount of shards in which game rooms are split (when held by actors).
+         */
+        private int getGameRoomsManagerShards() {
+            return gameRoomsManagerShards;
+        }
+
+        /**
+         * @return The time (in milliseconds) without messages after which a game room is passivated
+         * (when held by actors), or a non-positive value if game rooms must never be passivated.
+         */
+        private long getGameRoomsIdleTimeout() {
+            return gameRoomsIdleTimeout;
+        }
+
+        /**
+         * @return {@code true} if a player can only be in one game room, or {@code false} otherwise.
+         */
+        private boolean isSingleGameRoom() {
+            return singleGameRoom;
+        }
+
         /**
          * Creates a message of this type.
          *
-         * @param httpServerHostname The hostname for the http server.
-         * @param httpServerPort     The port for the http server.
+         * @param httpServerHostname     The hostname for the http server.
+         * @param httpServerPort         The port for the http server.
+         * @param httpServerSettings     The settings for the http server.
+         * @param gameRoomsEngine        The engine that holds the game rooms.
+         * @param gameRoomsManagerShards The amount of shards in which game rooms are split (when held by actors).
+         * @param gameRoomsIdleTimeout   The time (in milliseconds) without messages after which a game room
+         *                               is passivated (when held by actors), or a non-positive value if game rooms
+         *                               must never be passivated.
+         * @param singleGameRoom         Indicates whether a player can only be in one game room.
          * @return The created message.
          */
         /* package */
-        static StartSystemMessage createMessage(String httpServerHostname, int httpServerPort) {
-            return new StartSystemMessage(httpServerHostname, httpServerPort);
+        static StartSystemMessage createMessage(String httpServerHostname, int httpServerPort,
+                                                HttpServerSettings httpServerSettings,
+                                                GameRoomsEngine gameRoomsEngine, int gameRoomsManagerShards,
+                                                long gameRoomsIdleTimeout, boolean singleGameRoom) {
+            return new StartSystemMessage(httpServerHostname, httpServerPort, httpServerSettings,
+                    gameRoomsEngine, gameRoomsManagerShards, gameRoomsIdleTimeout, singleGameRoom);
         }
     }
 
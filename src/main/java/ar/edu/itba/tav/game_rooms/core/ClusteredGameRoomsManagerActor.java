@@ -0,0 +1,531 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import akka.NotUsed;
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.Props;
+import akka.cluster.Cluster;
+import akka.cluster.ClusterEvent;
+import akka.cluster.UniqueAddress;
+import akka.cluster.ddata.DistributedData;
+import akka.cluster.ddata.GCounter;
+import akka.cluster.ddata.GCounterKey;
+import akka.cluster.ddata.Key;
+import akka.cluster.ddata.ORSet;
+import akka.cluster.ddata.ORSetKey;
+import akka.cluster.ddata.Replicator;
+import akka.cluster.sharding.ClusterSharding;
+import akka.cluster.sharding.ClusterShardingSettings;
+import akka.cluster.sharding.ShardRegion;
+import akka.japi.Pair;
+import akka.japi.pf.ReceiveBuilder;
+import akka.pattern.PatternsCS;
+import akka.stream.javadsl.Source;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.*;
+import ar.edu.itba.tav.game_rooms.utils.Deadline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+/**
+ * {@link akka.actor.Actor} in charge of managing game rooms sharded across the nodes of a cluster.
+ * Each node runs one of these managers, which starts the node's shard region (so the node hosts part of the game
+ * rooms, as {@link GameRoomEntityActor}s), and sends every game room message to it
+ * (i.e any node can operate over any game room, wherever it lives).
+ * The names of the existing game rooms are kept in a replicated index, which is used to list game rooms
+ * without asking every node. Each node keeps the names of the game rooms it hosts in its own keys of the index
+ * (split into several keys, so a change does not replicate all of them), which are deleted once the node is removed
+ * from the cluster, as its game rooms are lost with it.
+ * Each node also publishes the clock from which the initial versions of the game rooms it creates are taken
+ * (see {@link GameRoomVersionClock}), so every node keeps its own clock ahead of the ones of the other nodes.
+ * <p>
+ * Game rooms are not persisted, so shards are never rebalanced between nodes (i.e nodes joining the cluster
+ * host the shards that were not allocated yet), and the game rooms of a node that leaves the cluster are lost.
+ */
+public class ClusteredGameRoomsManagerActor extends AbstractActor {
+
+    /**
+     * The name of the sharded entity type (i.e the game rooms).
+     */
+    private static final String TYPE_NAME = "game-rooms";
+
+    /**
+     * The amount of shards in which game rooms are split (i.e the units that are allocated to the nodes).
+     * It must be the same in all the nodes of the cluster.
+     */
+    private static final int AMOUNT_OF_SHARDS = 100;
+
+    /**
+     * The amount of keys in which the game room names of each node are split in the index,
+     * so a change does not replicate all the names of the node.
+     */
+    private static final int AMOUNT_OF_NAMES_KEYS = 16;
+
+    /**
+     * The timeout (in milliseconds) for a game room to reply its data, when the request has no deadline.
+     */
+    private static final long GAME_ROOM_DATA_TIMEOUT = 2000;
+
+    /**
+     * The max. amount of game rooms that are asked for their data at the same time when streaming game rooms
+     * (i.e also the amount of names taken from the index each time the stream needs more).
+     */
+    private static final int LISTING_PARALLELISM = 16;
+
+    /**
+     * The {@link ShardRegion.MessageExtractor} used to route game room messages to their entity (by game room name).
+     */
+    private static final ShardRegion.MessageExtractor MESSAGE_EXTRACTOR =
+            new ShardRegion.HashCodeMessageExtractor(AMOUNT_OF_SHARDS) {
+                @Override
+                public String entityId(Object message) {
+                    return message instanceof GameRoomMessage ? ((GameRoomMessage) message).getGameRoomName() : null;
+                }
+            };
+
+    /**
+     * The {@link Cluster} in which this manager runs (i.e whose members hold keys of the index).
+     */
+    private final Cluster cluster;
+
+    /**
+     * The {@link ActorRef} of the distributed data replicator holding the game room names index.
+     */
+    private final ActorRef replicator;
+
+    /**
+     * The game room names in each of the subscribed keys of the index, as last notified by the replicator.
+     */
+    private final Map<Key<ORSet<String>>, Set<String>> gameRoomNames;
+
+    /**
+     * The game room names in the index, ordered by name, with the amount of keys holding each of them
+     * (i.e a game room lost with a node might be created again in another node before the keys of the former
+     * are deleted).
+     */
+    private final NavigableMap<String, Integer> sortedGameRoomNames;
+
+    /**
+     * The {@link GameRoomVersionClock} of this node.
+     */
+    private final GameRoomVersionClock versionClock;
+
+    /**
+     * The nodes whose keys of the index (and clocks) are subscribed to.
+     */
+    private final Set<UniqueAddress> nodes;
+
+    /**
+     * The {@link ActorRef} of the shard region of this node.
+     */
+    private ActorRef shardRegion;
+
+    /**
+     * Private constructor.
+     */
+    private ClusteredGameRoomsManagerActor() {
+        this.cluster = Cluster.get(getContext().getSystem());
+        this.replicator = DistributedData.get(getContext().getSystem()).replicator();
+        this.gameRoomNames = new HashMap<>();
+        this.sortedGameRoomNames = new TreeMap<>();
+        this.versionClock = new GameRoomVersionClock();
+        this.nodes = new HashSet<>();
+    }
+
+    @Override
+    public void preStart() {
+        this.shardRegion = ClusterSharding.get(getContext().getSystem()).start(TYPE_NAME,
+                GameRoomEntityActor.getProps(versionClock), ClusterShardingSettings.create(getContext().getSystem()),
+                MESSAGE_EXTRACTOR);
+        cluster.subscribe(getSelf(), ClusterEvent.initialStateAsEvents(), ClusterEvent.MemberEvent.class);
+    }
+
+    @Override
+    public void postStop() {
+        cluster.unsubscribe(getSelf());
+    }
+
+    @Override
+    public Receive createReceive() {
+        return ReceiveBuilder.create()
+                .match(DeadlineMessage.class, msg -> msg.getDeadline().isOverdue(), msg -> {
+                })
+                .match(GetAllGameRoomsMessage.class, this::getAllGameRooms)
+                .match(GetGameRoomsSourceMessage.class, this::getGameRoomsSource)
+                .match(GetSpecificGameRoomMessage.class, this::getSpecificGameRoom)
+                .match(GameRoomMessage.class, this::sendToGameRoom)
+                .match(GameRoomNamesMessage.class, this::reportGameRoomNames)
+                .match(ClusterEvent.MemberRemoved.class, event -> removeNode(event.member().uniqueAddress()))
+                .match(ClusterEvent.MemberEvent.class, event -> addNode(event.member().uniqueAddress()))
+                .match(Replicator.Changed.class, changed -> changed.dataValue() instanceof GCounter,
+                        changed -> versionClock.observe(((GCounter) changed.dataValue()).getValue().longValue()))
+                .match(Replicator.Changed.class, changed -> updateGameRoomNames(changed))
+                .match(Replicator.Deleted.class, deleted -> {
+                    // Keys (and clocks) are deleted once their node is removed, which was already handled
+                })
+                .match(Replicator.DeleteResponse.class, response -> {
+                    // Any node deletes the keys of a removed node, so there is nothing to wait for
+                })
+                .build();
+    }
+
+    /**
+     * Replies with the requested page of existing game rooms, ordered by name.
+     * Only the game rooms in the page are asked for their data.
+     * Game rooms that no longer exist (i.e the index did not catch up with their removal yet) are replaced
+     * by the ones following the page, so the page is only short when there are no more game rooms.
+     * If any game room fails to reply in time, a {@link PartialGameRoomsPageMessage} is replied instead.
+     *
+     * @param msg The {@link GetAllGameRoomsMessage} indicating the page of game rooms to be retrieved.
+     */
+    private void getAllGameRooms(GetAllGameRoomsMessage msg) {
+        final List<String> names = gameRoomNamesPage(msg.getAfter(), msg.getLimit());
+        final List<CompletableFuture<Optional<GameRoomDataMessage>>> gameRooms = names.stream()
+                .map(name -> askGameRoomData(name, msg.getDeadline()).toCompletableFuture())
+                .collect(Collectors.toList());
+        final ActorRef self = getSelf();
+        final CompletionStage<Object> page = CompletableFuture
+                .allOf(gameRooms.toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, error) -> null)
+                .thenCompose(ignored -> {
+                    final List<GameRoomDataMessage> found = new ArrayList<>(names.size());
+                    final int missing = (int) gameRooms.stream()
+                            .filter(CompletableFuture::isCompletedExceptionally)
+                            .count();
+                    gameRooms.stream()
+                            .filter(gameRoom -> !gameRoom.isCompletedExceptionally())
+                            .forEach(gameRoom -> gameRoom.join().ifPresent(found::add));
+                    final int removed = names.size() - found.size() - missing;
+                    if (removed == 0 || names.size() < msg.getLimit()) {
+                        return CompletableFuture.completedFuture(pageReply(found, missing));
+                    }
+                    // The page continues right after the last name taken from the index
+                    final GetAllGameRoomsMessage next = GetAllGameRoomsMessage
+                            .getMessage(names.get(names.size() - 1), removed, msg.getDeadline());
+                    return PatternsCS.ask(self, next, msg.getDeadline().timeLeftOr(GAME_ROOM_DATA_TIMEOUT))
+                            .thenApply(rest -> joinPages(found, missing, rest));
+                });
+        PatternsCS.pipe(page, getContext().dispatcher()).to(getSender(), getSelf());
+    }
+
+    /**
+     * Replies with a {@link Source} that streams the data of the requested page of existing game rooms,
+     * ordered by name.
+     * Names are taken from the index as the stream demands them, and each game room is asked for its data
+     * only when the stream demands it.
+     * Game rooms that no longer exist are skipped, while a game room that fails to reply makes the stream fail.
+     * As the stream is paced by its consumer, the deadline of the request does not apply to these asks.
+     *
+     * @param msg The {@link GetGameRoomsSourceMessage} indicating the page of game rooms to be streamed.
+     */
+    private void getGameRoomsSource(GetGameRoomsSourceMessage msg) {
+        final ActorRef self = getSelf();
+        final Source<GameRoomDataMessage, NotUsed> source = Source
+                .unfoldAsync(Optional.ofNullable(msg.getAfter()), after -> PatternsCS
+                        .ask(self, GameRoomNamesMessage.getMessage(after.orElse(null), LISTING_PARALLELISM),
+                                GAME_ROOM_DATA_TIMEOUT)
+                        .thenApply(reply -> {
+                            final String[] names = (String[]) reply;
+                            return names.length == 0 ? Optional.<Pair<Optional<String>, List<String>>>empty() :
+                                    Optional.of(Pair.create(Optional.of(names[names.length - 1]),
+                                            Arrays.asList(names)));
+                        }))
+                .mapConcat(names -> names)
+                .mapAsync(LISTING_PARALLELISM, name -> askGameRoomData(name, Deadline.none()))
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .take(msg.getLimit());
+        getSender().tell(GameRoomsSourceMessage.getMessage(source), getSelf());
+    }
+
+    /**
+     * Replies with the data of the specified game room (wrapped in an {@link Optional}).
+     * The game room (which might be in another node) replies the data unwrapped,
+     * so it is wrapped here, in the requester's node.
+     * If the game room fails to reply in time, the failure is replied.
+     *
+     * @param msg The {@link GetSpecificGameRoomMessage} with containing the name of the game room to be retrieved.
+     */
+    private void getSpecificGameRoom(GetSpecificGameRoomMessage msg) {
+        PatternsCS.pipe(askGameRoomData(msg.getGameRoomName(), msg.getDeadline()), getContext().dispatcher())
+                .to(getSender(), getSelf());
+    }
+
+    /**
+     * Sends the given {@code msg} to the game room (through the shard region),
+     * which replies directly to the original sender.
+     *
+     * @param msg The {@link GameRoomMessage} to be sent.
+     */
+    private void sendToGameRoom(GameRoomMessage msg) {
+        if (msg.getGameRoomName() == null) {
+            getSender().tell(GameRoomEntityActor.noSuchGameRoomReply(msg), getSelf());
+            return;
+        }
+        shardRegion.forward(msg, getContext());
+    }
+
+    /**
+     * Replies with the names of the game rooms requested by the given {@code msg}, ordered by name
+     * (as an array of {@link String}s).
+     *
+     * @param msg The {@link GameRoomNamesMessage} indicating the names to be retrieved.
+     */
+    private void reportGameRoomNames(GameRoomNamesMessage msg) {
+        getSender().tell(gameRoomNamesPage(msg.after, msg.limit).toArray(new String[0]), getSelf());
+    }
+
+    /**
+     * Subscribes to the keys of the index (and to the clock) of the given {@code node}, if they are not subscribed yet.
+     *
+     * @param node The {@link UniqueAddress} of the node.
+     */
+    private void addNode(UniqueAddress node) {
+        if (!nodes.add(node)) {
+            return;
+        }
+        for (int i = 0; i < AMOUNT_OF_NAMES_KEYS; i++) {
+            final Key<ORSet<String>> key = namesKey(node, i);
+            gameRoomNames.put(key, Collections.emptySet());
+            replicator.tell(new Replicator.Subscribe<>(key, getSelf()), getSelf());
+        }
+        replicator.tell(new Replicator.Subscribe<>(versionClockKeyOf(node), getSelf()), getSelf());
+    }
+
+    /**
+     * Drops the game room names of the given {@code node} (which was removed from the cluster, so its game rooms
+     * were lost), and deletes its keys of the index and its clock
+     * (which was already observed, so the clock of this node is ahead of it).
+     * Every node deletes them, as the removed node can not do it.
+     *
+     * @param node The {@link UniqueAddress} of the removed node.
+     */
+    private void removeNode(UniqueAddress node) {
+        if (!nodes.remove(node)) {
+            return;
+        }
+        for (int i = 0; i < AMOUNT_OF_NAMES_KEYS; i++) {
+            final Key<ORSet<String>> key = namesKey(node, i);
+            replicator.tell(new Replicator.Unsubscribe<>(key, getSelf()), getSelf());
+            replicator.tell(new Replicator.Delete<>(key, Replicator.writeLocal()), getSelf());
+            updateGameRoomNames(key, null);
+        }
+        replicator.tell(new Replicator.Unsubscribe<>(versionClockKeyOf(node), getSelf()), getSelf());
+        replicator.tell(new Replicator.Delete<>(versionClockKeyOf(node), Replicator.writeLocal()), getSelf());
+    }
+
+    /**
+     * Updates the game room names of a key of the index, as notified by the replicator.
+     *
+     * @param changed The {@link Replicator.Changed} notification.
+     */
+    @SuppressWarnings("unchecked")
+    private void updateGameRoomNames(Replicator.Changed<?> changed) {
+        final Replicator.Changed<ORSet<String>> namesChanged = (Replicator.Changed<ORSet<String>>) changed;
+        if (gameRoomNames.containsKey(namesChanged.key())) {
+            updateGameRoomNames(namesChanged.key(), namesChanged.dataValue().getElements());
+        }
+    }
+
+    /**
+     * Replaces the game room names of the given {@code key} of the index,
+     * updating the ordered names with the ones that were added or removed.
+     *
+     * @param key   The {@link Key} of the index.
+     * @param names The new game room names of the key, or {@code null} if the key is dropped.
+     */
+    private void updateGameRoomNames(Key<ORSet<String>> key, Set<String> names) {
+        final Set<String> previous = names == null ? gameRoomNames.remove(key) : gameRoomNames.put(key, names);
+        final Set<String> current = names == null ? Collections.emptySet() : names;
+        if (previous != null) {
+            previous.stream()
+                    .filter(name -> !current.contains(name))
+                    .forEach(name -> sortedGameRoomNames
+                            .computeIfPresent(name, (removed, keys) -> keys == 1 ? null : keys - 1));
+        }
+        final Set<String> before = previous == null ? Collections.emptySet() : previous;
+        current.stream()
+                .filter(name -> !before.contains(name))
+                .forEach(name -> sortedGameRoomNames.merge(name, 1, Integer::sum));
+    }
+
+    /**
+     * Returns the names of the game rooms in the given page, ordered by name, according to the index.
+     *
+     * @param after The name of the game room after which the page starts,
+     *              or {@code null} to start from the first one.
+     * @param limit The max. amount of game rooms in the page.
+     * @return A {@link List} with the names of the game rooms in the page.
+     */
+    private List<String> gameRoomNamesPage(String after, int limit) {
+        final List<String> names = new ArrayList<>(Math.min(limit, sortedGameRoomNames.size()));
+        for (String name : (after == null ? sortedGameRoomNames : sortedGameRoomNames.tailMap(after, false))
+                .keySet()) {
+            if (names.size() == limit) {
+                break;
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * Asks the game room with the given {@code gameRoomName} for its data (through the shard region).
+     *
+     * @param gameRoomName The name of the game room.
+     * @param deadline     The {@link Deadline} by which the data must be received
+     *                     (or {@link Deadline#none()} to wait for it at most {@link #GAME_ROOM_DATA_TIMEOUT}).
+     * @return A {@link CompletionStage} that will be completed with the data of the game room,
+     * or empty if there is no such game room, or completed exceptionally if it did not reply in time.
+     */
+    private CompletionStage<Optional<GameRoomDataMessage>> askGameRoomData(String gameRoomName, Deadline deadline) {
+        if (gameRoomName == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return PatternsCS.ask(shardRegion, GetSpecificGameRoomMessage.getMessage(gameRoomName, deadline),
+                deadline.timeLeftOr(GAME_ROOM_DATA_TIMEOUT))
+                .handle((data, error) -> {
+                    final Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof NoSuchElementException) {
+                        return Optional.empty();
+                    }
+                    if (error != null) {
+                        throw error instanceof CompletionException ?
+                                (CompletionException) error : new CompletionException(error);
+                    }
+                    return Optional.of((GameRoomDataMessage) data);
+                });
+    }
+
+    /**
+     * Returns the reply for a page of game rooms.
+     *
+     * @param gameRooms The game rooms that could be retrieved, ordered by name.
+     * @param missing   The amount of game rooms that did not reply in time.
+     * @return The {@link List} of game rooms, or a {@link PartialGameRoomsPageMessage} if some are missing.
+     */
+    private static Object pageReply(List<GameRoomDataMessage> gameRooms, int missing) {
+        return missing == 0 ? gameRooms : PartialGameRoomsPageMessage.getMessage(gameRooms, missing);
+    }
+
+    /**
+     * Returns the reply for a page of game rooms made of the given game rooms followed by the given {@code rest}
+     * (i.e the reply to the request of the game rooms following them).
+     *
+     * @param gameRooms The first game rooms of the page, ordered by name.
+     * @param missing   The amount of game rooms that did not reply in time among the first ones.
+     * @param rest      The reply with the rest of the page.
+     * @return The {@link List} of game rooms, or a {@link PartialGameRoomsPageMessage} if some are missing.
+     */
+    private static Object joinPages(List<GameRoomDataMessage> gameRooms, int missing, Object rest) {
+        if (rest instanceof PartialGameRoomsPageMessage) {
+            final PartialGameRoomsPageMessage partial = (PartialGameRoomsPageMessage) rest;
+            gameRooms.addAll(partial.getGameRooms());
+            return pageReply(gameRooms, missing + partial.getMissingShards());
+        }
+        for (Object gameRoom : (List<?>) rest) {
+            gameRooms.add((GameRoomDataMessage) gameRoom);
+        }
+        return pageReply(gameRooms, missing);
+    }
+
+    /**
+     * Returns the key of the game room names index in which the given {@code node} keeps the given
+     * {@code gameRoomName}.
+     *
+     * @param node         The {@link UniqueAddress} of the node hosting the game room.
+     * @param gameRoomName The name of the game room.
+     * @return The {@link Key}.
+     */
+    /* package */
+    static Key<ORSet<String>> namesKeyOf(UniqueAddress node, String gameRoomName) {
+        return namesKey(node, Math.floorMod(gameRoomName.hashCode(), AMOUNT_OF_NAMES_KEYS));
+    }
+
+    /**
+     * Returns the key of the game room names index of the given {@code node} with the given {@code index}.
+     * Keys are named after the node incarnation (i.e its address and uid), so keys deleted once a node is removed
+     * are never used again.
+     *
+     * @param node  The {@link UniqueAddress} of the node.
+     * @param index The index of the key.
+     * @return The {@link Key}.
+     */
+    private static Key<ORSet<String>> namesKey(UniqueAddress node, int index) {
+        return ORSetKey.create("game-room-names-" + node.address().hostPort() + "-" + node.longUid() + "-" + index);
+    }
+
+    /**
+     * Returns the key of the replicated clock of the given {@code node} (i.e the last tick of its
+     * {@link GameRoomVersionClock}, as a counter only incremented by the node).
+     *
+     * @param node The {@link UniqueAddress} of the node.
+     * @return The {@link Key}.
+     */
+    /* package */
+    static Key<GCounter> versionClockKeyOf(UniqueAddress node) {
+        return GCounterKey.create("game-room-version-clock-" + node.address().hostPort() + "-" + node.longUid());
+    }
+
+    /**
+     * Create {@link Props} for an {@link akka.actor.Actor} of this type.
+     *
+     * @return The created {@link Props}.
+     */
+    public static Props getProps() {
+        return Props.create(ClusteredGameRoomsManagerActor.class, ClusteredGameRoomsManagerActor::new);
+    }
+
+    /**
+     * Message sent by the manager to itself to take names from the index for a stream of game rooms
+     * (i.e from outside the actor, where the index can not be read).
+     */
+    private static final class GameRoomNamesMessage {
+
+        /**
+         * The name after which the names start, or {@code null} to start from the first one.
+         */
+        private final String after;
+
+        /**
+         * The max. amount of names.
+         */
+        private final int limit;
+
+        /**
+         * Private constructor.
+         *
+         * @param after The name after which the names start, or {@code null} to start from the first one.
+         * @param limit The max. amount of names.
+         */
+        private GameRoomNamesMessage(String after, int limit) {
+            this.after = after;
+            this.limit = limit;
+        }
+
+        /**
+         * Static method to create a {@link GameRoomNamesMessage}.
+         *
+         * @param after The name after which the names start, or {@code null} to start from the first one.
+         * @param limit The max. amount of names.
+         * @return The new {@link GameRoomNamesMessage}.
+         */
+        private static GameRoomNamesMessage getMessage(String after, int limit) {
+            return new GameRoomNamesMessage(after, limit);
+        }
+    }
+}
@@ -1,18 +1,42 @@
 package ar.edu.itba.tav.game_rooms.core;
 
 import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
 import akka.actor.Props;
+import akka.actor.ReceiveTimeout;
 import akka.japi.pf.ReceiveBuilder;
+import akka.pattern.PatternsCS;
 import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.*;
+import ar.edu.itba.tav.game_rooms.utils.Deadline;
+import scala.concurrent.duration.Duration;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * {@link akka.actor.Actor} in charge of representing a game room as an actor in the platform.
+ * When an idle timeout is set, the game room notifies its parent once it receives no messages for that period,
+ * so it can be passivated (i.e stopped, keeping its data in the parent until the next operation over it).
+ * Players added and removed are registered in the {@link PlayerDirectory} (if any). When a player can only be
+ * in one game room, the game room the player was in is asked to remove it (through the game rooms router),
+ * and the operation that added the player is replied once it did (so the player is never seen in both afterwards).
+ * Each change is published to the parent (i.e the new data of the game room),
+ * which keeps a view of its game rooms from which they are listed.
  */
 public class GameRoomActor extends AbstractActor {
 
+    /**
+     * The time (in milliseconds) to wait for a player to leave its previous game room,
+     * when the operation that made it join this game room has no deadline.
+     */
+    private static final long LEAVE_TIMEOUT = 5000;
+
     /**
      * The game room's name.
      */
@@ -24,54 +48,281 @@ public class GameRoomActor extends AbstractActor {
     private final int capacity;
 
     /**
-     * The players in this game room.
+     * The ids of the players in this game room, in ascending order (i.e membership is checked by binary search).
+     * The array is replaced (and never modified) on each change, so it is shared with the snapshots handed out.
+     */
+    private long[] sortedPlayers;
+
+    /**
+     * The game room's version, increased each time the game room state changes.
      */
-    private final Set<Long> players;
+    private long version;
 
+    /**
+     * The last {@link GameRoomDataMessage} taken from this game room.
+     * It is immutable, so it is handed out again while the game room {@link #version} does not change.
+     */
+    private GameRoomDataMessage lastSnapshot;
+
+    /**
+     * The time (in milliseconds) without messages after which this game room is idle,
+     * or a non-positive value if it must never be considered idle.
+     */
+    private final long idleTimeout;
+
+    /**
+     * The {@link PlayerDirectory} in which the players of this game room are registered,
+     * or {@code null} if players are not registered.
+     */
+    private final PlayerDirectory playerDirectory;
+
+    /**
+     * The {@link ActorRef} that routes game room messages by name to the manager holding the game room
+     * (i.e the sharded manager), through which players are asked to leave their previous game room.
+     */
+    private final ActorRef gameRoomsRouter;
+
+    /**
+     * Indicates whether this game room was passivated (i.e its players are now held by its parent).
+     */
+    private boolean passivated;
 
     /**
      * Constructor.
      *
-     * @param gameRoomName The game room's name.
-     * @param capacity     The game room's capacity.
+     * @param gameRoomName    The game room's name.
+     * @param capacity        The game room's capacity.
+     * @param initialVersion  The game room's initial version.
+     * @param idleTimeout     The time (in milliseconds) without messages after which this game room is idle,
+     *                        or a non-positive value if it must never be considered idle.
+     * @param playerDirectory The {@link PlayerDirectory} in which the players are registered (or {@code null}).
+     * @param gameRoomsRouter The {@link ActorRef} that routes game room messages by name to their manager.
      */
-    private GameRoomActor(String gameRoomName, int capacity) {
+    private GameRoomActor(String gameRoomName, int capacity, long initialVersion, long idleTimeout,
+                          PlayerDirectory playerDirectory, ActorRef gameRoomsRouter) {
         this.gameRoomName = gameRoomName;
         this.capacity = capacity;
-        this.players = new HashSet<>();
+        this.sortedPlayers = new long[0];
+        this.version = initialVersion;
+        this.lastSnapshot = null;
+        this.idleTimeout = idleTimeout;
+        this.playerDirectory = playerDirectory;
+        this.gameRoomsRouter = gameRoomsRouter;
+        this.passivated = false;
+    }
+
+    /**
+     * Constructor for a game room that is started again after being passivated.
+     *
+     * @param dormant         The {@link GameRoomDataMessage} with the game room data when it was passivated.
+     * @param idleTimeout     The time (in milliseconds) without messages after which this game room is idle,
+     *                        or a non-positive value if it must never be considered idle.
+     * @param playerDirectory The {@link PlayerDirectory} in which the players are registered (or {@code null}).
+     * @param gameRoomsRouter The {@link ActorRef} that routes game room messages by name to their manager.
+     */
+    private GameRoomActor(GameRoomDataMessage dormant, long idleTimeout, PlayerDirectory playerDirectory,
+                          ActorRef gameRoomsRouter) {
+        this(dormant.getName(), dormant.getCapacity(), dormant.getVersion(), idleTimeout, playerDirectory,
+                gameRoomsRouter);
+        this.sortedPlayers = dormant.getPlayers();
+        this.lastSnapshot = dormant;
+    }
+
+    @Override
+    public void preStart() {
+        if (idleTimeout > 0) {
+            getContext().setReceiveTimeout(Duration.create(idleTimeout, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Override
+    public void postStop() {
+        // The players of a passivated game room are still in it (i.e in its dormant data)
+        if (playerDirectory != null && !passivated) {
+            for (long playerId : sortedPlayers) {
+                playerDirectory.leave(playerId, gameRoomName);
+            }
+        }
     }
 
     @Override
     public Receive createReceive() {
         return ReceiveBuilder.create()
+                .match(DeadlineMessage.class, msg -> msg.getDeadline().isOverdue(), msg -> {
+                })
                 .match(GetGameRoomDataMessage.class, msg -> this.reportData())
-                .match(AddPlayerMessage.class, msg -> this.addPlayer(msg.getPlayerId()))
+                .match(GetSpecificGameRoomMessage.class, msg -> this.reportOptionalData())
+                .match(AddPlayerMessage.class, msg -> this.addPlayer(msg.getPlayerId(), msg.getDeadline()))
                 .match(RemovePlayerMessage.class, msg -> this.removePlayer(msg.getPlayerId()))
+                .match(AddPlayersMessage.class, msg -> this.addPlayers(msg.getPlayerIds(), msg.getDeadline()))
+                .match(RemovePlayersMessage.class, msg -> this.removePlayers(msg.getPlayerIds()))
+                .match(LeaveGameRoomMessage.class, msg -> this.leave(msg.getPlayerId()))
+                .match(ReceiveTimeout.class, msg -> this.notifyIdle())
+                .match(PassivateGameRoomMessage.class, msg -> this.passivate())
                 .build();
     }
 
+    /**
+     * {@link Receive} used once this game room was passivated (i.e its data was handed to its parent).
+     * Data requests are still replied (the data does not change anymore),
+     * while operations that reach this game room late are sent back to the parent (i.e the game rooms manager),
+     * which performs them over the passivated data.
+     * The game room stops once it receives no messages for the idle timeout period.
+     *
+     * @return The {@link Receive}.
+     */
+    private Receive passivated() {
+        return ReceiveBuilder.create()
+                .match(GetGameRoomDataMessage.class, msg -> this.reportData())
+                .match(GetSpecificGameRoomMessage.class, msg -> this.reportOptionalData())
+                .match(GameRoomMessage.class, msg -> getContext().getParent().forward(msg, getContext()))
+                .match(ReceiveTimeout.class, msg -> getContext().stop(getSelf()))
+                .build();
+    }
+
+    /**
+     * Notifies the parent that this game room is idle.
+     */
+    private void notifyIdle() {
+        getContext().getParent().tell(GameRoomIdleMessage.getMessage(gameRoomName), getSelf());
+    }
+
+    /**
+     * Passivates this game room, replying its data to the sender (i.e the game rooms manager).
+     */
+    private void passivate() {
+        getSender().tell(snapshot(), getSelf());
+        this.passivated = true;
+        getContext().become(passivated());
+    }
+
     /**
      * Sends this game room data to the sender.
      */
     private void reportData() {
-        getSender().tell(new GameRoomDataMessage(gameRoomName, capacity, players), this.getSelf());
+        getSender().tell(snapshot(), this.getSelf());
+    }
+
+    /**
+     * Sends this game room data to the sender, wrapped in an {@link Optional}
+     * (i.e replies a {@link GetSpecificGameRoomMessage} forwarded by the game rooms manager).
+     */
+    private void reportOptionalData() {
+        getSender().tell(Optional.of(snapshot()), getSelf());
+    }
+
+    /**
+     * Returns a {@link GameRoomDataMessage} with the current data of this game room.
+     * The players are not copied (nor sorted), as {@link #sortedPlayers} is kept sorted and replaced on each change,
+     * so the message can be shared by any amount of readers.
+     *
+     * @return The {@link GameRoomDataMessage}.
+     */
+    private GameRoomDataMessage snapshot() {
+        if (lastSnapshot == null || lastSnapshot.getVersion() != version) {
+            lastSnapshot = new GameRoomDataMessage(gameRoomName, capacity, sortedPlayers, version);
+        }
+        return lastSnapshot;
+    }
+
+    /**
+     * Increments the version of this game room, as its state changed, and publishes its new data to the parent.
+     * It is published before replying the operation, so it reaches the parent before any later request does.
+     */
+    private void publishChange() {
+        this.version++;
+        getContext().getParent().tell(GameRoomUpdatedMessage.getMessage(snapshot()), getSelf());
+    }
+
+    /**
+     * Indicates whether the player with the given {@code playerId} is in this game room.
+     *
+     * @param playerId The id of the player.
+     * @return {@code true} if the player is in this game room, or {@code false} otherwise.
+     */
+    private boolean contains(long playerId) {
+        return Arrays.binarySearch(sortedPlayers, playerId) >= 0;
+    }
+
+    /**
+     * Returns a new array with the players of the given {@code sortedPlayers} and the given {@code added} ones,
+     * in ascending order (i.e both are merged with a single copy, without sorting all the players again).
+     *
+     * @param sortedPlayers The ids of the players in the game room, in ascending order.
+     * @param added         The ids of the players added (not in {@code sortedPlayers}), in ascending order.
+     * @return The new array.
+     */
+    private static long[] withPlayers(long[] sortedPlayers, long[] added) {
+        final long[] merged = new long[sortedPlayers.length + added.length];
+        int from = 0;
+        int to = 0;
+        for (long playerId : added) {
+            final int position = -Arrays.binarySearch(sortedPlayers, from, sortedPlayers.length, playerId) - 1;
+            System.arraycopy(sortedPlayers, from, merged, to, position - from);
+            to += position - from;
+            merged[to++] = playerId;
+            from = position;
+        }
+        System.arraycopy(sortedPlayers, from, merged, to, sortedPlayers.length - from);
+        return merged;
+    }
+
+    /**
+     * Returns a new array with the players of the given {@code sortedPlayers} but the given one, in ascending order.
+     *
+     * @param sortedPlayers The ids of the players in the game room, in ascending order.
+     * @param playerId      The id of the player removed (in {@code sortedPlayers}).
+     * @return The new array.
+     */
+    private static long[] withoutPlayer(long[] sortedPlayers, long playerId) {
+        final int position = Arrays.binarySearch(sortedPlayers, playerId);
+        final long[] retained = new long[sortedPlayers.length - 1];
+        System.arraycopy(sortedPlayers, 0, retained, 0, position);
+        System.arraycopy(sortedPlayers, position + 1, retained, position, retained.length - position);
+        return retained;
+    }
+
+    /**
+     * Returns a new array with the players of the given {@code sortedPlayers} that are still in the game room,
+     * in ascending order.
+     *
+     * @param sortedPlayers The ids of the players that were in the game room, in ascending order.
+     * @param removed       The ids of the players removed from the game room (all of them in {@code sortedPlayers}).
+     * @return The new array.
+     */
+    private static long[] withoutPlayers(long[] sortedPlayers, Set<Long> removed) {
+        final long[] retained = new long[sortedPlayers.length - removed.size()];
+        int to = 0;
+        for (long playerId : sortedPlayers) {
+            if (!removed.contains(playerId)) {
+                retained[to++] = playerId;
+            }
+        }
+        return retained;
     }
 
     /**
      * Adds a player with the given {@code playerId} into the game room.
      *
      * @param playerId The id of the player being added.
+     * @param deadline The {@link Deadline} of the operation (i.e until which its previous game room is waited).
      */
-    private void addPlayer(long playerId) {
-        if (this.players.size() == this.capacity && !this.players.contains(playerId)) {
+    private void addPlayer(long playerId, Deadline deadline) {
+        final boolean alreadyIn = contains(playerId);
+        if (this.sortedPlayers.length == this.capacity && !alreadyIn) {
             getSender().tell(PlayerOperationResult.FULL_GAME_ROOM, getSelf());
             return;
         }
-        // In case players.size != capacity, and the set already contains the id,
-        // The following call will not affect, as it can't hold repeated elements.
-        // It will just ignore it.
-        this.players.add(playerId);
-        getSender().tell(PlayerOperationResult.SUCCESSFUL, getSelf());
+        // A player that is already in the game room is not added again (and the version does not change)
+        final List<CompletableFuture<Object>> leaves = new ArrayList<>(1);
+        if (!alreadyIn) {
+            this.sortedPlayers = withPlayers(sortedPlayers, new long[]{playerId});
+            publishChange();
+            registerJoin(playerId, deadline, leaves);
+        } else if (isLeaving(playerId)) {
+            registerJoin(playerId, deadline, leaves);
+        }
+        replyAfter(leaves, PlayerOperationResult.SUCCESSFUL);
     }
 
     /**
@@ -81,22 +332,210 @@ public class GameRoomActor extends AbstractActor {
      * @param playerId The id of the player being removed.
      */
     private void removePlayer(long playerId) {
-        this.players.remove(playerId); // Nothing happens if the set does not contain the id. This is idempotent.
+        // Nothing happens if the player is not in the game room. This is idempotent.
+        if (contains(playerId)) {
+            this.sortedPlayers = withoutPlayer(sortedPlayers, playerId);
+            publishChange();
+            registerLeave(playerId);
+        }
         getSender().tell(PlayerOperationResult.SUCCESSFUL, getSelf());
     }
 
+    /**
+     * Removes the player with the given {@code playerId} from the game room, as it joined another game room
+     * (i.e the player directory does not register it in this game room anymore), replying once it is done.
+     * Nothing happens if the player joined this game room again in the meantime.
+     *
+     * @param playerId The id of the player leaving the game room.
+     */
+    private void leave(long playerId) {
+        if (playerDirectory != null && !playerDirectory.isIn(playerId, gameRoomName) && contains(playerId)) {
+            this.sortedPlayers = withoutPlayer(sortedPlayers, playerId);
+            publishChange();
+        }
+        getSender().tell(PlayerOperationResult.SUCCESSFUL, getSelf());
+    }
+
+    /**
+     * Adds the players with the given {@code playerIds} into the game room.
+     * This is an all-or-nothing operation: if the players that are not in the game room do not fit in it,
+     * none of them is added.
+     *
+     * @param playerIds The ids of the players being added.
+     * @param deadline  The {@link Deadline} of the operation (i.e until which their previous game rooms are waited).
+     */
+    private void addPlayers(List<Long> playerIds, Deadline deadline) {
+        final Set<Long> newPlayers = new HashSet<>();
+        for (Long playerId : playerIds) {
+            if (!contains(playerId)) {
+                newPlayers.add(playerId);
+            }
+        }
+        final List<PlayerResult> results = new ArrayList<>(playerIds.size());
+        if (this.sortedPlayers.length + newPlayers.size() > this.capacity) {
+            for (Long playerId : playerIds) {
+                results.add(newPlayers.contains(playerId) ? PlayerResult.REJECTED : PlayerResult.ALREADY_IN_GAME_ROOM);
+            }
+            getSender().tell(PlayersOperationResultMessage.getMessage(PlayerOperationResult.FULL_GAME_ROOM, results),
+                    getSelf());
+            return;
+        }
+        // The whole batch is a single change
+        if (!newPlayers.isEmpty()) {
+            final long[] added = new long[newPlayers.size()];
+            int i = 0;
+            for (Long playerId : newPlayers) {
+                added[i++] = playerId;
+            }
+            Arrays.sort(added);
+            this.sortedPlayers = withPlayers(sortedPlayers, added);
+            publishChange();
+        }
+        final List<CompletableFuture<Object>> leaves = new ArrayList<>();
+        for (Long playerId : playerIds) {
+            // A player repeated in the batch is only added once
+            if (newPlayers.remove(playerId)) {
+                results.add(PlayerResult.ADDED);
+                registerJoin(playerId, deadline, leaves);
+            } else {
+                results.add(PlayerResult.ALREADY_IN_GAME_ROOM);
+                if (isLeaving(playerId)) {
+                    registerJoin(playerId, deadline, leaves);
+                }
+            }
+        }
+        replyAfter(leaves, PlayersOperationResultMessage.getMessage(PlayerOperationResult.SUCCESSFUL, results));
+    }
+
+    /**
+     * Removes the players with the given {@code playerIds} from the game room.
+     * This is an idempotent action.
+     *
+     * @param playerIds The ids of the players being removed.
+     */
+    private void removePlayers(List<Long> playerIds) {
+        final List<PlayerResult> results = new ArrayList<>(playerIds.size());
+        final Set<Long> removed = new HashSet<>();
+        for (Long playerId : playerIds) {
+            // A player repeated in the batch is only removed once
+            if (contains(playerId) && removed.add(playerId)) {
+                results.add(PlayerResult.REMOVED);
+                registerLeave(playerId);
+            } else {
+                results.add(PlayerResult.NOT_IN_GAME_ROOM);
+            }
+        }
+        if (!removed.isEmpty()) {
+            this.sortedPlayers = withoutPlayers(sortedPlayers, removed);
+            publishChange();
+        }
+        getSender().tell(PlayersOperationResultMessage.getMessage(PlayerOperationResult.SUCCESSFUL, results),
+                getSelf());
+    }
+
+    /**
+     * Registers in the player directory that the player with the given {@code playerId} joined this game room.
+     * If the player must leave the game room it was in, a {@link LeaveGameRoomMessage} is sent to it
+     * (through the game rooms router), adding to the given {@code leaves} the wait for its reply.
+     *
+     * @param playerId The id of the player that joined this game room.
+     * @param deadline The {@link Deadline} of the operation (i.e until which the previous game room is waited).
+     * @param leaves   The {@link List} to which the wait for the previous game room is added.
+     */
+    private void registerJoin(long playerId, Deadline deadline, List<CompletableFuture<Object>> leaves) {
+        if (playerDirectory == null) {
+            return;
+        }
+        final String previousGameRoom = playerDirectory.join(playerId, gameRoomName);
+        if (previousGameRoom != null) {
+            leaves.add(PatternsCS.ask(gameRoomsRouter, LeaveGameRoomMessage.getMessage(previousGameRoom, playerId),
+                    deadline.timeLeftOr(LEAVE_TIMEOUT)).toCompletableFuture());
+        }
+    }
+
+    /**
+     * Indicates whether the player with the given {@code playerId}, which is in this game room, is leaving it
+     * (i.e in single game room mode, the player joined another game room, and the {@link LeaveGameRoomMessage}
+     * that will remove it from this one is still pending). A player that joins this game room again while leaving it
+     * must be registered in it again, so the pending leave does not remove it.
+     *
+     * @param playerId The id of the player, which is in this game room.
+     * @return {@code true} if the player is leaving this game room, or {@code false} otherwise.
+     */
+    private boolean isLeaving(long playerId) {
+        return playerDirectory != null && playerDirectory.isSingleGameRoom()
+                && !playerDirectory.isIn(playerId, gameRoomName);
+    }
+
+    /**
+     * Replies the given {@code result} to the sender once the given {@code leaves} are done
+     * (i.e once the players that joined this game room left their previous one), or right away if there are none.
+     * The result is replied even if a previous game room did not reply in time (it will still remove the player).
+     *
+     * @param leaves The waits for the previous game rooms of the players that joined this game room.
+     * @param result The result of the operation.
+     */
+    private void replyAfter(List<CompletableFuture<Object>> leaves, Object result) {
+        if (leaves.isEmpty()) {
+            getSender().tell(result, getSelf());
+            return;
+        }
+        PatternsCS.pipe(CompletableFuture.allOf(leaves.toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, failure) -> result), getContext().dispatcher())
+                .to(getSender(), getSelf());
+    }
+
+    /**
+     * Registers in the player directory that the player with the given {@code playerId} left this game room.
+     *
+     * @param playerId The id of the player that left this game room.
+     */
+    private void registerLeave(long playerId) {
+        if (playerDirectory != null) {
+            playerDirectory.leave(playerId, gameRoomName);
+        }
+    }
+
     /**
      * Create {@link Props} for an {@link akka.actor.Actor} of this type.
      *
-     * @param gameRoomName The name of the game room the {@link GameRoomActor} will contain.
+     * @param gameRoomName    The name of the game room the {@link GameRoomActor} will contain.
+     * @param capacity        The game room's capacity.
+     * @param initialVersion  The game room's initial version.
+     * @param idleTimeout     The time (in milliseconds) without messages after which the game room is idle,
+     *                        or a non-positive value if it must never be considered idle.
+     * @param playerDirectory The {@link PlayerDirectory} in which the players are registered,
+     *                        or {@code null} if players must not be registered.
+     * @param gameRoomsRouter The {@link ActorRef} that routes game room messages by name to their manager.
      * @return The created {@link Props}.
      * @throws IllegalArgumentException If there are invalid arguments.
      */
     /* package */
-    static Props props(String gameRoomName, int capacity) throws IllegalArgumentException {
+    static Props props(String gameRoomName, int capacity, long initialVersion, long idleTimeout,
+                       PlayerDirectory playerDirectory, ActorRef gameRoomsRouter) throws IllegalArgumentException {
         if (gameRoomName == null || capacity <= 0) {
             throw new IllegalArgumentException("Wrong params");
         }
-        return Props.create(GameRoomActor.class, () -> new GameRoomActor(gameRoomName, capacity));
+        return Props.create(GameRoomActor.class, () -> new GameRoomActor(gameRoomName, capacity, initialVersion,
+                idleTimeout, playerDirectory, gameRoomsRouter));
+    }
+
+    /**
+     * Create {@link Props} for an {@link akka.actor.Actor} of this type,
+     * that starts again a game room that was passivated.
+     *
+     * @param dormant         The {@link GameRoomDataMessage} with the game room data when it was passivated.
+     * @param idleTimeout     The time (in milliseconds) without messages after which the game room is idle,
+     *                        or a non-positive value if it must never be considered idle.
+     * @param playerDirectory The {@link PlayerDirectory} in which the players are registered,
+     *                        or {@code null} if players must not be registered.
+     * @param gameRoomsRouter The {@link ActorRef} that routes game room messages by name to their manager.
+     * @return The created {@link Props}.
+     */
+    /* package */
+    static Props props(GameRoomDataMessage dormant, long idleTimeout, PlayerDirectory playerDirectory,
+                       ActorRef gameRoomsRouter) {
+        return Props.create(GameRoomActor.class,
+                () -> new GameRoomActor(dormant, idleTimeout, playerDirectory, gameRoomsRouter));
     }
 }
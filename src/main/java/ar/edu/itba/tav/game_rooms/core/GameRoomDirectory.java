@@ -0,0 +1,59 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import akka.actor.ActorRef;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Directory of the existing game rooms, holding the {@link ActorRef} of the {@link GameRoomActor} of each of them,
+ * by game room name.
+ * It is published by the {@link GameRoomsManagerActor}s (which register a game room when it is created,
+ * and unregister it when it is stopped), and can be consulted from any thread,
+ * so operations over a specific game room can be sent directly to its actor.
+ */
+public final class GameRoomDirectory {
+
+    /**
+     * {@link Map} holding the {@link ActorRef} of each game room, by game room name.
+     */
+    private final Map<String, ActorRef> gameRoomActors;
+
+    /**
+     * Constructor.
+     */
+    public GameRoomDirectory() {
+        this.gameRoomActors = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Returns the {@link ActorRef} of the game room with the given {@code gameRoomName}.
+     *
+     * @param gameRoomName The name of the game room.
+     * @return The {@link ActorRef} of the game room, or empty if there is no such game room.
+     */
+    public Optional<ActorRef> lookup(String gameRoomName) {
+        return gameRoomName == null ? Optional.empty() : Optional.ofNullable(gameRoomActors.get(gameRoomName));
+    }
+
+    /**
+     * Registers the game room with the given {@code gameRoomName}.
+     *
+     * @param gameRoomName The name of the game room.
+     * @param actorRef     The {@link ActorRef} of the game room.
+     */
+    /* package */ void register(String gameRoomName, ActorRef actorRef) {
+        gameRoomActors.put(gameRoomName, actorRef);
+    }
+
+    /**
+     * Unregisters the game room with the given {@code gameRoomName}, if it is still represented by the given actor.
+     *
+     * @param gameRoomName The name of the game room.
+     * @param actorRef     The {@link ActorRef} of the game room.
+     */
+    /* package */ void unregister(String gameRoomName, ActorRef actorRef) {
+        gameRoomActors.remove(gameRoomName, actorRef);
+    }
+}
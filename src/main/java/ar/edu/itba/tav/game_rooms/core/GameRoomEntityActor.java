@@ -0,0 +1,271 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.PoisonPill;
+import akka.actor.Props;
+import akka.actor.Status;
+import akka.cluster.Cluster;
+import akka.cluster.ddata.DistributedData;
+import akka.cluster.ddata.GCounter;
+import akka.cluster.ddata.Key;
+import akka.cluster.ddata.ORSet;
+import akka.cluster.ddata.Replicator;
+import akka.cluster.sharding.ShardRegion;
+import akka.japi.pf.ReceiveBuilder;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.*;
+
+import java.util.NoSuchElementException;
+
+/**
+ * {@link akka.actor.Actor} representing a game room as a cluster sharding entity (i.e the entity id is the game room
+ * name). The entity is started by its shard when the first message for the game room arrives,
+ * and holds the game room in a child {@link GameRoomActor} once it is created.
+ * Messages for a game room that does not exist are replied as the {@link GameRoomsManagerActor} does,
+ * and the entity is then passivated, so only existing game rooms use memory.
+ * Created game rooms are published in the keys of this node in the game room names index
+ * of the {@link ClusteredGameRoomsManagerActor}.
+ * The entity keeps the data last published by its game room (i.e the view owned by the shard holding it),
+ * so game room retrievals are answered by the entity without reaching the game room.
+ */
+/* package */ class GameRoomEntityActor extends AbstractActor {
+
+    /**
+     * The {@link Cluster} in which this entity runs (i.e the node that updates the game room names index).
+     */
+    private final Cluster cluster;
+
+    /**
+     * The {@link ActorRef} of the distributed data replicator holding the game room names index.
+     */
+    private final ActorRef replicator;
+
+    /**
+     * The {@link GameRoomVersionClock} of this node, from which the initial version of the game room is taken.
+     */
+    private final GameRoomVersionClock versionClock;
+
+    /**
+     * The {@link ActorRef} of the {@link GameRoomActor} holding the game room,
+     * or {@code null} if the game room does not exist.
+     */
+    private ActorRef gameRoom;
+
+    /**
+     * The data last published by the game room, or {@code null} if the game room does not exist.
+     */
+    private GameRoomDataMessage gameRoomData;
+
+    /**
+     * Private constructor.
+     *
+     * @param versionClock The {@link GameRoomVersionClock} of this node.
+     */
+    private GameRoomEntityActor(GameRoomVersionClock versionClock) {
+        this.cluster = Cluster.get(getContext().getSystem());
+        this.replicator = DistributedData.get(getContext().getSystem()).replicator();
+        this.versionClock = versionClock;
+        this.gameRoom = null;
+        this.gameRoomData = null;
+    }
+
+    @Override
+    public Receive createReceive() {
+        return ReceiveBuilder.create()
+                .match(CreateGameRoomMessage.class, this::createGameRoom)
+                .match(RemoveGameRoomMessage.class, this::removeGameRoom)
+                .match(GetSpecificGameRoomMessage.class, this::reportData)
+                .match(GameRoomMessage.class, this::forwardToGameRoom)
+                .match(Replicator.UpdateResponse.class, response -> {
+                    // The index and the clock are updated with local consistency, so there is nothing to wait for
+                })
+                .match(GameRoomUpdatedMessage.class, this::updateGameRoomData)
+                .build();
+    }
+
+    /**
+     * {@link Receive} used once the passivation of this entity was requested.
+     * Messages that were delivered before the shard knew about the passivation are sent back to it,
+     * so they are delivered again to a new incarnation of this entity.
+     *
+     * @return The {@link Receive}.
+     */
+    private Receive passivating() {
+        return ReceiveBuilder.create()
+                .match(GameRoomMessage.class, msg -> getContext().getParent().forward(msg, getContext()))
+                .match(Replicator.UpdateResponse.class, response -> {
+                })
+                .match(GameRoomUpdatedMessage.class, msg -> {
+                })
+                .build();
+    }
+
+    /**
+     * Creates the game room (i.e starts its {@link GameRoomActor}), if it does not exist.
+     * Its initial version is taken from the next tick of the {@link GameRoomVersionClock} of this node,
+     * which is published so the other nodes keep their clocks ahead of it.
+     *
+     * @param msg The {@link CreateGameRoomMessage} containing data for game room creation.
+     */
+    private void createGameRoom(CreateGameRoomMessage msg) {
+        if (gameRoom != null) {
+            getSender().tell(GameRoomCreationResult.NAME_REPEATED, getSelf());
+            return;
+        }
+        final String gameRoomName = msg.getGameRoomName();
+        final long tick = versionClock.nextTick();
+        try {
+            final long initialVersion = GameRoomVersionClock.initialVersion(tick);
+            this.gameRoom = getContext()
+                    .actorOf(GameRoomActor.props(gameRoomName, msg.getCapacity(), initialVersion, 0, null, null),
+                            "game-room");
+            this.gameRoomData = new GameRoomDataMessage(gameRoomName, msg.getCapacity(), new long[0],
+                    initialVersion);
+        } catch (IllegalArgumentException e) {
+            getSender().tell(GameRoomCreationResult.INVALID, getSelf());
+            passivate();
+            return;
+        }
+        replicator.tell(new Replicator.Update<>(namesKeyOf(gameRoomName), ORSet.create(), Replicator.writeLocal(),
+                names -> names.add(cluster, gameRoomName)), getSelf());
+        replicator.tell(new Replicator.Update<>(
+                ClusteredGameRoomsManagerActor.versionClockKeyOf(cluster.selfUniqueAddress()), GCounter.create(),
+                Replicator.writeLocal(), clock -> advance(clock, tick)), getSelf());
+        getSender().tell(GameRoomCreationResult.CREATED, getSelf());
+    }
+
+    /**
+     * Removes the game room (i.e stops its {@link GameRoomActor}), and passivates this entity.
+     *
+     * @param msg The {@link RemoveGameRoomMessage} with the name of the game room to be removed.
+     */
+    private void removeGameRoom(RemoveGameRoomMessage msg) {
+        if (gameRoom == null) {
+            replyNoSuchGameRoom(msg);
+            return;
+        }
+        final String gameRoomName = msg.getGameRoomName();
+        replicator.tell(new Replicator.Update<>(namesKeyOf(gameRoomName), ORSet.create(), Replicator.writeLocal(),
+                names -> names.remove(cluster, gameRoomName)), getSelf());
+        getContext().stop(gameRoom);
+        this.gameRoom = null;
+        this.gameRoomData = null;
+        getSender().tell(GameRoomRemovalResult.REMOVED, getSelf());
+        passivate();
+    }
+
+    /**
+     * Replies with the data last published by the game room.
+     * It is published before the game room replies the operation that changed it,
+     * so a retrieval sent after an operation was replied sees its change.
+     * The data is not wrapped in an {@link java.util.Optional}, as the reply might be sent to another node.
+     *
+     * @param msg The {@link GetSpecificGameRoomMessage} requesting the game room data.
+     */
+    private void reportData(GetSpecificGameRoomMessage msg) {
+        if (gameRoom == null) {
+            replyNoSuchGameRoom(msg);
+            return;
+        }
+        getSender().tell(gameRoomData, getSelf());
+    }
+
+    /**
+     * Keeps the data published by the game room, if it still exists.
+     *
+     * @param msg The {@link GameRoomUpdatedMessage} with the new data of the game room.
+     */
+    private void updateGameRoomData(GameRoomUpdatedMessage msg) {
+        if (gameRoom != null && getSender().equals(gameRoom)) {
+            this.gameRoomData = msg.getData();
+        }
+    }
+
+    /**
+     * Forwards the given {@code msg} (i.e a player operation) to the game room.
+     *
+     * @param msg The {@link GameRoomMessage} to be forwarded.
+     */
+    private void forwardToGameRoom(GameRoomMessage msg) {
+        if (gameRoom == null) {
+            replyNoSuchGameRoom(msg);
+            return;
+        }
+        gameRoom.forward(msg, getContext());
+    }
+
+    /**
+     * Replies the sender that there is no such game room, and passivates this entity.
+     *
+     * @param msg The {@link GameRoomMessage} being replied.
+     */
+    private void replyNoSuchGameRoom(GameRoomMessage msg) {
+        getSender().tell(noSuchGameRoomReply(msg), getSelf());
+        passivate();
+    }
+
+    /**
+     * Advances the given replicated {@code clock} of this node up to the given {@code tick}, if it is behind it
+     * (i.e the counter is only incremented by this node, so its value is the last published tick).
+     *
+     * @param clock The {@link GCounter} holding the clock of this node.
+     * @param tick  The tick up to which the clock is advanced.
+     * @return The advanced {@link GCounter}.
+     */
+    private GCounter advance(GCounter clock, long tick) {
+        final long last = clock.getValue().longValue();
+        return last < tick ? clock.increment(cluster, tick - last) : clock;
+    }
+
+    /**
+     * Returns the key of the game room names index in which this node keeps the given {@code gameRoomName}.
+     *
+     * @param gameRoomName The name of the game room.
+     * @return The {@link Key}.
+     */
+    private Key<ORSet<String>> namesKeyOf(String gameRoomName) {
+        return ClusteredGameRoomsManagerActor.namesKeyOf(cluster.selfUniqueAddress(), gameRoomName);
+    }
+
+    /**
+     * Requests the shard to passivate this entity (i.e to stop it once it stops delivering messages to it).
+     */
+    private void passivate() {
+        getContext().getParent().tell(new ShardRegion.Passivate(PoisonPill.getInstance()), getSelf());
+        getContext().become(passivating());
+    }
+
+    /**
+     * Returns the reply for the given {@code msg} when there is no such game room.
+     *
+     * @param msg The {@link GameRoomMessage} being replied.
+     * @return The reply.
+     */
+    /* package */
+    static Object noSuchGameRoomReply(GameRoomMessage msg) {
+        if (msg instanceof CreateGameRoomMessage) {
+            return GameRoomCreationResult.INVALID; // Only reached with invalid names
+        }
+        if (msg instanceof RemoveGameRoomMessage) {
+            return GameRoomRemovalResult.NO_SUCH_GAME_ROOM;
+        }
+        if (msg instanceof AddPlayersMessage || msg instanceof RemovePlayersMessage) {
+            return PlayersOperationResultMessage.getMessage(PlayerOperationResult.NO_SUCH_GAME_ROOM);
+        }
+        if (msg instanceof GetSpecificGameRoomMessage) {
+            return new Status.Failure(new NoSuchElementException("No such game room"));
+        }
+        return PlayerOperationResult.NO_SUCH_GAME_ROOM;
+    }
+
+    /**
+     * Create {@link Props} for an {@link akka.actor.Actor} of this type.
+     *
+     * @param versionClock The {@link GameRoomVersionClock} of the node.
+     * @return The created {@link Props}.
+     */
+    /* package */
+    static Props getProps(GameRoomVersionClock versionClock) {
+        return Props.create(GameRoomEntityActor.class, () -> new GameRoomEntityActor(versionClock));
+    }
+}
@@ -0,0 +1,623 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * In-process game rooms engine, alternative to the actor per game room model
+ * (i.e {@link GameRoomsManagerActor} and {@link GameRoomActor}).
+ * Operations are performed by the calling thread, without blocking each other: game rooms are held in a concurrent map,
+ * and the capacity of each game room is accounted with compare-and-set operations.
+ * Only a read of a game room that keeps changing holds off the operations over it, while its players are copied.
+ * It has the same semantics as the actors engine (i.e same results for the same operations).
+ * The players of the game rooms are registered in a {@link PlayerDirectory}, from which players are removed
+ * when their game room is removed, and which tells which game room a player must leave when it joins another one
+ * (if a player can only be in one game room).
+ */
+public final class GameRoomStore {
+
+    /**
+     * A {@link ConcurrentNavigableMap} holding the game rooms, indexed (and ordered) by the game room name.
+     */
+    private final ConcurrentNavigableMap<String, StoredGameRoom> gameRooms;
+
+    /**
+     * The amount of game rooms created by this store.
+     * Used to give each game room an initial version that is greater than the versions of any other game room
+     * previously created with the same name (as the {@link GameRoomsManagerActor} does).
+     */
+    private final AtomicLong createdGameRooms;
+
+    /**
+     * The {@link PlayerDirectory} in which the players of the game rooms are registered.
+     */
+    private final PlayerDirectory playerDirectory;
+
+    /**
+     * Constructor.
+     *
+     * @param playerDirectory The {@link PlayerDirectory} in which the players of the game rooms are registered.
+     */
+    public GameRoomStore(PlayerDirectory playerDirectory) {
+        this.gameRooms = new ConcurrentSkipListMap<>();
+        this.createdGameRooms = new AtomicLong();
+        this.playerDirectory = playerDirectory;
+    }
+
+    /**
+     * @return {@code true} if a player can only be in one game room
+     * (i.e adding a player into a game room may remove it from another one), or {@code false} otherwise.
+     */
+    public boolean isSingleGameRoom() {
+        return playerDirectory.isSingleGameRoom();
+    }
+
+    /**
+     * Creates a new game room.
+     *
+     * @param gameRoomName The name of the game room.
+     * @param capacity     The capacity of the game room.
+     * @return The {@link GameRoomCreationResult}.
+     */
+    public GameRoomCreationResult createGameRoom(String gameRoomName, int capacity) {
+        if (gameRoomName == null || capacity <= 0) {
+            return GameRoomCreationResult.INVALID;
+        }
+        if (gameRooms.containsKey(gameRoomName)) {
+            return GameRoomCreationResult.NAME_REPEATED;
+        }
+        final long initialVersion = createdGameRooms.getAndIncrement() << 32;
+        return gameRooms.putIfAbsent(gameRoomName, new StoredGameRoom(gameRoomName, capacity, initialVersion)) == null ?
+                GameRoomCreationResult.CREATED : GameRoomCreationResult.NAME_REPEATED;
+    }
+
+    /**
+     * Removes a game room.
+     *
+     * @param gameRoomName The name of the game room.
+     * @return The {@link GameRoomRemovalResult}.
+     */
+    public GameRoomRemovalResult removeGameRoom(String gameRoomName) {
+        final StoredGameRoom gameRoom = gameRoomName == null ? null : gameRooms.remove(gameRoomName);
+        if (gameRoom == null) {
+            return GameRoomRemovalResult.NO_SUCH_GAME_ROOM;
+        }
+        // Players being added concurrently check the flag after registering themselves (see registerJoin)
+        gameRoom.removed = true;
+        for (Long playerId : gameRoom.players) {
+            playerDirectory.leave(playerId, gameRoomName);
+        }
+        return GameRoomRemovalResult.REMOVED;
+    }
+
+    /**
+     * Returns the data of a game room.
+     *
+     * @param gameRoomName The name of the game room.
+     * @return The {@link GameRoomDataMessage} with the game room data, or empty if there is no such game room.
+     */
+    public Optional<GameRoomDataMessage> getGameRoom(String gameRoomName) {
+        return lookup(gameRoomName).map(StoredGameRoom::snapshot);
+    }
+
+    /**
+     * Returns the data of the game rooms in the given page, ordered by game room name.
+     *
+     * @param after The name of the game room after which the page starts,
+     *              or {@code null} to start from the first one.
+     * @param limit The max. amount of game rooms in the page.
+     * @return A {@link List} with the {@link GameRoomDataMessage} of the game rooms in the page.
+     */
+    public List<GameRoomDataMessage> getGameRooms(String after, int limit) {
+        final List<GameRoomDataMessage> page = new ArrayList<>();
+        final Iterator<StoredGameRoom> iterator = candidates(after).iterator();
+        while (iterator.hasNext() && page.size() < limit) {
+            page.add(iterator.next().snapshot());
+        }
+        return page;
+    }
+
+    /**
+     * Returns a {@link Source} that streams the data of the game rooms in the given page, ordered by game room name.
+     * Each game room data is taken when the stream demands it.
+     *
+     * @param after The name of the game room after which the page starts,
+     *              or {@code null} to start from the first one.
+     * @param limit The max. amount of game rooms in the page.
+     * @return The {@link Source} of {@link GameRoomDataMessage}.
+     */
+    public Source<GameRoomDataMessage, NotUsed> getGameRoomsSource(String after, int limit) {
+        return Source.from(candidates(after)).take(limit).map(StoredGameRoom::snapshot);
+    }
+
+    /**
+     * Returns the names of the game rooms in which a player is.
+     *
+     * @param playerId The id of the player.
+     * @return A {@link List} with the names of the game rooms, ordered by name (empty if the player is in none).
+     */
+    public List<String> getPlayerGameRooms(long playerId) {
+        return playerDirectory.lookup(playerId);
+    }
+
+    /**
+     * Adds a player into a game room.
+     *
+     * @param gameRoomName The name of the game room.
+     * @param playerId     The id of the player being added.
+     * @return The {@link PlayerOperationResult}.
+     */
+    public PlayerOperationResult addPlayer(String gameRoomName, long playerId) {
+        return lookup(gameRoomName)
+                .map(gameRoom -> addPlayer(gameRoom, playerId))
+                .orElse(PlayerOperationResult.NO_SUCH_GAME_ROOM);
+    }
+
+    /**
+     * Removes a player from a game room. This is an idempotent action.
+     *
+     * @param gameRoomName The name of the game room.
+     * @param playerId     The id of the player being removed.
+     * @return The {@link PlayerOperationResult}.
+     */
+    public PlayerOperationResult removePlayer(String gameRoomName, long playerId) {
+        return lookup(gameRoomName)
+                .map(gameRoom -> {
+                    if (gameRoom.removePlayer(playerId)) {
+                        playerDirectory.leave(playerId, gameRoomName);
+                    }
+                    return PlayerOperationResult.SUCCESSFUL;
+                })
+                .orElse(PlayerOperationResult.NO_SUCH_GAME_ROOM);
+    }
+
+    /**
+     * Adds a batch of players into a game room.
+     * This is an all-or-nothing operation: if the players that are not in the game room do not fit in it,
+     * none of them is added.
+     *
+     * @param gameRoomName The name of the game room.
+     * @param playerIds    The ids of the players being added.
+     * @return The {@link PlayersOperationResultMessage}.
+     */
+    public PlayersOperationResultMessage addPlayers(String gameRoomName, List<Long> playerIds) {
+        return lookup(gameRoomName)
+                .map(gameRoom -> {
+                    final PlayersOperationResultMessage result = gameRoom.addPlayers(playerIds);
+                    for (int i = 0; i < playerIds.size(); i++) {
+                        final PlayerResult playerResult = result.getPlayerResults().get(i);
+                        if (playerResult == PlayerResult.ADDED || playerResult == PlayerResult.ALREADY_IN_GAME_ROOM
+                                && isLeaving(gameRoom, playerIds.get(i))) {
+                            join(gameRoom, playerIds.get(i));
+                        }
+                    }
+                    return result;
+                })
+                .orElse(PlayersOperationResultMessage.getMessage(PlayerOperationResult.NO_SUCH_GAME_ROOM));
+    }
+
+    /**
+     * Removes a batch of players from a game room. This is an idempotent action.
+     *
+     * @param gameRoomName The name of the game room.
+     * @param playerIds    The ids of the players being removed.
+     * @return The {@link PlayersOperationResultMessage}.
+     */
+    public PlayersOperationResultMessage removePlayers(String gameRoomName, List<Long> playerIds) {
+        return lookup(gameRoomName)
+                .map(gameRoom -> {
+                    final PlayersOperationResultMessage result = gameRoom.removePlayers(playerIds);
+                    for (int i = 0; i < playerIds.size(); i++) {
+                        if (result.getPlayerResults().get(i) == PlayerResult.REMOVED) {
+                            playerDirectory.leave(playerIds.get(i), gameRoomName);
+                        }
+                    }
+                    return result;
+                })
+                .orElse(PlayersOperationResultMessage.getMessage(PlayerOperationResult.NO_SUCH_GAME_ROOM));
+    }
+
+    /**
+     * Adds a player into the given game room, registering it in the {@link PlayerDirectory}
+     * (even if it was already in the game room, as it might be leaving it, see {@link #join}).
+     *
+     * @param gameRoom The {@link StoredGameRoom}.
+     * @param playerId The id of the player being added.
+     * @return The {@link PlayerOperationResult}.
+     */
+    private PlayerOperationResult addPlayer(StoredGameRoom gameRoom, long playerId) {
+        final PlayerOperationResult result = gameRoom.addPlayer(playerId);
+        return result == PlayerOperationResult.SUCCESSFUL ? join(gameRoom, playerId) : result;
+    }
+
+    /**
+     * Registers in the {@link PlayerDirectory} that a player, which was added into the given game room, joined it.
+     * In single game room mode, the player might have been leaving the game room
+     * (i.e another thread is removing it, as the player joined another game room before).
+     * Once the player is registered, that thread no longer removes it, but it might have done it already,
+     * in which case the player is added again.
+     *
+     * @param gameRoom The {@link StoredGameRoom} the player joined.
+     * @param playerId The id of the player.
+     * @return The {@link PlayerOperationResult}.
+     */
+    private PlayerOperationResult join(StoredGameRoom gameRoom, long playerId) {
+        registerJoin(gameRoom, playerId);
+        if (!playerDirectory.isSingleGameRoom() || gameRoom.removed || gameRoom.players.contains(playerId)) {
+            return PlayerOperationResult.SUCCESSFUL;
+        }
+        return addPlayer(gameRoom, playerId);
+    }
+
+    /**
+     * Indicates whether a player, which is in the given game room, is leaving it
+     * (i.e in single game room mode, the player joined another game room, and it was not removed from this one yet).
+     *
+     * @param gameRoom The {@link StoredGameRoom}.
+     * @param playerId The id of the player, which is in the game room.
+     * @return {@code true} if the player is leaving the game room, or {@code false} otherwise.
+     */
+    private boolean isLeaving(StoredGameRoom gameRoom, long playerId) {
+        return playerDirectory.isSingleGameRoom() && !playerDirectory.isIn(playerId, gameRoom.name);
+    }
+
+    /**
+     * Registers in the {@link PlayerDirectory} that a player joined the given game room,
+     * removing it from its previous game room if it can only be in one.
+     *
+     * @param gameRoom The {@link StoredGameRoom} the player joined.
+     * @param playerId The id of the player.
+     */
+    private void registerJoin(StoredGameRoom gameRoom, long playerId) {
+        final String previous = playerDirectory.join(playerId, gameRoom.name);
+        if (gameRoom.removed) {
+            playerDirectory.leave(playerId, gameRoom.name); // Removed while the player was being added
+        }
+        if (previous != null) {
+            lookup(previous).ifPresent(previousGameRoom -> previousGameRoom.leave(playerId, playerDirectory));
+        }
+    }
+
+    /**
+     * Returns the game room with the given {@code gameRoomName}.
+     *
+     * @param gameRoomName The name of the game room.
+     * @return The {@link StoredGameRoom}, or empty if there is no such game room.
+     */
+    private Optional<StoredGameRoom> lookup(String gameRoomName) {
+        return gameRoomName == null ? Optional.empty() : Optional.ofNullable(gameRooms.get(gameRoomName));
+    }
+
+    /**
+     * Returns the game rooms after the given {@code after} name, ordered by name.
+     *
+     * @param after The name of the game room after which the game rooms are returned,
+     *              or {@code null} to return all of them.
+     * @return A (weakly consistent) {@link Collection} view of the game rooms.
+     */
+    private Collection<StoredGameRoom> candidates(String after) {
+        return after == null ? gameRooms.values() : gameRooms.tailMap(after, false).values();
+    }
+
+    /**
+     * A game room held by the {@link GameRoomStore}.
+     */
+    private static final class StoredGameRoom {
+
+        /**
+         * The amount of times a snapshot is attempted without holding off the operations over the game room.
+         */
+        private static final int OPTIMISTIC_SNAPSHOT_ATTEMPTS = 16;
+
+        /**
+         * The game room's name.
+         */
+        private final String name;
+
+        /**
+         * The game room's capacity.
+         */
+        private final int capacity;
+
+        /**
+         * The players in this game room.
+         */
+        private final Set<Long> players;
+
+        /**
+         * The amount of reserved places in the game room (i.e players in it, and players being added).
+         * Players are added only after reserving their place with a compare-and-set,
+         * so the capacity is never exceeded.
+         */
+        private final AtomicInteger reserved;
+
+        /**
+         * The game room's version, increased each time the game room state changes
+         * (once the change is done, and before the operation releases the {@link #changes} lock).
+         */
+        private final AtomicLong version;
+
+        /**
+         * Lock held (in shared mode) by the operations changing the {@link #players}, so they never block each other.
+         * Together with the {@link #version} it works as a sequence lock for multiple writers:
+         * a snapshot taken while no operation was in progress, and with no version change, is consistent.
+         * A snapshot that can not be taken that way after a few attempts (i.e the game room changes all the time)
+         * holds the lock in exclusive mode while copying the players, so readers never spin for long.
+         */
+        private final StampedLock changes;
+
+        /**
+         * The last {@link GameRoomDataMessage} taken from this game room (or {@code null} if none was taken yet),
+         * handed out again while the {@link #version} does not change.
+         */
+        private volatile GameRoomDataMessage lastSnapshot;
+
+        /**
+         * Indicates whether this game room was removed from the store.
+         */
+        private volatile boolean removed;
+
+        /**
+         * Private constructor.
+         *
+         * @param name           The game room's name.
+         * @param capacity       The game room's capacity.
+         * @param initialVersion The game room's initial version.
+         */
+        private StoredGameRoom(String name, int capacity, long initialVersion) {
+            this.name = name;
+            this.capacity = capacity;
+            this.players = ConcurrentHashMap.newKeySet();
+            this.reserved = new AtomicInteger();
+            this.version = new AtomicLong(initialVersion);
+            this.changes = new StampedLock();
+            this.lastSnapshot = null;
+            this.removed = false;
+        }
+
+        /**
+         * Returns a {@link GameRoomDataMessage} with the current data of this game room.
+         * The last one is reused if the version did not change.
+         * Otherwise, the players are copied while no operation is changing them,
+         * retrying if an operation started or finished meanwhile, so a version is never paired with other players.
+         * After {@link #OPTIMISTIC_SNAPSHOT_ATTEMPTS} attempts, the operations are held off while copying the players.
+         *
+         * @return The {@link GameRoomDataMessage}.
+         */
+        private GameRoomDataMessage snapshot() {
+            for (int attempt = 0; attempt < OPTIMISTIC_SNAPSHOT_ATTEMPTS; attempt++) {
+                final long currentVersion = version.get();
+                final GameRoomDataMessage last = lastSnapshot;
+                if (last != null && last.getVersion() == currentVersion) {
+                    return last;
+                }
+                if (!changes.isReadLocked()) {
+                    final long[] playerIds = sortedPlayers();
+                    // Writers are checked before the version, as they bump it before releasing the lock
+                    if (!changes.isReadLocked() && version.get() == currentVersion) {
+                        return cache(new GameRoomDataMessage(name, capacity, playerIds, currentVersion));
+                    }
+                }
+                Thread.yield();
+            }
+            final long stamp = changes.writeLock();
+            try {
+                final long currentVersion = version.get();
+                final GameRoomDataMessage last = lastSnapshot;
+                if (last != null && last.getVersion() == currentVersion) {
+                    return last;
+                }
+                return cache(new GameRoomDataMessage(name, capacity, sortedPlayers(), currentVersion));
+            } finally {
+                changes.unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * @return The ids of the players in this game room, in ascending order.
+         */
+        private long[] sortedPlayers() {
+            return players.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+
+        /**
+         * Keeps the given {@code snapshot} as the last one taken from this game room.
+         *
+         * @param snapshot The {@link GameRoomDataMessage}.
+         * @return The given {@code snapshot}.
+         */
+        private GameRoomDataMessage cache(GameRoomDataMessage snapshot) {
+            lastSnapshot = snapshot;
+            return snapshot;
+        }
+
+        /**
+         * Adds a player into this game room.
+         *
+         * @param playerId The id of the player being added.
+         * @return The {@link PlayerOperationResult}.
+         */
+        private PlayerOperationResult addPlayer(long playerId) {
+            if (players.contains(playerId)) {
+                return PlayerOperationResult.SUCCESSFUL;
+            }
+            if (!reserve(1)) {
+                // The player might have been added again meanwhile (see leave)
+                return players.contains(playerId) ?
+                        PlayerOperationResult.SUCCESSFUL : PlayerOperationResult.FULL_GAME_ROOM;
+            }
+            final long stamp = changes.readLock();
+            try {
+                if (players.add(playerId)) {
+                    version.incrementAndGet();
+                } else {
+                    reserved.decrementAndGet(); // Added concurrently by another operation
+                }
+            } finally {
+                changes.unlockRead(stamp);
+            }
+            return PlayerOperationResult.SUCCESSFUL;
+        }
+
+        /**
+         * Removes a player from this game room.
+         *
+         * @param playerId The id of the player being removed.
+         * @return {@code true} if the player was in this game room, or {@code false} otherwise.
+         */
+        private boolean removePlayer(long playerId) {
+            final long stamp = changes.readLock();
+            try {
+                if (!players.remove(playerId)) {
+                    return false;
+                }
+                version.incrementAndGet();
+            } finally {
+                changes.unlockRead(stamp);
+            }
+            reserved.decrementAndGet();
+            return true;
+        }
+
+        /**
+         * Removes a player from this game room, as it joined another one
+         * (i.e the given {@link PlayerDirectory} does not register it in this game room anymore).
+         * Nothing happens if the player joined this game room again in the meantime:
+         * the directory is checked again once the player is removed (while the change is still in progress),
+         * so a player that joins again is either seen here, and kept, or finds itself removed, and is added again.
+         *
+         * @param playerId        The id of the player leaving this game room.
+         * @param playerDirectory The {@link PlayerDirectory} in which the players are registered.
+         */
+        private void leave(long playerId, PlayerDirectory playerDirectory) {
+            if (playerDirectory.isIn(playerId, name)) {
+                return;
+            }
+            boolean released = false;
+            final long stamp = changes.readLock();
+            try {
+                if (players.remove(playerId)) {
+                    if (!playerDirectory.isIn(playerId, name)) {
+                        version.incrementAndGet();
+                        released = true;
+                    } else if (!players.add(playerId)) {
+                        // Joined again while being removed, and added by that operation (with its own place)
+                        released = true;
+                    }
+                }
+            } finally {
+                changes.unlockRead(stamp);
+            }
+            if (released) {
+                reserved.decrementAndGet();
+            }
+        }
+
+        /**
+         * Adds a batch of players into this game room (all of them, or none).
+         *
+         * @param playerIds The ids of the players being added.
+         * @return The {@link PlayersOperationResultMessage}.
+         */
+        private PlayersOperationResultMessage addPlayers(List<Long> playerIds) {
+            final Set<Long> newPlayers = new HashSet<>();
+            for (Long playerId : playerIds) {
+                if (!players.contains(playerId)) {
+                    newPlayers.add(playerId);
+                }
+            }
+            final List<PlayerResult> results = new ArrayList<>(playerIds.size());
+            if (!reserve(newPlayers.size())) {
+                for (Long playerId : playerIds) {
+                    results.add(newPlayers.contains(playerId) ?
+                            PlayerResult.REJECTED : PlayerResult.ALREADY_IN_GAME_ROOM);
+                }
+                return PlayersOperationResultMessage.getMessage(PlayerOperationResult.FULL_GAME_ROOM, results);
+            }
+            int added = 0;
+            final long stamp = changes.readLock();
+            try {
+                for (Long playerId : playerIds) {
+                    if (newPlayers.contains(playerId) && players.add(playerId)) {
+                        results.add(PlayerResult.ADDED);
+                        added++;
+                    } else {
+                        results.add(PlayerResult.ALREADY_IN_GAME_ROOM);
+                    }
+                }
+                if (added > 0) {
+                    version.incrementAndGet();
+                }
+            } finally {
+                changes.unlockRead(stamp);
+            }
+            // Release the places of players added concurrently by another operation
+            reserved.addAndGet(added - newPlayers.size());
+            return PlayersOperationResultMessage.getMessage(PlayerOperationResult.SUCCESSFUL, results);
+        }
+
+        /**
+         * Removes a batch of players from this game room.
+         *
+         * @param playerIds The ids of the players being removed.
+         * @return The {@link PlayersOperationResultMessage}.
+         */
+        private PlayersOperationResultMessage removePlayers(List<Long> playerIds) {
+            final List<PlayerResult> results = new ArrayList<>(playerIds.size());
+            int removed = 0;
+            final long stamp = changes.readLock();
+            try {
+                for (Long playerId : playerIds) {
+                    if (players.remove(playerId)) {
+                        results.add(PlayerResult.REMOVED);
+                        removed++;
+                    } else {
+                        results.add(PlayerResult.NOT_IN_GAME_ROOM);
+                    }
+                }
+                if (removed > 0) {
+                    version.incrementAndGet();
+                }
+            } finally {
+                changes.unlockRead(stamp);
+            }
+            if (removed > 0) {
+                reserved.addAndGet(-removed);
+            }
+            return PlayersOperationResultMessage.getMessage(PlayerOperationResult.SUCCESSFUL, results);
+        }
+
+        /**
+         * Reserves the given {@code amount} of places in this game room, if they are available.
+         *
+         * @param amount The amount of places to reserve.
+         * @return {@code true} if the places were reserved, or {@code false} if they do not fit in the game room.
+         */
+        private boolean reserve(int amount) {
+            while (true) {
+                final int current = reserved.get();
+                if (current + amount > capacity) {
+                    return false;
+                }
+                if (reserved.compareAndSet(current, current + amount)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
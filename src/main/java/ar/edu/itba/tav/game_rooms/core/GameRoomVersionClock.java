@@ -0,0 +1,62 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock of a node of a cluster, from which the initial versions of the game rooms created in the node are taken.
+ * Its ticks are milliseconds that never go backwards (even if the system clock does),
+ * and that are kept ahead of the ticks observed from the clocks of the other nodes of the cluster,
+ * so a game room created again in another node (e.g once the node holding it was lost) gets a greater version.
+ * It is shared by the {@link GameRoomEntityActor}s of the node, so it is thread safe.
+ */
+/* package */ final class GameRoomVersionClock {
+
+    /**
+     * Amount of bits of the initial version of a game room taken by the amount of changes of the game room.
+     * The rest of the bits hold the tick in which the game room was created, so a game room gets an initial version
+     * that is greater than the versions of any other game room previously created with the same name
+     * (while it does not change its state 2^21 times).
+     */
+    private static final int VERSION_CHANGES_BITS = 21;
+
+    /**
+     * The last tick of this clock.
+     */
+    private final AtomicLong lastTick;
+
+    /**
+     * Constructor.
+     */
+    /* package */ GameRoomVersionClock() {
+        this.lastTick = new AtomicLong();
+    }
+
+    /**
+     * Advances this clock (i.e to the current time, or to the tick after the last one if it is not behind it).
+     *
+     * @return The new tick.
+     */
+    /* package */ long nextTick() {
+        return lastTick.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+    }
+
+    /**
+     * Takes into account the given {@code tick} of the clock of another node, so later ticks are greater than it.
+     *
+     * @param tick The tick of the clock of the other node.
+     */
+    /* package */ void observe(long tick) {
+        lastTick.accumulateAndGet(tick, Math::max);
+    }
+
+    /**
+     * Returns the initial version of a game room created in the given {@code tick}.
+     *
+     * @param tick The tick in which the game room is created.
+     * @return The initial version.
+     */
+    /* package */
+    static long initialVersion(long tick) {
+        return tick << VERSION_CHANGES_BITS;
+    }
+}
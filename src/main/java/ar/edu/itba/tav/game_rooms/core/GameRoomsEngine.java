@@ -0,0 +1,24 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+/**
+ * Enum containing the engines that can hold the game rooms.
+ */
+public enum GameRoomsEngine {
+    /**
+     * Each game room is an actor ({@link GameRoomActor}), managed by {@link GameRoomsManagerActor}s.
+     */
+    ACTORS,
+    /**
+     * Game rooms are held in-process by a {@link GameRoomStore}.
+     */
+    STORE,
+    /**
+     * Each game room is an actor ({@link GameRoomActor}), sharded across the nodes of a cluster
+     * by the {@link ClusteredGameRoomsManagerActor}s.
+     */
+    CLUSTER,
+    /**
+     * Game rooms are held off-heap by {@link OffHeapGameRoomsManagerActor}s (i.e there is no actor per game room).
+     */
+    OFF_HEAP,
+}
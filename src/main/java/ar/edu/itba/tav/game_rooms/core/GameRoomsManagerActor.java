@@ -1,14 +1,12 @@
 package ar.edu.itba.tav.game_rooms.core;
 
+import akka.NotUsed;
 import akka.actor.*;
 import akka.japi.pf.ReceiveBuilder;
-import akka.pattern.Patterns;
+import akka.stream.javadsl.Source;
 import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.*;
-import ar.edu.itba.tav.game_rooms.utils.AggregatorActor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import scala.concurrent.ExecutionContext;
-import scala.concurrent.Future;
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLEncoder;
@@ -17,6 +15,14 @@ import java.util.*;
 
 /**
  * {@link akka.actor.Actor} in charge of managing game rooms.
+ * Game rooms publish each change of their state to this manager, which keeps the last data of each game room
+ * in a view, ordered by name. Reading game rooms (i.e listing them, or getting a specific one) is served
+ * from the view, without asking the game rooms.
+ * When game rooms have an idle timeout, idle game rooms are passivated: their actor is stopped,
+ * and their data is kept by this manager (i.e they become dormant) until the next operation over them,
+ * which starts their actor again. Dormant game rooms are read without starting their actor.
+ * When a player can only be in one game room, the game rooms of this manager make players leave their previous
+ * game room through the parent (i.e the sharded manager, which routes the message to the manager holding it).
  */
 public class GameRoomsManagerActor extends AbstractActor {
 
@@ -31,11 +37,21 @@ public class GameRoomsManagerActor extends AbstractActor {
     private static final String UTF8_ENCODING = "UTF-8";
 
     /**
-     * A {@link Set} containing those {@link ActorRef} that represent game room {@link Actor},
-     * children of this game room manager.
+     * A {@link Map} containing those {@link ActorRef} that represent game room {@link Actor},
+     * children of this game room manager, indexed by the game room name.
+     * Dormant game rooms (i.e those whose actor was passivated) are mapped to {@code null}
+     * (their data is kept in the {@link #gameRoomsView}).
      */
     private final Map<String, ActorRef> gameRoomActors;
 
+    /**
+     * A {@link NavigableMap} holding the last data of each game room of this manager (the same game rooms
+     * as in {@link #gameRoomActors}), indexed (and ordered) by the game room name.
+     * Each one is kept as the immutable {@link GameRoomDataMessage} published by the game room
+     * (i.e a name, a capacity, a version and an array of player ids), which can be shared by any reader.
+     */
+    private final NavigableMap<String, GameRoomDataMessage> gameRoomsView;
+
     /**
      * A {@link Map} of {@link ActorRef} holding as keys those actors whose termination process was triggered.
      * This set allows this {@link Actor} to know which children started their termination process,
@@ -52,19 +68,64 @@ public class GameRoomsManagerActor extends AbstractActor {
      */
     private final Map<ActorRef, String> terminatedActorsAndNames;
 
+    /**
+     * The amount of game rooms created by this manager.
+     * Used to give each game room an initial version that is greater than the versions of any other game room
+     * previously created with the same name (each game room can change its state 2^32 times before overlapping).
+     */
+    private long createdGameRooms;
+
+    /**
+     * The amount of game room actors started by this manager (i.e game rooms created, or woken up).
+     * Used to give each actor a unique name, as a passivated actor might still be alive when its game room
+     * is woken up (or removed and created again).
+     */
+    private long startedGameRoomActors;
+
+    /**
+     * The {@link GameRoomDirectory} in which the game rooms of this manager are published.
+     */
+    private final GameRoomDirectory gameRoomDirectory;
+
+    /**
+     * The time (in milliseconds) without messages after which a game room is passivated,
+     * or a non-positive value if game rooms must never be passivated.
+     */
+    private final long idleTimeout;
+
+    /**
+     * The {@link PlayerDirectory} in which the players of the game rooms of this manager are registered.
+     */
+    private final PlayerDirectory playerDirectory;
+
     /**
      * Private constructor.
+     *
+     * @param gameRoomDirectory The {@link GameRoomDirectory} in which the game rooms of this manager are published.
+     * @param playerDirectory   The {@link PlayerDirectory} in which the players of the game rooms are registered.
+     * @param idleTimeout       The time (in milliseconds) without messages after which a game room is passivated,
+     *                          or a non-positive value if game rooms must never be passivated.
      */
-    private GameRoomsManagerActor() {
+    private GameRoomsManagerActor(GameRoomDirectory gameRoomDirectory, PlayerDirectory playerDirectory,
+                                  long idleTimeout) {
+        this.gameRoomDirectory = gameRoomDirectory;
+        this.playerDirectory = playerDirectory;
+        this.idleTimeout = idleTimeout;
         this.gameRoomActors = new HashMap<>();
+        this.gameRoomsView = new TreeMap<>();
         this.terminatedActorsAndRequesters = new HashMap<>();
         this.terminatedActorsAndNames = new HashMap<>();
+        this.createdGameRooms = 0;
+        this.startedGameRoomActors = 0;
     }
 
     @Override
     public Receive createReceive() {
         return ReceiveBuilder.create()
-                .match(GetAllGameRoomsMessage.class, msg -> this.getAllGameRooms())
+                .match(DeadlineMessage.class, msg -> msg.getDeadline().isOverdue(), msg -> {
+                })
+                .match(GetAllGameRoomsMessage.class, this::getAllGameRooms)
+                .match(GetGameRoomsSourceMessage.class, this::getGameRoomsSource)
                 .match(GetSpecificGameRoomMessage.class, this::getSpecificGameRoom)
                 .match(CreateGameRoomMessage.class, this::startGameRoom)
                 .match(RemoveGameRoomMessage.class, msg -> this.stopGameRoom(msg.getGameRoomName()))
@@ -73,37 +134,48 @@ public class GameRoomsManagerActor extends AbstractActor {
                         terminated -> this.removeGameRoom(terminated.getActor()))
                 .match(AddPlayerMessage.class, this::addPlayerToGameRoom)
                 .match(RemovePlayerMessage.class, this::removePlayerFromGameRoom)
+                .match(AddPlayersMessage.class, this::addPlayersToGameRoom)
+                .match(RemovePlayersMessage.class, this::removePlayersFromGameRoom)
+                .match(LeaveGameRoomMessage.class, this::leaveGameRoom)
+                .match(GameRoomIdleMessage.class, this::passivateGameRoom)
+                .match(GameRoomDataMessage.class, this::storeDormantGameRoom)
+                .match(GameRoomUpdatedMessage.class, this::updateGameRoomsView)
                 .build();
     }
 
     /**
-     * Replies with all the existing game rooms (i.e the children name).
+     * Replies with the requested page of existing game rooms, ordered by name, taken from the view.
+     *
+     * @param msg The {@link GetAllGameRoomsMessage} indicating the page of game rooms to be retrieved.
+     */
+    private void getAllGameRooms(GetAllGameRoomsMessage msg) {
+        this.getSender().tell(gameRoomsPage(msg.getAfter(), msg.getLimit()), this.getSelf());
+    }
+
+    /**
+     * Replies with a {@link Source} that streams the data of the requested page of existing game rooms,
+     * ordered by name.
+     * The page is taken from the view when this method is called (the data of each game room is immutable,
+     * so the stream only holds a reference to it).
+     *
+     * @param msg The {@link GetGameRoomsSourceMessage} indicating the page of game rooms to be streamed.
      */
-    private void getAllGameRooms() {
-        final GetGameRoomDataMessage request = GetGameRoomDataMessage.getMessage();
-        final ActorRef respondTo = this.getContext()
-                .actorOf(GetAllGameRoomsResponseHandler.getProps(this.getSelf(), this.getSender()));
-        final List<ActorRef> actors = new LinkedList<>(gameRoomActors.values());
-        final long timeout = 2000;
-        this.getContext()
-                .actorOf(AggregatorActor.props(GameRoomDataMessage.class, request, actors, respondTo, timeout));
+    private void getGameRoomsSource(GetGameRoomsSourceMessage msg) {
+        final Source<GameRoomDataMessage, NotUsed> source = Source.from(gameRoomsPage(msg.getAfter(), msg.getLimit()));
+        this.getSender().tell(GameRoomsSourceMessage.getMessage(source), this.getSelf());
     }
 
     /**
-     * Replies with the data of the specified game room.
+     * Replies with the data of the specified game room (wrapped in an {@link Optional}), taken from the view.
+     * As game rooms publish their changes before replying their operations,
+     * the view already holds the result of any operation replied before this request was sent.
      *
      * @param msg The {@link GetSpecificGameRoomMessage} with containing the name of the game room to be retrieved.
      */
     private void getSpecificGameRoom(GetSpecificGameRoomMessage msg) {
-        final ActorRef gameRoomActor = gameRoomActors.get(msg.getGameRoomName());
-
-        if (gameRoomActor == null) {
-            this.getSender().tell(Optional.empty(), this.getSelf());
-            return;
-        }
-        final Future<Object> future = Patterns.ask(gameRoomActor, GetGameRoomDataMessage.getMessage(), 100);
-        final ExecutionContext executionContext = getContext().dispatcher();
-        Patterns.pipe(future.map(Optional::ofNullable, executionContext), executionContext).to(getSender());
+        final String gameRoomName = msg.getGameRoomName();
+        this.getSender().tell(Optional.ofNullable(gameRoomName == null ? null : gameRoomsView.get(gameRoomName)),
+                this.getSelf());
     }
 
     /**
@@ -118,6 +190,10 @@ public class GameRoomsManagerActor extends AbstractActor {
         final int capacity = message.getCapacity();
 
         final ActorRef requester = this.getSender();
+        if (gameRoomName == null) {
+            reportToActor(requester, GameRoomCreationResult.INVALID);
+            return;
+        }
         if (gameRoomActors.containsKey(gameRoomName)) {
             LOGGER.debug("Name \"{}\" is invalid, or already used", gameRoomName);
             reportToActor(requester, GameRoomCreationResult.NAME_REPEATED);
@@ -127,10 +203,13 @@ public class GameRoomsManagerActor extends AbstractActor {
             LOGGER.debug("Trying to create a new game room with name {}", gameRoomName);
             final String urlEncodedName = URLEncoder.encode(gameRoomName, UTF8_ENCODING);
             try {
-                final ActorRef actorRef = this.getContext()
-                        .actorOf(GameRoomActor.props(gameRoomName, capacity), urlEncodedName);
-                this.getContext().watch(actorRef);  // Monitor child life
-                this.gameRoomActors.put(gameRoomName, actorRef);
+                final long initialVersion = createdGameRooms << 32;
+                startGameRoomActor(gameRoomName,
+                        GameRoomActor.props(gameRoomName, capacity, initialVersion, idleTimeout, playerDirectory,
+                                getContext().getParent()));
+                this.gameRoomsView.put(gameRoomName,
+                        new GameRoomDataMessage(gameRoomName, capacity, new long[0], initialVersion));
+                this.createdGameRooms++;
             } catch (IllegalArgumentException e) {
                 reportToActor(requester, GameRoomCreationResult.INVALID);
                 return;
@@ -158,11 +237,21 @@ public class GameRoomsManagerActor extends AbstractActor {
         LOGGER.debug("Trying to Stop game room with name \"{}\"", gameRoomName);
         final ActorRef requester = this.getSender();
         final ActorRef child = gameRoomActors.get(gameRoomName);
+        if (child == null && gameRoomActors.containsKey(gameRoomName)) {
+            gameRoomActors.remove(gameRoomName);  // A dormant game room has no actor to be stopped
+            final GameRoomDataMessage dormant = gameRoomsView.remove(gameRoomName);
+            for (long playerId : dormant.getPlayers()) {
+                playerDirectory.leave(playerId, gameRoomName);
+            }
+            reportToActor(requester, GameRoomRemovalResult.REMOVED);
+            return;
+        }
         if (child == null) {
             LOGGER.debug("No game room with name \"{}\"", gameRoomName);
             reportToActor(requester, GameRoomRemovalResult.NO_SUCH_GAME_ROOM);
             return;
         }
+        this.gameRoomDirectory.unregister(gameRoomName, child);  // No new operations must reach it
         this.getContext().stop(child);
         this.terminatedActorsAndRequesters.put(child, requester);
         this.terminatedActorsAndNames.put(child, gameRoomName);
@@ -182,6 +271,8 @@ public class GameRoomsManagerActor extends AbstractActor {
             throw new IllegalStateException("Some unexpected thing happened");
         }
         gameRoomActors.remove(gameRoomName);
+        gameRoomsView.remove(gameRoomName);
+        gameRoomDirectory.unregister(gameRoomName, terminatedActorRef);
         reportToActor(requester, GameRoomRemovalResult.REMOVED);
         LOGGER.debug("Successfully stopped game with name \"{}\"", gameRoomName);
         LOGGER.debug("Name \"{}\" is again available for a game room", gameRoomName);
@@ -205,6 +296,26 @@ public class GameRoomsManagerActor extends AbstractActor {
         performPlayerOperation(msg.getGameRoomName(), msg);
     }
 
+    /**
+     * Adds a batch of players into a game room.
+     *
+     * @param msg The {@link AddPlayersMessage} holding the needed data to perform the operation.
+     */
+    private void addPlayersToGameRoom(AddPlayersMessage msg) {
+        performPlayerOperation(msg.getGameRoomName(), msg,
+                PlayersOperationResultMessage.getMessage(PlayerOperationResult.NO_SUCH_GAME_ROOM));
+    }
+
+    /**
+     * Removes a batch of players from a game room.
+     *
+     * @param msg The {@link RemovePlayersMessage} holding the needed data to perform the operation.
+     */
+    private void removePlayersFromGameRoom(RemovePlayersMessage msg) {
+        performPlayerOperation(msg.getGameRoomName(), msg,
+                PlayersOperationResultMessage.getMessage(PlayerOperationResult.NO_SUCH_GAME_ROOM));
+    }
+
     /**
      * Performs the player operation, using the given {@code gameRoom}, to get the actor, and the given {@code msg}
      * to resend it to it.
@@ -214,112 +325,198 @@ public class GameRoomsManagerActor extends AbstractActor {
      * @param <T>          The concrete type of the message.
      */
     private <T> void performPlayerOperation(String gameRoomName, T msg) {
-        final ActorRef requester = this.getSender();
-        final ActorRef actorRef = gameRoomActors.get(gameRoomName);
+        performPlayerOperation(gameRoomName, msg, PlayerOperationResult.NO_SUCH_GAME_ROOM);
+    }
+
+    /**
+     * Performs the player operation, using the given {@code gameRoom}, to get the actor, and the given {@code msg}
+     * to forward it to it, replying with the given {@code noSuchGameRoomReply} if there is no such game room.
+     * The game room replies directly to the original sender
+     * (i.e the requester is in charge of the deadline of the operation).
+     * A dormant game room is woken up (i.e its actor is started again) before forwarding the message.
+     *
+     * @param gameRoomName        The name of the game room to which the message must be pass through.
+     * @param msg                 The message being forwarded.
+     * @param noSuchGameRoomReply The reply to be sent if there is no game room with the given {@code gameRoomName}.
+     * @param <T>                 The concrete type of the message.
+     */
+    private <T> void performPlayerOperation(String gameRoomName, T msg, Object noSuchGameRoomReply) {
+        ActorRef actorRef = gameRoomActors.get(gameRoomName);
+        if (actorRef == null && gameRoomActors.containsKey(gameRoomName)) {
+            actorRef = wakeUpGameRoom(gameRoomName);
+        }
         if (actorRef == null) {
-            reportToActor(requester, PlayerOperationResult.NO_SUCH_GAME_ROOM);
+            this.getSender().tell(noSuchGameRoomReply, this.getSelf());
             return;
         }
-        final Future<Object> future = Patterns.ask(actorRef, msg, 100);
-        Patterns.pipe(future, getContext().dispatcher()).to(requester);
+        actorRef.forward(msg, getContext());
     }
 
     /**
-     * Replies the given {@link ActorRef} with the given {@code result} value.
+     * Makes a player leave a game room, as it joined another one (i.e a player can only be in one game room),
+     * replying once it is done. Dormant game rooms are updated without starting their actor,
+     * and game rooms being removed (or that do not exist) are replied right away.
      *
-     * @param actorRef The actor to which the result must be sent.
-     * @param result   The value to send as a reply to the sender.
+     * @param msg The {@link LeaveGameRoomMessage} with the game room and the player that must leave it.
      */
-    private <T extends ResultEnum> void reportToActor(ActorRef actorRef, T result) {
-        actorRef.tell(result, this.getSelf());
+    private void leaveGameRoom(LeaveGameRoomMessage msg) {
+        final String gameRoomName = msg.getGameRoomName();
+        final ActorRef actorRef = gameRoomActors.get(gameRoomName);
+        if (actorRef != null && !terminatedActorsAndRequesters.containsKey(actorRef)) {
+            actorRef.forward(msg, getContext());
+            return;
+        }
+        getSender().tell(PlayerOperationResult.SUCCESSFUL, getSelf());
+        final GameRoomDataMessage dormant = actorRef == null && gameRoomActors.containsKey(gameRoomName) ?
+                gameRoomsView.get(gameRoomName) : null;
+        final int index = dormant == null ? -1 : Arrays.binarySearch(dormant.getPlayers(), msg.getPlayerId());
+        if (index < 0 || playerDirectory.isIn(msg.getPlayerId(), gameRoomName)) {
+            return;
+        }
+        final long[] players = dormant.getPlayers();
+        final long[] remaining = new long[players.length - 1];
+        System.arraycopy(players, 0, remaining, 0, index);
+        System.arraycopy(players, index + 1, remaining, index, remaining.length - index);
+        gameRoomsView.put(gameRoomName, new GameRoomDataMessage(gameRoomName, dormant.getCapacity(), remaining,
+                dormant.getVersion() + 1));
     }
 
     /**
-     * Create {@link Props} for an {@link akka.actor.Actor} of this type.
+     * Keeps the new data published by a game room in the view.
+     * Data published by an actor that is not the live one of its game room (e.g it is being removed) is ignored.
      *
-     * @return The created {@link Props}.
+     * @param msg The {@link GameRoomUpdatedMessage} with the new data of the game room.
      */
-    public static Props getProps() {
-        return Props.create(GameRoomsManagerActor.class, GameRoomsManagerActor::new);
+    private void updateGameRoomsView(GameRoomUpdatedMessage msg) {
+        final GameRoomDataMessage data = msg.getData();
+        if (isLiveGameRoom(data.getName(), getSender())) {
+            gameRoomsView.put(data.getName(), data);
+        }
     }
 
     /**
-     * Inner {@link akka.actor.Actor} in charge of handling a get all game rooms aggregation response.
-     */
-    private static final class GetAllGameRoomsResponseHandler extends AbstractActor {
-
-        /**
-         * {@link ActorRef} who must send the response.
-         */
-        private final ActorRef from;
-        /**
-         * {@link ActorRef} who must receive the response.
-         */
-        private final ActorRef respondTo;
-
-        /**
-         * Private constructor.
-         *
-         * @param from      {@link ActorRef} who must send the response.
-         * @param respondTo {@link ActorRef} who must receive the response.
-         */
-        private GetAllGameRoomsResponseHandler(ActorRef from, ActorRef respondTo) {
-            this.from = from;
-            this.respondTo = respondTo;
+     * Returns the data of the game rooms in the given page, ordered by game room name, taken from the view.
+     *
+     * @param after The name of the game room after which the page starts,
+     *              or {@code null} to start from the first one.
+     * @param limit The max. amount of game rooms in the page.
+     * @return A {@link List} with the {@link GameRoomDataMessage} of each game room in the page.
+     */
+    private List<GameRoomDataMessage> gameRoomsPage(String after, int limit) {
+        final Collection<GameRoomDataMessage> candidates = after == null ?
+                gameRoomsView.values() : gameRoomsView.tailMap(after, false).values();
+        final List<GameRoomDataMessage> page = new ArrayList<>();
+        final Iterator<GameRoomDataMessage> iterator = candidates.iterator();
+        while (iterator.hasNext() && page.size() < limit) {
+            page.add(iterator.next());
         }
+        return page;
+    }
 
-        @Override
-        public Receive createReceive() {
-            return ReceiveBuilder.create()
-                    .match(AggregatorActor.SuccessfulResultMessage.class, this::handleSuccessfulResponse)
-                    .match(AggregatorActor.TimeoutMessage.class, msg -> this.handleTimeout())
-                    .match(AggregatorActor.FailMessage.class, this::handleFailure)
-                    .build();
-        }
+    /**
+     * Starts a {@link GameRoomActor} for the game room with the given {@code gameRoomName},
+     * watching it, and publishing it in the game room directory.
+     *
+     * @param gameRoomName The name of the game room.
+     * @param props        The {@link Props} of the {@link GameRoomActor}.
+     * @return The {@link ActorRef} of the started {@link GameRoomActor}.
+     * @throws UnsupportedEncodingException If the game room name could not be url encoded.
+     */
+    private ActorRef startGameRoomActor(String gameRoomName, Props props) throws UnsupportedEncodingException {
+        final String actorName = URLEncoder.encode(gameRoomName, UTF8_ENCODING) + "$" + startedGameRoomActors;
+        final ActorRef actorRef = this.getContext().actorOf(props, actorName);
+        this.startedGameRoomActors++;
+        this.getContext().watch(actorRef);  // Monitor child life
+        this.gameRoomActors.put(gameRoomName, actorRef);
+        this.gameRoomDirectory.register(gameRoomName, actorRef);
+        return actorRef;
+    }
 
-        /**
-         * Handles the successful aggregation response message.
-         *
-         * @param msg The {@link AggregatorActor.SuccessfulResultMessage}
-         *            containing the aggregation result.
-         */
-        private void handleSuccessfulResponse(AggregatorActor.SuccessfulResultMessage<GameRoomDataMessage> msg) {
-            respondTo.tell(new LinkedList<>(msg.getResult().values()), from);
+    /**
+     * Starts a passivated game room's actor again, with the data it had when it was passivated.
+     *
+     * @param gameRoomName The name of the dormant game room.
+     * @return The {@link ActorRef} of the started {@link GameRoomActor}.
+     */
+    private ActorRef wakeUpGameRoom(String gameRoomName) {
+        final GameRoomDataMessage dormant = gameRoomsView.get(gameRoomName);
+        LOGGER.debug("Waking up game room with name \"{}\"", gameRoomName);
+        try {
+            return startGameRoomActor(gameRoomName,
+                    GameRoomActor.props(dormant, idleTimeout, playerDirectory, getContext().getParent()));
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException("Could not url encode game room name", e);
         }
+    }
 
-        /**
-         * Handles aggregation process timeout (i.e do nothing, and expect the requester eventually timeouts by itself).
-         */
-        private void handleTimeout() {
-            terminate();
-            // Do nothing, as if there is a timeout, the requester will eventually timeout by itself
+    /**
+     * Starts the passivation of an idle game room: it is unpublished from the game room directory
+     * (so new operations pass through this manager), and asked for its data (see {@link #storeDormantGameRoom}).
+     *
+     * @param msg The {@link GameRoomIdleMessage} sent by the idle game room.
+     */
+    private void passivateGameRoom(GameRoomIdleMessage msg) {
+        final ActorRef gameRoom = getSender();
+        if (!isLiveGameRoom(msg.getGameRoomName(), gameRoom)) {
+            return;
         }
+        gameRoomDirectory.unregister(msg.getGameRoomName(), gameRoom);
+        gameRoom.tell(PassivateGameRoomMessage.getMessage(), getSelf());
+    }
 
-        /**
-         * Handles aggregation process failure (i.e TODO: complete)
-         *
-         * @param msg The {@link ar.edu.itba.tav.game_rooms.utils.AggregatorActor.FailMessage}
-         *            containing the {@link Throwable} that caused the failure.
-         */
-        private void handleFailure(AggregatorActor.FailMessage msg) {
-            // TODO: define what do we do here...
-            terminate();
+    /**
+     * Keeps the data replied by a passivated game room, which becomes dormant.
+     * Operations that reach the passivated actor afterwards are sent back to this manager,
+     * so they are performed by a new actor for the game room.
+     *
+     * @param data The {@link GameRoomDataMessage} replied by the passivated game room.
+     */
+    private void storeDormantGameRoom(GameRoomDataMessage data) {
+        final ActorRef gameRoom = getSender();
+        if (!isLiveGameRoom(data.getName(), gameRoom)) {
+            return;
         }
+        getContext().unwatch(gameRoom);  // It will stop by itself
+        gameRoomActors.put(data.getName(), null);
+        gameRoomsView.put(data.getName(), data);
+        LOGGER.debug("Game room with name \"{}\" is now dormant", data.getName());
+    }
 
-        private void terminate() {
-            this.getContext().stop(this.getSelf());
-        }
+    /**
+     * Indicates whether the given {@code actorRef} is the actor of the game room with the given {@code gameRoomName},
+     * and the game room is not being removed.
+     *
+     * @param gameRoomName The name of the game room.
+     * @param actorRef     The {@link ActorRef} to be checked.
+     * @return {@code true} if it is the live actor of the game room, or {@code false} otherwise.
+     */
+    private boolean isLiveGameRoom(String gameRoomName, ActorRef actorRef) {
+        return actorRef.equals(gameRoomActors.get(gameRoomName))
+                && !terminatedActorsAndRequesters.containsKey(actorRef);
+    }
 
-        /**
-         * Create {@link Props} for an {@link akka.actor.Actor} of this type.
-         *
-         * @param from      {@link ActorRef} who must send the response.
-         * @param respondTo {@link ActorRef} who must receive the response.
-         * @return The created {@link Props}.
-         */
-        private static Props getProps(ActorRef from, ActorRef respondTo) {
-            return Props.create(GetAllGameRoomsResponseHandler.class,
-                    () -> new GetAllGameRoomsResponseHandler(from, respondTo));
-        }
+    /**
+     * Replies the given {@link ActorRef} with the given {@code result} value.
+     *
+     * @param actorRef The actor to which the result must be sent.
+     * @param result   The value to send as a reply to the sender.
+     */
+    private <T extends ResultEnum> void reportToActor(ActorRef actorRef, T result) {
+        actorRef.tell(result, this.getSelf());
+    }
+
+    /**
+     * Create {@link Props} for an {@link akka.actor.Actor} of this type.
+     *
+     * @param gameRoomDirectory The {@link GameRoomDirectory} in which the game rooms of the manager are published.
+     * @param playerDirectory   The {@link PlayerDirectory} in which the players of the game rooms are registered.
+     * @param idleTimeout       The time (in milliseconds) without messages after which a game room is passivated,
+     *                          or a non-positive value if game rooms must never be passivated.
+     * @return The created {@link Props}.
+     */
+    public static Props getProps(GameRoomDirectory gameRoomDirectory, PlayerDirectory playerDirectory,
+                                 long idleTimeout) {
+        return Props.create(GameRoomsManagerActor.class,
+                () -> new GameRoomsManagerActor(gameRoomDirectory, playerDirectory, idleTimeout));
     }
 }
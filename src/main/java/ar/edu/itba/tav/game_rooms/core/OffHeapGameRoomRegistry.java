@@ -0,0 +1,1060 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomDataMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registry holding game rooms outside the java heap (i.e in direct {@link ByteBuffer}s),
+ * so the heap footprint (and the work of the garbage collector) does not grow with the amount of game rooms.
+ * <p>
+ * Each game room takes a fixed-layout slot, holding its capacity, its version, the amount of players in it,
+ * the first block of its name, its tower in the name ordered index, and its players table.
+ * Names (as UTF-16 chars, so they are compared as {@link String}s are) are kept in chains of fixed-size blocks.
+ * Slots are found by name through an open addressing hash index of {@code long}s
+ * (the name hash and the slot of each game room), with linear probing.
+ * Game rooms are also linked in a skip list ordered by name (each one with a tower of forward links in a block),
+ * so a page of game rooms is found in logarithmic time.
+ * The players of each game room are kept in an open addressing hash table of {@code long}s, with linear probing,
+ * whose length is a power of two (from a block, doubled and halved as players are added and removed).
+ * Slots, blocks and tables are allocated in chunks, and freed ones are reused.
+ * <p>
+ * This class is not thread safe (i.e it must be accessed by a single actor).
+ */
+/* package */ final class OffHeapGameRoomRegistry {
+
+    /**
+     * Value returned (and stored) when there is no slot or block.
+     */
+    /* package */ static final int NONE = -1;
+
+    /**
+     * Slot field: the hash of the game room name.
+     */
+    private static final int SLOT_HASH = 0;
+
+    /**
+     * Slot field: the length of the game room name, or {@link #NONE} if the slot is free.
+     */
+    private static final int SLOT_NAME_LENGTH = 4;
+
+    /**
+     * Slot field: the first block of the game room name.
+     */
+    private static final int SLOT_NAME_BLOCK = 8;
+
+    /**
+     * Slot field: the capacity of the game room.
+     */
+    private static final int SLOT_CAPACITY = 12;
+
+    /**
+     * Slot field: the amount of players in the game room.
+     */
+    private static final int SLOT_PLAYERS = 16;
+
+    /**
+     * Slot field: the players table of the game room (a record of the tables {@link Region} of its size class),
+     * or {@link #NONE} if it has no players in it (besides the {@link #FREE_PLAYER}).
+     */
+    private static final int SLOT_PLAYERS_TABLE = 20;
+
+    /**
+     * Slot field: the version of the game room.
+     */
+    private static final int SLOT_VERSION = 24;
+
+    /**
+     * Slot field: the block holding the tower of the game room in the skip list.
+     */
+    private static final int SLOT_TOWER = 32;
+
+    /**
+     * Slot field: the size class of the players table of the game room (i.e its length is a block shifted by it).
+     */
+    private static final int SLOT_PLAYERS_TABLE_CLASS = 36;
+
+    /**
+     * Slot field: {@code 1} if the {@link #FREE_PLAYER} is in the game room (as it can not be held by its table),
+     * or {@code 0} otherwise.
+     */
+    private static final int SLOT_FREE_PLAYER = 40;
+
+    /**
+     * The size (in bytes) of a slot (keeping {@code long} fields aligned).
+     */
+    private static final int SLOT_SIZE = 48;
+
+    /**
+     * Block field: the next block of the chain, or {@link #NONE} if it is the last one.
+     */
+    private static final int BLOCK_NEXT = 0;
+
+    /**
+     * Block field: the amount of values in the block (only used by towers, i.e their height).
+     */
+    private static final int BLOCK_COUNT = 4;
+
+    /**
+     * Block field: the values of the block.
+     */
+    private static final int BLOCK_VALUES = 8;
+
+    /**
+     * The size (in bytes) of a block.
+     */
+    private static final int BLOCK_SIZE = 64;
+
+    /**
+     * The amount of name chars held by a block.
+     */
+    private static final int BLOCK_CHARS = (BLOCK_SIZE - BLOCK_VALUES) / Character.BYTES;
+
+    /**
+     * The max. height of a tower (i.e the amount of forward links held by a block),
+     * enough for a skip list holding as many game rooms as the index.
+     */
+    private static final int MAX_TOWER_HEIGHT = (BLOCK_SIZE - BLOCK_VALUES) / Integer.BYTES;
+
+    /**
+     * The length of the smallest players table (i.e one filling a block).
+     */
+    private static final int MIN_TABLE_LENGTH = BLOCK_SIZE / Long.BYTES;
+
+    /**
+     * The amount of size classes of players tables (i.e the largest one takes 1 GB, holding up to 2^26 players).
+     */
+    private static final int TABLE_CLASSES = 25;
+
+    /**
+     * The value marking a free entry of the index.
+     */
+    private static final long FREE_ENTRY = 0L;
+
+    /**
+     * The value marking a free entry of a players table (a player with this id is flagged in its slot instead).
+     */
+    private static final long FREE_PLAYER = 0L;
+
+    /**
+     * The initial length of the index.
+     */
+    private static final int INITIAL_INDEX_LENGTH = 1 << 10;
+
+    /**
+     * The max. length of the index (i.e it takes up to 1 GB, and holds up to half this amount of game rooms).
+     */
+    private static final int MAX_INDEX_LENGTH = 1 << 27;
+
+    /**
+     * The {@link Region} holding the slots.
+     */
+    private final Region slots;
+
+    /**
+     * The {@link Region} holding the blocks of names and towers, and the smallest players tables.
+     */
+    private final Region blocks;
+
+    /**
+     * The {@link Region}s holding the players tables of each size class (created when first needed),
+     * being the first one the {@link #blocks} region.
+     */
+    private final Region[] tables;
+
+    /**
+     * The tower of the head of the skip list (i.e a block with links to the first game room of each level).
+     */
+    private final int head;
+
+    /**
+     * The towers preceding the position being searched in each level of the skip list
+     * (filled by {@link #seek(String)} and {@link #seek(int)}, reused to avoid allocations).
+     */
+    private final int[] predecessors;
+
+    /**
+     * The amount of levels of the skip list in use.
+     */
+    private int levels;
+
+    /**
+     * The state of the xorshift generator used to choose the height of the towers.
+     */
+    private long random;
+
+    /**
+     * The index, holding for each game room an entry with the hash of its name (in the high 32 bits),
+     * and its slot plus one (in the low 32 bits). Its length is a power of two, and it is at most half full.
+     */
+    private LongBuffer index;
+
+    /**
+     * Constructor.
+     */
+    /* package */ OffHeapGameRoomRegistry() {
+        this.slots = new Region(SLOT_SIZE, Region.CHUNK_BITS);
+        this.blocks = new Region(BLOCK_SIZE, Region.CHUNK_BITS);
+        this.tables = new Region[TABLE_CLASSES];
+        this.tables[0] = blocks;
+        this.head = allocateTower(MAX_TOWER_HEIGHT);
+        this.predecessors = new int[MAX_TOWER_HEIGHT];
+        this.levels = 1;
+        this.random = 0x2545F4914F6CDD1DL;
+        this.index = allocateIndex(INITIAL_INDEX_LENGTH);
+    }
+
+    /**
+     * @return The amount of game rooms in this registry.
+     */
+    /* package */ int size() {
+        return slots.used;
+    }
+
+    /**
+     * Returns the slot of the game room with the given {@code gameRoomName}.
+     *
+     * @param gameRoomName The name of the game room.
+     * @return The slot, or {@link #NONE} if there is no such game room.
+     */
+    /* package */ int lookup(String gameRoomName) {
+        if (gameRoomName == null) {
+            return NONE;
+        }
+        final int hash = gameRoomName.hashCode();
+        final int mask = index.capacity() - 1;
+        long entry;
+        for (int i = spread(hash, mask); (entry = index.get(i)) != FREE_ENTRY; i = (i + 1) & mask) {
+            if (hashOf(entry) == hash && compareName(slotOf(entry), gameRoomName) == 0) {
+                return slotOf(entry);
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Creates a game room, which must not exist.
+     *
+     * @param gameRoomName   The name of the game room.
+     * @param capacity       The capacity of the game room.
+     * @param initialVersion The initial version of the game room.
+     * @return The slot of the game room, or {@link #NONE} if the registry is full.
+     */
+    /* package */ int create(String gameRoomName, int capacity, long initialVersion) {
+        if ((slots.used + 1) * 2 > index.capacity()) {
+            if (index.capacity() == MAX_INDEX_LENGTH) {
+                return NONE;
+            }
+            rehash(index.capacity() * 2);
+        }
+        final int slot = slots.allocate();
+        final int hash = gameRoomName.hashCode();
+        slots.putInt(slot, SLOT_HASH, hash);
+        slots.putInt(slot, SLOT_NAME_LENGTH, gameRoomName.length());
+        slots.putInt(slot, SLOT_NAME_BLOCK, writeName(gameRoomName));
+        slots.putInt(slot, SLOT_CAPACITY, capacity);
+        slots.putInt(slot, SLOT_PLAYERS, 0);
+        slots.putInt(slot, SLOT_PLAYERS_TABLE, NONE);
+        slots.putInt(slot, SLOT_PLAYERS_TABLE_CLASS, 0);
+        slots.putInt(slot, SLOT_FREE_PLAYER, 0);
+        slots.putLong(slot, SLOT_VERSION, initialVersion);
+        insert(index, entryOf(hash, slot));
+        link(slot, gameRoomName);
+        return slot;
+    }
+
+    /**
+     * Removes the game room in the given {@code slot}, freeing its slot and blocks.
+     *
+     * @param slot The slot of the game room.
+     */
+    /* package */ void remove(int slot) {
+        final int mask = index.capacity() - 1;
+        final long removed = entryOf(slots.getInt(slot, SLOT_HASH), slot);
+        int gap = spread(hashOf(removed), mask);
+        while (index.get(gap) != removed) {
+            gap = (gap + 1) & mask;
+        }
+        // Shift back the following entries whose probe sequence passes through the gap
+        long entry;
+        for (int i = (gap + 1) & mask; (entry = index.get(i)) != FREE_ENTRY; i = (i + 1) & mask) {
+            final int ideal = spread(hashOf(entry), mask);
+            if (((i - ideal) & mask) >= ((i - gap) & mask)) {
+                index.put(gap, entry);
+                gap = i;
+            }
+        }
+        index.put(gap, FREE_ENTRY);
+        unlink(slot);
+        freeChain(slots.getInt(slot, SLOT_NAME_BLOCK));
+        final int table = slots.getInt(slot, SLOT_PLAYERS_TABLE);
+        if (table != NONE) {
+            tables[slots.getInt(slot, SLOT_PLAYERS_TABLE_CLASS)].free(table);
+        }
+        slots.putInt(slot, SLOT_NAME_LENGTH, NONE);
+        slots.free(slot);
+    }
+
+    /**
+     * @param slot The slot of a game room.
+     * @return The capacity of the game room.
+     */
+    /* package */ int capacity(int slot) {
+        return slots.getInt(slot, SLOT_CAPACITY);
+    }
+
+    /**
+     * @param slot The slot of a game room.
+     * @return The amount of players in the game room.
+     */
+    /* package */ int players(int slot) {
+        return slots.getInt(slot, SLOT_PLAYERS);
+    }
+
+    /**
+     * Increases the version of the game room in the given {@code slot} (i.e its state changed).
+     *
+     * @param slot The slot of the game room.
+     */
+    /* package */ void incrementVersion(int slot) {
+        slots.putLong(slot, SLOT_VERSION, slots.getLong(slot, SLOT_VERSION) + 1);
+    }
+
+    /**
+     * Indicates whether the player with the given {@code playerId} is in the game room in the given {@code slot}.
+     *
+     * @param slot     The slot of the game room.
+     * @param playerId The id of the player.
+     * @return {@code true} if the player is in the game room, or {@code false} otherwise.
+     */
+    /* package */ boolean containsPlayer(int slot, long playerId) {
+        if (playerId == FREE_PLAYER) {
+            return slots.getInt(slot, SLOT_FREE_PLAYER) != 0;
+        }
+        final int table = slots.getInt(slot, SLOT_PLAYERS_TABLE);
+        return table != NONE && positionOfPlayer(slot, table, playerId) != NONE;
+    }
+
+    /**
+     * Adds the player with the given {@code playerId} into the game room in the given {@code slot}
+     * (the player must not be in it). The capacity of the game room is not checked.
+     * The players table is doubled when it would get more than half full.
+     *
+     * @param slot     The slot of the game room.
+     * @param playerId The id of the player.
+     */
+    /* package */ void addPlayer(int slot, long playerId) {
+        if (playerId == FREE_PLAYER) {
+            slots.putInt(slot, SLOT_FREE_PLAYER, 1);
+        } else {
+            int table = slots.getInt(slot, SLOT_PLAYERS_TABLE);
+            final int tableClass = slots.getInt(slot, SLOT_PLAYERS_TABLE_CLASS);
+            if (table == NONE) {
+                table = resizeTable(slot, 0);
+            } else if ((tablePlayers(slot) + 1) * 2 > tableLength(tableClass)) {
+                if (tableClass + 1 == TABLE_CLASSES) {
+                    throw new IllegalStateException("Too many players in a game room");
+                }
+                table = resizeTable(slot, tableClass + 1);
+            }
+            insertPlayer(slot, table, playerId);
+        }
+        slots.putInt(slot, SLOT_PLAYERS, slots.getInt(slot, SLOT_PLAYERS) + 1);
+    }
+
+    /**
+     * Removes the player with the given {@code playerId} from the game room in the given {@code slot}.
+     * The players table is halved when it gets less than an eighth full, and freed when it gets empty.
+     *
+     * @param slot     The slot of the game room.
+     * @param playerId The id of the player.
+     * @return {@code true} if the player was removed, or {@code false} if it was not in the game room.
+     */
+    /* package */ boolean removePlayer(int slot, long playerId) {
+        if (playerId == FREE_PLAYER) {
+            if (slots.getInt(slot, SLOT_FREE_PLAYER) == 0) {
+                return false;
+            }
+            slots.putInt(slot, SLOT_FREE_PLAYER, 0);
+            slots.putInt(slot, SLOT_PLAYERS, slots.getInt(slot, SLOT_PLAYERS) - 1);
+            return true;
+        }
+        final int table = slots.getInt(slot, SLOT_PLAYERS_TABLE);
+        final int position = table == NONE ? NONE : positionOfPlayer(slot, table, playerId);
+        if (position == NONE) {
+            return false;
+        }
+        deletePlayer(slot, table, position);
+        slots.putInt(slot, SLOT_PLAYERS, slots.getInt(slot, SLOT_PLAYERS) - 1);
+        final int tableClass = slots.getInt(slot, SLOT_PLAYERS_TABLE_CLASS);
+        final int remaining = tablePlayers(slot);
+        if (remaining == 0) {
+            tables[tableClass].free(table);
+            slots.putInt(slot, SLOT_PLAYERS_TABLE, NONE);
+        } else if (tableClass > 0 && remaining * 8 < tableLength(tableClass)) {
+            resizeTable(slot, tableClass - 1);
+        }
+        return true;
+    }
+
+    /**
+     * Returns a {@link GameRoomDataMessage} with the current data of the game room in the given {@code slot}.
+     *
+     * @param slot The slot of the game room.
+     * @return The {@link GameRoomDataMessage}.
+     */
+    /* package */ GameRoomDataMessage snapshot(int slot) {
+        final long[] players = new long[slots.getInt(slot, SLOT_PLAYERS)];
+        int index = 0;
+        if (slots.getInt(slot, SLOT_FREE_PLAYER) != 0) {
+            players[index++] = FREE_PLAYER;
+        }
+        final int table = slots.getInt(slot, SLOT_PLAYERS_TABLE);
+        if (table != NONE) {
+            final int tableClass = slots.getInt(slot, SLOT_PLAYERS_TABLE_CLASS);
+            final Region region = tables[tableClass];
+            for (int i = 0; i < tableLength(tableClass); i++) {
+                final long playerId = region.getLong(table, playerOffset(i));
+                if (playerId != FREE_PLAYER) {
+                    players[index++] = playerId;
+                }
+            }
+        }
+        Arrays.sort(players);
+        return new GameRoomDataMessage(readName(slot), slots.getInt(slot, SLOT_CAPACITY), players,
+                slots.getLong(slot, SLOT_VERSION));
+    }
+
+    /**
+     * Returns the slots of the game rooms in the given page, ordered by game room name.
+     * The first game room of the page is found through the skip list, and the following ones are walked in order,
+     * so no object is allocated per game room.
+     *
+     * @param after The name of the game room after which the page starts,
+     *              or {@code null} to start from the first one.
+     * @param limit The max. amount of game rooms in the page.
+     * @return The slots of the game rooms in the page.
+     */
+    /* package */ int[] page(String after, int limit) {
+        final int[] page = new int[Math.min(limit, slots.used)];
+        int next = forward(after == null ? head : seek(after), 0);
+        int size = 0;
+        while (size < page.length && next != NONE) {
+            page[size++] = next;
+            next = forward(slots.getInt(next, SLOT_TOWER), 0);
+        }
+        return size == page.length ? page : Arrays.copyOf(page, size);
+    }
+
+    /**
+     * Writes the given {@code name} into a new chain of blocks.
+     *
+     * @param name The name to be written.
+     * @return The first block of the chain, or {@link #NONE} if the name is empty.
+     */
+    private int writeName(String name) {
+        int first = NONE;
+        int last = NONE;
+        for (int start = 0; start < name.length(); start += BLOCK_CHARS) {
+            final int block = blocks.allocate();
+            blocks.putInt(block, BLOCK_NEXT, NONE);
+            final int end = Math.min(start + BLOCK_CHARS, name.length());
+            for (int i = start; i < end; i++) {
+                blocks.putChar(block, charOffset(i - start), name.charAt(i));
+            }
+            if (last == NONE) {
+                first = block;
+            } else {
+                blocks.putInt(last, BLOCK_NEXT, block);
+            }
+            last = block;
+        }
+        return first;
+    }
+
+    /**
+     * Reads the name of the game room in the given {@code slot}.
+     *
+     * @param slot The slot of the game room.
+     * @return The name.
+     */
+    private String readName(int slot) {
+        final char[] name = new char[slots.getInt(slot, SLOT_NAME_LENGTH)];
+        int block = slots.getInt(slot, SLOT_NAME_BLOCK);
+        for (int i = 0; i < name.length; i++) {
+            if (i > 0 && i % BLOCK_CHARS == 0) {
+                block = next(block);
+            }
+            name[i] = blocks.getChar(block, charOffset(i % BLOCK_CHARS));
+        }
+        return new String(name);
+    }
+
+    /**
+     * Compares the name of the game room in the given {@code slot} with the given {@code name}
+     * (as {@link String#compareTo(String)} does).
+     *
+     * @param slot The slot of the game room.
+     * @param name The name to compare with.
+     * @return A negative value, zero, or a positive value if the game room name is less than, equal to,
+     * or greater than the given name.
+     */
+    private int compareName(int slot, String name) {
+        final int length = slots.getInt(slot, SLOT_NAME_LENGTH);
+        final int common = Math.min(length, name.length());
+        int block = slots.getInt(slot, SLOT_NAME_BLOCK);
+        for (int i = 0; i < common; i++) {
+            if (i > 0 && i % BLOCK_CHARS == 0) {
+                block = next(block);
+            }
+            final int difference = blocks.getChar(block, charOffset(i % BLOCK_CHARS)) - name.charAt(i);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - name.length();
+    }
+
+    /**
+     * Compares the names of the game rooms in the given slots (as {@link String#compareTo(String)} does).
+     *
+     * @param slot      The slot of a game room.
+     * @param otherSlot The slot of the other game room.
+     * @return A negative value, zero, or a positive value if the first game room name is less than, equal to,
+     * or greater than the other one.
+     */
+    private int compareNames(int slot, int otherSlot) {
+        final int length = slots.getInt(slot, SLOT_NAME_LENGTH);
+        final int otherLength = slots.getInt(otherSlot, SLOT_NAME_LENGTH);
+        final int common = Math.min(length, otherLength);
+        int block = slots.getInt(slot, SLOT_NAME_BLOCK);
+        int otherBlock = slots.getInt(otherSlot, SLOT_NAME_BLOCK);
+        for (int i = 0; i < common; i++) {
+            if (i > 0 && i % BLOCK_CHARS == 0) {
+                block = next(block);
+                otherBlock = next(otherBlock);
+            }
+            final int offset = charOffset(i % BLOCK_CHARS);
+            final int difference = blocks.getChar(block, offset) - blocks.getChar(otherBlock, offset);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return length - otherLength;
+    }
+
+    /**
+     * Links the game room in the given {@code slot} into the skip list, with a tower of random height.
+     *
+     * @param slot The slot of the game room.
+     * @param name The name of the game room (which is not in the skip list).
+     */
+    private void link(int slot, String name) {
+        random ^= random << 13;
+        random ^= random >>> 7;
+        random ^= random << 17;
+        // Each level holds a quarter of the game rooms of the level below it
+        final int height = Math.min(MAX_TOWER_HEIGHT, 1 + Long.numberOfTrailingZeros(random) / 2);
+        final int tower = allocateTower(height);
+        seek(name);
+        for (; levels < height; levels++) {
+            predecessors[levels] = head;
+        }
+        for (int level = 0; level < height; level++) {
+            setForward(tower, level, forward(predecessors[level], level));
+            setForward(predecessors[level], level, slot);
+        }
+        slots.putInt(slot, SLOT_TOWER, tower);
+    }
+
+    /**
+     * Unlinks the game room in the given {@code slot} from the skip list, freeing its tower.
+     *
+     * @param slot The slot of the game room.
+     */
+    private void unlink(int slot) {
+        final int tower = slots.getInt(slot, SLOT_TOWER);
+        seek(slot);
+        for (int level = 0; level < blocks.getInt(tower, BLOCK_COUNT); level++) {
+            if (forward(predecessors[level], level) == slot) {
+                setForward(predecessors[level], level, forward(tower, level));
+            }
+        }
+        while (levels > 1 && forward(head, levels - 1) == NONE) {
+            levels--;
+        }
+        blocks.free(tower);
+    }
+
+    /**
+     * Fills the {@link #predecessors} with the last tower of each level whose game room name
+     * is less than or equal to the given {@code name}.
+     *
+     * @param name The name.
+     * @return The predecessor in the lowest level (i.e whose next game room is the first one after the name).
+     */
+    private int seek(String name) {
+        int tower = head;
+        for (int level = levels - 1; level >= 0; level--) {
+            int next;
+            while ((next = forward(tower, level)) != NONE && compareName(next, name) <= 0) {
+                tower = slots.getInt(next, SLOT_TOWER);
+            }
+            predecessors[level] = tower;
+        }
+        return tower;
+    }
+
+    /**
+     * Fills the {@link #predecessors} with the last tower of each level whose game room name
+     * is less than the name of the game room in the given {@code slot}.
+     *
+     * @param slot The slot of the game room.
+     */
+    private void seek(int slot) {
+        int tower = head;
+        for (int level = levels - 1; level >= 0; level--) {
+            int next;
+            while ((next = forward(tower, level)) != NONE && compareNames(next, slot) < 0) {
+                tower = slots.getInt(next, SLOT_TOWER);
+            }
+            predecessors[level] = tower;
+        }
+    }
+
+    /**
+     * Allocates a tower with the given {@code height}, with no forward links.
+     *
+     * @param height The height of the tower.
+     * @return The block of the tower.
+     */
+    private int allocateTower(int height) {
+        final int tower = blocks.allocate();
+        blocks.putInt(tower, BLOCK_NEXT, NONE);
+        blocks.putInt(tower, BLOCK_COUNT, height);
+        for (int level = 0; level < height; level++) {
+            setForward(tower, level, NONE);
+        }
+        return tower;
+    }
+
+    /**
+     * @param tower A tower.
+     * @param level A level of the tower.
+     * @return The slot of the next game room in the given level, or {@link #NONE} if it is the last one.
+     */
+    private int forward(int tower, int level) {
+        return blocks.getInt(tower, linkOffset(level));
+    }
+
+    /**
+     * @param tower A tower.
+     * @param level A level of the tower.
+     * @param slot  The slot of the next game room in the given level, or {@link #NONE} if it is the last one.
+     */
+    private void setForward(int tower, int level, int slot) {
+        blocks.putInt(tower, linkOffset(level), slot);
+    }
+
+    /**
+     * @param slot The slot of a game room.
+     * @return The amount of players in the players table of the game room (i.e all but the {@link #FREE_PLAYER}).
+     */
+    private int tablePlayers(int slot) {
+        return slots.getInt(slot, SLOT_PLAYERS) - slots.getInt(slot, SLOT_FREE_PLAYER);
+    }
+
+    /**
+     * Returns the position of the player with the given {@code playerId} in the players table of a game room.
+     *
+     * @param slot     The slot of the game room.
+     * @param table    The players table of the game room.
+     * @param playerId The id of the player (which is not the {@link #FREE_PLAYER}).
+     * @return The position, or {@link #NONE} if the player is not in the table.
+     */
+    private int positionOfPlayer(int slot, int table, long playerId) {
+        final Region region = tables[slots.getInt(slot, SLOT_PLAYERS_TABLE_CLASS)];
+        final int mask = tableLength(slots.getInt(slot, SLOT_PLAYERS_TABLE_CLASS)) - 1;
+        long entry;
+        for (int i = spread(Long.hashCode(playerId), mask);
+             (entry = region.getLong(table, playerOffset(i))) != FREE_PLAYER; i = (i + 1) & mask) {
+            if (entry == playerId) {
+                return i;
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Inserts the player with the given {@code playerId} into the players table of a game room
+     * (which has room for it, and does not hold the player).
+     *
+     * @param slot     The slot of the game room.
+     * @param table    The players table of the game room.
+     * @param playerId The id of the player (which is not the {@link #FREE_PLAYER}).
+     */
+    private void insertPlayer(int slot, int table, long playerId) {
+        final Region region = tables[slots.getInt(slot, SLOT_PLAYERS_TABLE_CLASS)];
+        final int mask = tableLength(slots.getInt(slot, SLOT_PLAYERS_TABLE_CLASS)) - 1;
+        int i = spread(Long.hashCode(playerId), mask);
+        while (region.getLong(table, playerOffset(i)) != FREE_PLAYER) {
+            i = (i + 1) & mask;
+        }
+        region.putLong(table, playerOffset(i), playerId);
+    }
+
+    /**
+     * Deletes the player in the given {@code position} of the players table of a game room,
+     * shifting back the following players whose probe sequence passes through it (as the index does).
+     *
+     * @param slot     The slot of the game room.
+     * @param table    The players table of the game room.
+     * @param position The position of the player.
+     */
+    private void deletePlayer(int slot, int table, int position) {
+        final Region region = tables[slots.getInt(slot, SLOT_PLAYERS_TABLE_CLASS)];
+        final int mask = tableLength(slots.getInt(slot, SLOT_PLAYERS_TABLE_CLASS)) - 1;
+        int gap = position;
+        long entry;
+        for (int i = (gap + 1) & mask; (entry = region.getLong(table, playerOffset(i))) != FREE_PLAYER;
+             i = (i + 1) & mask) {
+            final int ideal = spread(Long.hashCode(entry), mask);
+            if (((i - ideal) & mask) >= ((i - gap) & mask)) {
+                region.putLong(table, playerOffset(gap), entry);
+                gap = i;
+            }
+        }
+        region.putLong(table, playerOffset(gap), FREE_PLAYER);
+    }
+
+    /**
+     * Moves the players of a game room into a new (empty) players table of the given size class,
+     * freeing the current one (if any).
+     *
+     * @param slot     The slot of the game room.
+     * @param newClass The size class of the new players table.
+     * @return The new players table.
+     */
+    private int resizeTable(int slot, int newClass) {
+        if (tables[newClass] == null) {
+            // Chunks of the same size as the blocks ones (or of a single table, if it is bigger)
+            tables[newClass] = new Region(BLOCK_SIZE << newClass, Math.max(0, Region.CHUNK_BITS - newClass));
+        }
+        final Region region = tables[newClass];
+        final int resized = region.allocate();
+        for (int i = 0; i < tableLength(newClass); i++) {
+            region.putLong(resized, playerOffset(i), FREE_PLAYER);
+        }
+        final int table = slots.getInt(slot, SLOT_PLAYERS_TABLE);
+        final int tableClass = slots.getInt(slot, SLOT_PLAYERS_TABLE_CLASS);
+        slots.putInt(slot, SLOT_PLAYERS_TABLE, resized);
+        slots.putInt(slot, SLOT_PLAYERS_TABLE_CLASS, newClass);
+        if (table != NONE) {
+            for (int i = 0; i < tableLength(tableClass); i++) {
+                final long playerId = tables[tableClass].getLong(table, playerOffset(i));
+                if (playerId != FREE_PLAYER) {
+                    insertPlayer(slot, resized, playerId);
+                }
+            }
+            tables[tableClass].free(table);
+        }
+        return resized;
+    }
+
+    /**
+     * @param block A block.
+     * @return The next block of the chain, or {@link #NONE} if it is the last one.
+     */
+    private int next(int block) {
+        return blocks.getInt(block, BLOCK_NEXT);
+    }
+
+    /**
+     * Frees the chain of blocks starting at the given {@code block}.
+     *
+     * @param block The first block of the chain, or {@link #NONE}.
+     */
+    private void freeChain(int block) {
+        while (block != NONE) {
+            final int next = next(block);
+            blocks.free(block);
+            block = next;
+        }
+    }
+
+    /**
+     * Moves the entries of the index into a new index with the given {@code length}.
+     *
+     * @param length The length of the new index (a power of two).
+     */
+    private void rehash(int length) {
+        final LongBuffer old = index;
+        final LongBuffer rehashed = allocateIndex(length);
+        for (int i = 0; i < old.capacity(); i++) {
+            if (old.get(i) != FREE_ENTRY) {
+                insert(rehashed, old.get(i));
+            }
+        }
+        this.index = rehashed;
+    }
+
+    /**
+     * Inserts the given {@code entry} into the given index (which has room for it).
+     *
+     * @param index The index.
+     * @param entry The entry.
+     */
+    private static void insert(LongBuffer index, long entry) {
+        final int mask = index.capacity() - 1;
+        int i = spread(hashOf(entry), mask);
+        while (index.get(i) != FREE_ENTRY) {
+            i = (i + 1) & mask;
+        }
+        index.put(i, entry);
+    }
+
+    /**
+     * Allocates an empty index with the given {@code length}.
+     *
+     * @param length The length of the index.
+     * @return The index.
+     */
+    private static LongBuffer allocateIndex(int length) {
+        return ByteBuffer.allocateDirect(length * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    /**
+     * Returns the entry of the index of a game room.
+     *
+     * @param hash The hash of the game room name.
+     * @param slot The slot of the game room.
+     * @return The entry.
+     */
+    private static long entryOf(int hash, int slot) {
+        return ((long) hash << 32) | (slot + 1L);
+    }
+
+    /**
+     * @param entry An entry of the index.
+     * @return The hash of the game room name of the entry.
+     */
+    private static int hashOf(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    /**
+     * @param entry An entry of the index.
+     * @return The slot of the game room of the entry.
+     */
+    private static int slotOf(long entry) {
+        return (int) entry - 1;
+    }
+
+    /**
+     * Returns the position of the index in which an entry with the given {@code hash} should be.
+     *
+     * @param hash The hash of the game room name.
+     * @param mask The mask of the index (i.e its length minus one).
+     * @return The position.
+     */
+    private static int spread(int hash, int mask) {
+        final int spread = hash * 0x9E3779B9;
+        return (spread ^ (spread >>> 16)) & mask;
+    }
+
+    /**
+     * @param position The position of a char in a block.
+     * @return The offset of the char in the block.
+     */
+    private static int charOffset(int position) {
+        return BLOCK_VALUES + position * Character.BYTES;
+    }
+
+    /**
+     * @param level A level of a tower.
+     * @return The offset of the forward link of the given level in the tower block.
+     */
+    private static int linkOffset(int level) {
+        return BLOCK_VALUES + level * Integer.BYTES;
+    }
+
+    /**
+     * @param position The position of a player id in a players table.
+     * @return The offset of the player id in the table.
+     */
+    private static int playerOffset(int position) {
+        return position * Long.BYTES;
+    }
+
+    /**
+     * @param tableClass The size class of a players table.
+     * @return The length of the table (i.e the amount of player ids it can hold).
+     */
+    private static int tableLength(int tableClass) {
+        return MIN_TABLE_LENGTH << tableClass;
+    }
+
+    /**
+     * Off-heap memory split into fixed-size records, identified by consecutive ids.
+     * Records are allocated in chunks (each one a direct {@link ByteBuffer}), and freed records are linked in a list
+     * (through their first 4 bytes) to be reused.
+     */
+    private static final class Region {
+
+        /**
+         * The default amount of bits of a record id that select the record inside its chunk.
+         */
+        private static final int CHUNK_BITS = 16;
+
+        /**
+         * The size (in bytes) of a record.
+         */
+        private final int recordSize;
+
+        /**
+         * The amount of bits of a record id that select the record inside its chunk.
+         */
+        private final int chunkBits;
+
+        /**
+         * The mask to get the position of a record inside its chunk.
+         */
+        private final int chunkMask;
+
+        /**
+         * The chunks of this region.
+         */
+        private final List<ByteBuffer> chunks;
+
+        /**
+         * The amount of records ever allocated (i.e the ids below it were allocated at some moment).
+         */
+        private int allocated;
+
+        /**
+         * The amount of records in use.
+         */
+        private int used;
+
+        /**
+         * The id of the first freed record, or {@link #NONE} if there is none.
+         */
+        private int freeList;
+
+        /**
+         * Constructor.
+         *
+         * @param recordSize The size (in bytes) of a record.
+         * @param chunkBits  The amount of bits of a record id that select the record inside its chunk
+         *                   (i.e each chunk holds two to the power of it records).
+         */
+        private Region(int recordSize, int chunkBits) {
+            this.recordSize = recordSize;
+            this.chunkBits = chunkBits;
+            this.chunkMask = (1 << chunkBits) - 1;
+            this.chunks = new ArrayList<>();
+            this.allocated = 0;
+            this.used = 0;
+            this.freeList = NONE;
+        }
+
+        /**
+         * @return The id of a new record (its content is undefined).
+         */
+        private int allocate() {
+            final int id;
+            if (freeList != NONE) {
+                id = freeList;
+                freeList = getInt(id, 0);
+            } else {
+                if (allocated == chunks.size() << chunkBits) {
+                    chunks.add(ByteBuffer.allocateDirect(recordSize << chunkBits).order(ByteOrder.nativeOrder()));
+                }
+                id = allocated++;
+            }
+            used++;
+            return id;
+        }
+
+        /**
+         * Frees the record with the given {@code id}, overwriting its first 4 bytes.
+         *
+         * @param id The id of the record.
+         */
+        private void free(int id) {
+            putInt(id, 0, freeList);
+            freeList = id;
+            used--;
+        }
+
+        /**
+         * @param id     The id of a record.
+         * @param offset The offset of an {@code int} field inside the record.
+         * @return The value of the field.
+         */
+        private int getInt(int id, int offset) {
+            return chunks.get(id >>> chunkBits).getInt(position(id, offset));
+        }
+
+        /**
+         * @param id     The id of a record.
+         * @param offset The offset of an {@code int} field inside the record.
+         * @param value  The new value of the field.
+         */
+        private void putInt(int id, int offset, int value) {
+            chunks.get(id >>> chunkBits).putInt(position(id, offset), value);
+        }
+
+        /**
+         * @param id     The id of a record.
+         * @param offset The offset of a {@code long} field inside the record.
+         * @return The value of the field.
+         */
+        private long getLong(int id, int offset) {
+            return chunks.get(id >>> chunkBits).getLong(position(id, offset));
+        }
+
+        /**
+         * @param id     The id of a record.
+         * @param offset The offset of a {@code long} field inside the record.
+         * @param value  The new value of the field.
+         */
+        private void putLong(int id, int offset, long value) {
+            chunks.get(id >>> chunkBits).putLong(position(id, offset), value);
+        }
+
+        /**
+         * @param id     The id of a record.
+         * @param offset The offset of a {@code char} field inside the record.
+         * @return The value of the field.
+         */
+        private char getChar(int id, int offset) {
+            return chunks.get(id >>> chunkBits).getChar(position(id, offset));
+        }
+
+        /**
+         * @param id     The id of a record.
+         * @param offset The offset of a {@code char} field inside the record.
+         * @param value  The new value of the field.
+         */
+        private void putChar(int id, int offset, char value) {
+            chunks.get(id >>> chunkBits).putChar(position(id, offset), value);
+        }
+
+        /**
+         * Returns the position (inside its chunk) of a field of a record.
+         *
+         * @param id     The id of the record.
+         * @param offset The offset of the field inside the record.
+         * @return The position.
+         */
+        private int position(int id, int offset) {
+            return (id & chunkMask) * recordSize + offset;
+        }
+    }
+}
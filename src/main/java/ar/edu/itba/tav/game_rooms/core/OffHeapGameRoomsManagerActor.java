@@ -0,0 +1,387 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import akka.NotUsed;
+import akka.actor.AbstractActor;
+import akka.actor.Props;
+import akka.japi.pf.ReceiveBuilder;
+import akka.pattern.PatternsCS;
+import akka.stream.javadsl.Source;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.*;
+import ar.edu.itba.tav.game_rooms.utils.Deadline;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link akka.actor.Actor} in charge of managing game rooms held off-heap by an {@link OffHeapGameRoomRegistry},
+ * alternative to the {@link GameRoomsManagerActor} when there are millions of game rooms
+ * (i.e there is no actor, nor any other java object, per game room).
+ * Every operation is performed by this actor over its registry,
+ * with the same semantics as the {@link GameRoomActor} (i.e same results for the same operations).
+ * When a player joins a game room held by another manager, and it must leave its previous game room,
+ * the {@link LeaveGameRoomMessage} is sent through the parent (i.e the sharded manager),
+ * and the join is replied once the previous game room replied it (i.e once the player left it).
+ */
+/* package */ class OffHeapGameRoomsManagerActor extends AbstractActor {
+
+    /**
+     * Max. amount of milliseconds to wait for a game room held by another manager to make a player leave it,
+     * when the operation that made the player join a game room of this manager has no deadline.
+     */
+    private static final long LEAVE_TIMEOUT = 5000;
+
+    /**
+     * The {@link OffHeapGameRoomRegistry} holding the game rooms of this manager.
+     */
+    private final OffHeapGameRoomRegistry registry;
+
+    /**
+     * The amount of game rooms created by this manager.
+     * Used to give each game room an initial version that is greater than the versions of any other game room
+     * previously created with the same name (as the {@link GameRoomsManagerActor} does).
+     */
+    private long createdGameRooms;
+
+    /**
+     * The {@link PlayerDirectory} in which the players of the game rooms of this manager are registered.
+     */
+    private final PlayerDirectory playerDirectory;
+
+    /**
+     * Private constructor.
+     *
+     * @param playerDirectory The {@link PlayerDirectory} in which the players of the game rooms are registered.
+     */
+    private OffHeapGameRoomsManagerActor(PlayerDirectory playerDirectory) {
+        this.registry = new OffHeapGameRoomRegistry();
+        this.playerDirectory = playerDirectory;
+        this.createdGameRooms = 0;
+    }
+
+    @Override
+    public Receive createReceive() {
+        return ReceiveBuilder.create()
+                .match(DeadlineMessage.class, msg -> msg.getDeadline().isOverdue(), msg -> {
+                })
+                .match(GetAllGameRoomsMessage.class, this::getAllGameRooms)
+                .match(GetGameRoomsSourceMessage.class, this::getGameRoomsSource)
+                .match(GetSpecificGameRoomMessage.class, this::getSpecificGameRoom)
+                .match(CreateGameRoomMessage.class, this::createGameRoom)
+                .match(RemoveGameRoomMessage.class, this::removeGameRoom)
+                .match(AddPlayerMessage.class, this::addPlayer)
+                .match(RemovePlayerMessage.class, this::removePlayer)
+                .match(AddPlayersMessage.class, this::addPlayers)
+                .match(RemovePlayersMessage.class, this::removePlayers)
+                .match(LeaveGameRoomMessage.class, msg -> {
+                    leave(msg.getGameRoomName(), msg.getPlayerId());
+                    getSender().tell(PlayerOperationResult.SUCCESSFUL, getSelf());
+                })
+                .build();
+    }
+
+    /**
+     * Replies with the requested page of existing game rooms, ordered by name.
+     *
+     * @param msg The {@link GetAllGameRoomsMessage} indicating the page of game rooms to be retrieved.
+     */
+    private void getAllGameRooms(GetAllGameRoomsMessage msg) {
+        getSender().tell(gameRoomsPage(msg.getAfter(), msg.getLimit()), getSelf());
+    }
+
+    /**
+     * Replies with a {@link Source} that streams the data of the requested page of existing game rooms,
+     * ordered by name.
+     * The registry can only be accessed by this actor, so the data is taken when this method is called.
+     *
+     * @param msg The {@link GetGameRoomsSourceMessage} indicating the page of game rooms to be streamed.
+     */
+    private void getGameRoomsSource(GetGameRoomsSourceMessage msg) {
+        final Source<GameRoomDataMessage, NotUsed> source =
+                Source.from(gameRoomsPage(msg.getAfter(), msg.getLimit()));
+        getSender().tell(GameRoomsSourceMessage.getMessage(source), getSelf());
+    }
+
+    /**
+     * Replies with the data of the specified game room (wrapped in an {@link Optional}).
+     *
+     * @param msg The {@link GetSpecificGameRoomMessage} with containing the name of the game room to be retrieved.
+     */
+    private void getSpecificGameRoom(GetSpecificGameRoomMessage msg) {
+        final int slot = registry.lookup(msg.getGameRoomName());
+        getSender().tell(slot == OffHeapGameRoomRegistry.NONE ?
+                Optional.empty() : Optional.of(registry.snapshot(slot)), getSelf());
+    }
+
+    /**
+     * Creates a new game room.
+     *
+     * @param msg The {@link CreateGameRoomMessage} containing data for game room creation.
+     */
+    private void createGameRoom(CreateGameRoomMessage msg) {
+        final String gameRoomName = msg.getGameRoomName();
+        if (gameRoomName == null || msg.getCapacity() <= 0) {
+            getSender().tell(GameRoomCreationResult.INVALID, getSelf());
+            return;
+        }
+        if (registry.lookup(gameRoomName) != OffHeapGameRoomRegistry.NONE) {
+            getSender().tell(GameRoomCreationResult.NAME_REPEATED, getSelf());
+            return;
+        }
+        final long initialVersion = createdGameRooms << 32;
+        if (registry.create(gameRoomName, msg.getCapacity(), initialVersion) == OffHeapGameRoomRegistry.NONE) {
+            getSender().tell(GameRoomCreationResult.FAILURE, getSelf());
+            return;
+        }
+        this.createdGameRooms++;
+        getSender().tell(GameRoomCreationResult.CREATED, getSelf());
+    }
+
+    /**
+     * Removes a game room.
+     *
+     * @param msg The {@link RemoveGameRoomMessage} with the name of the game room to be removed.
+     */
+    private void removeGameRoom(RemoveGameRoomMessage msg) {
+        final int slot = registry.lookup(msg.getGameRoomName());
+        if (slot == OffHeapGameRoomRegistry.NONE) {
+            getSender().tell(GameRoomRemovalResult.NO_SUCH_GAME_ROOM, getSelf());
+            return;
+        }
+        for (long playerId : registry.snapshot(slot).getPlayers()) {
+            playerDirectory.leave(playerId, msg.getGameRoomName());
+        }
+        registry.remove(slot);
+        getSender().tell(GameRoomRemovalResult.REMOVED, getSelf());
+    }
+
+    /**
+     * Adds a player into a game room.
+     *
+     * @param msg The {@link AddPlayerMessage} holding the needed data to perform the operation.
+     */
+    private void addPlayer(AddPlayerMessage msg) {
+        final int slot = registry.lookup(msg.getGameRoomName());
+        if (slot == OffHeapGameRoomRegistry.NONE) {
+            getSender().tell(PlayerOperationResult.NO_SUCH_GAME_ROOM, getSelf());
+            return;
+        }
+        final long playerId = msg.getPlayerId();
+        final List<CompletableFuture<Object>> leaves = new ArrayList<>(1);
+        if (!registry.containsPlayer(slot, playerId)) {
+            if (registry.players(slot) == registry.capacity(slot)) {
+                getSender().tell(PlayerOperationResult.FULL_GAME_ROOM, getSelf());
+                return;
+            }
+            registry.addPlayer(slot, playerId);
+            registry.incrementVersion(slot);
+            registerJoin(msg.getGameRoomName(), playerId, msg.getDeadline(), leaves);
+        } else if (isLeaving(msg.getGameRoomName(), playerId)) {
+            registerJoin(msg.getGameRoomName(), playerId, msg.getDeadline(), leaves);
+        }
+        replyAfter(leaves, PlayerOperationResult.SUCCESSFUL);
+    }
+
+    /**
+     * Removes a player from a game room. This is an idempotent action.
+     *
+     * @param msg The {@link RemovePlayerMessage} holding the needed data to perform the operation.
+     */
+    private void removePlayer(RemovePlayerMessage msg) {
+        final int slot = registry.lookup(msg.getGameRoomName());
+        if (slot == OffHeapGameRoomRegistry.NONE) {
+            getSender().tell(PlayerOperationResult.NO_SUCH_GAME_ROOM, getSelf());
+            return;
+        }
+        if (registry.removePlayer(slot, msg.getPlayerId())) {
+            registry.incrementVersion(slot);
+            playerDirectory.leave(msg.getPlayerId(), msg.getGameRoomName());
+        }
+        getSender().tell(PlayerOperationResult.SUCCESSFUL, getSelf());
+    }
+
+    /**
+     * Adds a batch of players into a game room.
+     * This is an all-or-nothing operation: if the players that are not in the game room do not fit in it,
+     * none of them is added.
+     *
+     * @param msg The {@link AddPlayersMessage} holding the needed data to perform the operation.
+     */
+    private void addPlayers(AddPlayersMessage msg) {
+        final int slot = registry.lookup(msg.getGameRoomName());
+        if (slot == OffHeapGameRoomRegistry.NONE) {
+            getSender().tell(PlayersOperationResultMessage.getMessage(PlayerOperationResult.NO_SUCH_GAME_ROOM),
+                    getSelf());
+            return;
+        }
+        final List<Long> playerIds = msg.getPlayerIds();
+        final Set<Long> newPlayers = new HashSet<>();
+        for (Long playerId : playerIds) {
+            if (!registry.containsPlayer(slot, playerId)) {
+                newPlayers.add(playerId);
+            }
+        }
+        final List<PlayerResult> results = new ArrayList<>(playerIds.size());
+        if (registry.players(slot) + newPlayers.size() > registry.capacity(slot)) {
+            for (Long playerId : playerIds) {
+                results.add(newPlayers.contains(playerId) ? PlayerResult.REJECTED : PlayerResult.ALREADY_IN_GAME_ROOM);
+            }
+            getSender().tell(PlayersOperationResultMessage.getMessage(PlayerOperationResult.FULL_GAME_ROOM, results),
+                    getSelf());
+            return;
+        }
+        for (Long playerId : playerIds) {
+            // A player repeated in the batch is only new the first time
+            if (newPlayers.remove(playerId)) {
+                registry.addPlayer(slot, playerId);
+                results.add(PlayerResult.ADDED);
+            } else {
+                results.add(PlayerResult.ALREADY_IN_GAME_ROOM);
+            }
+        }
+        // The whole batch is a single change
+        if (results.contains(PlayerResult.ADDED)) {
+            registry.incrementVersion(slot);
+        }
+        final List<CompletableFuture<Object>> leaves = new ArrayList<>();
+        for (int i = 0; i < playerIds.size(); i++) {
+            if (results.get(i) == PlayerResult.ADDED || isLeaving(msg.getGameRoomName(), playerIds.get(i))) {
+                registerJoin(msg.getGameRoomName(), playerIds.get(i), msg.getDeadline(), leaves);
+            }
+        }
+        replyAfter(leaves, PlayersOperationResultMessage.getMessage(PlayerOperationResult.SUCCESSFUL, results));
+    }
+
+    /**
+     * Removes a batch of players from a game room. This is an idempotent action.
+     *
+     * @param msg The {@link RemovePlayersMessage} holding the needed data to perform the operation.
+     */
+    private void removePlayers(RemovePlayersMessage msg) {
+        final int slot = registry.lookup(msg.getGameRoomName());
+        if (slot == OffHeapGameRoomRegistry.NONE) {
+            getSender().tell(PlayersOperationResultMessage.getMessage(PlayerOperationResult.NO_SUCH_GAME_ROOM),
+                    getSelf());
+            return;
+        }
+        final List<PlayerResult> results = new ArrayList<>(msg.getPlayerIds().size());
+        boolean changed = false;
+        for (Long playerId : msg.getPlayerIds()) {
+            if (registry.removePlayer(slot, playerId)) {
+                playerDirectory.leave(playerId, msg.getGameRoomName());
+                results.add(PlayerResult.REMOVED);
+                changed = true;
+            } else {
+                results.add(PlayerResult.NOT_IN_GAME_ROOM);
+            }
+        }
+        if (changed) {
+            registry.incrementVersion(slot);
+        }
+        getSender().tell(PlayersOperationResultMessage.getMessage(PlayerOperationResult.SUCCESSFUL, results),
+                getSelf());
+    }
+
+    /**
+     * Indicates whether a player, which is in the given game room, is leaving it
+     * (i.e in single game room mode, the player joined another game room, and the {@link LeaveGameRoomMessage}
+     * that will remove it from this one is still pending). A player that joins the game room again while leaving it
+     * must be registered in it again, so the pending leave does not remove it.
+     *
+     * @param gameRoomName The name of the game room.
+     * @param playerId     The id of the player, which is in the game room.
+     * @return {@code true} if the player is leaving the game room, or {@code false} otherwise.
+     */
+    private boolean isLeaving(String gameRoomName, long playerId) {
+        return playerDirectory.isSingleGameRoom() && !playerDirectory.isIn(playerId, gameRoomName);
+    }
+
+    /**
+     * Makes a player leave a game room of this manager, as it joined another one
+     * (nothing happens if the game room is not in this manager, or if the player joined it again).
+     *
+     * @param gameRoomName The name of the game room.
+     * @param playerId     The id of the player.
+     */
+    private void leave(String gameRoomName, long playerId) {
+        final int slot = registry.lookup(gameRoomName);
+        if (slot != OffHeapGameRoomRegistry.NONE && !playerDirectory.isIn(playerId, gameRoomName)
+                && registry.removePlayer(slot, playerId)) {
+            registry.incrementVersion(slot);
+        }
+    }
+
+    /**
+     * Registers in the {@link PlayerDirectory} that a player joined a game room of this manager,
+     * making it leave its previous game room if it can only be in one.
+     * If the previous game room is held by another manager, the wait for it is added to the given {@code leaves}.
+     *
+     * @param gameRoomName The name of the game room.
+     * @param playerId     The id of the player.
+     * @param deadline     The {@link Deadline} of the operation (i.e until which the previous game room is waited).
+     * @param leaves       The {@link List} to which the wait for the previous game room is added.
+     */
+    private void registerJoin(String gameRoomName, long playerId, Deadline deadline,
+                              List<CompletableFuture<Object>> leaves) {
+        final String previous = playerDirectory.join(playerId, gameRoomName);
+        if (previous == null) {
+            return;
+        }
+        if (registry.lookup(previous) != OffHeapGameRoomRegistry.NONE) {
+            leave(previous, playerId);
+        } else {
+            leaves.add(PatternsCS.ask(getContext().getParent(), LeaveGameRoomMessage.getMessage(previous, playerId),
+                    deadline.timeLeftOr(LEAVE_TIMEOUT)).toCompletableFuture());
+        }
+    }
+
+    /**
+     * Replies the given {@code result} to the sender once the given {@code leaves} are done
+     * (i.e once the players that joined a game room left their previous one), or right away if there are none.
+     * The result is replied even if a previous game room did not reply in time (it will still remove the player).
+     *
+     * @param leaves The waits for the previous game rooms of the players that joined a game room.
+     * @param result The result of the operation.
+     */
+    private void replyAfter(List<CompletableFuture<Object>> leaves, Object result) {
+        if (leaves.isEmpty()) {
+            getSender().tell(result, getSelf());
+            return;
+        }
+        PatternsCS.pipe(CompletableFuture.allOf(leaves.toArray(new CompletableFuture<?>[0]))
+                .handle((ignored, failure) -> result), getContext().dispatcher())
+                .to(getSender(), getSelf());
+    }
+
+    /**
+     * Returns the data of the game rooms in the given page, ordered by game room name.
+     *
+     * @param after The name of the game room after which the page starts,
+     *              or {@code null} to start from the first one.
+     * @param limit The max. amount of game rooms in the page.
+     * @return A {@link List} with the {@link GameRoomDataMessage} of each game room in the page.
+     */
+    private List<GameRoomDataMessage> gameRoomsPage(String after, int limit) {
+        final int[] slots = registry.page(after, limit);
+        final List<GameRoomDataMessage> page = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            page.add(registry.snapshot(slot));
+        }
+        return page;
+    }
+
+    /**
+     * Create {@link Props} for an {@link akka.actor.Actor} of this type.
+     *
+     * @param playerDirectory The {@link PlayerDirectory} in which the players of the game rooms are registered.
+     * @return The created {@link Props}.
+     */
+    /* package */
+    static Props getProps(PlayerDirectory playerDirectory) {
+        return Props.create(OffHeapGameRoomsManagerActor.class,
+                () -> new OffHeapGameRoomsManagerActor(playerDirectory));
+    }
+}
@@ -0,0 +1,208 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import ar.edu.itba.tav.game_rooms.utils.LongObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Directory of the game rooms in which each player is, by player id (i.e the reverse of the game rooms players).
+ * It is updated by the game rooms each time a player is added or removed, and can be consulted from any thread,
+ * so finding the game rooms of a player does not require asking every game room.
+ * The directory is split into stripes (by player id), each one a primitive hash map guarded by its own lock.
+ * <p>
+ * In single game room mode, a player can only be in one game room: when the player joins another game room,
+ * the directory moves the player to it (in a single step), and the game room the player was in must then remove it.
+ */
+public final class PlayerDirectory {
+
+    /**
+     * The amount of stripes (a power of two).
+     */
+    private static final int AMOUNT_OF_STRIPES = 64;
+
+    /**
+     * Indicates whether a player can only be in one game room.
+     */
+    private final boolean singleGameRoom;
+
+    /**
+     * The stripes, each one mapping a player id to the name of the game room it is in,
+     * or to an array with the names of the game rooms it is in (if it is in more than one).
+     */
+    private final LongObjectHashMap<Object>[] stripes;
+
+    /**
+     * Constructor.
+     *
+     * @param singleGameRoom Indicates whether a player can only be in one game room.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public PlayerDirectory(boolean singleGameRoom) {
+        this.singleGameRoom = singleGameRoom;
+        // Arrays of a parameterized type can not be created, so a raw one is created (it only holds typed maps)
+        this.stripes = new LongObjectHashMap[AMOUNT_OF_STRIPES];
+        for (int i = 0; i < AMOUNT_OF_STRIPES; i++) {
+            this.stripes[i] = new LongObjectHashMap<>();
+        }
+    }
+
+    /**
+     * @return {@code true} if a player can only be in one game room, or {@code false} otherwise.
+     */
+    public boolean isSingleGameRoom() {
+        return singleGameRoom;
+    }
+
+    /**
+     * Registers that the player with the given {@code playerId} joined the given game room.
+     *
+     * @param playerId     The id of the player.
+     * @param gameRoomName The name of the game room.
+     * @return The name of the game room the player must leave (i.e in single game room mode,
+     * the game room in which the player was), or {@code null} if there is none.
+     */
+    public String join(long playerId, String gameRoomName) {
+        final LongObjectHashMap<Object> stripe = stripeOf(playerId);
+        synchronized (stripe) {
+            final Object gameRooms = stripe.put(playerId, gameRoomName);
+            if (gameRooms == null || gameRooms.equals(gameRoomName)) {
+                return null;
+            }
+            if (singleGameRoom) {
+                return (String) gameRooms;
+            }
+            stripe.put(playerId, with(gameRooms, gameRoomName));
+            return null;
+        }
+    }
+
+    /**
+     * Registers that the player with the given {@code playerId} left the given game room
+     * (nothing happens if the player is not registered in it).
+     *
+     * @param playerId     The id of the player.
+     * @param gameRoomName The name of the game room.
+     */
+    public void leave(long playerId, String gameRoomName) {
+        final LongObjectHashMap<Object> stripe = stripeOf(playerId);
+        synchronized (stripe) {
+            final Object gameRooms = stripe.get(playerId);
+            if (gameRooms == null || gameRooms instanceof String && !gameRooms.equals(gameRoomName)) {
+                return;
+            }
+            final Object remaining = gameRooms instanceof String ? null : without((String[]) gameRooms, gameRoomName);
+            if (remaining == null) {
+                stripe.remove(playerId);
+            } else {
+                stripe.put(playerId, remaining);
+            }
+        }
+    }
+
+    /**
+     * Indicates whether the player with the given {@code playerId} is registered in the given game room.
+     *
+     * @param playerId     The id of the player.
+     * @param gameRoomName The name of the game room.
+     * @return {@code true} if the player is registered in the game room, or {@code false} otherwise.
+     */
+    public boolean isIn(long playerId, String gameRoomName) {
+        final LongObjectHashMap<Object> stripe = stripeOf(playerId);
+        synchronized (stripe) {
+            final Object gameRooms = stripe.get(playerId);
+            return gameRooms instanceof String ?
+                    gameRooms.equals(gameRoomName) : gameRooms != null && contains((String[]) gameRooms, gameRoomName);
+        }
+    }
+
+    /**
+     * Returns the names of the game rooms in which the player with the given {@code playerId} is.
+     *
+     * @param playerId The id of the player.
+     * @return A {@link List} with the names of the game rooms, ordered by name (empty if the player is in none).
+     */
+    public List<String> lookup(long playerId) {
+        final LongObjectHashMap<Object> stripe = stripeOf(playerId);
+        final Object gameRooms;
+        synchronized (stripe) {
+            gameRooms = stripe.get(playerId);
+        }
+        if (gameRooms == null) {
+            return Collections.emptyList();
+        }
+        if (gameRooms instanceof String) {
+            return Collections.singletonList((String) gameRooms);
+        }
+        final List<String> names = new ArrayList<>(Arrays.asList((String[]) gameRooms));
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Returns the stripe in which the player with the given {@code playerId} is kept.
+     *
+     * @param playerId The id of the player.
+     * @return The stripe.
+     */
+    private LongObjectHashMap<Object> stripeOf(long playerId) {
+        return stripes[(int) (playerId ^ (playerId >>> 32)) & (AMOUNT_OF_STRIPES - 1)];
+    }
+
+    /**
+     * Returns the game rooms of a player adding the given {@code gameRoomName}.
+     * Arrays are never modified, as they might have been handed out.
+     *
+     * @param gameRooms    The game rooms of the player (a name, or an array of names).
+     * @param gameRoomName The name of the game room being added.
+     * @return The array of names.
+     */
+    private static String[] with(Object gameRooms, String gameRoomName) {
+        if (gameRooms instanceof String) {
+            return new String[]{(String) gameRooms, gameRoomName};
+        }
+        final String[] names = (String[]) gameRooms;
+        if (contains(names, gameRoomName)) {
+            return names;
+        }
+        final String[] added = Arrays.copyOf(names, names.length + 1);
+        added[names.length] = gameRoomName;
+        return added;
+    }
+
+    /**
+     * Returns the given game rooms of a player removing the given {@code gameRoomName}.
+     *
+     * @param names        The names of the game rooms of the player.
+     * @param gameRoomName The name of the game room being removed.
+     * @return The remaining game rooms (a name, or an array of names), or {@code null} if there is none.
+     */
+    private static Object without(String[] names, String gameRoomName) {
+        final String[] remaining = Arrays.stream(names)
+                .filter(name -> !Objects.equals(name, gameRoomName))
+                .toArray(String[]::new);
+        if (remaining.length == 0) {
+            return null;
+        }
+        return remaining.length == 1 ? remaining[0] : remaining;
+    }
+
+    /**
+     * Indicates whether the given {@code names} contain the given {@code gameRoomName}.
+     *
+     * @param names        The names of game rooms.
+     * @param gameRoomName The name of a game room.
+     * @return {@code true} if the name is contained, or {@code false} otherwise.
+     */
+    private static boolean contains(String[] names, String gameRoomName) {
+        for (String name : names) {
+            if (name.equals(gameRoomName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,382 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import akka.NotUsed;
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.OneForOneStrategy;
+import akka.actor.Props;
+import akka.actor.Status;
+import akka.actor.SupervisorStrategy;
+import akka.japi.pf.DeciderBuilder;
+import akka.japi.pf.ReceiveBuilder;
+import akka.pattern.PatternsCS;
+import akka.routing.ConsistentHash;
+import akka.stream.javadsl.Source;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.*;
+import ar.edu.itba.tav.game_rooms.utils.AggregatorActor;
+import ar.edu.itba.tav.game_rooms.utils.AggregatorActor.TimeoutPolicy;
+import ar.edu.itba.tav.game_rooms.utils.Deadline;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+/**
+ * {@link akka.actor.Actor} in charge of splitting the game rooms between several {@link GameRoomsManagerActor}s
+ * (or {@link OffHeapGameRoomsManagerActor}s), i.e shards, so game room operations are not serialized
+ * through a single mailbox.
+ * Messages over a specific game room are forwarded to the shard selected by a consistent hash of the game room name,
+ * while listing operations are sent to all the shards, and their results merged by game room name.
+ */
+public class ShardedGameRoomsManagerActor extends AbstractActor {
+
+    /**
+     * The {@link Logger} object.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShardedGameRoomsManagerActor.class);
+
+    /**
+     * The amount of virtual nodes per shard in the consistent hash.
+     */
+    private static final int VIRTUAL_NODES_FACTOR = 10;
+
+    /**
+     * The timeout (in milliseconds) for the shards to reply a listing operation, when the request has no deadline.
+     */
+    private static final long FAN_OUT_TIMEOUT = 3000;
+
+    /**
+     * The fraction of the time left until the deadline of a listing operation during which the shards are waited for
+     * (i.e the rest is left for the partial page to still reach the requester in time).
+     */
+    private static final double DEADLINE_FAN_OUT_FACTOR = 0.9;
+
+    /**
+     * The max. amount of shards whose replies to a listing operation are received by a single aggregator
+     * (i.e with more shards, replies are aggregated as a tree).
+     * As the amount of shards is usually about the amount of processors, listings are rarely aggregated as a tree
+     * (it is covered by the tests of the {@link AggregatorActor}).
+     */
+    private static final int AGGREGATION_FAN_OUT = 64;
+
+    /**
+     * {@link Comparator} of {@link GameRoomDataMessage} by game room name.
+     */
+    private static final Comparator<GameRoomDataMessage> BY_NAME = Comparator.comparing(GameRoomDataMessage::getName);
+
+    /**
+     * A {@link SupervisorStrategy} that escalates any shard failure, as restarting a shard would lose its game rooms
+     * (i.e the parent of this actor decides, as it did when there was a single {@link GameRoomsManagerActor}).
+     */
+    private static final SupervisorStrategy ESCALATE_STRATEGY = new OneForOneStrategy(false,
+            DeciderBuilder.matchAny(e -> SupervisorStrategy.escalate()).build());
+
+    /**
+     * The amount of shards.
+     */
+    private final int amountOfShards;
+
+    /**
+     * The {@link Props} of each shard.
+     */
+    private final Props shardProps;
+
+    /**
+     * The {@link ActorRef}s of the shards (i.e children game rooms managers).
+     */
+    private final List<ActorRef> shards;
+
+    /**
+     * The {@link ConsistentHash} used to select the shard of a game room by its name.
+     */
+    private ConsistentHash<ActorRef> shardsHash;
+
+    /**
+     * Private constructor.
+     *
+     * @param amountOfShards The amount of shards.
+     * @param shardProps     The {@link Props} of each shard.
+     */
+    private ShardedGameRoomsManagerActor(int amountOfShards, Props shardProps) {
+        this.amountOfShards = amountOfShards;
+        this.shardProps = shardProps;
+        this.shards = new ArrayList<>(amountOfShards);
+    }
+
+    @Override
+    public void preStart() {
+        for (int i = 0; i < amountOfShards; i++) {
+            shards.add(getContext().actorOf(shardProps, "shard-" + i));
+        }
+        this.shardsHash = ConsistentHash.create(shards, VIRTUAL_NODES_FACTOR);
+    }
+
+    @Override
+    public Receive createReceive() {
+        return ReceiveBuilder.create()
+                .match(DeadlineMessage.class, msg -> msg.getDeadline().isOverdue(), msg -> {
+                })
+                .match(GetAllGameRoomsMessage.class, this::getAllGameRooms)
+                .match(GetGameRoomsSourceMessage.class, this::getGameRoomsSource)
+                .match(GameRoomMessage.class, msg -> shardOf(msg.getGameRoomName()).forward(msg, getContext()))
+                .build();
+    }
+
+    @Override
+    public SupervisorStrategy supervisorStrategy() {
+        return ESCALATE_STRATEGY;
+    }
+
+    /**
+     * Replies with the requested page of existing game rooms, ordered by name,
+     * merging the pages of all the shards as they arrive.
+     * If a shard does not reply in time, the page is built with the shards that did,
+     * and replied as a {@link PartialGameRoomsPageMessage}.
+     * Nothing is replied if there is no time left to wait for the shards (i.e the request is overdue).
+     *
+     * @param msg The {@link GetAllGameRoomsMessage} indicating the page of game rooms to be retrieved.
+     */
+    private void getAllGameRooms(GetAllGameRoomsMessage msg) {
+        final long fanOutTimeout = fanOutTimeout(msg);
+        if (fanOutTimeout <= 0) {
+            return;
+        }
+        final ActorRef handler = getContext()
+                .actorOf(GetAllGameRoomsResponseHandler.getProps(getSelf(), getSender(), msg.getLimit()));
+        getContext().actorOf(AggregatorActor.props(List.class, msg, shards, handler, fanOutTimeout,
+                TimeoutPolicy.PARTIAL, true, AGGREGATION_FAN_OUT));
+    }
+
+    /**
+     * Replies with a {@link Source} that streams the requested page of existing game rooms, ordered by name,
+     * merging the (already sorted) sources of all the shards.
+     * Nothing is replied if there is no time left to wait for the shards (i.e the request is overdue).
+     *
+     * @param msg The {@link GetGameRoomsSourceMessage} indicating the page of game rooms to be streamed.
+     */
+    private void getGameRoomsSource(GetGameRoomsSourceMessage msg) {
+        final long fanOutTimeout = fanOutTimeout(msg);
+        if (fanOutTimeout <= 0) {
+            return;
+        }
+        final List<CompletableFuture<Source<GameRoomDataMessage, NotUsed>>> sources = shards.stream()
+                .map(shard -> PatternsCS.ask(shard, msg, fanOutTimeout)
+                        .thenApply(response -> ((GameRoomsSourceMessage) response).getSource())
+                        .toCompletableFuture())
+                .collect(Collectors.toList());
+        final CompletionStage<GameRoomsSourceMessage> source = CompletableFuture
+                .allOf(sources.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> sources.stream()
+                        .map(CompletableFuture::join)
+                        .reduce((first, second) -> first.mergeSorted(second, BY_NAME))
+                        .orElse(Source.empty())
+                        .take(msg.getLimit()))
+                .thenApply(GameRoomsSourceMessage::getMessage);
+        PatternsCS.pipe(source, getContext().dispatcher()).to(getSender(), getSelf());
+    }
+
+    /**
+     * Returns the shard in charge of the game room with the given {@code gameRoomName}.
+     *
+     * @param gameRoomName The name of the game room.
+     * @return The {@link ActorRef} of the shard.
+     */
+    private ActorRef shardOf(String gameRoomName) {
+        // Messages without name are invalid, and any shard can reject them
+        return gameRoomName == null ? shards.get(0) : shardsHash.nodeFor(gameRoomName);
+    }
+
+    /**
+     * Returns the time during which the shards are waited for to reply the given listing operation.
+     *
+     * @param msg The listing operation.
+     * @return The time (in milliseconds), which is not positive if the listing operation is overdue.
+     */
+    private static long fanOutTimeout(DeadlineMessage msg) {
+        final Deadline deadline = msg.getDeadline();
+        return deadline.isNone() ? FAN_OUT_TIMEOUT : (long) (deadline.timeLeft() * DEADLINE_FAN_OUT_FACTOR);
+    }
+
+    /**
+     * Merges two {@link List}s of {@link GameRoomDataMessage} ordered by name,
+     * keeping at most {@code limit} elements.
+     *
+     * @param first  A {@link List} of {@link GameRoomDataMessage} ordered by name.
+     * @param second Another {@link List} of {@link GameRoomDataMessage} ordered by name.
+     * @param limit  The max. amount of elements of the merged {@link List}.
+     * @return The merged {@link List}, ordered by name.
+     */
+    private static List<GameRoomDataMessage> mergeByName(List<GameRoomDataMessage> first,
+                                                         List<GameRoomDataMessage> second, int limit) {
+        final List<GameRoomDataMessage> merged = new ArrayList<>(Math.min(first.size() + second.size(), limit));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < first.size() || j < second.size())) {
+            if (j == second.size() || i < first.size() && BY_NAME.compare(first.get(i), second.get(j)) <= 0) {
+                merged.add(first.get(i++));
+            } else {
+                merged.add(second.get(j++));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Create {@link Props} for an {@link akka.actor.Actor} of this type.
+     *
+     * @param amountOfShards    The amount of shards (i.e {@link GameRoomsManagerActor}s).
+     * @param gameRoomDirectory The {@link GameRoomDirectory} in which the shards publish their game rooms.
+     * @param playerDirectory   The {@link PlayerDirectory} in which the shards register their players.
+     * @param idleTimeout       The time (in milliseconds) without messages after which a game room is passivated,
+     *                          or a non-positive value if game rooms must never be passivated.
+     * @return The created {@link Props}.
+     * @throws IllegalArgumentException If the {@code amountOfShards} is not positive.
+     */
+    public static Props getProps(int amountOfShards, GameRoomDirectory gameRoomDirectory,
+                                 PlayerDirectory playerDirectory, long idleTimeout) throws IllegalArgumentException {
+        return getProps(amountOfShards,
+                GameRoomsManagerActor.getProps(gameRoomDirectory, playerDirectory, idleTimeout));
+    }
+
+    /**
+     * Create {@link Props} for an {@link akka.actor.Actor} of this type,
+     * whose shards hold their game rooms off-heap (i.e {@link OffHeapGameRoomsManagerActor}s).
+     *
+     * @param amountOfShards  The amount of shards (i.e {@link OffHeapGameRoomsManagerActor}s).
+     * @param playerDirectory The {@link PlayerDirectory} in which the shards register their players.
+     * @return The created {@link Props}.
+     * @throws IllegalArgumentException If the {@code amountOfShards} is not positive.
+     */
+    public static Props getOffHeapProps(int amountOfShards, PlayerDirectory playerDirectory)
+            throws IllegalArgumentException {
+        return getProps(amountOfShards, OffHeapGameRoomsManagerActor.getProps(playerDirectory));
+    }
+
+    /**
+     * Create {@link Props} for an {@link akka.actor.Actor} of this type.
+     *
+     * @param amountOfShards The amount of shards.
+     * @param shardProps     The {@link Props} of each shard.
+     * @return The created {@link Props}.
+     * @throws IllegalArgumentException If the {@code amountOfShards} is not positive.
+     */
+    private static Props getProps(int amountOfShards, Props shardProps) throws IllegalArgumentException {
+        if (amountOfShards <= 0) {
+            throw new IllegalArgumentException("The amount of shards must be positive");
+        }
+        return Props.create(ShardedGameRoomsManagerActor.class,
+                () -> new ShardedGameRoomsManagerActor(amountOfShards, shardProps));
+    }
+
+    /**
+     * {@link akka.actor.Actor} in charge of building a page of game rooms with the pages streamed
+     * by an {@link AggregatorActor} sent to the shards (i.e each shard page is merged as soon as it arrives,
+     * so the shard pages are not held until all of them arrived).
+     */
+    private static final class GetAllGameRoomsResponseHandler extends AbstractActor {
+
+        /**
+         * {@link ActorRef} who must send the response.
+         */
+        private final ActorRef from;
+
+        /**
+         * {@link ActorRef} who must receive the response.
+         */
+        private final ActorRef respondTo;
+
+        /**
+         * The max. amount of game rooms in the page.
+         */
+        private final int limit;
+
+        /**
+         * The page built with the shard pages received so far, ordered by name.
+         */
+        private List<GameRoomDataMessage> page;
+
+        /**
+         * Private constructor.
+         *
+         * @param from      {@link ActorRef} who must send the response.
+         * @param respondTo {@link ActorRef} who must receive the response.
+         * @param limit     The max. amount of game rooms in the page.
+         */
+        private GetAllGameRoomsResponseHandler(ActorRef from, ActorRef respondTo, int limit) {
+            this.from = from;
+            this.respondTo = respondTo;
+            this.limit = limit;
+            this.page = new ArrayList<>();
+        }
+
+        @Override
+        public Receive createReceive() {
+            return ReceiveBuilder.create()
+                    .match(AggregatorActor.ResponseMessage.class, this::handleShardPage)
+                    .match(AggregatorActor.CompletedMessage.class, this::handleCompleted)
+                    .match(AggregatorActor.FailMessage.class, this::handleFailure)
+                    .build();
+        }
+
+        /**
+         * Merges the page of a shard into the page being built.
+         *
+         * @param msg The {@link AggregatorActor.ResponseMessage} containing the page of the shard.
+         */
+        private void handleShardPage(AggregatorActor.ResponseMessage<List<GameRoomDataMessage>> msg) {
+            this.page = mergeByName(page, msg.getResponse(), limit);
+        }
+
+        /**
+         * Replies with the built page, or with a {@link PartialGameRoomsPageMessage} if it lacks the game rooms
+         * of shards that did not reply in time.
+         *
+         * @param msg The {@link AggregatorActor.CompletedMessage} indicating the shards that did not reply.
+         */
+        private void handleCompleted(AggregatorActor.CompletedMessage msg) {
+            if (msg.getMissing().isEmpty()) {
+                respondTo.tell(page, from);
+            } else {
+                LOGGER.warn("{} shards did not reply in time. Replying a partial page of game rooms",
+                        msg.getMissing().size());
+                respondTo.tell(PartialGameRoomsPageMessage.getMessage(page, msg.getMissing().size()), from);
+            }
+            terminate();
+        }
+
+        /**
+         * Handles aggregation process failure (i.e replies with the failure).
+         *
+         * @param msg The {@link AggregatorActor.FailMessage} containing the {@link Throwable} that caused the failure.
+         */
+        private void handleFailure(AggregatorActor.FailMessage msg) {
+            respondTo.tell(new Status.Failure(msg.getError()), from);
+            terminate();
+        }
+
+        /**
+         * Stops this {@link akka.actor.Actor}.
+         */
+        private void terminate() {
+            this.getContext().stop(this.getSelf());
+        }
+
+        /**
+         * Create {@link Props} for an {@link akka.actor.Actor} of this type.
+         *
+         * @param from      {@link ActorRef} who must send the response.
+         * @param respondTo {@link ActorRef} who must receive the response.
+         * @param limit     The max. amount of game rooms in the page.
+         * @return The created {@link Props}.
+         */
+        private static Props getProps(ActorRef from, ActorRef respondTo, int limit) {
+            return Props.create(GetAllGameRoomsResponseHandler.class,
+                    () -> new GetAllGameRoomsResponseHandler(from, respondTo, limit));
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package ar.edu.itba.tav.game_rooms.http;
+
+import akka.util.ByteString;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomDataMessage;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache of serialized (i.e json) representations of game rooms.
+ * Each game room has at most one cached representation, keyed by the game room version,
+ * so repeated reads of an unchanged game room skip serialization.
+ * The cache is bounded (the least recently used representations are evicted), as game rooms might be lost
+ * or removed without passing through this server, and they might be too many to hold all their representations.
+ * It is safe to use this cache from different threads.
+ */
+/* package */ final class GameRoomRepresentationCache {
+
+    /**
+     * The max. amount of representations that are cached.
+     */
+    /* package */ static final int MAX_CACHED_REPRESENTATIONS = 16384;
+
+    /**
+     * {@link Map} holding the cached representation of each game room, by game room name,
+     * in access order (i.e least recently used first).
+     */
+    private final Map<String, Representation> representations;
+
+    /**
+     * The amount of times a cached representation was used.
+     */
+    private final LongAdder hits;
+
+    /**
+     * The amount of times a representation had to be serialized.
+     */
+    private final LongAdder misses;
+
+    /**
+     * The amount of representations evicted to keep the cache bounded.
+     */
+    private final LongAdder evictions;
+
+    /**
+     * Constructor.
+     */
+    @SuppressWarnings("serial") // The cache is never serialized
+    /* package */ GameRoomRepresentationCache() {
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.evictions = new LongAdder();
+        this.representations = Collections.synchronizedMap(new LinkedHashMap<String, Representation>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Representation> eldest) {
+                if (size() <= MAX_CACHED_REPRESENTATIONS) {
+                    return false;
+                }
+                evictions.increment();
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Returns the representation of the given {@code gameRoom}, with the given {@code location}.
+     * If there is a cached representation for the same version and location, it is returned.
+     * Otherwise, the given {@code serializer} is used, and its result is cached.
+     *
+     * @param gameRoom   The {@link GameRoomDataMessage} whose representation is requested.
+     * @param location   The location url of the game room (which is part of the representation).
+     * @param serializer A {@link Supplier} of the serialized game room, used when there is no cached representation.
+     * @return The serialized game room.
+     */
+    /* package */ ByteString getRepresentation(GameRoomDataMessage gameRoom, String location,
+                                               Supplier<ByteString> serializer) {
+        final Representation cached = representations.get(gameRoom.getName());
+        if (cached != null && cached.version == gameRoom.getVersion() && cached.location.equals(location)) {
+            hits.increment();
+            return cached.json;
+        }
+        misses.increment();
+        final Representation representation = new Representation(gameRoom.getVersion(), location, serializer.get());
+        // Do not replace a representation of a newer version
+        representations.merge(gameRoom.getName(), representation,
+                (oldValue, newValue) -> oldValue.version > newValue.version ? oldValue : newValue);
+        return representation.json;
+    }
+
+    /**
+     * Removes the cached representation of the game room with the given {@code gameRoomName}
+     * (i.e the game room changed, or was removed).
+     *
+     * @param gameRoomName The name of the game room.
+     */
+    /* package */ void invalidate(String gameRoomName) {
+        representations.remove(gameRoomName);
+    }
+
+    /**
+     * @return The amount of times a cached representation was used.
+     */
+    /* package */ long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return The amount of times a representation had to be serialized.
+     */
+    /* package */ long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return The amount of representations evicted to keep the cache bounded.
+     */
+    /* package */ long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return The amount of cached representations.
+     */
+    /* package */ int getSize() {
+        return representations.size();
+    }
+
+    /**
+     * A cached representation of a game room.
+     */
+    private static final class Representation {
+
+        /**
+         * The version of the game room that was serialized.
+         */
+        private final long version;
+
+        /**
+         * The location url included in the representation.
+         */
+        private final String location;
+
+        /**
+         * The serialized game room.
+         */
+        private final ByteString json;
+
+        /**
+         * Private constructor.
+         *
+         * @param version  The version of the game room that was serialized.
+         * @param location The location url included in the representation.
+         * @param json     The serialized game room.
+         */
+        private Representation(long version, String location, ByteString json) {
+            this.version = version;
+            this.location = location;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package ar.edu.itba.tav.game_rooms.http;
+
+import ar.edu.itba.tav.game_rooms.core.GameRoomStore;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomsSourceMessage;
+import ar.edu.itba.tav.game_rooms.messages.HttpRequestMessages.*;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Class in charge of handling the game rooms requests with a {@link GameRoomStore}
+ * (i.e the in-process game rooms engine), instead of passing them to an {@link HttpRequestHandlerActor}.
+ * Requests are handled by the calling thread, replying the same values as the {@link HttpRequestHandlerActor}.
+ */
+/* package */ final class GameRoomStoreRequestHandler {
+
+    /**
+     * The {@link GameRoomStore} holding the game rooms.
+     */
+    private final GameRoomStore gameRoomStore;
+
+    /**
+     * Constructor.
+     *
+     * @param gameRoomStore The {@link GameRoomStore} holding the game rooms.
+     */
+    /* package */ GameRoomStoreRequestHandler(GameRoomStore gameRoomStore) {
+        this.gameRoomStore = gameRoomStore;
+    }
+
+    /**
+     * Handles the given {@code request}, if it is a game rooms request.
+     *
+     * @param request The request to be handled.
+     * @return A {@link CompletionStage} that will be completed with the response,
+     * or empty if the request is not a game rooms request.
+     */
+    /* package */ Optional<CompletionStage<Object>> handle(Object request) {
+        return Optional.ofNullable(response(request)).map(CompletableFuture::completedFuture);
+    }
+
+    /**
+     * Returns the response for the given {@code request}.
+     *
+     * @param request The request to be handled.
+     * @return The response, or {@code null} if the request is not a game rooms request.
+     */
+    private Object response(Object request) {
+        if (request instanceof GetAllGameRoomsRequest) {
+            final GetAllGameRoomsRequest msg = (GetAllGameRoomsRequest) request;
+            return gameRoomStore.getGameRooms(msg.getAfter(), msg.getLimit());
+        }
+        if (request instanceof GetGameRoomsStreamRequest) {
+            final GetGameRoomsStreamRequest msg = (GetGameRoomsStreamRequest) request;
+            return GameRoomsSourceMessage.getMessage(gameRoomStore.getGameRoomsSource(msg.getAfter(), msg.getLimit()));
+        }
+        if (request instanceof GetGameRoomRequest) {
+            return gameRoomStore.getGameRoom(((GetGameRoomRequest) request).getGameRoomName());
+        }
+        if (request instanceof CreateGameRoomRequest) {
+            final CreateGameRoomRequest msg = (CreateGameRoomRequest) request;
+            return gameRoomStore.createGameRoom(msg.getGameRoomName(), msg.getCapacity());
+        }
+        if (request instanceof RemoveGameRoomRequest) {
+            return gameRoomStore.removeGameRoom(((RemoveGameRoomRequest) request).getGameRoomName());
+        }
+        if (request instanceof AddPlayerToGameRoomRequest) {
+            final AddPlayerToGameRoomRequest msg = (AddPlayerToGameRoomRequest) request;
+            return gameRoomStore.addPlayer(msg.getGameRoomName(), msg.getPlayerId());
+        }
+        if (request instanceof RemovePlayerFromGameRoomRequest) {
+            final RemovePlayerFromGameRoomRequest msg = (RemovePlayerFromGameRoomRequest) request;
+            return gameRoomStore.removePlayer(msg.getGameRoomName(), msg.getPlayerId());
+        }
+        if (request instanceof AddPlayersToGameRoomRequest) {
+            final AddPlayersToGameRoomRequest msg = (AddPlayersToGameRoomRequest) request;
+            return gameRoomStore.addPlayers(msg.getGameRoomName(), msg.getPlayerIds());
+        }
+        if (request instanceof RemovePlayersFromGameRoomRequest) {
+            final RemovePlayersFromGameRoomRequest msg = (RemovePlayersFromGameRoomRequest) request;
+            return gameRoomStore.removePlayers(msg.getGameRoomName(), msg.getPlayerIds());
+        }
+        if (request instanceof GetPlayerGameRoomsRequest) {
+            return gameRoomStore.getPlayerGameRooms(((GetPlayerGameRoomsRequest) request).getPlayerId());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,252 @@
+package ar.edu.itba.tav.game_rooms.http;
+
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomDataMessage;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent retrievals of the same page of game rooms (i.e single-flight):
+ * while a page is being retrieved, requests for the same page wait for (and share) its result,
+ * instead of retrieving it again. Optionally, a retrieved page keeps being shared during a staleness window.
+ * A game room update drops the shared pages that may hold the game room (see {@link #invalidate(String)}),
+ * so a page retrieved after an update finished always includes it, while the other pages keep being shared.
+ * Partial pages (i.e lacking game rooms that could not be retrieved in time) are never shared:
+ * requests that were waiting for a retrieval that turned out partial retrieve the page themselves.
+ * It is safe to use this coalescer from different threads.
+ */
+/* package */ final class GameRoomsListCoalescer {
+
+    /**
+     * The amount of shared pages above which expired pages are dropped before sharing a new one.
+     */
+    private static final int MAX_FLIGHTS = 1024;
+
+    /**
+     * The time (in nanoseconds) during which a retrieved page keeps being shared.
+     */
+    private final long stalenessWindow;
+
+    /**
+     * {@link Map} holding the shared pages, by page.
+     */
+    private final Map<Page, Flight> flights;
+
+    /**
+     * The amount of requests that shared the result of another one.
+     */
+    private final LongAdder shared;
+
+    /**
+     * The amount of requests that retrieved the page.
+     */
+    private final LongAdder retrieved;
+
+    /**
+     * Constructor.
+     *
+     * @param stalenessWindow The time (in milliseconds) during which a retrieved page keeps being shared,
+     *                        or a non-positive value if pages must only be shared while being retrieved.
+     */
+    /* package */ GameRoomsListCoalescer(long stalenessWindow) {
+        this.stalenessWindow = TimeUnit.MILLISECONDS.toNanos(Math.max(stalenessWindow, 0));
+        this.flights = new ConcurrentHashMap<>();
+        this.shared = new LongAdder();
+        this.retrieved = new LongAdder();
+    }
+
+    /**
+     * Returns the requested page of game rooms, sharing the result of a concurrent (or recent) retrieval
+     * of the same page if there is one, or retrieving it with the given {@code retriever} otherwise.
+     *
+     * @param after     The name of the game room after which the page starts, or {@code null} to start from the first.
+     * @param limit     The max. amount of game rooms in the page.
+     * @param retriever A {@link Supplier} of the retrieval of the page.
+     * @return A {@link CompletionStage} that will be completed with the page of game rooms.
+     */
+    /* package */ CompletionStage<GameRoomsPage> getGameRooms(String after, int limit,
+                                                           Supplier<CompletionStage<GameRoomsPage>> retriever) {
+        final Page page = new Page(after, limit);
+        while (true) {
+            final Flight flight = flights.get(page);
+            if (flight != null && flight.isShareable(System.nanoTime())) {
+                shared.increment();
+                return flight.result.thenCompose(gameRooms -> {
+                    if (!gameRooms.isPartial()) {
+                        return CompletableFuture.completedFuture(gameRooms);
+                    }
+                    retrieved.increment();
+                    return retriever.get();
+                });
+            }
+            final Flight newFlight = new Flight();
+            final boolean owned = flight == null ?
+                    flights.putIfAbsent(page, newFlight) == null : flights.replace(page, flight, newFlight);
+            if (!owned) {
+                continue; // Another request started retrieving the page
+            }
+            if (flight == null && flights.size() > MAX_FLIGHTS) {
+                final long now = System.nanoTime();
+                flights.values().removeIf(each -> !each.isShareable(now));
+            }
+            retrieved.increment();
+            retriever.get().whenComplete((gameRooms, failure) -> {
+                if (failure != null || stalenessWindow == 0 || gameRooms.isPartial()) {
+                    flights.remove(page, newFlight);
+                }
+                newFlight.completedAt = System.nanoTime();
+                if (failure != null) {
+                    newFlight.result.completeExceptionally(failure);
+                } else {
+                    newFlight.result.complete(gameRooms);
+                }
+            });
+            return newFlight.result;
+        }
+    }
+
+    /**
+     * Drops the shared pages (i.e game rooms were updated, so requests arriving from now on retrieve them again).
+     */
+    /* package */ void invalidate() {
+        flights.clear();
+    }
+
+    /**
+     * Drops the shared pages that may hold the game room with the given {@code gameRoomName}
+     * (i.e it was updated, so requests of those pages arriving from now on retrieve them again).
+     * A page may hold the game room if its name is after the page cursor, and the page is not complete yet,
+     * or it is not full (i.e it holds every game room after its cursor), or its name is not after the last game room.
+     *
+     * @param gameRoomName The name of the updated game room.
+     */
+    /* package */ void invalidate(String gameRoomName) {
+        flights.entrySet().removeIf(flight -> flight.getKey().mayHold(gameRoomName, flight.getValue()));
+    }
+
+    /**
+     * @return The amount of requests that shared the result of another one.
+     */
+    /* package */ long getShared() {
+        return shared.sum();
+    }
+
+    /**
+     * @return The amount of requests that retrieved the page.
+     */
+    /* package */ long getRetrieved() {
+        return retrieved.sum();
+    }
+
+    /**
+     * @return The amount of shared pages.
+     */
+    /* package */ int getSize() {
+        return flights.size();
+    }
+
+    /**
+     * A retrieval of a page of game rooms, shared by the requests of the page.
+     */
+    private final class Flight {
+
+        /**
+         * The {@link CompletableFuture} that is completed with the page.
+         */
+        private final CompletableFuture<GameRoomsPage> result;
+
+        /**
+         * The time (as in {@link System#nanoTime()}) at which the page was retrieved.
+         */
+        private volatile long completedAt;
+
+        /**
+         * Private constructor.
+         */
+        private Flight() {
+            this.result = new CompletableFuture<>();
+        }
+
+        /**
+         * Indicates whether this retrieval can be shared by a new request.
+         *
+         * @param now The current time (as in {@link System#nanoTime()}).
+         * @return {@code true} if the page is still being retrieved, or was completely retrieved
+         * within the staleness window, or {@code false} otherwise.
+         */
+        private boolean isShareable(long now) {
+            return !result.isDone() || !result.isCompletedExceptionally() && !result.join().isPartial()
+                    && now - completedAt <= stalenessWindow;
+        }
+    }
+
+    /**
+     * A page of game rooms (i.e the key of a shared retrieval).
+     */
+    private static final class Page {
+
+        /**
+         * The name of the game room after which the page starts, or {@code null} to start from the first one.
+         */
+        private final String after;
+
+        /**
+         * The max. amount of game rooms in the page.
+         */
+        private final int limit;
+
+        /**
+         * Private constructor.
+         *
+         * @param after The name of the game room after which the page starts.
+         * @param limit The max. amount of game rooms in the page.
+         */
+        private Page(String after, int limit) {
+            this.after = after;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Page)) {
+                return false;
+            }
+            final Page page = (Page) o;
+            return limit == page.limit && Objects.equals(after, page.after);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(after, limit);
+        }
+
+        /**
+         * Indicates whether the game room with the given {@code gameRoomName} may be in this page.
+         *
+         * @param gameRoomName The name of the game room.
+         * @param flight       The retrieval of this page.
+         * @return {@code true} if the game room may be in this page, or {@code false} otherwise.
+         */
+        private boolean mayHold(String gameRoomName, Flight flight) {
+            if (after != null && gameRoomName.compareTo(after) <= 0) {
+                return false;
+            }
+            if (!flight.result.isDone() || flight.result.isCompletedExceptionally()) {
+                return true;
+            }
+            final List<GameRoomDataMessage> gameRooms = flight.result.join().getGameRooms();
+            return gameRooms.size() < limit
+                    || gameRoomName.compareTo(gameRooms.get(gameRooms.size() - 1).getName()) <= 0;
+        }
+    }
+}
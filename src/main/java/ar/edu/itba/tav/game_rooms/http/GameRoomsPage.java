@@ -0,0 +1,64 @@
+package ar.edu.itba.tav.game_rooms.http;
+
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomDataMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.PartialGameRoomsPageMessage;
+
+import java.util.List;
+
+/**
+ * A page of game rooms retrieved for a game rooms retrieval request,
+ * indicating whether it lacks game rooms that could not be retrieved in time (i.e it is partial).
+ */
+/* package */ final class GameRoomsPage {
+
+    /**
+     * The game rooms of the page, ordered by name.
+     */
+    private final List<GameRoomDataMessage> gameRooms;
+
+    /**
+     * Indicates whether the page lacks game rooms that could not be retrieved in time.
+     */
+    private final boolean partial;
+
+    /**
+     * Private constructor.
+     *
+     * @param gameRooms The game rooms of the page, ordered by name.
+     * @param partial   Indicates whether the page lacks game rooms that could not be retrieved in time.
+     */
+    private GameRoomsPage(List<GameRoomDataMessage> gameRooms, boolean partial) {
+        this.gameRooms = gameRooms;
+        this.partial = partial;
+    }
+
+    /**
+     * @return The game rooms of the page, ordered by name.
+     */
+    /* package */ List<GameRoomDataMessage> getGameRooms() {
+        return gameRooms;
+    }
+
+    /**
+     * @return {@code true} if the page lacks game rooms that could not be retrieved in time,
+     * or {@code false} otherwise.
+     */
+    /* package */ boolean isPartial() {
+        return partial;
+    }
+
+    /**
+     * Creates a {@link GameRoomsPage} from the reply to a game rooms retrieval request
+     * (i.e a {@link List} of {@link GameRoomDataMessage}, or a {@link PartialGameRoomsPageMessage}).
+     *
+     * @param reply The reply.
+     * @return The new {@link GameRoomsPage}.
+     */
+    @SuppressWarnings("unchecked")
+    /* package */ static GameRoomsPage fromReply(Object reply) {
+        if (reply instanceof PartialGameRoomsPageMessage) {
+            return new GameRoomsPage(((PartialGameRoomsPageMessage) reply).getGameRooms(), true);
+        }
+        return new GameRoomsPage((List<GameRoomDataMessage>) reply, false);
+    }
+}
@@ -3,20 +3,22 @@ package ar.edu.itba.tav.game_rooms.http;
 import akka.actor.AbstractActor;
 import akka.actor.ActorRef;
 import akka.actor.Props;
+import akka.actor.Status;
 import akka.japi.pf.ReceiveBuilder;
-import akka.pattern.Patterns;
+import akka.pattern.PatternsCS;
+import akka.stream.javadsl.Source;
 import akka.util.Timeout;
+import ar.edu.itba.tav.game_rooms.core.GameRoomDirectory;
+import ar.edu.itba.tav.game_rooms.core.PlayerDirectory;
 import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.*;
 import ar.edu.itba.tav.game_rooms.messages.HttpRequestMessages.*;
 import ar.edu.itba.tav.game_rooms.messages.SystemMonitorMessages.GetDataMessage;
-import scala.concurrent.Await;
-import scala.concurrent.Future;
 import scala.concurrent.duration.Duration;
 import scala.concurrent.duration.FiniteDuration;
 
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -29,6 +31,18 @@ import java.util.concurrent.TimeUnit;
      */
     private final ActorRef gameRoomManager;
 
+    /**
+     * The {@link GameRoomDirectory} used to send player operations directly to the game rooms,
+     * or {@code null} if game rooms are not published in a directory (i.e they are sharded in a cluster).
+     */
+    private final GameRoomDirectory gameRoomDirectory;
+
+    /**
+     * The {@link PlayerDirectory} used to find the game rooms of a player,
+     * or {@code null} if players are not registered in a directory (i.e game rooms are sharded in a cluster).
+     */
+    private final PlayerDirectory playerDirectory;
+
     /**
      * The {@link ActorRef} for the system monitor.
      */
@@ -37,48 +51,77 @@ import java.util.concurrent.TimeUnit;
     /**
      * Private constructor.
      *
-     * @param gameRoomManager The {@link ActorRef} for the game room manager.
-     * @param systemMonitor   The {@link ActorRef} for the system monitor.ø
+     * @param gameRoomManager   The {@link ActorRef} for the game room manager.
+     * @param gameRoomDirectory The {@link GameRoomDirectory} used to send player operations directly to the game rooms.
+     * @param playerDirectory   The {@link PlayerDirectory} used to find the game rooms of a player.
+     * @param systemMonitor     The {@link ActorRef} for the system monitor.
      */
-    private HttpRequestHandlerActor(ActorRef gameRoomManager, ActorRef systemMonitor) {
+    private HttpRequestHandlerActor(ActorRef gameRoomManager, GameRoomDirectory gameRoomDirectory,
+                                    PlayerDirectory playerDirectory, ActorRef systemMonitor) {
         this.gameRoomManager = gameRoomManager;
+        this.gameRoomDirectory = gameRoomDirectory;
+        this.playerDirectory = playerDirectory;
         this.systemMonitor = systemMonitor;
     }
 
     @Override
     public Receive createReceive() {
         return ReceiveBuilder.create()
+                // Requests whose deadline passed while waiting in the mailbox are not even replied
+                .match(DeadlineMessage.class, msg -> msg.getDeadline().isOverdue(), msg -> {
+                })
                 .match(GetAllGameRoomsRequest.class, this::handleGetAllGameRoomsRequest)
+                .match(GetGameRoomsStreamRequest.class, this::handleGetGameRoomsStreamRequest)
                 .match(GetGameRoomRequest.class, this::handleGetGameRoomRequest)
                 .match(CreateGameRoomRequest.class, this::handleCreateGameRoomRequest)
                 .match(RemoveGameRoomRequest.class, this::handleRemoveGameRoomRequest)
                 .match(AddPlayerToGameRoomRequest.class, this::handleAddPlayerToGameRoomRequest)
                 .match(RemovePlayerFromGameRoomRequest.class, this::handleRemovePlayerToGameRoomRequest)
-                .match(GetSystemMonitorDataRequest.class, msg -> this.handleSystemMonitorRequest())
+                .match(AddPlayersToGameRoomRequest.class, this::handleAddPlayersToGameRoomRequest)
+                .match(RemovePlayersFromGameRoomRequest.class, this::handleRemovePlayersFromGameRoomRequest)
+                .match(GetPlayerGameRoomsRequest.class, this::handleGetPlayerGameRoomsRequest)
+                .match(GetSystemMonitorDataRequest.class, this::handleSystemMonitorRequest)
                 .build();
     }
 
     /**
-     * Handles a {@link GetAllGameRoomsRequest}.
+     * Handles a {@link GetAllGameRoomsRequest}
+     * (replying a {@link List} of game rooms, or a {@link PartialGameRoomsPageMessage} if some could not be retrieved).
+     * Failures are replied as such, so they are not taken as an empty page.
      *
      * @param request The request to be handled.
      */
     private void handleGetAllGameRoomsRequest(GetAllGameRoomsRequest request) {
-        final GetAllGameRoomsMessage msg = GetAllGameRoomsMessage.getMessage();
-        final List<GameRoomDataMessage> gameRooms = askTheGameRoomManager(msg, request.getTimeout(), new LinkedList<>());
-        reportSender(gameRooms);
+        final GetAllGameRoomsMessage msg =
+                GetAllGameRoomsMessage.getMessage(request.getAfter(), request.getLimit(), request.getDeadline());
+        final CompletionStage<Object> gameRooms = askTheGameRoomManagerOrFail(msg);
+        pipeToSender(gameRooms);
+    }
+
+    /**
+     * Handles a {@link GetGameRoomsStreamRequest}.
+     *
+     * @param request The request to be handled.
+     */
+    private void handleGetGameRoomsStreamRequest(GetGameRoomsStreamRequest request) {
+        final GetGameRoomsSourceMessage msg =
+                GetGameRoomsSourceMessage.getMessage(request.getAfter(), request.getLimit(), request.getDeadline());
+        final CompletionStage<GameRoomsSourceMessage> gameRooms =
+                askTheGameRoomManager(msg, GameRoomsSourceMessage.getMessage(Source.empty()));
+        pipeToSender(gameRooms);
     }
 
     /**
      * Handles a {@link GetGameRoomRequest}.
+     * Failures are replied as such, so they are not taken as a missing game room.
      *
      * @param request The request to be handled.
      */
     private void handleGetGameRoomRequest(GetGameRoomRequest request) {
-        final GetSpecificGameRoomMessage msg = GetSpecificGameRoomMessage.getMessage(request.getGameRoomName());
-        final Optional<GameRoomDataMessage> gameRoom =
-                askTheGameRoomManager(msg, request.getTimeout(), Optional.empty());
-        reportSender(gameRoom);
+        final GetSpecificGameRoomMessage msg =
+                GetSpecificGameRoomMessage.getMessage(request.getGameRoomName(), request.getDeadline());
+        final CompletionStage<Object> gameRoom = askTheGameRoomManagerOrFail(msg);
+        pipeToSender(gameRoom);
     }
 
     /**
@@ -89,9 +132,9 @@ import java.util.concurrent.TimeUnit;
     private void handleCreateGameRoomRequest(CreateGameRoomRequest request) {
         final String gameRoomName = request.getGameRoomName();
         final int capacity = request.getCapacity();
-        final CreateGameRoomMessage msg = CreateGameRoomMessage.getMessage(gameRoomName, capacity);
-        final GameRoomCreationResult result = askTheGameRoomManagerToCreateAGameRoom(msg, request.getTimeout());
-        reportSender(result);
+        final CreateGameRoomMessage msg =
+                CreateGameRoomMessage.getMessage(gameRoomName, capacity, request.getDeadline());
+        pipeToSender(askTheGameRoomManagerToCreateAGameRoom(msg));
     }
 
     /**
@@ -100,9 +143,9 @@ import java.util.concurrent.TimeUnit;
      * @param request The request to be handled.
      */
     private void handleRemoveGameRoomRequest(RemoveGameRoomRequest request) {
-        final RemoveGameRoomMessage msg = RemoveGameRoomMessage.getMessage(request.getGameRoomName());
-        final GameRoomRemovalResult result = askTheGameRoomManagerToRemoveAGameRoom(msg, request.getTimeout());
-        reportSender(result);
+        final RemoveGameRoomMessage msg =
+                RemoveGameRoomMessage.getMessage(request.getGameRoomName(), request.getDeadline());
+        pipeToSender(askTheGameRoomManagerToRemoveAGameRoom(msg));
     }
 
     /**
@@ -111,8 +154,9 @@ import java.util.concurrent.TimeUnit;
      * @param request The request to be handled.
      */
     private void handleAddPlayerToGameRoomRequest(AddPlayerToGameRoomRequest request) {
-        final AddPlayerMessage msg = AddPlayerMessage.getMessage(request.getGameRoomName(), request.getPlayerId());
-        reportSender(askTheGameRoomManager(msg, request.getTimeout(), PlayerOperationResult.FAILURE));
+        final AddPlayerMessage msg =
+                AddPlayerMessage.getMessage(request.getGameRoomName(), request.getPlayerId(), request.getDeadline());
+        pipeToSender(askTheGameRoom(request.getGameRoomName(), msg, PlayerOperationResult.FAILURE));
     }
 
     /**
@@ -122,16 +166,57 @@ import java.util.concurrent.TimeUnit;
      */
     private void handleRemovePlayerToGameRoomRequest(RemovePlayerFromGameRoomRequest request) {
         final RemovePlayerMessage msg = RemovePlayerMessage
-                .getMessage(request.getGameRoomName(), request.getPlayerId());
-        reportSender(askTheGameRoomManager(msg, request.getTimeout(), PlayerOperationResult.FAILURE));
+                .getMessage(request.getGameRoomName(), request.getPlayerId(), request.getDeadline());
+        pipeToSender(askTheGameRoom(request.getGameRoomName(), msg, PlayerOperationResult.FAILURE));
+    }
+
+    /**
+     * Handles a {@link AddPlayersToGameRoomRequest}.
+     *
+     * @param request The request to be handled.
+     */
+    private void handleAddPlayersToGameRoomRequest(AddPlayersToGameRoomRequest request) {
+        final AddPlayersMessage msg = AddPlayersMessage
+                .getMessage(request.getGameRoomName(), request.getPlayerIds(), request.getDeadline());
+        pipeToSender(askTheGameRoom(request.getGameRoomName(), msg,
+                PlayersOperationResultMessage.getMessage(PlayerOperationResult.FAILURE)));
+    }
+
+    /**
+     * Handles a {@link RemovePlayersFromGameRoomRequest}.
+     *
+     * @param request The request to be handled.
+     */
+    private void handleRemovePlayersFromGameRoomRequest(RemovePlayersFromGameRoomRequest request) {
+        final RemovePlayersMessage msg = RemovePlayersMessage
+                .getMessage(request.getGameRoomName(), request.getPlayerIds(), request.getDeadline());
+        pipeToSender(askTheGameRoom(request.getGameRoomName(), msg,
+                PlayersOperationResultMessage.getMessage(PlayerOperationResult.FAILURE)));
+    }
+
+    /**
+     * Handles a {@link GetPlayerGameRoomsRequest}.
+     * The game rooms are taken from the player directory (i.e no game room is asked),
+     * so a failure is replied if there is no player directory.
+     *
+     * @param request The request to be handled.
+     */
+    private void handleGetPlayerGameRoomsRequest(GetPlayerGameRoomsRequest request) {
+        if (playerDirectory == null) {
+            getSender().tell(new Status.Failure(new UnsupportedOperationException("Players are not indexed")),
+                    getSelf());
+            return;
+        }
+        getSender().tell(playerDirectory.lookup(request.getPlayerId()), getSelf());
     }
 
     /**
      * Handles the process of requesting the system monitor for data.
+     *
+     * @param request The request to be handled.
      */
-    private void handleSystemMonitorRequest() {
-        final Future<Object> future = Patterns.ask(systemMonitor, GetDataMessage.getMessage(), 100);
-        Patterns.pipe(future, getContext().dispatcher()).to(getSender());
+    private void handleSystemMonitorRequest(GetSystemMonitorDataRequest request) {
+        pipeToSender(PatternsCS.ask(systemMonitor, GetDataMessage.getMessage(), request.getDeadline().timeLeft()));
     }
 
 
@@ -139,65 +224,115 @@ import java.util.concurrent.TimeUnit;
      * Asks the game room manager to create a game room.
      *
      * @param question The {@link CreateGameRoomMessage} representing the request to the game room manager.
-     * @param timeout  The timeout for the request.
-     * @return The results of the request.
+     * @return A {@link CompletionStage} that will be completed with the results of the request.
      */
-    private GameRoomCreationResult askTheGameRoomManagerToCreateAGameRoom(CreateGameRoomMessage question, long timeout) {
-        return askTheGameRoomManager(question, timeout, GameRoomCreationResult.FAILURE);
+    private CompletionStage<GameRoomCreationResult> askTheGameRoomManagerToCreateAGameRoom(
+            CreateGameRoomMessage question) {
+        return askTheGameRoomManager(question, GameRoomCreationResult.FAILURE);
     }
 
     /**
      * Asks the game room manager to remove a game room.
      *
      * @param question The {@link RemoveGameRoomMessage} representing the request to the game room manager.
-     * @param timeout  The timeout for the request.
-     * @return The results of the request.
+     * @return A {@link CompletionStage} that will be completed with the results of the request.
      */
-    private GameRoomRemovalResult askTheGameRoomManagerToRemoveAGameRoom(RemoveGameRoomMessage question, long timeout) {
-        return askTheGameRoomManager(question, timeout, GameRoomRemovalResult.FAILURE);
+    private CompletionStage<GameRoomRemovalResult> askTheGameRoomManagerToRemoveAGameRoom(
+            RemoveGameRoomMessage question) {
+        return askTheGameRoomManager(question, GameRoomRemovalResult.FAILURE);
     }
 
 
     /**
      * Method that wraps logic to ask something to the game rooms manager.
+     * This method does not block: the returned {@link CompletionStage} is completed with the response,
+     * or with the given {@code defaultValue} if there is any issue (i.e its deadline passed).
      *
-     * @param question     The object representing the "question" to the game room manager.
-     * @param timeout      The timeout of the question.
+     * @param question     The message representing the "question" to the game room manager.
      * @param defaultValue The default value to get when there is any issue.
      * @param <T>          The concrete type of the response.
-     * @return The response of the question.
-     */
-    private <T> T askTheGameRoomManager(Object question, long timeout, T defaultValue) {
-        final FiniteDuration duration = Duration.create(timeout, TimeUnit.MILLISECONDS);
-        Future<Object> future = Patterns.ask(gameRoomManager, question, new Timeout(duration));
-        try {
-            //noinspection unchecked
-            return (T) Await.result(future, duration);
-        } catch (Throwable e) {
-            return defaultValue;
-        }
+     * @return A {@link CompletionStage} that will be completed with the response of the question.
+     */
+    private <T> CompletionStage<T> askTheGameRoomManager(DeadlineMessage question, T defaultValue) {
+        return ask(gameRoomManager, question, defaultValue);
+    }
+
+    /**
+     * Method that wraps logic to ask something to the game rooms manager, as {@link #askTheGameRoomManager},
+     * but completing the returned {@link CompletionStage} exceptionally if there is any issue
+     * (i.e the game rooms manager failed, or did not reply by the deadline).
+     *
+     * @param question The message representing the "question" to the game room manager.
+     * @return A {@link CompletionStage} that will be completed with the response of the question.
+     */
+    private CompletionStage<Object> askTheGameRoomManagerOrFail(DeadlineMessage question) {
+        final FiniteDuration duration = Duration.create(question.getDeadline().timeLeft(), TimeUnit.MILLISECONDS);
+        return PatternsCS.ask(gameRoomManager, question, new Timeout(duration));
+    }
+
+    /**
+     * Method that wraps logic to ask something directly to a game room, looking it up in the game room directory
+     * (i.e without passing through the game rooms manager).
+     * If the game room is not in the directory (e.g it does not exist, or it is dormant),
+     * or there is no game room directory, the game rooms manager is asked instead.
+     * This method does not block: the returned {@link CompletionStage} is completed with the response,
+     * or with the given {@code defaultValue} if there is any issue (i.e its deadline passed).
+     *
+     * @param gameRoomName The name of the game room to be asked.
+     * @param question     The message representing the "question" to the game room.
+     * @param defaultValue The default value to get when there is any issue.
+     * @param <T>          The concrete type of the response.
+     * @return A {@link CompletionStage} that will be completed with the response of the question.
+     */
+    private <T> CompletionStage<T> askTheGameRoom(String gameRoomName, DeadlineMessage question, T defaultValue) {
+        final Optional<ActorRef> gameRoom = gameRoomDirectory == null ?
+                Optional.empty() : gameRoomDirectory.lookup(gameRoomName);
+        return gameRoom
+                .map(actorRef -> ask(actorRef, question, defaultValue))
+                .orElseGet(() -> askTheGameRoomManager(question, defaultValue));
+    }
+
+    /**
+     * Asks the given {@code question} to the given {@code actorRef}, waiting for the time left until its deadline.
+     *
+     * @param actorRef     The {@link ActorRef} to be asked.
+     * @param question     The message representing the "question".
+     * @param defaultValue The default value to get when there is any issue.
+     * @param <T>          The concrete type of the response.
+     * @return A {@link CompletionStage} that will be completed with the response of the question.
+     */
+    private static <T> CompletionStage<T> ask(ActorRef actorRef, DeadlineMessage question, T defaultValue) {
+        final FiniteDuration duration = Duration.create(question.getDeadline().timeLeft(), TimeUnit.MILLISECONDS);
+        //noinspection unchecked
+        return PatternsCS.ask(actorRef, question, new Timeout(duration))
+                .thenApply(response -> (T) response)
+                .exceptionally(e -> defaultValue);
     }
 
     /**
-     * Replies the sender with the given {@code result} value.
+     * Pipes the result of the given {@code future} to the sender of the message being processed.
+     * The sender is captured when this method is called, so it's safe to complete the future later.
      *
-     * @param result The value to send as a reply to the sender.
+     * @param future The {@link CompletionStage} whose result will be sent as a reply to the sender.
      */
-    private void reportSender(Object result) {
-        this.getSender().tell(result, this.getSelf());
+    private void pipeToSender(CompletionStage<?> future) {
+        PatternsCS.pipe(future, getContext().dispatcher()).to(this.getSender(), this.getSelf());
     }
 
     /**
      * Create {@link Props} for an {@link akka.actor.Actor} of this type.
      *
-     * @param gameRoomManager The {@link ActorRef} for the game room manager.
-     * @param systemMonitor   The {@link ActorRef} for the system monitor.
+     * @param gameRoomManager   The {@link ActorRef} for the game room manager.
+     * @param gameRoomDirectory The {@link GameRoomDirectory} used to send player operations directly to the game rooms.
+     * @param playerDirectory   The {@link PlayerDirectory} used to find the game rooms of a player.
+     * @param systemMonitor     The {@link ActorRef} for the system monitor.
      * @return The created {@link Props}.
      */
     /* package */
-    static Props getProps(ActorRef gameRoomManager, ActorRef systemMonitor) {
-        return Props.create(HttpRequestHandlerActor.class,
-                () -> new HttpRequestHandlerActor(gameRoomManager, systemMonitor));
+    static Props getProps(ActorRef gameRoomManager, GameRoomDirectory gameRoomDirectory,
+                          PlayerDirectory playerDirectory, ActorRef systemMonitor) {
+        return Props.create(HttpRequestHandlerActor.class, () ->
+                new HttpRequestHandlerActor(gameRoomManager, gameRoomDirectory, playerDirectory, systemMonitor));
     }
 
 }
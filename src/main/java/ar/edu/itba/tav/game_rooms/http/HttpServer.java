@@ -8,38 +8,69 @@ import akka.http.javadsl.Http;
 import akka.http.javadsl.ServerBinding;
 import akka.http.javadsl.marshallers.jackson.Jackson;
 import akka.http.javadsl.model.*;
+import akka.http.javadsl.model.headers.Accept;
+import akka.http.javadsl.model.headers.ETag;
+import akka.http.javadsl.model.headers.EntityTag;
+import akka.http.javadsl.model.headers.IfNoneMatch;
 import akka.http.javadsl.model.headers.Location;
+import akka.http.javadsl.model.headers.RawHeader;
 import akka.http.javadsl.server.*;
-import akka.pattern.Patterns;
+import akka.http.javadsl.unmarshalling.StringUnmarshallers;
+import akka.pattern.PatternsCS;
+import akka.routing.RoundRobinPool;
 import akka.stream.ActorMaterializer;
 import akka.stream.javadsl.Flow;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import akka.util.ByteStringBuilder;
 import akka.util.Timeout;
+import ar.edu.itba.tav.game_rooms.core.GameRoomDirectory;
+import ar.edu.itba.tav.game_rooms.core.GameRoomStore;
+import ar.edu.itba.tav.game_rooms.core.PlayerDirectory;
+import ar.edu.itba.tav.game_rooms.http.dto.GameRoomCreationResultDto;
 import ar.edu.itba.tav.game_rooms.http.dto.GameRoomDto;
+import ar.edu.itba.tav.game_rooms.http.dto.PlayerGameRoomsDto;
+import ar.edu.itba.tav.game_rooms.http.dto.PlayerResultDto;
+import ar.edu.itba.tav.game_rooms.http.dto.SystemMonitorDto;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.DeadlineMessage;
 import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomCreationResult;
 import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomDataMessage;
 import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomRemovalResult;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomsSourceMessage;
 import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.PlayerOperationResult;
-import ar.edu.itba.tav.game_rooms.messages.HttpRequestMessages;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.PlayersOperationResultMessage;
 import ar.edu.itba.tav.game_rooms.messages.HttpRequestMessages.*;
 import ar.edu.itba.tav.game_rooms.messages.SystemMonitorMessages;
+import ar.edu.itba.tav.game_rooms.utils.Deadline;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.squbs.marshallers.MarshalUnmarshal;
-import scala.concurrent.Await;
-import scala.concurrent.Future;
 import scala.concurrent.duration.Duration;
 import scala.concurrent.duration.FiniteDuration;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.NO_LIMIT;
 
 /**
  * Class in charge of implementing an http server to access the platform.
@@ -51,6 +82,11 @@ public class HttpServer extends AllDirectives {
      */
     private final static Logger LOGGER = LoggerFactory.getLogger(HttpServer.class);
 
+    /**
+     * The amount of servers created so far, used to give a unique name to the pool of request handlers of each one
+     * (so several servers can be created in the same {@link ActorSystem}).
+     */
+    private final static AtomicInteger SERVERS = new AtomicInteger();
 
     /**
      * The {@link ServerBinding}.
@@ -78,30 +114,94 @@ public class HttpServer extends AllDirectives {
     private final ActorSystem actorSystem;
 
     /**
-     * An {@link ActorRef} to the game rooms manager.
+     * An {@link ActorRef} to the router of the pool of {@link HttpRequestHandlerActor}s
+     * to which requests are passed.
+     */
+    private final ActorRef requestHandlers;
+
+    /**
+     * The {@link GameRoomStoreRequestHandler} that handles game rooms requests when game rooms are held
+     * by a {@link GameRoomStore}, or {@code null} if they are held by actors.
+     */
+    private final GameRoomStoreRequestHandler storeRequestHandler;
+
+    /**
+     * The {@link MarshalUnmarshal} used to marshal responses' entities.
+     */
+    private final MarshalUnmarshal marshalUnmarshal;
+
+    /**
+     * The {@link ObjectMapper} used to serialize streamed entities.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * The {@link ObjectReader} used to deserialize the game rooms of a bulk creation request
+     * (with the same configuration used for a single game room, i.e unknown properties are rejected).
+     */
+    private final ObjectReader bulkObjectReader;
+
+    /**
+     * The {@link GameRoomRepresentationCache} holding the serialized game rooms.
+     */
+    private final GameRoomRepresentationCache representationCache;
+
+    /**
+     * The {@link GameRoomsListCoalescer} that shares retrieved pages of game rooms between concurrent requests.
+     */
+    private final GameRoomsListCoalescer listCoalescer;
+
+    /**
+     * Indicates whether a player can only be in one game room
+     * (i.e adding a player into a game room may change any other game room).
      */
-    private final ActorRef gameRoomManager;
+    private final boolean singleGameRoom;
 
     /**
-     * An {@link ActorRef} to the system monitor.
+     * The {@link ResponseCompression} used to compress responses' entities.
      */
-    private final ActorRef systemMonitor;
+    private final ResponseCompression compression;
 
+    /**
+     * The {@link HttpServerSettings} for this server (i.e used to get the time budget of each route).
+     */
+    private final HttpServerSettings settings;
 
     /**
      * Private constructor.
      *
-     * @param system          The {@link ActorSystem}.
-     * @param gameRoomManager An {@link ActorRef} to the game rooms manager.
-     * @param systemMonitor   An {@link ActorRef} to the system monitor.
+     * @param system            The {@link ActorSystem}.
+     * @param gameRoomManager   An {@link ActorRef} to the game rooms manager.
+     * @param gameRoomDirectory The {@link GameRoomDirectory} in which game rooms are published,
+     *                          or {@code null} if they are not published in a directory.
+     * @param gameRoomStore     The {@link GameRoomStore} holding the game rooms,
+     *                          or {@code null} if they are held by actors.
+     * @param playerDirectory   The {@link PlayerDirectory} in which the players of the game rooms are registered,
+     *                          or {@code null} if they are not registered in a directory.
+     * @param systemMonitor     An {@link ActorRef} to the system monitor.
+     * @param settings          The {@link HttpServerSettings} for this server.
      */
-    private HttpServer(ActorSystem system, ActorRef gameRoomManager, ActorRef systemMonitor) {
+    private HttpServer(ActorSystem system, ActorRef gameRoomManager, GameRoomDirectory gameRoomDirectory,
+                       GameRoomStore gameRoomStore, PlayerDirectory playerDirectory, ActorRef systemMonitor,
+                       HttpServerSettings settings) {
         this.actorSystem = system;
-        this.gameRoomManager = gameRoomManager;
-        this.systemMonitor = systemMonitor;
+        this.storeRequestHandler = gameRoomStore == null ? null : new GameRoomStoreRequestHandler(gameRoomStore);
+        this.requestHandlers = system.actorOf(new RoundRobinPool(settings.getHandlersPoolSize())
+                        .props(HttpRequestHandlerActor.getProps(gameRoomManager, gameRoomDirectory, playerDirectory,
+                                systemMonitor)),
+                "http_request_handlers-" + SERVERS.incrementAndGet());
         this.binding = null;
         this.http = Http.get(system);
         this.materializer = ActorMaterializer.create(system);
+        this.marshalUnmarshal = new MarshalUnmarshal(system.dispatcher(), materializer);
+        this.objectMapper = new ObjectMapper().enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY);
+        this.bulkObjectReader = objectMapper.readerFor(GameRoomDto.class);
+        this.representationCache = new GameRoomRepresentationCache();
+        this.listCoalescer = new GameRoomsListCoalescer(settings.getListStalenessWindow());
+        this.singleGameRoom = gameRoomStore != null ? gameRoomStore.isSingleGameRoom() :
+                playerDirectory != null && playerDirectory.isSingleGameRoom();
+        this.compression = new ResponseCompression(settings.getCompressionThreshold(), settings.isCompressionCache());
+        this.settings = settings;
         this.routeFlow = configureRoutes().flow(system, materializer);
     }
 
@@ -155,8 +255,50 @@ public class HttpServer extends AllDirectives {
     // ========================================================
 
     private static final String GAME_ROOMS_ENDPOINT = "game-rooms";
+    private static final String GAME_ROOMS_BULK_ENDPOINT = GAME_ROOMS_ENDPOINT + ":bulk";
     private static final String PLAYERS_ENDPOINT = "players";
+    private static final String PLAYER_GAME_ROOM_ENDPOINT = "room";
     private static final String SYSTEM_MONITOR_ENDPOINT = "monitor";
+    private static final String STREAM_PARAMETER = "stream";
+    private static final String AFTER_PARAMETER = "after";
+    private static final String LIMIT_PARAMETER = "limit";
+    private static final String REQUEST_TIMEOUT_HEADER = "Request-Timeout";
+
+    /**
+     * The {@link MediaType} for newline delimited json (i.e one json document per line).
+     */
+    private static final MediaType.WithFixedCharset APPLICATION_NDJSON =
+            MediaTypes.applicationWithFixedCharset("x-ndjson", HttpCharsets.UTF_8);
+
+    /**
+     * FNV-1a 64 bits offset basis, used to hash game rooms lists into entity tags.
+     */
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    /**
+     * FNV-1a 64 bits prime, used to hash game rooms lists into entity tags.
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * The max. size (in bytes) of the chunks of a streamed response.
+     */
+    private static final int STREAM_CHUNK_SIZE = 8 * 1024;
+
+    /**
+     * The time (in seconds) after which a partial page of game rooms is suggested to be requested again.
+     */
+    private static final int PARTIAL_PAGE_RETRY_AFTER = 1;
+
+    /**
+     * The max. size (in bytes) of each line of a bulk game rooms creation request.
+     */
+    private static final int BULK_MAX_LINE_LENGTH = 8 * 1024;
+
+    /**
+     * The max. amount of game rooms that are being created at the same time by a bulk creation request.
+     */
+    private static final int BULK_PARALLELISM = 64;
 
     /**
      * Configures the routes this server will handle.
@@ -169,9 +311,14 @@ public class HttpServer extends AllDirectives {
                 path(gameRoomsCollectionPathMatcher(), getAllGameRoomsRouteHandler()),
                 path(specificGameRoomPathMatcher(), getGameRoomRouteHandler()),
                 path(gameRoomsCollectionPathMatcher(), createGameRoomRouteHandler()),
+                path(gameRoomsBulkPathMatcher(), createGameRoomsRouteHandler()),
                 path(specificGameRoomPathMatcher(), removeGameRoomRouteHandler()),
                 path(gameRoomAndPlayerPathMatcher(), addPlayerRouteHandler()),
                 path(gameRoomAndPlayerPathMatcher(), removePlayerRouteHandler()),
+                path(gameRoomPlayersPathMatcher(), addPlayersRouteHandler()),
+                path(gameRoomPlayersPathMatcher(), removePlayersRouteHandler()),
+                // Players
+                path(playerGameRoomPathMatcher(), getPlayerGameRoomsRouteHandler()),
                 // System monitor
                 path(getSystemMonitorPathMatcher(), getMonitorDataRouteHandler()),
         };
@@ -191,6 +338,13 @@ public class HttpServer extends AllDirectives {
         return PathMatchers.segment(GAME_ROOMS_ENDPOINT);
     }
 
+    /**
+     * @return A {@link PathMatcher0} to match the game rooms bulk operations path (i.e /game-rooms:bulk).
+     */
+    private PathMatcher0 gameRoomsBulkPathMatcher() {
+        return PathMatchers.segment(GAME_ROOMS_BULK_ENDPOINT);
+    }
+
     /**
      * @return A {@link PathMatcher1} of {@link String} to match the specific game room path (i.e /game-rooms/:name).
      */
@@ -210,6 +364,27 @@ public class HttpServer extends AllDirectives {
                 .concat(PathMatchers.pathEnd());
     }
 
+    /**
+     * @return A {@link PathMatcher1} of {@link String} to match the players of a game room
+     * (i.e /game-rooms/:name/players).
+     */
+    private PathMatcher1<String> gameRoomPlayersPathMatcher() {
+        return PathMatchers.segment(GAME_ROOMS_ENDPOINT)
+                .slash(PathMatchers.segment())
+                .slash(PathMatchers.segment(PLAYERS_ENDPOINT))
+                .concat(PathMatchers.pathEnd());
+    }
+
+    /**
+     * @return A {@link PathMatcher1} of {@link Long} to match the game room of a player (i.e /players/:id/room).
+     */
+    private PathMatcher1<Long> playerGameRoomPathMatcher() {
+        return PathMatchers.segment(PLAYERS_ENDPOINT)
+                .slash(PathMatchers.longSegment())
+                .slash(PathMatchers.segment(PLAYER_GAME_ROOM_ENDPOINT))
+                .concat(PathMatchers.pathEnd());
+    }
+
     /**
      * @return A {@link PathMatcher0} to match the system monitor path (i.e /monitor).
      */
@@ -231,12 +406,40 @@ public class HttpServer extends AllDirectives {
      */
     private Supplier<Route> getAllGameRoomsRouteHandler() {
         return () ->
-                get(() ->
+                get(() -> withBudget(RequestBudget.LIST_GAME_ROOMS, budget ->
                         extract(Function.identity(),
-                                ctx -> {
-                                    final HttpResponse response = getAllGameRoomsResponse(ctx);
-                                    return complete(response);
-                                }));
+                                ctx -> parameterOptional(STREAM_PARAMETER, stream ->
+                                        parameterOptional(AFTER_PARAMETER, after ->
+                                                parameterOptional(StringUnmarshallers.INTEGER, LIMIT_PARAMETER,
+                                                        limit -> getAllGameRoomsRoute(ctx, stream, after, limit,
+                                                                Deadline.in(budget))))))));
+    }
+
+    /**
+     * Creates the {@link Route} for a get all game rooms request, according to its params and headers
+     * (i.e validates the page params and decides whether the game rooms must be streamed).
+     *
+     * @param context  The {@link RequestContext} from which request data will be taken.
+     * @param stream   The value of the stream query param, if present.
+     * @param after    The value of the after query param (i.e the page cursor), if present.
+     * @param limit    The value of the limit query param (i.e the page size), if present.
+     * @param deadline The {@link Deadline} by which the request must be answered.
+     * @return The created {@link Route}.
+     */
+    private Route getAllGameRoomsRoute(RequestContext context, Optional<String> stream, Optional<String> after,
+                                       Optional<Integer> limit, Deadline deadline) {
+        if (limit.filter(value -> value <= 0).isPresent()) {
+            return complete(StatusCodes.BAD_REQUEST);
+        }
+        final String cursor = after.orElse(null);
+        final int size = limit.orElse(NO_LIMIT);
+        if (acceptsNdjson(context.getRequest())) {
+            return completeWithFuture(getGameRoomsStreamResponse(context, cursor, size, true, deadline));
+        }
+        if (stream.map(Boolean::parseBoolean).orElse(false)) {
+            return completeWithFuture(getGameRoomsStreamResponse(context, cursor, size, false, deadline));
+        }
+        return completeWithFuture(getAllGameRoomsResponse(context, cursor, size, deadline));
     }
 
     /**
@@ -248,12 +451,10 @@ public class HttpServer extends AllDirectives {
      */
     private Function<String, Route> getGameRoomRouteHandler() {
         return gameRoomName ->
-                get(() ->
+                get(() -> withBudget(RequestBudget.GET_GAME_ROOM, budget ->
                         extract(Function.identity(),
-                                ctx -> {
-                                    final HttpResponse response = getGameRoomResponse(gameRoomName, ctx);
-                                    return complete(response);
-                                }));
+                                ctx -> completeWithFuture(getGameRoomResponse(gameRoomName, ctx,
+                                        Deadline.in(budget))))));
     }
 
 
@@ -267,13 +468,28 @@ public class HttpServer extends AllDirectives {
      */
     private Supplier<Route> createGameRoomRouteHandler() {
         return () ->
-                post(() ->
+                post(() -> withBudget(RequestBudget.CREATE_GAME_ROOM, budget ->
                         extract(Function.identity(),
-                                ctx -> entity(Jackson.unmarshaller(GameRoomDto.class),
-                                        gameRoomDto -> {
-                                            final HttpResponse response = createGameRoomResponse(ctx, gameRoomDto);
-                                            return complete(response);
-                                        })));
+                                ctx -> entity(Jackson.unmarshaller(objectMapper, GameRoomDto.class),
+                                        gameRoomDto -> gameRoomDto == null ? // i.e a json null
+                                                complete(StatusCodes.BAD_REQUEST) :
+                                                completeWithFuture(createGameRoomResponse(ctx, gameRoomDto,
+                                                        Deadline.in(budget)))))));
+    }
+
+    /**
+     * {@link Route} {@link Supplier} for a bulk game rooms creation request.
+     * Handles the request by streaming the received newline delimited json of game rooms,
+     * sending a {@link CreateGameRoomRequest} message to a {@link HttpRequestHandlerActor} for each of them.
+     *
+     * @return The {@link Route} {@link Supplier}.
+     */
+    private Supplier<Route> createGameRoomsRouteHandler() {
+        return () ->
+                post(() -> withBudget(RequestBudget.CREATE_GAME_ROOM, budget ->
+                        extract(Function.identity(),
+                                ctx -> extractDataBytes(bytes ->
+                                        complete(createGameRoomsResponse(ctx, bytes, budget))))));
     }
 
     /**
@@ -286,10 +502,8 @@ public class HttpServer extends AllDirectives {
      */
     private Function<String, Route> removeGameRoomRouteHandler() {
         return gameRoomName ->
-                delete(() -> {
-                    final HttpResponse response = removeGameRoomResponse(gameRoomName);
-                    return complete(response);
-                });
+                delete(() -> withBudget(RequestBudget.REMOVE_GAME_ROOM, budget ->
+                        completeWithFuture(removeGameRoomResponse(gameRoomName, Deadline.in(budget)))));
     }
 
     /**
@@ -303,10 +517,8 @@ public class HttpServer extends AllDirectives {
      */
     private BiFunction<String, Long, Route> addPlayerRouteHandler() {
         return (gameRoomName, playerId) ->
-                put(() -> {
-                    final HttpResponse response = addPlayerResponse(gameRoomName, playerId);
-                    return complete(response);
-                });
+                put(() -> withBudget(RequestBudget.PLAYER_OPERATION, budget ->
+                        completeWithFuture(addPlayerResponse(gameRoomName, playerId, Deadline.in(budget)))));
     }
 
     /**
@@ -320,10 +532,95 @@ public class HttpServer extends AllDirectives {
      */
     private BiFunction<String, Long, Route> removePlayerRouteHandler() {
         return (gameRoomName, playerId) ->
-                delete(() -> {
-                    final HttpResponse response = removePlayerResponse(gameRoomName, playerId);
-                    return complete(response);
-                });
+                delete(() -> withBudget(RequestBudget.PLAYER_OPERATION, budget ->
+                        completeWithFuture(removePlayerResponse(gameRoomName, playerId, Deadline.in(budget)))));
+    }
+
+    /**
+     * {@link Route} {@link Function} for an add players to game room request, taking a string as an input argument.
+     * Handles the request by communicating with a {@link HttpRequestHandlerActor},
+     * sending a {@link AddPlayersToGameRoomRequest} message to it,
+     * getting the game room name from the input argument, and the players ids from the received json.
+     *
+     * @return The {@link Function} that creates a {@link Route}.
+     */
+    private Function<String, Route> addPlayersRouteHandler() {
+        return gameRoomName ->
+                put(() -> withBudget(RequestBudget.PLAYER_OPERATION, budget ->
+                        entity(Jackson.unmarshaller(Long[].class),
+                                playerIds -> playersRoute(playerIds,
+                                        ids -> addPlayersResponse(gameRoomName, ids, Deadline.in(budget))))));
+    }
+
+    /**
+     * {@link Route} {@link Function} for a remove players from game room request,
+     * taking a string as an input argument.
+     * Handles the request by communicating with a {@link HttpRequestHandlerActor},
+     * sending a {@link RemovePlayersFromGameRoomRequest} message to it,
+     * getting the game room name from the input argument, and the players ids from the received json.
+     *
+     * @return The {@link Function} that creates a {@link Route}.
+     */
+    private Function<String, Route> removePlayersRouteHandler() {
+        return gameRoomName ->
+                delete(() -> withBudget(RequestBudget.PLAYER_OPERATION, budget ->
+                        entity(Jackson.unmarshaller(Long[].class),
+                                playerIds -> playersRoute(playerIds,
+                                        ids -> removePlayersResponse(gameRoomName, ids, Deadline.in(budget))))));
+    }
+
+    /**
+     * {@link Route} {@link Function} for a get player game rooms request, taking a long as an input argument.
+     * Handles the request by communicating with a {@link HttpRequestHandlerActor},
+     * sending a {@link GetPlayerGameRoomsRequest} message to it,
+     * getting the player id from the input argument.
+     *
+     * @return The {@link Function} that creates a {@link Route}.
+     */
+    private Function<Long, Route> getPlayerGameRoomsRouteHandler() {
+        return playerId ->
+                get(() -> withBudget(RequestBudget.PLAYER_GAME_ROOMS, budget ->
+                        completeWithFuture(getPlayerGameRoomsResponse(playerId, Deadline.in(budget)))));
+    }
+
+    /**
+     * Creates the {@link Route} for a batch player operation request, validating the received players ids.
+     *
+     * @param playerIds The received players ids.
+     * @param response  A {@link Function} that creates the response for the validated players ids.
+     * @return The created {@link Route}.
+     */
+    private Route playersRoute(Long[] playerIds,
+                               Function<List<Long>, CompletionStage<HttpResponse>> response) {
+        if (Arrays.stream(playerIds).anyMatch(Objects::isNull)) {
+            return complete(StatusCodes.BAD_REQUEST);
+        }
+        return completeWithFuture(response.apply(Arrays.asList(playerIds)));
+    }
+
+    /**
+     * Creates a {@link Route} with the time budget of the given route (i.e the time within which the request
+     * must be answered), which is the configured one, unless the client asks for less time
+     * with the {@code Request-Timeout} header (in milliseconds). A malformed header is rejected as a bad request.
+     *
+     * @param route The {@link RequestBudget} of the route.
+     * @param inner A {@link Function} that creates the {@link Route} for the time budget (in milliseconds).
+     * @return The created {@link Route}.
+     */
+    private Route withBudget(RequestBudget route, Function<Long, Route> inner) {
+        final long budget = settings.getBudget(route);
+        return optionalHeaderValueByName(REQUEST_TIMEOUT_HEADER, header -> {
+            if (!header.isPresent()) {
+                return inner.apply(budget);
+            }
+            final long requested;
+            try {
+                requested = Long.parseLong(header.get().trim());
+            } catch (NumberFormatException e) {
+                return complete(StatusCodes.BAD_REQUEST);
+            }
+            return requested < 0 ? complete(StatusCodes.BAD_REQUEST) : inner.apply(Math.min(requested, budget));
+        });
     }
 
     /**
@@ -335,8 +632,8 @@ public class HttpServer extends AllDirectives {
      */
     private Supplier<Route> getMonitorDataRouteHandler() {
         return () ->
-                get(() ->
-                        complete(getSystemMonitorDataResponse()));
+                get(() -> withBudget(RequestBudget.MONITOR, budget ->
+                        completeWithFuture(getSystemMonitorDataResponse(Deadline.in(budget)))));
     }
 
 
@@ -346,34 +643,82 @@ public class HttpServer extends AllDirectives {
 
     /**
      * Creates an {@link HttpResponse} for a game rooms retrieval request.
+     * If the page is full (i.e it has {@code limit} game rooms),
+     * a {@code Link} header pointing to the next page is included.
+     * If the page is partial (i.e some game rooms could not be retrieved in time), it is answered with
+     * {@code 503 Service Unavailable}, without entity tag nor next page (as the page can not be walked from it).
+     * As the retrieval of the page may be shared with other requests, it is made with the route's time budget,
+     * while the given {@code deadline} only limits the wait of this request.
      *
-     * @param context The {@link RequestContext} from which request data will be taken.
-     * @return The {@link HttpResponse} for this request.
+     * @param context  The {@link RequestContext} from which request data will be taken.
+     * @param after    The name of the game room after which the page starts,
+     *                 or {@code null} to start from the first one.
+     * @param limit    The max. amount of game rooms in the page.
+     * @param deadline The {@link Deadline} by which the request must be answered.
+     * @return A {@link CompletionStage} that will be completed with the {@link HttpResponse} for this request.
      */
-    private HttpResponse getAllGameRoomsResponse(RequestContext context) {
-        final long timeout = 5000;
-        final GetAllGameRoomsRequest request = GetAllGameRoomsRequest.createRequest(timeout);
-        try {
-            final List<GameRoomDataMessage> gameRoomsData = askToARequestHandlerActor(request, timeout);
-            final List<GameRoomDto> gameRooms = gameRoomsData.stream()
-                    .map(game -> {
-                        final Uri locationUri = context.getRequest().getUri().addPathSegment(game.getName());
-                        return new GameRoomDto(game.getName(), game.getCapacity(), game.getPlayers(), locationUri);
-                    })
-                    .collect(Collectors.toList());
-            final CompletionStage<RequestEntity> marshalled =
-                    new MarshalUnmarshal(actorSystem.dispatcher(), materializer)
-                            .apply(Jackson.marshaller(), gameRooms);
-
-            return HttpResponse.create()
-                    .withStatus(StatusCodes.OK)
-                    .withEntity(marshalled.toCompletableFuture().get());
-
-        } catch (TimeoutException e) {
-            return HttpResponse.create().withStatus(StatusCodes.REQUEST_TIMEOUT);
-        } catch (Exception e) {
-            return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
-        }
+    private CompletionStage<HttpResponse> getAllGameRoomsResponse(RequestContext context, String after, int limit,
+                                                                  Deadline deadline) {
+        final Supplier<CompletionStage<GameRoomsPage>> retriever = () -> this.dispatch(GetAllGameRoomsRequest
+                .createRequest(after, limit, Deadline.in(settings.getBudget(RequestBudget.LIST_GAME_ROOMS))))
+                .thenApply(GameRoomsPage::fromReply);
+        return within(listCoalescer.getGameRooms(after, limit, retriever), deadline)
+                .thenApply(page -> {
+                    final List<GameRoomDataMessage> gameRoomsData = page.getGameRooms();
+                    if (page.isPartial()) {
+                        return compression.withEntity(context.getRequest(),
+                                HttpResponse.create().withStatus(StatusCodes.SERVICE_UNAVAILABLE)
+                                        .addHeader(RawHeader.create("Retry-After",
+                                                Integer.toString(PARTIAL_PAGE_RETRY_AFTER))),
+                                ContentTypes.APPLICATION_JSON, gameRoomsJson(context, gameRoomsData), null);
+                    }
+                    final EntityTag entityTag = gameRoomsEntityTag(gameRoomsData);
+                    if (isNotModified(context, entityTag)) {
+                        return notModifiedResponse(entityTag);
+                    }
+                    final HttpResponse response = compression.withEntity(context.getRequest(),
+                            HttpResponse.create().withStatus(StatusCodes.OK).addHeader(ETag.create(entityTag)),
+                            ContentTypes.APPLICATION_JSON, gameRoomsJson(context, gameRoomsData),
+                            compressionCacheKey(context, entityTag));
+                    if (limit == NO_LIMIT || gameRoomsData.size() < limit) {
+                        return response;
+                    }
+                    final String last = gameRoomsData.get(gameRoomsData.size() - 1).getName();
+                    return response.addHeader(nextPageLink(context, last, limit));
+                })
+                .exceptionally(this::failureResponse);
+    }
+
+    /**
+     * Creates a chunked {@link HttpResponse} for a game rooms retrieval request,
+     * streaming the game rooms with backpressure instead of materializing all of them.
+     * Game rooms are emitted as a json array, or as newline delimited json if {@code ndjson} is {@code true}.
+     *
+     * @param context  The {@link RequestContext} from which request data will be taken.
+     * @param after    The name of the game room after which the page starts,
+     *                 or {@code null} to start from the first one.
+     * @param limit    The max. amount of game rooms in the page.
+     * @param ndjson   Indicates whether the response must be newline delimited json.
+     * @param deadline The {@link Deadline} by which the stream must be started.
+     * @return A {@link CompletionStage} that will be completed with the {@link HttpResponse} for this request.
+     */
+    private CompletionStage<HttpResponse> getGameRoomsStreamResponse(RequestContext context, String after, int limit,
+                                                                     boolean ndjson, Deadline deadline) {
+        final GetGameRoomsStreamRequest request = GetGameRoomsStreamRequest.createRequest(after, limit, deadline);
+        return this.<GameRoomsSourceMessage>dispatch(request)
+                .thenApply(GameRoomsSourceMessage::getSource)
+                .thenApply(source -> source
+                        .map(game -> gameRoomJson(game, gameRoomLocation(context, game.getName()))))
+                .thenApply(jsons -> ndjson ?
+                        jsons.map(json -> json.concat(ByteString.fromString("\n"))) :
+                        jsons.intersperse(ByteString.fromString("["), ByteString.fromString(","),
+                                ByteString.fromString("]")))
+                .thenApply(bytes -> bytes.batchWeighted(STREAM_CHUNK_SIZE, chunk -> (long) chunk.size(),
+                        chunk -> chunk, ByteString::concat))
+                .thenApply(bytes -> compression.withChunkedEntity(context.getRequest(),
+                        HttpResponse.create().withStatus(StatusCodes.OK),
+                        ndjson ? ContentTypes.create(APPLICATION_NDJSON) : ContentTypes.APPLICATION_JSON, bytes))
+                .exceptionally(this::failureResponse);
     }
 
     /**
@@ -381,35 +726,27 @@ public class HttpServer extends AllDirectives {
      *
      * @param gameRoomName The name of the game room to be removed.
      * @param context      The {@link RequestContext} from which request data will be taken.
-     * @return The {@link HttpResponse} for this request.
+     * @param deadline     The {@link Deadline} by which the request must be answered.
+     * @return A {@link CompletionStage} that will be completed with the {@link HttpResponse} for this request.
      */
-    private HttpResponse getGameRoomResponse(String gameRoomName, RequestContext context) {
-        final long timeout = 5000;
-        final HttpRequestMessages.GetGameRoomRequest request = GetGameRoomRequest.createRequest(gameRoomName, timeout);
-        try {
-            return this.<Optional<GameRoomDataMessage>>askToARequestHandlerActor(request, timeout)
-                    .map(game -> {
-                        final Uri locationUri = context.getRequest().getUri().addPathSegment(game.getName());
-                        return new GameRoomDto(game.getName(), game.getCapacity(), game.getPlayers(), locationUri);
-                    })
-                    .map(gameDto -> new MarshalUnmarshal(actorSystem.dispatcher(), materializer)
-                            .apply(Jackson.marshaller(), gameDto))
-                    .map(CompletionStage::toCompletableFuture)
-                    .map(cf -> {
-                        try {
-                            return cf.get();
-                        } catch (InterruptedException | ExecutionException e) {
-                            throw new RuntimeException();
-                        }
-                    })
-                    .map(entity -> HttpResponse.create().withStatus(StatusCodes.OK).withEntity(entity))
-                    .orElse(HttpResponse.create().withStatus(StatusCodes.NOT_FOUND));
-
-        } catch (TimeoutException e) {
-            return HttpResponse.create().withStatus(StatusCodes.REQUEST_TIMEOUT);
-        } catch (Exception e) {
-            return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
-        }
+    private CompletionStage<HttpResponse> getGameRoomResponse(String gameRoomName, RequestContext context,
+                                                              Deadline deadline) {
+        final GetGameRoomRequest request = GetGameRoomRequest.createRequest(gameRoomName, deadline);
+        return this.<Optional<GameRoomDataMessage>>dispatch(request)
+                .thenApply(gameRoomOptional -> gameRoomOptional
+                        .map(game -> {
+                            final EntityTag entityTag = gameRoomEntityTag(game);
+                            if (isNotModified(context, entityTag)) {
+                                return notModifiedResponse(entityTag);
+                            }
+                            final Uri locationUri = context.getRequest().getUri().query(Query.EMPTY);
+                            final ByteString json = gameRoomJson(game, locationUri);
+                            return compression.withEntity(context.getRequest(),
+                                    HttpResponse.create().withStatus(StatusCodes.OK).addHeader(ETag.create(entityTag)),
+                                    ContentTypes.APPLICATION_JSON, json, compressionCacheKey(context, entityTag));
+                        })
+                        .orElse(HttpResponse.create().withStatus(StatusCodes.NOT_FOUND)))
+                .exceptionally(this::failureResponse);
     }
 
     /**
@@ -417,59 +754,102 @@ public class HttpServer extends AllDirectives {
      *
      * @param context     The {@link RequestContext} from which request data will be taken.
      * @param gameRoomDto The {@link GameRoomDto} holding data for the new game room.
-     * @return The {@link HttpResponse} for this request.
+     * @param deadline    The {@link Deadline} by which the request must be answered.
+     * @return A {@link CompletionStage} that will be completed with the {@link HttpResponse} for this request.
      */
-    private HttpResponse createGameRoomResponse(RequestContext context, GameRoomDto gameRoomDto) {
-        final long timeout = 2000;
+    private CompletionStage<HttpResponse> createGameRoomResponse(RequestContext context, GameRoomDto gameRoomDto,
+                                                                 Deadline deadline) {
         final String gameRoomName = gameRoomDto.getName();
         final int capacity = gameRoomDto.getCapacity();
-        final CreateGameRoomRequest request = CreateGameRoomRequest.createRequest(gameRoomName, capacity, timeout);
-        try {
-            switch ((GameRoomCreationResult) askToARequestHandlerActor(request, timeout)) {
-                case CREATED:
-                    return HttpResponse.create()
-                            .withStatus(StatusCodes.CREATED)
-                            .addHeader(Location.create(context.getRequest().getUri().addPathSegment(gameRoomName)));
-                case NAME_REPEATED:
-                    return HttpResponse.create().withStatus(StatusCodes.CONFLICT);
-                case INVALID:
-                    return HttpResponse.create().withStatus(StatusCodes.UNPROCESSABLE_ENTITY);
-                case FAILURE:
-                    return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
-            }
-        } catch (TimeoutException e) {
-            return HttpResponse.create().withStatus(StatusCodes.REQUEST_TIMEOUT);
-        } catch (Exception e) {
-            return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
-        }
-        // Won't never reach here
-        return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
+        final CreateGameRoomRequest request = CreateGameRoomRequest.createRequest(gameRoomName, capacity, deadline);
+        return this.<GameRoomCreationResult>dispatchUpdate(gameRoomName, request)
+                .thenApply(result -> {
+                    switch (result) {
+                        case CREATED:
+                            return HttpResponse.create()
+                                    .withStatus(StatusCodes.CREATED)
+                                    .addHeader(Location.create(context.getRequest().getUri()
+                                            .addPathSegment(gameRoomName)));
+                        case NAME_REPEATED:
+                            return HttpResponse.create().withStatus(StatusCodes.CONFLICT);
+                        case INVALID:
+                            return HttpResponse.create().withStatus(StatusCodes.UNPROCESSABLE_ENTITY);
+                        case FAILURE:
+                        default:
+                            return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
+                    }
+                })
+                .exceptionally(this::failureResponse);
+    }
+
+    /**
+     * Creates a chunked {@link HttpResponse} for a bulk game rooms creation request.
+     * The request body is newline delimited json of game rooms, which is consumed as a stream,
+     * creating at most {@link #BULK_PARALLELISM} game rooms at the same time.
+     * The response body is newline delimited json with the result of the creation of each game room,
+     * in the same order, emitted as soon as each game room is created.
+     * As the body is consumed as it arrives, the time budget applies to each game room (and not to the whole request).
+     * Lines that are not a game room (including a json {@code null}, or lines longer than
+     * {@link #BULK_MAX_LINE_LENGTH}) get an {@link GameRoomCreationResult#INVALID} result, without failing the stream.
+     *
+     * @param context The {@link RequestContext} from which request data will be taken.
+     * @param body    The {@link Source} of the request body.
+     * @param budget  The time (in milliseconds) within which each game room must be created.
+     * @return The {@link HttpResponse} for this request.
+     */
+    private HttpResponse createGameRoomsResponse(RequestContext context, Source<ByteString, ?> body, long budget) {
+        final Source<ByteString, ?> results = body
+                .concat(Source.single(ByteString.fromString("\n"))) // So the last line is always delimited
+                .statefulMapConcat(() -> new LineSplitter(BULK_MAX_LINE_LENGTH))
+                .filter(line -> !line.isPresent() || !line.get().utf8String().trim().isEmpty())
+                .mapAsync(BULK_PARALLELISM, line -> {
+                    GameRoomDto gameRoomDto = null;
+                    try {
+                        if (line.isPresent()) {
+                            gameRoomDto = bulkObjectReader.readValue(line.get().toArray());
+                        }
+                    } catch (IOException ignored) {
+                        // Reported as an invalid game room
+                    }
+                    if (gameRoomDto == null) {
+                        return CompletableFuture.completedFuture(
+                                new GameRoomCreationResultDto(null, GameRoomCreationResult.INVALID));
+                    }
+                    final String gameRoomName = gameRoomDto.getName();
+                    final CreateGameRoomRequest request = CreateGameRoomRequest.createRequest(gameRoomName,
+                            gameRoomDto.getCapacity(), Deadline.in(budget));
+                    return this.<GameRoomCreationResult>dispatchUpdate(gameRoomName, request)
+                            .exceptionally(e -> GameRoomCreationResult.FAILURE)
+                            .thenApply(result -> new GameRoomCreationResultDto(gameRoomName, result));
+                })
+                .map(result -> toJson(result).concat(ByteString.fromString("\n")))
+                .batchWeighted(STREAM_CHUNK_SIZE, chunk -> (long) chunk.size(), chunk -> chunk, ByteString::concat);
+        return compression.withChunkedEntity(context.getRequest(), HttpResponse.create().withStatus(StatusCodes.OK),
+                ContentTypes.create(APPLICATION_NDJSON), results);
     }
 
     /**
      * Creates an {@link HttpResponse} for a game room removal request.
      *
      * @param gameRoomName The name of the game room to be removed.
-     * @return The {@link HttpResponse} for this request.
+     * @param deadline     The {@link Deadline} by which the request must be answered.
+     * @return A {@link CompletionStage} that will be completed with the {@link HttpResponse} for this request.
      */
-    private HttpResponse removeGameRoomResponse(String gameRoomName) {
-        final long timeout = 5000;
-        final RemoveGameRoomRequest request = RemoveGameRoomRequest.createRequest(gameRoomName, timeout);
-        try {
-            switch ((GameRoomRemovalResult) askToARequestHandlerActor(request, timeout)) {
-                case NO_SUCH_GAME_ROOM:
-                case REMOVED:
-                    return HttpResponse.create().withStatus(StatusCodes.NO_CONTENT);
-                case FAILURE:
-                    return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
-            }
-        } catch (TimeoutException e) {
-            return HttpResponse.create().withStatus(StatusCodes.REQUEST_TIMEOUT);
-        } catch (Exception e) {
-            return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
-        }
-        // Won't never reach here
-        return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
+    private CompletionStage<HttpResponse> removeGameRoomResponse(String gameRoomName, Deadline deadline) {
+        final RemoveGameRoomRequest request = RemoveGameRoomRequest.createRequest(gameRoomName, deadline);
+        return this.<GameRoomRemovalResult>dispatchUpdate(gameRoomName, request)
+                .thenApply(result -> {
+                    switch (result) {
+                        case NO_SUCH_GAME_ROOM:
+                        case REMOVED:
+                            representationCache.invalidate(gameRoomName);
+                            return HttpResponse.create().withStatus(StatusCodes.NO_CONTENT);
+                        case FAILURE:
+                        default:
+                            return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
+                    }
+                })
+                .exceptionally(this::failureResponse);
     }
 
     /**
@@ -477,12 +857,12 @@ public class HttpServer extends AllDirectives {
      *
      * @param gameRoomName The name of the game room to be operated into.
      * @param playerId     The id of the player being added into the game room.
-     * @return The {@link HttpResponse} for this request.
+     * @param deadline     The {@link Deadline} by which the request must be answered.
+     * @return A {@link CompletionStage} that will be completed with the {@link HttpResponse} for this request.
      */
-    private HttpResponse addPlayerResponse(String gameRoomName, long playerId) {
-        final long timeout = 2000;
-        return playerOperationResponse(timeout,
-                AddPlayerToGameRoomRequest.createRequest(gameRoomName, playerId, timeout));
+    private CompletionStage<HttpResponse> addPlayerResponse(String gameRoomName, long playerId, Deadline deadline) {
+        return playerOperationResponse(gameRoomName,
+                AddPlayerToGameRoomRequest.createRequest(gameRoomName, playerId, deadline));
     }
 
     /**
@@ -490,70 +870,202 @@ public class HttpServer extends AllDirectives {
      *
      * @param gameRoomName The name of the game room to be operated into.
      * @param playerId     The id of the player being removed from the game room.
-     * @return The {@link HttpResponse} for this request.
+     * @param deadline     The {@link Deadline} by which the request must be answered.
+     * @return A {@link CompletionStage} that will be completed with the {@link HttpResponse} for this request.
+     */
+    private CompletionStage<HttpResponse> removePlayerResponse(String gameRoomName, long playerId, Deadline deadline) {
+        return playerOperationResponse(gameRoomName,
+                RemovePlayerFromGameRoomRequest.createRequest(gameRoomName, playerId, deadline));
+    }
+
+    /**
+     * Creates an {@link HttpResponse} for adding a batch of players into a game room request.
+     *
+     * @param gameRoomName The name of the game room to be operated into.
+     * @param playerIds    The ids of the players being added into the game room.
+     * @param deadline     The {@link Deadline} by which the request must be answered.
+     * @return A {@link CompletionStage} that will be completed with the {@link HttpResponse} for this request.
+     */
+    private CompletionStage<HttpResponse> addPlayersResponse(String gameRoomName, List<Long> playerIds,
+                                                            Deadline deadline) {
+        return playersOperationResponse(gameRoomName, playerIds,
+                AddPlayersToGameRoomRequest.createRequest(gameRoomName, playerIds, deadline));
+    }
+
+    /**
+     * Creates an {@link HttpResponse} for removing a batch of players from a game room request.
+     *
+     * @param gameRoomName The name of the game room to be operated into.
+     * @param playerIds    The ids of the players being removed from the game room.
+     * @param deadline     The {@link Deadline} by which the request must be answered.
+     * @return A {@link CompletionStage} that will be completed with the {@link HttpResponse} for this request.
+     */
+    private CompletionStage<HttpResponse> removePlayersResponse(String gameRoomName, List<Long> playerIds,
+                                                            Deadline deadline) {
+        return playersOperationResponse(gameRoomName, playerIds,
+                RemovePlayersFromGameRoomRequest.createRequest(gameRoomName, playerIds, deadline));
+    }
+
+    /**
+     * Creates an {@link HttpResponse} for getting the game rooms in which a player is.
+     *
+     * @param playerId The id of the player.
+     * @param deadline The {@link Deadline} by which the request must be answered.
+     * @return A {@link CompletionStage} that will be completed with the {@link HttpResponse} for this request.
      */
-    private HttpResponse removePlayerResponse(String gameRoomName, long playerId) {
-        final long timeout = 2000;
-        return playerOperationResponse(timeout,
-                RemovePlayerFromGameRoomRequest.createRequest(gameRoomName, playerId, timeout));
+    private CompletionStage<HttpResponse> getPlayerGameRoomsResponse(long playerId, Deadline deadline) {
+        final GetPlayerGameRoomsRequest request = GetPlayerGameRoomsRequest.createRequest(playerId, deadline);
+        return this.<List<String>>dispatch(request)
+                .thenApply(gameRooms -> gameRooms.isEmpty() ?
+                        HttpResponse.create().withStatus(StatusCodes.NOT_FOUND) :
+                        HttpResponse.create()
+                                .withStatus(StatusCodes.OK)
+                                .withEntity(HttpEntities.create(ContentTypes.APPLICATION_JSON,
+                                        toJson(new PlayerGameRoomsDto(playerId, gameRooms)))))
+                .exceptionally(this::failureResponse);
     }
 
     /**
      * Creates an {@link HttpResponse} for getting the system monitor data.
      *
-     * @return The {@link HttpResponse} for this request.
+     * @param deadline The {@link Deadline} by which the request must be answered.
+     * @return A {@link CompletionStage} that will be completed with the {@link HttpResponse} for this request.
      */
-    private HttpResponse getSystemMonitorDataResponse() {
-        final long timeout = 2000;
-        final GetSystemMonitorDataRequest request = GetSystemMonitorDataRequest.getMessage(timeout);
-        try {
-            final Object result = askToARequestHandlerActor(request, timeout);
-            if (result instanceof SystemMonitorMessages.SystemMonitorData) {
-
-                final SystemMonitorMessages.SystemMonitorData data = (SystemMonitorMessages.SystemMonitorData) result;
-                final CompletionStage<RequestEntity> marshalled =
-                        new MarshalUnmarshal(actorSystem.dispatcher(), materializer)
-                                .apply(Jackson.marshaller(), data);
-                return HttpResponse.create()
-                        .withStatus(StatusCodes.OK)
-                        .withEntity(marshalled.toCompletableFuture().get());
-
-            } else if (result instanceof SystemMonitorMessages.SystemMonitorNotStartedMessage) {
-                return HttpResponse.create()
-                        .withStatus(StatusCodes.SERVICE_UNAVAILABLE);
-            } else {
-                return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
-            }
-        } catch (TimeoutException e) {
-            return HttpResponse.create().withStatus(StatusCodes.REQUEST_TIMEOUT);
-        } catch (Exception e) {
-            return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
-        }
+    private CompletionStage<HttpResponse> getSystemMonitorDataResponse(Deadline deadline) {
+        final GetSystemMonitorDataRequest request = GetSystemMonitorDataRequest.getMessage(deadline);
+        return dispatch(request)
+                .thenCompose(result -> {
+                    if (result instanceof SystemMonitorMessages.SystemMonitorData) {
+                        final SystemMonitorMessages.SystemMonitorData data =
+                                (SystemMonitorMessages.SystemMonitorData) result;
+                        final SystemMonitorDto dto = new SystemMonitorDto(data,
+                                new SystemMonitorDto.CacheStatisticsDto(representationCache.getHits(),
+                                        representationCache.getMisses(), representationCache.getSize(),
+                                        representationCache.getEvictions()),
+                                new SystemMonitorDto.CacheStatisticsDto(listCoalescer.getShared(),
+                                        listCoalescer.getRetrieved(), listCoalescer.getSize()));
+                        return marshalUnmarshal.apply(Jackson.<SystemMonitorDto>marshaller(), dto)
+                                .thenApply(entity -> HttpResponse.create()
+                                        .withStatus(StatusCodes.OK)
+                                        .withEntity(entity));
+                    }
+                    if (result instanceof SystemMonitorMessages.SystemMonitorNotStartedMessage) {
+                        return CompletableFuture.completedFuture(HttpResponse.create()
+                                .withStatus(StatusCodes.SERVICE_UNAVAILABLE));
+                    }
+                    return CompletableFuture.completedFuture(HttpResponse.create()
+                            .withStatus(StatusCodes.INTERNAL_SERVER_ERROR));
+                })
+                .exceptionally(this::failureResponse);
     }
 
     /**
      * Creates an {@link HttpResponse} for operating with a player in a game room request.
      *
-     * @param timeout The timeout for the request
-     * @param request The object to be sent to the {@link HttpRequestHandlerActor} as a message.
-     * @return The {@link HttpResponse} for this request.
+     * @param gameRoomName The name of the game room to be operated into.
+     * @param request      The request to be sent to the {@link HttpRequestHandlerActor} as a message.
+     * @return A {@link CompletionStage} that will be completed with the {@link HttpResponse} for this request.
      */
-    private HttpResponse playerOperationResponse(long timeout, Object request) {
-        try {
-            switch ((PlayerOperationResult) askToARequestHandlerActor(request, timeout)) {
-                case SUCCESSFUL:
-                    return HttpResponse.create().withStatus(StatusCodes.NO_CONTENT);
-                case NO_SUCH_GAME_ROOM:
-                    return HttpResponse.create().withStatus(StatusCodes.NOT_FOUND);
-                case FULL_GAME_ROOM:
-                    return HttpResponse.create().withStatus(StatusCodes.CONFLICT);
-            }
-        } catch (TimeoutException e) {
+    private CompletionStage<HttpResponse> playerOperationResponse(String gameRoomName, DeadlineMessage request) {
+        return this.<PlayerOperationResult>dispatchUpdate(gameRoomName, request)
+                .thenApply(result -> {
+                    switch (result) {
+                        case SUCCESSFUL:
+                            representationCache.invalidate(gameRoomName);
+                            return HttpResponse.create().withStatus(StatusCodes.NO_CONTENT);
+                        case NO_SUCH_GAME_ROOM:
+                            return HttpResponse.create().withStatus(StatusCodes.NOT_FOUND);
+                        case FULL_GAME_ROOM:
+                            return HttpResponse.create().withStatus(StatusCodes.CONFLICT);
+                        case FAILURE:
+                        default:
+                            return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
+                    }
+                })
+                .exceptionally(this::failureResponse);
+    }
+
+    /**
+     * Creates an {@link HttpResponse} for operating with a batch of players in a game room request.
+     * The body of the response contains the result for each player (also when the game room is full).
+     *
+     * @param gameRoomName The name of the game room to be operated into.
+     * @param playerIds    The ids of the players being operated.
+     * @param request      The request to be sent to the {@link HttpRequestHandlerActor} as a message.
+     * @return A {@link CompletionStage} that will be completed with the {@link HttpResponse} for this request.
+     */
+    private CompletionStage<HttpResponse> playersOperationResponse(String gameRoomName, List<Long> playerIds,
+                                                                   DeadlineMessage request) {
+        return this.<PlayersOperationResultMessage>dispatchUpdate(gameRoomName, request)
+                .thenApply(result -> {
+                    switch (result.getResult()) {
+                        case SUCCESSFUL:
+                            representationCache.invalidate(gameRoomName);
+                            return playerResultsResponse(StatusCodes.OK, playerIds, result);
+                        case NO_SUCH_GAME_ROOM:
+                            return HttpResponse.create().withStatus(StatusCodes.NOT_FOUND);
+                        case FULL_GAME_ROOM:
+                            return playerResultsResponse(StatusCodes.CONFLICT, playerIds, result);
+                        case FAILURE:
+                        default:
+                            return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
+                    }
+                })
+                .exceptionally(this::failureResponse);
+    }
+
+    /**
+     * Creates an {@link HttpResponse} whose body contains the result for each player of a batch player operation.
+     *
+     * @param status    The {@link StatusCode} of the response.
+     * @param playerIds The ids of the players being operated.
+     * @param result    The {@link PlayersOperationResultMessage} holding the result for each player.
+     * @return The {@link HttpResponse}.
+     */
+    private HttpResponse playerResultsResponse(StatusCode status, List<Long> playerIds,
+                                               PlayersOperationResultMessage result) {
+        final List<PlayerResultDto> dtos = new ArrayList<>(playerIds.size());
+        for (int i = 0; i < playerIds.size(); i++) {
+            dtos.add(new PlayerResultDto(playerIds.get(i), result.getPlayerResults().get(i)));
+        }
+        return HttpResponse.create()
+                .withStatus(status)
+                .withEntity(HttpEntities.create(ContentTypes.APPLICATION_JSON, toJson(dtos)));
+    }
+
+    /**
+     * Creates a {@link StatusCodes#NOT_MODIFIED} {@link HttpResponse}, for a conditional request
+     * whose {@code If-None-Match} header matched the current {@link EntityTag} of the requested resource.
+     * It includes the same {@code Vary} header a {@link StatusCodes#OK} response would, so caches can reuse it.
+     *
+     * @param entityTag The current {@link EntityTag} of the requested resource.
+     * @return The {@link HttpResponse} for the conditional request.
+     */
+    private HttpResponse notModifiedResponse(EntityTag entityTag) {
+        return compression.withVary(HttpResponse.create()
+                .withStatus(StatusCodes.NOT_MODIFIED)
+                .addHeader(ETag.create(entityTag)));
+    }
+
+    /**
+     * Creates an {@link HttpResponse} for a request whose processing failed with the given {@link Throwable}.
+     * Timeouts are reported as {@link StatusCodes#REQUEST_TIMEOUT},
+     * unsupported operations (i.e by the game rooms engine) as {@link StatusCodes#NOT_IMPLEMENTED},
+     * while any other error is reported as {@link StatusCodes#INTERNAL_SERVER_ERROR}.
+     *
+     * @param error The {@link Throwable} that caused the failure.
+     * @return The {@link HttpResponse} for the failed request.
+     */
+    private HttpResponse failureResponse(Throwable error) {
+        final Throwable cause = error instanceof CompletionException && error.getCause() != null ?
+                error.getCause() : error;
+        if (cause instanceof TimeoutException) {
             return HttpResponse.create().withStatus(StatusCodes.REQUEST_TIMEOUT);
-        } catch (Exception e) {
-            return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
         }
-        // Won't never reach here
+        if (cause instanceof UnsupportedOperationException) {
+            return HttpResponse.create().withStatus(StatusCodes.NOT_IMPLEMENTED);
+        }
+        LOGGER.debug("Request failed with an unexpected error. Stacktrace: ", cause);
         return HttpResponse.create().withStatus(StatusCodes.INTERNAL_SERVER_ERROR);
     }
 
@@ -563,22 +1075,239 @@ public class HttpServer extends AllDirectives {
     // ========================================================
 
     /**
-     * Passes the given {@code question} to a new {@link HttpRequestHandlerActor}.
-     * If the request is longer than the given {@code timeout}, an Exception is thrown.
+     * Creates a {@link GameRoomDto} from the given {@link GameRoomDataMessage}.
+     *
+     * @param game        The {@link GameRoomDataMessage} holding the game room data.
+     * @param locationUri The {@link Uri} of the location of the game room.
+     * @return The created {@link GameRoomDto}.
+     */
+    private static GameRoomDto toDto(GameRoomDataMessage game, Uri locationUri) {
+        return new GameRoomDto(game.getName(), game.getCapacity(), game.getPlayers(), locationUri);
+    }
+
+    /**
+     * Builds the location {@link Uri} of the game room with the given {@code gameRoomName},
+     * taking the requested game rooms collection {@link Uri} as base (without its query).
+     *
+     * @param context      The {@link RequestContext} of a request over the game rooms collection.
+     * @param gameRoomName The name of the game room.
+     * @return The location {@link Uri} of the game room.
+     */
+    private static Uri gameRoomLocation(RequestContext context, String gameRoomName) {
+        return context.getRequest().getUri().query(Query.EMPTY).addPathSegment(gameRoomName);
+    }
+
+    /**
+     * Indicates whether the request in the given {@code context} is a conditional request
+     * whose {@code If-None-Match} header matches the given {@code entityTag}
+     * (i.e the client already has the current representation of the resource).
+     *
+     * @param context   The {@link RequestContext} of the request.
+     * @param entityTag The current {@link EntityTag} of the requested resource.
+     * @return {@code true} if the resource was not modified for the client, or {@code false} otherwise.
+     */
+    private static boolean isNotModified(RequestContext context, EntityTag entityTag) {
+        // Note: the java dsl EntityTag#matchesRange calls itself recursively (in this akka-http version),
+        //       so the scala dsl one is used instead (java dsl entity tags and ranges are scala dsl ones).
+        return context.getRequest().getHeader(IfNoneMatch.class)
+                .map(ifNoneMatch -> akka.http.scaladsl.model.headers.EntityTag.matchesRange(
+                        (akka.http.scaladsl.model.headers.EntityTag) entityTag,
+                        (akka.http.scaladsl.model.headers.EntityTagRange) ifNoneMatch.m(), true))
+                .orElse(false);
+    }
+
+    /**
+     * Builds the weak {@link EntityTag} of the given game room, derived from its version
+     * (versions are never repeated for the same game room name).
+     * It is weak as the same tag is used for all the encodings (i.e compressed or not) of the game room.
+     *
+     * @param game The {@link GameRoomDataMessage} holding the game room data.
+     * @return The {@link EntityTag} of the game room.
+     */
+    private static EntityTag gameRoomEntityTag(GameRoomDataMessage game) {
+        return EntityTag.create(Long.toHexString(game.getVersion()), true);
+    }
+
+    /**
+     * Builds the weak {@link EntityTag} of the given list of game rooms,
+     * derived from the names and versions of the game rooms in it (using a 64 bits FNV-1a hash).
+     * It is weak as the same tag is used for all the encodings (i.e compressed or not) of the list.
+     *
+     * @param games The {@link List} of {@link GameRoomDataMessage} holding the game rooms data.
+     * @return The {@link EntityTag} of the list of game rooms.
+     */
+    private static EntityTag gameRoomsEntityTag(List<GameRoomDataMessage> games) {
+        long hash = FNV_OFFSET_BASIS;
+        for (GameRoomDataMessage game : games) {
+            final String name = game.getName();
+            for (int i = 0; i < name.length(); i++) {
+                hash = (hash ^ name.charAt(i)) * FNV_PRIME;
+            }
+            hash = (hash ^ game.getVersion()) * FNV_PRIME;
+        }
+        return EntityTag.create(games.size() + "-" + Long.toHexString(hash), true);
+    }
+
+    /**
+     * Builds the key with which the compressed entity of a response is cached,
+     * which identifies the uncompressed entity by the requested url and its {@link EntityTag}.
+     *
+     * @param context   The {@link RequestContext} of the request.
+     * @param entityTag The current {@link EntityTag} of the requested resource.
+     * @return The compression cache key.
+     */
+    private static String compressionCacheKey(RequestContext context, EntityTag entityTag) {
+        return context.getRequest().getUri() + " " + entityTag.tag();
+    }
+
+    /**
+     * Builds a {@code Link} header pointing to the page of game rooms that follows the given {@code last} game room.
+     *
+     * @param context The {@link RequestContext} of a request over the game rooms collection.
+     * @param last    The name of the last game room in the current page.
+     * @param limit   The max. amount of game rooms in a page.
+     * @return The {@code Link} {@link HttpHeader}.
+     */
+    private static HttpHeader nextPageLink(RequestContext context, String last, int limit) {
+        final Uri uri = context.getRequest().getUri();
+        final Query query = Query.create(uri.query().toList().stream()
+                .filter(param -> !AFTER_PARAMETER.equals(param.first()) && !LIMIT_PARAMETER.equals(param.first()))
+                .collect(Collectors.toList()));
+        final Uri next = uri.query(query
+                .withParam(AFTER_PARAMETER, last)
+                .withParam(LIMIT_PARAMETER, Integer.toString(limit)));
+        return RawHeader.create("Link", "<" + next + ">; rel=\"next\"");
+    }
+
+    /**
+     * Returns the json array representation of the given {@code gameRooms}.
+     *
+     * @param context   The {@link RequestContext} from which request data will be taken.
+     * @param gameRooms The game rooms.
+     * @return A {@link ByteString} with the json array representation of the game rooms.
+     */
+    private ByteString gameRoomsJson(RequestContext context, List<GameRoomDataMessage> gameRooms) {
+        final ByteStringBuilder json = ByteString.createBuilder().putByte((byte) '[');
+        for (int i = 0; i < gameRooms.size(); i++) {
+            if (i > 0) {
+                json.putByte((byte) ',');
+            }
+            final GameRoomDataMessage game = gameRooms.get(i);
+            json.append(gameRoomJson(game, gameRoomLocation(context, game.getName())));
+        }
+        return json.putByte((byte) ']').result();
+    }
+
+    /**
+     * Returns the json representation of the given {@code game}, with the given {@code locationUri},
+     * using the cached representation if the game room did not change since it was serialized.
+     *
+     * @param game        The {@link GameRoomDataMessage} holding the game room data.
+     * @param locationUri The {@link Uri} of the location of the game room.
+     * @return A {@link ByteString} with the json representation of the game room.
+     */
+    private ByteString gameRoomJson(GameRoomDataMessage game, Uri locationUri) {
+        return representationCache.getRepresentation(game, locationUri.toString(),
+                () -> toJson(toDto(game, locationUri)));
+    }
+
+    /**
+     * Serializes the given {@code value} into json, using the same configuration as the Jackson marshaller.
+     *
+     * @param value The value to be serialized.
+     * @return A {@link ByteString} with the json representation of the given {@code value}.
+     * @throws IllegalStateException If the value could not be serialized.
+     */
+    private ByteString toJson(Object value) throws IllegalStateException {
+        try {
+            return ByteString.fromArray(objectMapper.writeValueAsBytes(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize value into json", e);
+        }
+    }
+
+    /**
+     * Indicates whether the given {@code request} explicitly accepts newline delimited json.
+     *
+     * @param request The {@link HttpRequest} to be checked.
+     * @return {@code true} if the request accepts newline delimited json, or {@code false} otherwise.
+     */
+    private static boolean acceptsNdjson(HttpRequest request) {
+        return request.getHeader(Accept.class)
+                .map(accept -> StreamSupport.stream(accept.getMediaRanges().spliterator(), false)
+                        .anyMatch(range -> !"*".equals(range.mainType()) && range.matches(APPLICATION_NDJSON)))
+                .orElse(false);
+    }
+
+    /**
+     * Passes the given {@code question} to one of the {@link HttpRequestHandlerActor}s in the pool,
+     * or to the {@link GameRoomStoreRequestHandler} if game rooms are held by a {@link GameRoomStore}
+     * (and the question is a game rooms request).
+     * If the request is not answered by its deadline (or it is already overdue, in which case it is not even sent),
+     * the returned {@link CompletionStage} is completed exceptionally with a {@link TimeoutException}.
      *
      * @param question The request to be sent.
-     * @param timeout  The duration of the request.
-     * @return The Object returned as a response.
-     * @throws Exception If anything goes wrong.
+     * @param <T>      The concrete type of the response.
+     * @return A {@link CompletionStage} that will be completed with the Object returned as a response.
      */
-    private <T> T askToARequestHandlerActor(Object question, long timeout) throws Exception {
-        final ActorRef handlerActor = actorSystem
-                .actorOf(HttpRequestHandlerActor.getProps(gameRoomManager, systemMonitor));
-        final FiniteDuration duration = Duration.create(timeout, TimeUnit.MILLISECONDS);
-        final Future<?> future = Patterns.ask(handlerActor, question, new Timeout(duration));
+    private <T> CompletionStage<T> dispatch(DeadlineMessage question) {
+        if (question.getDeadline().isOverdue()) {
+            final CompletableFuture<T> overdue = new CompletableFuture<>();
+            overdue.completeExceptionally(new TimeoutException("The request is overdue"));
+            return overdue;
+        }
+        final FiniteDuration duration = Duration.create(question.getDeadline().timeLeft(), TimeUnit.MILLISECONDS);
 
         //noinspection unchecked
-        return (T) Await.result(future, duration);
+        return Optional.ofNullable(storeRequestHandler)
+                .flatMap(handler -> handler.handle(question))
+                .orElseGet(() -> PatternsCS.ask(requestHandlers, question, new Timeout(duration)))
+                .thenApply(response -> (T) response);
+    }
+
+
+    /**
+     * Returns a {@link CompletionStage} that is completed as the given {@code stage},
+     * or with a {@link TimeoutException} if the given {@code deadline} passes before
+     * (i.e only the wait is limited, so the work behind the given {@code stage} is not cut short).
+     *
+     * @param stage    The {@link CompletionStage} to be waited for.
+     * @param deadline The {@link Deadline} until which the given {@code stage} is waited for.
+     * @param <T>      The concrete type of the result.
+     * @return A {@link CompletionStage} that will be completed with the result, or with the timeout.
+     */
+    private <T> CompletionStage<T> within(CompletionStage<T> stage, Deadline deadline) {
+        final CompletableFuture<T> timeout = new CompletableFuture<>();
+        timeout.completeExceptionally(new TimeoutException("The request is overdue"));
+        if (deadline.isOverdue()) {
+            return timeout;
+        }
+        return stage.applyToEither(PatternsCS.after(Duration.create(deadline.timeLeft(), TimeUnit.MILLISECONDS),
+                actorSystem.scheduler(), actorSystem.dispatcher(), timeout), Function.identity());
+    }
+
+    /**
+     * Passes the given {@code question} (which updates a game room) as in {@link #dispatch(DeadlineMessage)},
+     * dropping the pages of game rooms shared by the {@link GameRoomsListCoalescer} that may hold the game room
+     * once it is answered (so requests arriving after the update finished do not share a page retrieved before).
+     * When a player can only be in one game room, adding players may also change the game rooms they were in,
+     * so all the shared pages are dropped.
+     *
+     * @param gameRoomName The name of the game room updated by the question.
+     * @param question     The request to be sent.
+     * @param <T>          The concrete type of the response.
+     * @return A {@link CompletionStage} that will be completed with the Object returned as a response.
+     */
+    private <T> CompletionStage<T> dispatchUpdate(String gameRoomName, DeadlineMessage question) {
+        final boolean joins = singleGameRoom &&
+                (question instanceof AddPlayerToGameRoomRequest || question instanceof AddPlayersToGameRoomRequest);
+        return this.<T>dispatch(question).whenComplete((response, failure) -> {
+            if (joins || gameRoomName == null) {
+                listCoalescer.invalidate();
+            } else {
+                listCoalescer.invalidate(gameRoomName);
+            }
+        });
     }
 
 
@@ -589,13 +1318,57 @@ public class HttpServer extends AllDirectives {
     /**
      * Creates a new {@link HttpServer}.
      *
+     * @param actorSystem       The {@link ActorSystem}.
+     * @param gameRoomManager   An {@link ActorRef} to the game rooms manager.
+     * @param gameRoomDirectory The {@link GameRoomDirectory} in which game rooms are published.
+     * @param playerDirectory   The {@link PlayerDirectory} in which the players of the game rooms are registered.
+     * @param systemMonitor     An {@link ActorRef} to the system monitor.
+     * @param settings          The {@link HttpServerSettings} for the server.
+     * @return A new {@link HttpServer}.
+     */
+    public static HttpServer createServer(ActorSystem actorSystem, ActorRef gameRoomManager,
+                                          GameRoomDirectory gameRoomDirectory, PlayerDirectory playerDirectory,
+                                          ActorRef systemMonitor, HttpServerSettings settings) {
+        LOGGER.info("Creating a new HttpServer instance using {} actor system", actorSystem);
+        return new HttpServer(actorSystem, gameRoomManager, gameRoomDirectory, null, playerDirectory, systemMonitor,
+                settings);
+    }
+
+    /**
+     * Creates a new {@link HttpServer} whose game rooms are not published in a directory
+     * (i.e every game room operation passes through the given game rooms manager,
+     * as when game rooms are sharded in a cluster, or held off-heap).
+     *
      * @param actorSystem     The {@link ActorSystem}.
      * @param gameRoomManager An {@link ActorRef} to the game rooms manager.
+     * @param playerDirectory The {@link PlayerDirectory} in which the players of the game rooms are registered,
+     *                        or {@code null} if they are not registered in a directory (i.e in a cluster).
      * @param systemMonitor   An {@link ActorRef} to the system monitor.
+     * @param settings        The {@link HttpServerSettings} for the server.
      * @return A new {@link HttpServer}.
      */
-    public static HttpServer createServer(ActorSystem actorSystem, ActorRef gameRoomManager, ActorRef systemMonitor) {
+    public static HttpServer createServer(ActorSystem actorSystem, ActorRef gameRoomManager,
+                                          PlayerDirectory playerDirectory, ActorRef systemMonitor,
+                                          HttpServerSettings settings) {
         LOGGER.info("Creating a new HttpServer instance using {} actor system", actorSystem);
-        return new HttpServer(actorSystem, gameRoomManager, systemMonitor);
+        return new HttpServer(actorSystem, gameRoomManager, null, null, playerDirectory, systemMonitor, settings);
+    }
+
+    /**
+     * Creates a new {@link HttpServer} whose game rooms are held by the given {@link GameRoomStore}.
+     *
+     * @param actorSystem   The {@link ActorSystem}.
+     * @param gameRoomStore The {@link GameRoomStore} holding the game rooms.
+     * @param systemMonitor An {@link ActorRef} to the system monitor.
+     * @param settings      The {@link HttpServerSettings} for the server.
+     * @return A new {@link HttpServer}.
+     */
+    public static HttpServer createServer(ActorSystem actorSystem, GameRoomStore gameRoomStore,
+                                          ActorRef systemMonitor, HttpServerSettings settings) {
+        LOGGER.info("Creating a new HttpServer instance using {} actor system, and an in-process game room store",
+                actorSystem);
+        // Request handler actors only handle system monitor requests
+        return new HttpServer(actorSystem, actorSystem.deadLetters(), new GameRoomDirectory(), gameRoomStore, null,
+                systemMonitor, settings);
     }
 }
@@ -0,0 +1,128 @@
+package ar.edu.itba.tav.game_rooms.http;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Class holding the settings with which an {@link HttpServer} is created.
+ */
+public final class HttpServerSettings {
+
+    /**
+     * The amount of {@link HttpRequestHandlerActor}s in the pool of request handlers.
+     */
+    private final int handlersPoolSize;
+
+    /**
+     * The min. size (in bytes) a response entity must have in order to be compressed.
+     * A negative value disables compression.
+     */
+    private final int compressionThreshold;
+
+    /**
+     * Indicates whether compressed response entities must be cached.
+     */
+    private final boolean compressionCache;
+
+    /**
+     * The time (in milliseconds) during which a retrieved page of game rooms is shared with new requests
+     * of the same page (a non-positive value only shares it while it is being retrieved).
+     */
+    private final long listStalenessWindow;
+
+    /**
+     * {@link Map} holding the configured time budget (in milliseconds) of each route
+     * (routes not in it use their {@link RequestBudget#getDefaultBudget()}).
+     */
+    private final Map<RequestBudget, Long> budgets;
+
+    /**
+     * Private constructor.
+     *
+     * @param handlersPoolSize     The amount of {@link HttpRequestHandlerActor}s in the pool of request handlers.
+     * @param compressionThreshold The min. size (in bytes) a response entity must have in order to be compressed.
+     *                             A negative value disables compression.
+     * @param compressionCache     Indicates whether compressed response entities must be cached.
+     * @param listStalenessWindow  The time (in milliseconds) during which a retrieved page of game rooms is shared.
+     * @param budgets              {@link Map} holding the configured time budget (in milliseconds) of each route.
+     */
+    private HttpServerSettings(int handlersPoolSize, int compressionThreshold, boolean compressionCache,
+                               long listStalenessWindow, Map<RequestBudget, Long> budgets) {
+        this.handlersPoolSize = handlersPoolSize;
+        this.compressionThreshold = compressionThreshold;
+        this.compressionCache = compressionCache;
+        this.listStalenessWindow = listStalenessWindow;
+        this.budgets = budgets;
+    }
+
+    /**
+     * @return The amount of {@link HttpRequestHandlerActor}s in the pool of request handlers.
+     */
+    public int getHandlersPoolSize() {
+        return handlersPoolSize;
+    }
+
+    /**
+     * @return The min. size (in bytes) a response entity must have in order to be compressed.
+     * A negative value disables compression.
+     */
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * @return {@code true} if compressed response entities must be cached, or {@code false} otherwise.
+     */
+    public boolean isCompressionCache() {
+        return compressionCache;
+    }
+
+    /**
+     * @return The time (in milliseconds) during which a retrieved page of game rooms is shared with new requests
+     * of the same page (a non-positive value only shares it while it is being retrieved).
+     */
+    public long getListStalenessWindow() {
+        return listStalenessWindow;
+    }
+
+    /**
+     * Returns the time budget of the given route (i.e the max. time within which its requests must be answered).
+     *
+     * @param route The {@link RequestBudget} of the route.
+     * @return The time budget (in milliseconds).
+     */
+    public long getBudget(RequestBudget route) {
+        return budgets.getOrDefault(route, route.getDefaultBudget());
+    }
+
+    /**
+     * Creates a new {@link HttpServerSettings}.
+     *
+     * @param handlersPoolSize     The amount of {@link HttpRequestHandlerActor}s in the pool of request handlers.
+     * @param compressionThreshold The min. size (in bytes) a response entity must have in order to be compressed.
+     *                             A negative value disables compression.
+     * @param compressionCache     Indicates whether compressed response entities must be cached.
+     * @param listStalenessWindow  The time (in milliseconds) during which a retrieved page of game rooms is shared
+     *                             with new requests of the same page
+     *                             (a non-positive value only shares it while it is being retrieved).
+     * @param budgets              {@link Map} holding the time budget (in milliseconds) of each route
+     *                             (routes not in it use their {@link RequestBudget#getDefaultBudget()}).
+     * @return The created {@link HttpServerSettings}.
+     * @throws IllegalArgumentException If the {@code handlersPoolSize} or any of the {@code budgets} is not positive.
+     */
+    public static HttpServerSettings create(int handlersPoolSize, int compressionThreshold, boolean compressionCache,
+                                            long listStalenessWindow, Map<RequestBudget, Long> budgets)
+            throws IllegalArgumentException {
+        if (handlersPoolSize <= 0) {
+            throw new IllegalArgumentException("The handlers pool size must be positive");
+        }
+        if (budgets.values().stream().anyMatch(budget -> budget <= 0)) {
+            throw new IllegalArgumentException("The requests budgets must be positive");
+        }
+        final Map<RequestBudget, Long> budgetsCopy = new EnumMap<>(RequestBudget.class);
+        budgetsCopy.putAll(budgets);
+        return new HttpServerSettings(handlersPoolSize, compressionThreshold, compressionCache, listStalenessWindow,
+                Collections.unmodifiableMap(budgetsCopy));
+    }
+}
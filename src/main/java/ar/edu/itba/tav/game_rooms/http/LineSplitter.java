@@ -0,0 +1,77 @@
+package ar.edu.itba.tav.game_rooms.http;
+
+import akka.japi.function.Function;
+import akka.util.ByteString;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Splits a stream of bytes into newline delimited lines (to be used with {@code statefulMapConcat}).
+ * Unlike {@link akka.stream.javadsl.Framing#delimiter}, a line longer than the max. length does not fail the stream:
+ * its bytes are discarded as they arrive, and an empty {@link Optional} is emitted in its place.
+ * Bytes after the last newline are never emitted, so the stream must end with a newline.
+ * A new instance must be used for each stream, as it keeps the line being split.
+ */
+/* package */ final class LineSplitter implements Function<ByteString, Iterable<Optional<ByteString>>> {
+
+    /**
+     * The serial version UID (functions are serializable, although a splitter is never serialized).
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The newline byte.
+     */
+    private static final byte NEWLINE = (byte) '\n';
+
+    /**
+     * The max. length (in bytes) of a line (without the newline).
+     */
+    private final int maxLineLength;
+
+    /**
+     * The bytes of the current line received so far.
+     */
+    private ByteString buffer;
+
+    /**
+     * Indicates whether the current line is longer than the max. length (i.e its bytes are being discarded).
+     */
+    private boolean oversized;
+
+    /**
+     * Constructor.
+     *
+     * @param maxLineLength The max. length (in bytes) of a line (without the newline).
+     */
+    /* package */ LineSplitter(int maxLineLength) {
+        this.maxLineLength = maxLineLength;
+        this.buffer = ByteString.empty();
+        this.oversized = false;
+    }
+
+    @Override
+    public Iterable<Optional<ByteString>> apply(ByteString bytes) {
+        final List<Optional<ByteString>> lines = new ArrayList<>();
+        ByteString remaining = bytes;
+        int newline;
+        while ((newline = remaining.indexOf(NEWLINE)) >= 0) {
+            lines.add(oversized || buffer.size() + newline > maxLineLength ?
+                    Optional.empty() : Optional.of(buffer.concat(remaining.take(newline))));
+            buffer = ByteString.empty();
+            oversized = false;
+            remaining = remaining.drop(newline + 1);
+        }
+        if (!oversized) {
+            if (buffer.size() + remaining.size() > maxLineLength) {
+                buffer = ByteString.empty();
+                oversized = true;
+            } else {
+                buffer = buffer.concat(remaining);
+            }
+        }
+        return lines;
+    }
+}
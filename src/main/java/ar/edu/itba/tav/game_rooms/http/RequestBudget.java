@@ -0,0 +1,71 @@
+package ar.edu.itba.tav.game_rooms.http;
+
+import java.util.Locale;
+
+/**
+ * Enum containing the routes of the {@link HttpServer} that have a time budget
+ * (i.e the time within which their requests must be answered, after which they are not processed any more).
+ */
+public enum RequestBudget {
+    /**
+     * Retrieving (or streaming) a page of game rooms.
+     */
+    LIST_GAME_ROOMS(5000),
+    /**
+     * Retrieving a game room by name.
+     */
+    GET_GAME_ROOM(5000),
+    /**
+     * Creating a game room (each one, when they are created in bulk).
+     */
+    CREATE_GAME_ROOM(2000),
+    /**
+     * Removing a game room.
+     */
+    REMOVE_GAME_ROOM(5000),
+    /**
+     * Adding or removing players (one or a batch of them) into a game room.
+     */
+    PLAYER_OPERATION(2000),
+    /**
+     * Retrieving the game rooms in which a player is.
+     */
+    PLAYER_GAME_ROOMS(2000),
+    /**
+     * Retrieving the system monitor data.
+     */
+    MONITOR(2000);
+
+    /**
+     * The time budget (in milliseconds) used when none is configured for the route.
+     */
+    private final long defaultBudget;
+
+    /**
+     * Constructor.
+     *
+     * @param defaultBudget The time budget (in milliseconds) used when none is configured for the route.
+     */
+    RequestBudget(long defaultBudget) {
+        this.defaultBudget = defaultBudget;
+    }
+
+    /**
+     * @return The time budget (in milliseconds) used when none is configured for the route.
+     */
+    public long getDefaultBudget() {
+        return defaultBudget;
+    }
+
+    /**
+     * Returns the {@link RequestBudget} with the given {@code name}, ignoring case,
+     * and accepting dashes instead of underscores (e.g {@code list-game-rooms}).
+     *
+     * @param name The name of the route.
+     * @return The {@link RequestBudget}.
+     * @throws IllegalArgumentException If there is no route with the given {@code name}.
+     */
+    public static RequestBudget fromName(String name) throws IllegalArgumentException {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
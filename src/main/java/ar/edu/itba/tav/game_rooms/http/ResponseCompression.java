@@ -0,0 +1,228 @@
+package ar.edu.itba.tav.game_rooms.http;
+
+import akka.http.javadsl.model.ContentType;
+import akka.http.javadsl.model.HttpEntities;
+import akka.http.javadsl.model.HttpRequest;
+import akka.http.javadsl.model.HttpResponse;
+import akka.http.javadsl.model.headers.AcceptEncoding;
+import akka.http.javadsl.model.headers.ContentEncoding;
+import akka.http.javadsl.model.headers.HttpEncoding;
+import akka.http.javadsl.model.headers.HttpEncodingRange;
+import akka.http.javadsl.model.headers.HttpEncodings;
+import akka.http.javadsl.model.headers.RawHeader;
+import akka.stream.javadsl.Compression;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Class in charge of compressing response entities, according to the encodings accepted by the client
+ * (i.e the {@code Accept-Encoding} header). Both {@code gzip} and {@code deflate} are supported,
+ * being {@code gzip} preferred when both are equally accepted.
+ * Strict entities smaller than the configured threshold are not compressed, as the overhead is not worth it.
+ * Optionally, compressed entities can be cached (by a key identifying the uncompressed entity),
+ * so the compressor is not run again for unchanged data.
+ * It is safe to use this class from different threads.
+ */
+/* package */ final class ResponseCompression {
+
+    /**
+     * The supported encodings, in order of preference.
+     */
+    private static final HttpEncoding[] SUPPORTED_ENCODINGS = {HttpEncodings.GZIP, HttpEncodings.DEFLATE};
+
+    /**
+     * The max. amount of compressed entities that are cached.
+     */
+    private static final int MAX_CACHED_ENTITIES = 1024;
+
+    /**
+     * The min. size (in bytes) a strict entity must have in order to be compressed.
+     * A negative value disables compression.
+     */
+    private final int threshold;
+
+    /**
+     * The cached compressed entities, by encoding and key, in access order (i.e least recently used first),
+     * or {@code null} if compressed entities must not be cached.
+     */
+    private final Map<String, ByteString> cache;
+
+    /**
+     * Constructor.
+     *
+     * @param threshold The min. size (in bytes) a strict entity must have in order to be compressed.
+     *                  A negative value disables compression.
+     * @param cached    Indicates whether compressed entities must be cached.
+     */
+    @SuppressWarnings("serial") // The cache is never serialized
+    /* package */ ResponseCompression(int threshold, boolean cached) {
+        this.threshold = threshold;
+        this.cache = cached ? Collections.synchronizedMap(new LinkedHashMap<String, ByteString>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ByteString> eldest) {
+                return size() > MAX_CACHED_ENTITIES;
+            }
+        }) : null;
+    }
+
+    /**
+     * Sets the given {@code body} as the entity of the given {@code response},
+     * compressing it if the {@code request} accepts a supported encoding and the body is big enough.
+     *
+     * @param request     The {@link HttpRequest} being responded.
+     * @param response    The {@link HttpResponse} to which the entity is set.
+     * @param contentType The {@link ContentType} of the (uncompressed) body.
+     * @param body        The (uncompressed) body.
+     * @param cacheKey    A key identifying the given {@code body} (e.g its url and entity tag),
+     *                    used to cache the compressed body, or {@code null} if it must not be cached.
+     * @return The {@link HttpResponse} with the entity set.
+     */
+    /* package */ HttpResponse withEntity(HttpRequest request, HttpResponse response, ContentType contentType,
+                                          ByteString body, String cacheKey) {
+        if (threshold < 0) {
+            return response.withEntity(HttpEntities.create(contentType, body));
+        }
+        final Optional<HttpEncoding> encoding = body.size() < threshold ? Optional.empty() : negotiate(request);
+        if (!encoding.isPresent()) {
+            return vary(response).withEntity(HttpEntities.create(contentType, body));
+        }
+        final HttpEncoding chosen = encoding.get();
+        final ByteString compressed = cache == null || cacheKey == null ?
+                compress(chosen, body) : cachedCompress(chosen, body, chosen.value() + " " + cacheKey);
+        return vary(response)
+                .addHeader(ContentEncoding.create(chosen))
+                .withEntity(HttpEntities.create(contentType, compressed));
+    }
+
+    /**
+     * Sets the given {@code body} as a chunked entity of the given {@code response},
+     * compressing it on the fly if the {@code request} accepts a supported encoding
+     * (as the size of a stream is not known in advance, the threshold does not apply).
+     *
+     * @param request     The {@link HttpRequest} being responded.
+     * @param response    The {@link HttpResponse} to which the entity is set.
+     * @param contentType The {@link ContentType} of the (uncompressed) body.
+     * @param body        A {@link Source} of the (uncompressed) body.
+     * @return The {@link HttpResponse} with the entity set.
+     */
+    /* package */ HttpResponse withChunkedEntity(HttpRequest request, HttpResponse response, ContentType contentType,
+                                                 Source<ByteString, ?> body) {
+        if (threshold < 0) {
+            return response.withEntity(HttpEntities.createChunked(contentType, body));
+        }
+        return negotiate(request)
+                .map(encoding -> vary(response)
+                        .addHeader(ContentEncoding.create(encoding))
+                        .withEntity(HttpEntities.createChunked(contentType, HttpEncodings.GZIP.equals(encoding) ?
+                                body.via(Compression.gzip()) : body.via(Compression.deflate()))))
+                .orElseGet(() -> vary(response).withEntity(HttpEntities.createChunked(contentType, body)));
+    }
+
+    /**
+     * Adds the {@code Vary} header to the given {@code response} without entity (e.g a {@code 304 Not Modified}),
+     * if compression is enabled, as the representation it refers to depends on the {@code Accept-Encoding} header.
+     *
+     * @param response The {@link HttpResponse} to which the header is added.
+     * @return The {@link HttpResponse} with the header (or the same {@code response} if compression is disabled).
+     */
+    /* package */ HttpResponse withVary(HttpResponse response) {
+        return threshold < 0 ? response : vary(response);
+    }
+
+    /**
+     * Chooses the encoding to be used for a response to the given {@code request},
+     * according to its {@code Accept-Encoding} header.
+     * An encoding is acceptable if it has a positive quality value,
+     * considering a specific range over a wildcard one.
+     *
+     * @param request The {@link HttpRequest} being responded.
+     * @return The chosen {@link HttpEncoding}, or empty if the response must not be compressed.
+     */
+    private static Optional<HttpEncoding> negotiate(HttpRequest request) {
+        return request.getHeader(AcceptEncoding.class).flatMap(acceptEncoding -> {
+            HttpEncoding chosen = null;
+            float chosenQValue = 0;
+            for (HttpEncoding encoding : SUPPORTED_ENCODINGS) {
+                float specificQValue = -1;
+                float wildcardQValue = -1;
+                for (HttpEncodingRange range : acceptEncoding.getEncodings()) {
+                    if (!range.matches(encoding)) {
+                        continue;
+                    }
+                    // Only the wildcard range matches more than one of the supported encodings
+                    if (range.matches(HttpEncodings.GZIP) && range.matches(HttpEncodings.DEFLATE)) {
+                        wildcardQValue = Math.max(wildcardQValue, range.qValue());
+                    } else {
+                        specificQValue = Math.max(specificQValue, range.qValue());
+                    }
+                }
+                final float qValue = specificQValue >= 0 ? specificQValue : wildcardQValue;
+                if (qValue > chosenQValue) {
+                    chosen = encoding;
+                    chosenQValue = qValue;
+                }
+            }
+            return Optional.ofNullable(chosen);
+        });
+    }
+
+    /**
+     * Adds the {@code Vary} header to the given {@code response},
+     * as its entity depends on the {@code Accept-Encoding} header of the request.
+     *
+     * @param response The {@link HttpResponse} to which the header is added.
+     * @return The {@link HttpResponse} with the header.
+     */
+    private static HttpResponse vary(HttpResponse response) {
+        return response.addHeader(RawHeader.create("Vary", "Accept-Encoding"));
+    }
+
+    /**
+     * Returns the cached compressed {@code body}, compressing and caching it if it is not cached.
+     * The body is compressed outside the cache lock (so other threads are not blocked meanwhile),
+     * which means that two threads might compress the same body at the same time, being the first one cached.
+     *
+     * @param encoding The {@link HttpEncoding} to be used (i.e gzip or deflate).
+     * @param body     The body to be compressed.
+     * @param key      The key of the compressed body in the cache.
+     * @return The compressed body.
+     */
+    private ByteString cachedCompress(HttpEncoding encoding, ByteString body, String key) {
+        final ByteString cached = cache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final ByteString compressed = compress(encoding, body);
+        final ByteString raced = cache.putIfAbsent(key, compressed);
+        return raced == null ? compressed : raced;
+    }
+
+    /**
+     * Compresses the given {@code body} with the given {@code encoding}.
+     *
+     * @param encoding The {@link HttpEncoding} to be used (i.e gzip or deflate).
+     * @param body     The body to be compressed.
+     * @return The compressed body.
+     * @throws IllegalStateException If the body could not be compressed.
+     */
+    private static ByteString compress(HttpEncoding encoding, ByteString body) throws IllegalStateException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.size() / 4 + 64);
+        try (OutputStream compressor = HttpEncodings.GZIP.equals(encoding) ?
+                new GZIPOutputStream(bytes) : new DeflaterOutputStream(bytes)) {
+            compressor.write(body.toArray());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not compress body", e);
+        }
+        return ByteString.fromArray(bytes.toByteArray());
+    }
+}
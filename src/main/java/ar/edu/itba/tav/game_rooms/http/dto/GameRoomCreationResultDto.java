@@ -0,0 +1,35 @@
+package ar.edu.itba.tav.game_rooms.http.dto;
+
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomCreationResult;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Data transfer object for the result of the creation of a game room in a bulk creation.
+ */
+public class GameRoomCreationResultDto {
+
+    /**
+     * The name of the game room (or {@code null} if it could not be read).
+     */
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    @JsonProperty
+    private final String name;
+
+    /**
+     * The result of the creation of the game room.
+     */
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    @JsonProperty
+    private final GameRoomCreationResult result;
+
+    /**
+     * Constructor.
+     *
+     * @param name   The name of the game room (or {@code null} if it could not be read).
+     * @param result The result of the creation of the game room.
+     */
+    public GameRoomCreationResultDto(String name, GameRoomCreationResult result) {
+        this.name = name;
+        this.result = result;
+    }
+}
@@ -8,8 +8,6 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Data transfer object for a game room.
@@ -29,11 +27,11 @@ public class GameRoomDto {
     private int capacity;
 
     /**
-     * The {@link Set} of players in the game room.
+     * The ids of the players in the game room.
      */
-    @SuppressWarnings({"FieldCanBeLocal", "unused", "MismatchedQueryAndUpdateOfCollection"})
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
     @JsonProperty(access = JsonProperty.Access.READ_ONLY)
-    private final Set<Long> players;
+    private final long[] players;
 
     /**
      * The url of the location of the game room represented by this dto.
@@ -48,7 +46,7 @@ public class GameRoomDto {
      */
     public GameRoomDto() {
         // For Jackson
-        this.players = new HashSet<>();
+        this.players = new long[0];
     }
 
     /**
@@ -56,10 +54,10 @@ public class GameRoomDto {
      *
      * @param name        The game room name.
      * @param capacity    The game room capacity.
-     * @param players     The players in the game room.
+     * @param players     The ids of the players in the game room.
      * @param locationUrl The url of the location of the game room represented by this dto.
      */
-    public GameRoomDto(String name, int capacity, Set<Long> players, Uri locationUrl) {
+    public GameRoomDto(String name, int capacity, long[] players, Uri locationUrl) {
         this.name = name;
         this.capacity = capacity;
         this.players = players;
@@ -0,0 +1,36 @@
+package ar.edu.itba.tav.game_rooms.http.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Data transfer object for the game rooms in which a player is.
+ */
+public class PlayerGameRoomsDto {
+
+    /**
+     * The id of the player.
+     */
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    @JsonProperty
+    private final long playerId;
+
+    /**
+     * The names of the game rooms in which the player is.
+     */
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    @JsonProperty
+    private final List<String> gameRooms;
+
+    /**
+     * Constructor.
+     *
+     * @param playerId  The id of the player.
+     * @param gameRooms The names of the game rooms in which the player is.
+     */
+    public PlayerGameRoomsDto(long playerId, List<String> gameRooms) {
+        this.playerId = playerId;
+        this.gameRooms = gameRooms;
+    }
+}
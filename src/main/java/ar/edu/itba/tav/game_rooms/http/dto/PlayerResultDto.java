@@ -0,0 +1,35 @@
+package ar.edu.itba.tav.game_rooms.http.dto;
+
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.PlayerResult;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Data transfer object for the result of a batch player operation, for a single player.
+ */
+public class PlayerResultDto {
+
+    /**
+     * The id of the player.
+     */
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    @JsonProperty
+    private final long playerId;
+
+    /**
+     * The result of the operation for the player.
+     */
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    @JsonProperty
+    private final PlayerResult result;
+
+    /**
+     * Constructor.
+     *
+     * @param playerId The id of the player.
+     * @param result   The result of the operation for the player.
+     */
+    public PlayerResultDto(long playerId, PlayerResult result) {
+        this.playerId = playerId;
+        this.result = result;
+    }
+}
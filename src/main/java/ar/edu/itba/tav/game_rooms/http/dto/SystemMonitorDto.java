@@ -0,0 +1,106 @@
+package ar.edu.itba.tav.game_rooms.http.dto;
+
+import ar.edu.itba.tav.game_rooms.messages.SystemMonitorMessages.SystemMonitorData;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+/**
+ * Data transfer object for the system monitor data, together with the http server caches statistics.
+ */
+public class SystemMonitorDto {
+
+    /**
+     * The data measured by the system monitor.
+     */
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    @JsonUnwrapped
+    private final SystemMonitorData data;
+
+    /**
+     * The statistics of the game rooms representation cache.
+     */
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    @JsonProperty
+    private final CacheStatisticsDto representationCache;
+
+    /**
+     * The statistics of the game rooms listing coalescing (i.e a hit is a request that shared another's page).
+     */
+    @SuppressWarnings({"FieldCanBeLocal", "unused"})
+    @JsonProperty
+    private final CacheStatisticsDto listCoalescing;
+
+    /**
+     * Constructor.
+     *
+     * @param data                The data measured by the system monitor.
+     * @param representationCache The statistics of the game rooms representation cache.
+     * @param listCoalescing      The statistics of the game rooms listing coalescing.
+     */
+    public SystemMonitorDto(SystemMonitorData data, CacheStatisticsDto representationCache,
+                            CacheStatisticsDto listCoalescing) {
+        this.data = data;
+        this.representationCache = representationCache;
+        this.listCoalescing = listCoalescing;
+    }
+
+    /**
+     * Data transfer object for a cache statistics.
+     */
+    public static class CacheStatisticsDto {
+
+        /**
+         * The amount of times a cached value was used.
+         */
+        @SuppressWarnings({"FieldCanBeLocal", "unused"})
+        @JsonProperty
+        private final long hits;
+
+        /**
+         * The amount of times a value was not cached.
+         */
+        @SuppressWarnings({"FieldCanBeLocal", "unused"})
+        @JsonProperty
+        private final long misses;
+
+        /**
+         * The amount of cached values.
+         */
+        @SuppressWarnings({"FieldCanBeLocal", "unused"})
+        @JsonProperty
+        private final int size;
+
+        /**
+         * The amount of cached values dropped to keep the cache bounded.
+         */
+        @SuppressWarnings({"FieldCanBeLocal", "unused"})
+        @JsonProperty
+        private final long evictions;
+
+        /**
+         * Constructor, for a cache that never drops values to keep itself bounded.
+         *
+         * @param hits   The amount of times a cached value was used.
+         * @param misses The amount of times a value was not cached.
+         * @param size   The amount of cached values.
+         */
+        public CacheStatisticsDto(long hits, long misses, int size) {
+            this(hits, misses, size, 0);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param hits      The amount of times a cached value was used.
+         * @param misses    The amount of times a value was not cached.
+         * @param size      The amount of cached values.
+         * @param evictions The amount of cached values dropped to keep the cache bounded.
+         */
+        public CacheStatisticsDto(long hits, long misses, int size, long evictions) {
+            this.hits = hits;
+            this.misses = misses;
+            this.size = size;
+            this.evictions = evictions;
+        }
+    }
+}
@@ -1,15 +1,25 @@
 package ar.edu.itba.tav.game_rooms.messages;
 
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
 import ar.edu.itba.tav.game_rooms.core.GameRoomsManagerActor;
+import ar.edu.itba.tav.game_rooms.utils.Deadline;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Set;
+import java.util.List;
 
 /**
  * Class defining messages for game room operations.
  */
 public class GameRoomOperationMessages {
 
+    /**
+     * Value of a page limit indicating that all the game rooms after the page cursor must be included.
+     */
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
+
     // ========================================================================
     // Response messages
     // ========================================================================
@@ -62,8 +72,15 @@ public class GameRoomOperationMessages {
 
     /**
      * Message representing a game room (used to transfer game room data between actors).
+     * It is an immutable snapshot of the game room at a given version,
+     * so the same instance can be handed out to (and serialized by) any amount of threads.
      */
-    public static class GameRoomDataMessage {
+    public static class GameRoomDataMessage implements Serializable {
+
+        /**
+         * The serial version UID (game room data is replied across the nodes of a cluster).
+         */
+        private static final long serialVersionUID = 1L;
 
         /**
          * The game room name.
@@ -76,21 +93,29 @@ public class GameRoomOperationMessages {
         private final int capacity;
 
         /**
-         * The players in the game room.
+         * The ids of the players in the game room, in ascending order.
          */
-        private final Set<Long> players;
+        private final long[] players;
+
+        /**
+         * The game room version (changes each time the game room state changes).
+         */
+        private final long version;
 
         /**
          * Constructor.
          *
          * @param name     The game room name.
          * @param capacity The game room capacity.
-         * @param players  The players in the game room.
+         * @param players  The ids of the players in the game room, in ascending order
+         *                 (the array is owned by the message, so it must not be modified afterwards).
+         * @param version  The game room version.
          */
-        public GameRoomDataMessage(String name, int capacity, Set<Long> players) {
+        public GameRoomDataMessage(String name, int capacity, long[] players, long version) {
             this.name = name;
             this.capacity = capacity;
-            this.players = Collections.unmodifiableSet(players);
+            this.players = players;
+            this.version = version;
         }
 
         /**
@@ -108,11 +133,113 @@ public class GameRoomOperationMessages {
         }
 
         /**
-         * @return The players in the game room.
+         * @return The ids of the players in the game room, in ascending order (the array must not be modified).
          */
-        public Set<Long> getPlayers() {
+        public long[] getPlayers() {
             return players;
         }
+
+        /**
+         * @return The game room version (changes each time the game room state changes).
+         */
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    /**
+     * Message wrapping a {@link Source} of {@link GameRoomDataMessage}s,
+     * used to stream game room snapshots to the requester with backpressure.
+     */
+    public static final class GameRoomsSourceMessage {
+
+        /**
+         * The {@link Source} of game room snapshots.
+         */
+        private final Source<GameRoomDataMessage, NotUsed> source;
+
+        /**
+         * Private constructor.
+         *
+         * @param source The {@link Source} of game room snapshots.
+         */
+        private GameRoomsSourceMessage(Source<GameRoomDataMessage, NotUsed> source) {
+            this.source = source;
+        }
+
+        /**
+         * @return The {@link Source} of game room snapshots.
+         */
+        public Source<GameRoomDataMessage, NotUsed> getSource() {
+            return source;
+        }
+
+        /**
+         * Static method to create a {@link GameRoomsSourceMessage}.
+         *
+         * @param source The {@link Source} of game room snapshots.
+         * @return The new {@link GameRoomsSourceMessage}.
+         */
+        public static GameRoomsSourceMessage getMessage(Source<GameRoomDataMessage, NotUsed> source) {
+            return new GameRoomsSourceMessage(source);
+        }
+    }
+
+    /**
+     * Message replied instead of the {@link List} of {@link GameRoomDataMessage} to a request of a page of game rooms
+     * when some of the game rooms could not be retrieved in time (i.e some shards, or some game rooms of a cluster,
+     * did not reply),
+     * so the requester does not take the page as complete.
+     */
+    public static final class PartialGameRoomsPageMessage {
+
+        /**
+         * The game rooms that could be retrieved, ordered by name.
+         */
+        private final List<GameRoomDataMessage> gameRooms;
+
+        /**
+         * The amount of shards whose game rooms are missing (or of missing game rooms, in a cluster).
+         */
+        private final int missingShards;
+
+        /**
+         * Private constructor.
+         *
+         * @param gameRooms     The game rooms that could be retrieved, ordered by name.
+         * @param missingShards The amount of shards whose game rooms are missing
+         *                      (or of missing game rooms, in a cluster).
+         */
+        private PartialGameRoomsPageMessage(List<GameRoomDataMessage> gameRooms, int missingShards) {
+            this.gameRooms = gameRooms;
+            this.missingShards = missingShards;
+        }
+
+        /**
+         * @return The game rooms that could be retrieved, ordered by name.
+         */
+        public List<GameRoomDataMessage> getGameRooms() {
+            return gameRooms;
+        }
+
+        /**
+         * @return The amount of shards whose game rooms are missing (or of missing game rooms, in a cluster).
+         */
+        public int getMissingShards() {
+            return missingShards;
+        }
+
+        /**
+         * Static method to create a {@link PartialGameRoomsPageMessage}.
+         *
+         * @param gameRooms     The game rooms that could be retrieved, ordered by name.
+         * @param missingShards The amount of shards whose game rooms are missing
+         *                      (or of missing game rooms, in a cluster).
+         * @return The new {@link PartialGameRoomsPageMessage}.
+         */
+        public static PartialGameRoomsPageMessage getMessage(List<GameRoomDataMessage> gameRooms, int missingShards) {
+            return new PartialGameRoomsPageMessage(gameRooms, missingShards);
+        }
     }
 
     /**
@@ -138,50 +265,299 @@ public class GameRoomOperationMessages {
         FAILURE,
     }
 
+    /**
+     * Enum containing the results for each player in a batch player operation over a game room.
+     */
+    public enum PlayerResult {
+        /**
+         * The player was added into the game room.
+         */
+        ADDED,
+        /**
+         * The player was already in the game room (when adding it).
+         */
+        ALREADY_IN_GAME_ROOM,
+        /**
+         * The player was removed from the game room.
+         */
+        REMOVED,
+        /**
+         * The player was not in the game room (when removing it).
+         */
+        NOT_IN_GAME_ROOM,
+        /**
+         * The player was not added because the whole batch did not fit in the game room.
+         */
+        REJECTED,
+    }
+
+    /**
+     * Message to be replied to the sender when performing a batch player operation over a game room.
+     */
+    public static final class PlayersOperationResultMessage implements Serializable {
+
+        /**
+         * The serial version UID (results are replied across the nodes of a cluster).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The result of the whole operation.
+         */
+        private final PlayerOperationResult result;
+
+        /**
+         * The result for each player, in the same order as the players of the request
+         * (empty if the operation could not be performed, i.e there is no such game room).
+         */
+        private final List<PlayerResult> playerResults;
+
+        /**
+         * Private constructor.
+         *
+         * @param result        The result of the whole operation.
+         * @param playerResults The result for each player, in the same order as the players of the request.
+         */
+        private PlayersOperationResultMessage(PlayerOperationResult result, List<PlayerResult> playerResults) {
+            this.result = result;
+            this.playerResults = Collections.unmodifiableList(new ArrayList<>(playerResults));
+        }
+
+        /**
+         * @return The result of the whole operation.
+         */
+        public PlayerOperationResult getResult() {
+            return result;
+        }
+
+        /**
+         * @return The result for each player, in the same order as the players of the request
+         * (empty if the operation could not be performed, i.e there is no such game room).
+         */
+        public List<PlayerResult> getPlayerResults() {
+            return playerResults;
+        }
+
+        /**
+         * Static method to create a {@link PlayersOperationResultMessage}.
+         *
+         * @param result        The result of the whole operation.
+         * @param playerResults The result for each player, in the same order as the players of the request.
+         * @return The new {@link PlayersOperationResultMessage}.
+         */
+        public static PlayersOperationResultMessage getMessage(PlayerOperationResult result,
+                                                               List<PlayerResult> playerResults) {
+            return new PlayersOperationResultMessage(result, playerResults);
+        }
+
+        /**
+         * Static method to create a {@link PlayersOperationResultMessage} for an operation that could not be performed.
+         *
+         * @param result The result of the whole operation.
+         * @return The new {@link PlayersOperationResultMessage}.
+         */
+        public static PlayersOperationResultMessage getMessage(PlayerOperationResult result) {
+            return new PlayersOperationResultMessage(result, Collections.emptyList());
+        }
+    }
+
 
     // ========================================================================
     // Request messages
     // ========================================================================
 
     /**
-     * A message that is used to request all game rooms.
+     * Interface for requests carrying the {@link Deadline} by which they must be answered
+     * (i.e each hop uses the time left to wait for the next one, and overdue requests are dropped).
+     */
+    public interface DeadlineMessage {
+
+        /**
+         * @return The {@link Deadline} by which the request must be answered.
+         */
+        Deadline getDeadline();
+    }
+
+    /**
+     * Abstract class representing a request of a page of game rooms, ordered by name.
+     * The page starts right after the game room whose name is the {@code after} cursor,
+     * and contains at most {@code limit} game rooms.
      */
-    public final static class GetAllGameRoomsMessage {
+    private abstract static class GameRoomsPageMessage implements DeadlineMessage {
+
+        /**
+         * The name of the game room after which the page starts, or {@code null} to start from the first one.
+         */
+        private final String after;
+
+        /**
+         * The max. amount of game rooms in the page.
+         */
+        private final int limit;
+
+        /**
+         * The {@link Deadline} by which the page must be replied.
+         */
+        private final Deadline deadline;
+
+        /**
+         * Private constructor.
+         *
+         * @param after    The name of the game room after which the page starts,
+         *                 or {@code null} to start from the first one.
+         * @param limit    The max. amount of game rooms in the page.
+         * @param deadline The {@link Deadline} by which the page must be replied.
+         * @throws IllegalArgumentException If the {@code limit} is not positive.
+         */
+        private GameRoomsPageMessage(String after, int limit, Deadline deadline) throws IllegalArgumentException {
+            if (limit <= 0) {
+                throw new IllegalArgumentException("The limit must be positive");
+            }
+            this.after = after;
+            this.limit = limit;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return The name of the game room after which the page starts, or {@code null} to start from the first one.
+         */
+        public String getAfter() {
+            return after;
+        }
+
+        /**
+         * @return The max. amount of game rooms in the page.
+         */
+        public int getLimit() {
+            return limit;
+        }
+
+        @Override
+        public Deadline getDeadline() {
+            return deadline;
+        }
+    }
+
+    /**
+     * A message that is used to request all game rooms (or a page of them).
+     */
+    public final static class GetAllGameRoomsMessage extends GameRoomsPageMessage {
 
         /**
          * Private constructor.
+         *
+         * @param after    The name of the game room after which the page starts,
+         *                 or {@code null} to start from the first one.
+         * @param limit    The max. amount of game rooms in the page.
+         * @param deadline The {@link Deadline} by which the page must be replied.
          */
-        private GetAllGameRoomsMessage() {
+        private GetAllGameRoomsMessage(String after, int limit, Deadline deadline) {
+            super(after, limit, deadline);
         }
 
         /**
-         * Static method to create a {@link GetAllGameRoomsMessage}.
+         * Static method to create a {@link GetAllGameRoomsMessage} requesting all the game rooms.
          *
          * @return The new {@link GetAllGameRoomsMessage}.
          */
         public static GetAllGameRoomsMessage getMessage() {
-            return new GetAllGameRoomsMessage();
+            return new GetAllGameRoomsMessage(null, NO_LIMIT, Deadline.none());
+        }
+
+        /**
+         * Static method to create a {@link GetAllGameRoomsMessage} requesting a page of game rooms.
+         *
+         * @param after    The name of the game room after which the page starts,
+         *                 or {@code null} to start from the first one.
+         * @param limit    The max. amount of game rooms in the page.
+         * @param deadline The {@link Deadline} by which the page must be replied.
+         * @return The new {@link GetAllGameRoomsMessage}.
+         * @throws IllegalArgumentException If the {@code limit} is not positive.
+         */
+        public static GetAllGameRoomsMessage getMessage(String after, int limit, Deadline deadline)
+                throws IllegalArgumentException {
+            return new GetAllGameRoomsMessage(after, limit, deadline);
+        }
+    }
+
+    /**
+     * A message that is used to request a {@link Source} of all game rooms (or a page of them)
+     * (i.e the game rooms are streamed instead of being aggregated into a single response).
+     */
+    public final static class GetGameRoomsSourceMessage extends GameRoomsPageMessage {
+
+        /**
+         * Private constructor.
+         *
+         * @param after    The name of the game room after which the page starts,
+         *                 or {@code null} to start from the first one.
+         * @param limit    The max. amount of game rooms in the page.
+         * @param deadline The {@link Deadline} by which the page must be replied.
+         */
+        private GetGameRoomsSourceMessage(String after, int limit, Deadline deadline) {
+            super(after, limit, deadline);
+        }
+
+        /**
+         * Static method to create a {@link GetGameRoomsSourceMessage} requesting all the game rooms.
+         *
+         * @return The new {@link GetGameRoomsSourceMessage}.
+         */
+        public static GetGameRoomsSourceMessage getMessage() {
+            return new GetGameRoomsSourceMessage(null, NO_LIMIT, Deadline.none());
+        }
+
+        /**
+         * Static method to create a {@link GetGameRoomsSourceMessage} requesting a page of game rooms.
+         *
+         * @param after    The name of the game room after which the page starts,
+         *                 or {@code null} to start from the first one.
+         * @param limit    The max. amount of game rooms in the page.
+         * @param deadline The {@link Deadline} by which the page must be replied.
+         * @return The new {@link GetGameRoomsSourceMessage}.
+         * @throws IllegalArgumentException If the {@code limit} is not positive.
+         */
+        public static GetGameRoomsSourceMessage getMessage(String after, int limit, Deadline deadline)
+                throws IllegalArgumentException {
+            return new GetGameRoomsSourceMessage(after, limit, deadline);
         }
     }
 
     /**
      * Abstract class representing a game room message (i.e a message that a {@link GameRoomsManagerActor}
      * can understand in order to operate over a game room.
+     * These messages only involve the game room with the given name, so they can be routed by it
+     * (even to another node, when game rooms are sharded in a cluster).
+     * It is public so routers in other packages (i.e the {@code ShardedGameRoomsManagerActor}
+     * and the {@code GameRoomEntityActor}) can route all of them with a single match,
+     * while its private constructor keeps the set of game room messages closed to this class.
      */
-    private abstract static class GameRoomMessage {
+    public abstract static class GameRoomMessage implements DeadlineMessage, Serializable {
+
+        /**
+         * The serial version UID (game room messages are sent across the nodes of a cluster).
+         */
+        private static final long serialVersionUID = 1L;
 
         /**
          * The game room's name in which the operation must be done.
          */
         private final String gameRoomName;
 
+        /**
+         * The {@link Deadline} by which the operation must be replied.
+         */
+        private final Deadline deadline;
+
         /**
          * Private constructor.
          *
          * @param gameRoomName The game room's name in which the operation must be done.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
          */
-        private GameRoomMessage(String gameRoomName) {
+        private GameRoomMessage(String gameRoomName, Deadline deadline) {
             this.gameRoomName = gameRoomName;
+            this.deadline = deadline;
         }
 
         /**
@@ -190,6 +566,11 @@ public class GameRoomOperationMessages {
         public String getGameRoomName() {
             return gameRoomName;
         }
+
+        @Override
+        public Deadline getDeadline() {
+            return deadline;
+        }
     }
 
     /**
@@ -197,23 +578,30 @@ public class GameRoomOperationMessages {
      */
     public final static class GetSpecificGameRoomMessage extends GameRoomMessage {
 
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
         /**
          * Private constructor.
          *
          * @param gameRoomName The name of the game room to be fetched.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
          */
-        private GetSpecificGameRoomMessage(String gameRoomName) {
-            super(gameRoomName);
+        private GetSpecificGameRoomMessage(String gameRoomName, Deadline deadline) {
+            super(gameRoomName, deadline);
         }
 
         /**
          * Static method to create a {@link GetSpecificGameRoomMessage}.
          *
          * @param gameRoomName The name of the game room to be fetched.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
          * @return The new {@link GetSpecificGameRoomMessage}.
          */
-        public static GetSpecificGameRoomMessage getMessage(String gameRoomName) {
-            return new GetSpecificGameRoomMessage(gameRoomName);
+        public static GetSpecificGameRoomMessage getMessage(String gameRoomName, Deadline deadline) {
+            return new GetSpecificGameRoomMessage(gameRoomName, deadline);
         }
     }
 
@@ -222,6 +610,11 @@ public class GameRoomOperationMessages {
      */
     public final static class CreateGameRoomMessage extends GameRoomMessage {
 
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
         /**
          * The capacity of the game room to be created.
          */
@@ -232,9 +625,10 @@ public class GameRoomOperationMessages {
          *
          * @param gameRoomName The name for the new game room.
          * @param capacity     The capacity of the game room to be created.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
          */
-        private CreateGameRoomMessage(String gameRoomName, int capacity) {
-            super(gameRoomName);
+        private CreateGameRoomMessage(String gameRoomName, int capacity, Deadline deadline) {
+            super(gameRoomName, deadline);
             this.capacity = capacity;
         }
 
@@ -250,10 +644,11 @@ public class GameRoomOperationMessages {
          *
          * @param gameRoomName The name for the new game room.
          * @param capacity     The capacity of the game room to be created.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
          * @return The new {@link CreateGameRoomMessage}.
          */
-        public static CreateGameRoomMessage getMessage(String gameRoomName, int capacity) {
-            return new CreateGameRoomMessage(gameRoomName, capacity);
+        public static CreateGameRoomMessage getMessage(String gameRoomName, int capacity, Deadline deadline) {
+            return new CreateGameRoomMessage(gameRoomName, capacity, deadline);
         }
     }
 
@@ -262,23 +657,30 @@ public class GameRoomOperationMessages {
      */
     public final static class RemoveGameRoomMessage extends GameRoomMessage {
 
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
         /**
          * Private constructor.
          *
          * @param gameRoomName The name of the game room to be removed.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
          */
-        private RemoveGameRoomMessage(String gameRoomName) {
-            super(gameRoomName);
+        private RemoveGameRoomMessage(String gameRoomName, Deadline deadline) {
+            super(gameRoomName, deadline);
         }
 
         /**
          * Static method to create a {@link RemoveGameRoomMessage}.
          *
          * @param gameRoomName The name of the game room to be removed.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
          * @return The new {@link RemoveGameRoomMessage}.
          */
-        public static RemoveGameRoomMessage getMessage(String gameRoomName) {
-            return new RemoveGameRoomMessage(gameRoomName);
+        public static RemoveGameRoomMessage getMessage(String gameRoomName, Deadline deadline) {
+            return new RemoveGameRoomMessage(gameRoomName, deadline);
         }
     }
 
@@ -287,6 +689,11 @@ public class GameRoomOperationMessages {
      */
     private abstract static class PlayerMessage extends GameRoomMessage {
 
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
         /**
          * The id of the player being referred.
          */
@@ -297,9 +704,10 @@ public class GameRoomOperationMessages {
          *
          * @param gameRoomName The game room's name in which the operation must be done.
          * @param playerId     The id of the player being referred.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
          */
-        private PlayerMessage(String gameRoomName, long playerId) {
-            super(gameRoomName);
+        private PlayerMessage(String gameRoomName, long playerId, Deadline deadline) {
+            super(gameRoomName, deadline);
             this.playerId = playerId;
         }
 
@@ -316,14 +724,20 @@ public class GameRoomOperationMessages {
      */
     public final static class AddPlayerMessage extends PlayerMessage {
 
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
         /**
          * Private constructor.
          *
          * @param gameRoomName The game room's name in which the operation must be done.
          * @param playerId     The id of the player being added.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
          */
-        private AddPlayerMessage(String gameRoomName, long playerId) {
-            super(gameRoomName, playerId);
+        private AddPlayerMessage(String gameRoomName, long playerId, Deadline deadline) {
+            super(gameRoomName, playerId, deadline);
         }
 
         /**
@@ -331,10 +745,11 @@ public class GameRoomOperationMessages {
          *
          * @param gameRoomName The game room's name in which the operation must be done.
          * @param playerId     The id of the player being added.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
          * @return The new {@link AddPlayerMessage}.
          */
-        public static AddPlayerMessage getMessage(String gameRoomName, long playerId) {
-            return new AddPlayerMessage(gameRoomName, playerId);
+        public static AddPlayerMessage getMessage(String gameRoomName, long playerId, Deadline deadline) {
+            return new AddPlayerMessage(gameRoomName, playerId, deadline);
         }
     }
 
@@ -343,14 +758,20 @@ public class GameRoomOperationMessages {
      */
     public final static class RemovePlayerMessage extends PlayerMessage {
 
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
         /**
          * Private constructor.
          *
          * @param gameRoomName The game room's name in which the operation must be done.
          * @param playerId     The id of the player being removed.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
          */
-        private RemovePlayerMessage(String gameRoomName, long playerId) {
-            super(gameRoomName, playerId);
+        private RemovePlayerMessage(String gameRoomName, long playerId, Deadline deadline) {
+            super(gameRoomName, playerId, deadline);
         }
 
         /**
@@ -358,10 +779,152 @@ public class GameRoomOperationMessages {
          *
          * @param gameRoomName The game room's name in which the operation must be done.
          * @param playerId     The id of the player being removed.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
          * @return The new {@link RemovePlayerMessage}.
          */
-        public static RemovePlayerMessage getMessage(String gameRoomName, long playerId) {
-            return new RemovePlayerMessage(gameRoomName, playerId);
+        public static RemovePlayerMessage getMessage(String gameRoomName, long playerId, Deadline deadline) {
+            return new RemovePlayerMessage(gameRoomName, playerId, deadline);
+        }
+    }
+
+    /**
+     * Message to be sent to a game room that a player must leave, as the player joined another game room
+     * (i.e when a player can only be in one game room). A {@link PlayerOperationResult#SUCCESSFUL} is replied
+     * once the player left the game room (or if it was not there), so the join can be replied after it.
+     * It has no deadline, as the player must leave even if the request that made it join was abandoned.
+     */
+    public final static class LeaveGameRoomMessage extends PlayerMessage {
+
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Private constructor.
+         *
+         * @param gameRoomName The name of the game room the player must leave.
+         * @param playerId     The id of the player.
+         */
+        private LeaveGameRoomMessage(String gameRoomName, long playerId) {
+            super(gameRoomName, playerId, Deadline.none());
+        }
+
+        /**
+         * Static method to create a {@link LeaveGameRoomMessage}.
+         *
+         * @param gameRoomName The name of the game room the player must leave.
+         * @param playerId     The id of the player.
+         * @return The new {@link LeaveGameRoomMessage}.
+         */
+        public static LeaveGameRoomMessage getMessage(String gameRoomName, long playerId) {
+            return new LeaveGameRoomMessage(gameRoomName, playerId);
+        }
+    }
+
+
+    /**
+     * Message to be sent when referring a game room and several players
+     * (i.e adding/removing a batch of players into/from a game room).
+     */
+    private abstract static class PlayersMessage extends GameRoomMessage {
+
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The ids of the players being referred.
+         */
+        private final List<Long> playerIds;
+
+        /**
+         * Private constructor.
+         *
+         * @param gameRoomName The game room's name in which the operation must be done.
+         * @param playerIds    The ids of the players being referred.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
+         */
+        private PlayersMessage(String gameRoomName, List<Long> playerIds, Deadline deadline) {
+            super(gameRoomName, deadline);
+            this.playerIds = Collections.unmodifiableList(new ArrayList<>(playerIds));
+        }
+
+        /**
+         * @return The ids of the players being referred.
+         */
+        public List<Long> getPlayerIds() {
+            return playerIds;
+        }
+    }
+
+    /**
+     * Message to be sent when adding a batch of players into a game room.
+     * The players are added atomically (i.e either all of them fit in the game room, or none is added).
+     */
+    public final static class AddPlayersMessage extends PlayersMessage {
+
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Private constructor.
+         *
+         * @param gameRoomName The game room's name in which the operation must be done.
+         * @param playerIds    The ids of the players being added.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
+         */
+        private AddPlayersMessage(String gameRoomName, List<Long> playerIds, Deadline deadline) {
+            super(gameRoomName, playerIds, deadline);
+        }
+
+        /**
+         * Static method to create a {@link AddPlayersMessage}.
+         *
+         * @param gameRoomName The game room's name in which the operation must be done.
+         * @param playerIds    The ids of the players being added.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
+         * @return The new {@link AddPlayersMessage}.
+         */
+        public static AddPlayersMessage getMessage(String gameRoomName, List<Long> playerIds, Deadline deadline) {
+            return new AddPlayersMessage(gameRoomName, playerIds, deadline);
+        }
+    }
+
+    /**
+     * Message to be sent when removing a batch of players from a game room.
+     */
+    public final static class RemovePlayersMessage extends PlayersMessage {
+
+        /**
+         * The serial version UID.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Private constructor.
+         *
+         * @param gameRoomName The game room's name in which the operation must be done.
+         * @param playerIds    The ids of the players being removed.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
+         */
+        private RemovePlayersMessage(String gameRoomName, List<Long> playerIds, Deadline deadline) {
+            super(gameRoomName, playerIds, deadline);
+        }
+
+        /**
+         * Static method to create a {@link RemovePlayersMessage}.
+         *
+         * @param gameRoomName The game room's name in which the operation must be done.
+         * @param playerIds    The ids of the players being removed.
+         * @param deadline     The {@link Deadline} by which the operation must be replied.
+         * @return The new {@link RemovePlayersMessage}.
+         */
+        public static RemovePlayersMessage getMessage(String gameRoomName, List<Long> playerIds, Deadline deadline) {
+            return new RemovePlayersMessage(gameRoomName, playerIds, deadline);
         }
     }
 
@@ -386,4 +949,102 @@ public class GameRoomOperationMessages {
             return new GetGameRoomDataMessage();
         }
     }
+
+    /**
+     * Message to be sent from a game room to the game room manager when the game room has been idle
+     * for the configured period (i.e it can be passivated).
+     */
+    public final static class GameRoomIdleMessage {
+
+        /**
+         * The name of the idle game room.
+         */
+        private final String gameRoomName;
+
+        /**
+         * Private constructor.
+         *
+         * @param gameRoomName The name of the idle game room.
+         */
+        private GameRoomIdleMessage(String gameRoomName) {
+            this.gameRoomName = gameRoomName;
+        }
+
+        /**
+         * @return The name of the idle game room.
+         */
+        public String getGameRoomName() {
+            return gameRoomName;
+        }
+
+        /**
+         * Static method to create a {@link GameRoomIdleMessage}.
+         *
+         * @param gameRoomName The name of the idle game room.
+         * @return The new {@link GameRoomIdleMessage}.
+         */
+        public static GameRoomIdleMessage getMessage(String gameRoomName) {
+            return new GameRoomIdleMessage(gameRoomName);
+        }
+    }
+
+    /**
+     * Message to be sent from the game room manager to an idle game room to passivate it
+     * (i.e the game room replies its data, which is kept by the manager, and then stops).
+     */
+    public final static class PassivateGameRoomMessage {
+
+        /**
+         * Private constructor.
+         */
+        private PassivateGameRoomMessage() {
+        }
+
+        /**
+         * Static method to create a {@link PassivateGameRoomMessage}.
+         *
+         * @return The new {@link PassivateGameRoomMessage}.
+         */
+        public static PassivateGameRoomMessage getMessage() {
+            return new PassivateGameRoomMessage();
+        }
+    }
+
+    /**
+     * Message to be sent from a game room to the game room manager each time the game room state changes,
+     * holding the new data of the game room (so the manager keeps a view of its game rooms without asking them).
+     */
+    public final static class GameRoomUpdatedMessage {
+
+        /**
+         * The new data of the game room.
+         */
+        private final GameRoomDataMessage data;
+
+        /**
+         * Private constructor.
+         *
+         * @param data The new data of the game room.
+         */
+        private GameRoomUpdatedMessage(GameRoomDataMessage data) {
+            this.data = data;
+        }
+
+        /**
+         * @return The new data of the game room.
+         */
+        public GameRoomDataMessage getData() {
+            return data;
+        }
+
+        /**
+         * Static method to create a {@link GameRoomUpdatedMessage}.
+         *
+         * @param data The new data of the game room.
+         * @return The new {@link GameRoomUpdatedMessage}.
+         */
+        public static GameRoomUpdatedMessage getMessage(GameRoomDataMessage data) {
+            return new GameRoomUpdatedMessage(data);
+        }
+    }
 }
@@ -1,63 +1,145 @@
 package ar.edu.itba.tav.game_rooms.messages;
 
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.DeadlineMessage;
+import ar.edu.itba.tav.game_rooms.utils.Deadline;
+
+import java.util.List;
+
 /**
  * Class defining messages for http requests handling.
  */
 public class HttpRequestMessages {
 
     /**
-     * An abstract request that contains a timeout value.
+     * An abstract request that contains the deadline by which it must be answered.
      */
-    private abstract static class TimeoutRequest {
+    private abstract static class DeadlineRequest implements DeadlineMessage {
 
         /**
-         * The timeout for the request.
+         * The deadline of the request.
          */
-        private final long timeout;
+        private final Deadline deadline;
 
 
         /**
-         * @param timeout The timeout for the request.
+         * @param deadline The deadline of the request.
          */
-        private TimeoutRequest(long timeout) {
-            this.timeout = timeout;
+        private DeadlineRequest(Deadline deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public Deadline getDeadline() {
+            return deadline;
         }
+    }
+
+    /**
+     * An abstract request of a page of game rooms, ordered by name.
+     */
+    private abstract static class GameRoomsPageRequest extends DeadlineRequest {
 
         /**
-         * @return The timeout for the request.
+         * The name of the game room after which the page starts, or {@code null} to start from the first one.
          */
-        public long getTimeout() {
-            return timeout;
+        private final String after;
+
+        /**
+         * The max. amount of game rooms in the page.
+         */
+        private final int limit;
+
+        /**
+         * Private constructor.
+         *
+         * @param after    The name of the game room after which the page starts,
+         *                 or {@code null} to start from the first one.
+         * @param limit    The max. amount of game rooms in the page.
+         * @param deadline The deadline of the request.
+         */
+        private GameRoomsPageRequest(String after, int limit, Deadline deadline) {
+            super(deadline);
+            this.after = after;
+            this.limit = limit;
+        }
+
+        /**
+         * @return The name of the game room after which the page starts, or {@code null} to start from the first one.
+         */
+        public String getAfter() {
+            return after;
+        }
+
+        /**
+         * @return The max. amount of game rooms in the page.
+         */
+        public int getLimit() {
+            return limit;
         }
     }
 
     /**
-     * A request to get all game rooms.
+     * A request to get all game rooms (or a page of them).
      */
-    public static class GetAllGameRoomsRequest extends TimeoutRequest {
+    public static class GetAllGameRoomsRequest extends GameRoomsPageRequest {
 
         /**
-         * @param timeout The timeout for the request.
+         * @param after    The name of the game room after which the page starts,
+         *                 or {@code null} to start from the first one.
+         * @param limit    The max. amount of game rooms in the page.
+         * @param deadline The deadline of the request.
          */
-        private GetAllGameRoomsRequest(long timeout) {
-            super(timeout);
+        private GetAllGameRoomsRequest(String after, int limit, Deadline deadline) {
+            super(after, limit, deadline);
         }
 
         /**
          * Creates a new {@link GetAllGameRoomsRequest}.
          *
-         * @param timeout The timeout for the request.
+         * @param after    The name of the game room after which the page starts,
+         *                 or {@code null} to start from the first one.
+         * @param limit    The max. amount of game rooms in the page.
+         * @param deadline The deadline of the request.
+         * @return The created request.
+         */
+        public static GetAllGameRoomsRequest createRequest(String after, int limit, Deadline deadline) {
+            return new GetAllGameRoomsRequest(after, limit, deadline);
+        }
+    }
+
+    /**
+     * A request to stream all game rooms (or a page of them).
+     */
+    public static class GetGameRoomsStreamRequest extends GameRoomsPageRequest {
+
+        /**
+         * @param after    The name of the game room after which the page starts,
+         *                 or {@code null} to start from the first one.
+         * @param limit    The max. amount of game rooms in the page.
+         * @param deadline The deadline of the request.
+         */
+        private GetGameRoomsStreamRequest(String after, int limit, Deadline deadline) {
+            super(after, limit, deadline);
+        }
+
+        /**
+         * Creates a new {@link GetGameRoomsStreamRequest}.
+         *
+         * @param after    The name of the game room after which the page starts,
+         *                 or {@code null} to start from the first one.
+         * @param limit    The max. amount of game rooms in the page.
+         * @param deadline The deadline of the request.
          * @return The created request.
          */
-        public static GetAllGameRoomsRequest createRequest(long timeout) {
-            return new GetAllGameRoomsRequest(timeout);
+        public static GetGameRoomsStreamRequest createRequest(String after, int limit, Deadline deadline) {
+            return new GetGameRoomsStreamRequest(after, limit, deadline);
         }
     }
 
     /**
      * An abstract request representing an operation over a game room.
      */
-    private abstract static class GameRoomOperationRequest extends TimeoutRequest {
+    private abstract static class GameRoomOperationRequest extends DeadlineRequest {
 
         /**
          * The name of the game room to which an operation will be performed.
@@ -69,10 +151,10 @@ public class HttpRequestMessages {
          * Private constructor.
          *
          * @param gameRoomName The name of the game room to which an operation will be performed.
-         * @param timeout      The timeout for the request.
+         * @param deadline     The deadline of the request.
          */
-        private GameRoomOperationRequest(String gameRoomName, long timeout) {
-            super(timeout);
+        private GameRoomOperationRequest(String gameRoomName, Deadline deadline) {
+            super(deadline);
             this.gameRoomName = gameRoomName;
         }
 
@@ -93,21 +175,21 @@ public class HttpRequestMessages {
          * Private constructor.
          *
          * @param gameRoomName The name of the game room to be retrieved.
-         * @param timeout      The timeout for the request.
+         * @param deadline     The deadline of the request.
          */
-        private GetGameRoomRequest(String gameRoomName, long timeout) {
-            super(gameRoomName, timeout);
+        private GetGameRoomRequest(String gameRoomName, Deadline deadline) {
+            super(gameRoomName, deadline);
         }
 
         /**
          * Creates a new {@link GetGameRoomRequest}.
          *
          * @param gameRoomName The name of the game room to be retrieved.
-         * @param timeout      The timeout for the request.
+         * @param deadline     The deadline of the request.
          * @return The created request.
          */
-        public static GetGameRoomRequest createRequest(String gameRoomName, long timeout) {
-            return new GetGameRoomRequest(gameRoomName, timeout);
+        public static GetGameRoomRequest createRequest(String gameRoomName, Deadline deadline) {
+            return new GetGameRoomRequest(gameRoomName, deadline);
         }
     }
 
@@ -126,10 +208,10 @@ public class HttpRequestMessages {
          *
          * @param gameRoomName The name of the game room to be created.
          * @param capacity     The capacity of the game room to be created.
-         * @param timeout      The timeout for the request.
+         * @param deadline     The deadline of the request.
          */
-        private CreateGameRoomRequest(String gameRoomName, int capacity, long timeout) {
-            super(gameRoomName, timeout);
+        private CreateGameRoomRequest(String gameRoomName, int capacity, Deadline deadline) {
+            super(gameRoomName, deadline);
             this.capacity = capacity;
         }
 
@@ -145,11 +227,11 @@ public class HttpRequestMessages {
          *
          * @param gameRoomName The name of the game room to be created.
          * @param capacity     The capacity of the game room to be created.
-         * @param timeout      The timeout for the request.
+         * @param deadline     The deadline of the request.
          * @return The created request.
          */
-        public static CreateGameRoomRequest createRequest(String gameRoomName, int capacity, long timeout) {
-            return new CreateGameRoomRequest(gameRoomName, capacity, timeout);
+        public static CreateGameRoomRequest createRequest(String gameRoomName, int capacity, Deadline deadline) {
+            return new CreateGameRoomRequest(gameRoomName, capacity, deadline);
         }
     }
 
@@ -162,21 +244,21 @@ public class HttpRequestMessages {
          * Private constructor.
          *
          * @param gameRoomName The name of the game room to be removed.
-         * @param timeout      The timeout for the request.
+         * @param deadline     The deadline of the request.
          */
-        private RemoveGameRoomRequest(String gameRoomName, long timeout) {
-            super(gameRoomName, timeout);
+        private RemoveGameRoomRequest(String gameRoomName, Deadline deadline) {
+            super(gameRoomName, deadline);
         }
 
         /**
          * Creates a new {@link RemoveGameRoomRequest}.
          *
          * @param gameRoomName The name of the game room to be removed.
-         * @param timeout      The timeout for the request.
+         * @param deadline     The deadline of the request.
          * @return The created request.
          */
-        public static RemoveGameRoomRequest createRequest(String gameRoomName, long timeout) {
-            return new RemoveGameRoomRequest(gameRoomName, timeout);
+        public static RemoveGameRoomRequest createRequest(String gameRoomName, Deadline deadline) {
+            return new RemoveGameRoomRequest(gameRoomName, deadline);
         }
     }
 
@@ -195,10 +277,10 @@ public class HttpRequestMessages {
          *
          * @param gameRoomName The game room's name in which the operation must be done.
          * @param playerId     The id of the player being referred.
-         * @param timeout      The timeout for the request.
+         * @param deadline     The deadline of the request.
          */
-        private PlayerOverGameRoomOperationRequest(String gameRoomName, long playerId, long timeout) {
-            super(gameRoomName, timeout);
+        private PlayerOverGameRoomOperationRequest(String gameRoomName, long playerId, Deadline deadline) {
+            super(gameRoomName, deadline);
             this.playerId = playerId;
         }
 
@@ -220,10 +302,10 @@ public class HttpRequestMessages {
          *
          * @param gameRoomName The game room's name in which the operation must be done.
          * @param playerId     The id of the player being added.
-         * @param timeout      The timeout for the request.
+         * @param deadline     The deadline of the request.
          */
-        private AddPlayerToGameRoomRequest(String gameRoomName, long playerId, long timeout) {
-            super(gameRoomName, playerId, timeout);
+        private AddPlayerToGameRoomRequest(String gameRoomName, long playerId, Deadline deadline) {
+            super(gameRoomName, playerId, deadline);
         }
 
         /**
@@ -231,11 +313,11 @@ public class HttpRequestMessages {
          *
          * @param gameRoomName The game room's name in which the operation must be done.
          * @param playerId     The id of the player being added.
-         * @param timeout      The timeout for the request.
+         * @param deadline     The deadline of the request.
          * @return The new {@link AddPlayerToGameRoomRequest}.
          */
-        public static AddPlayerToGameRoomRequest createRequest(String gameRoomName, long playerId, long timeout) {
-            return new AddPlayerToGameRoomRequest(gameRoomName, playerId, timeout);
+        public static AddPlayerToGameRoomRequest createRequest(String gameRoomName, long playerId, Deadline deadline) {
+            return new AddPlayerToGameRoomRequest(gameRoomName, playerId, deadline);
         }
     }
 
@@ -249,10 +331,10 @@ public class HttpRequestMessages {
          *
          * @param gameRoomName The game room's name in which the operation must be done.
          * @param playerId     The id of the player being removed.
-         * @param timeout      The timeout for the request.
+         * @param deadline     The deadline of the request.
          */
-        private RemovePlayerFromGameRoomRequest(String gameRoomName, long playerId, long timeout) {
-            super(gameRoomName, playerId, timeout);
+        private RemovePlayerFromGameRoomRequest(String gameRoomName, long playerId, Deadline deadline) {
+            super(gameRoomName, playerId, deadline);
         }
 
         /**
@@ -260,37 +342,167 @@ public class HttpRequestMessages {
          *
          * @param gameRoomName The game room's name in which the operation must be done.
          * @param playerId     The id of the player being removed.
-         * @param timeout      The timeout for the request.s
+         * @param deadline     The deadline of the request.
          * @return The new {@link RemovePlayerFromGameRoomRequest}.
          */
-        public static RemovePlayerFromGameRoomRequest createRequest(String gameRoomName, long playerId, long timeout) {
-            return new RemovePlayerFromGameRoomRequest(gameRoomName, playerId, timeout);
+        public static RemovePlayerFromGameRoomRequest createRequest(String gameRoomName, long playerId,
+                                                                    Deadline deadline) {
+            return new RemovePlayerFromGameRoomRequest(gameRoomName, playerId, deadline);
         }
     }
 
+    /**
+     * Class representing an operation over several players in a game room.
+     */
+    private abstract static class PlayersOverGameRoomOperationRequest extends GameRoomOperationRequest {
+
+        /**
+         * The ids of the players being referred.
+         */
+        private final List<Long> playerIds;
+
+        /**
+         * Private constructor.
+         *
+         * @param gameRoomName The game room's name in which the operation must be done.
+         * @param playerIds    The ids of the players being referred.
+         * @param deadline     The deadline of the request.
+         */
+        private PlayersOverGameRoomOperationRequest(String gameRoomName, List<Long> playerIds, Deadline deadline) {
+            super(gameRoomName, deadline);
+            this.playerIds = playerIds;
+        }
+
+        /**
+         * @return The ids of the players being referred.
+         */
+        public List<Long> getPlayerIds() {
+            return playerIds;
+        }
+    }
+
+    /**
+     * Class representing a request to add a batch of players into a game room.
+     */
+    public final static class AddPlayersToGameRoomRequest extends PlayersOverGameRoomOperationRequest {
+
+        /**
+         * Private constructor.
+         *
+         * @param gameRoomName The game room's name in which the operation must be done.
+         * @param playerIds    The ids of the players being added.
+         * @param deadline     The deadline of the request.
+         */
+        private AddPlayersToGameRoomRequest(String gameRoomName, List<Long> playerIds, Deadline deadline) {
+            super(gameRoomName, playerIds, deadline);
+        }
+
+        /**
+         * Static method to create a {@link AddPlayersToGameRoomRequest}.
+         *
+         * @param gameRoomName The game room's name in which the operation must be done.
+         * @param playerIds    The ids of the players being added.
+         * @param deadline     The deadline of the request.
+         * @return The new {@link AddPlayersToGameRoomRequest}.
+         */
+        public static AddPlayersToGameRoomRequest createRequest(String gameRoomName, List<Long> playerIds,
+                                                                Deadline deadline) {
+            return new AddPlayersToGameRoomRequest(gameRoomName, playerIds, deadline);
+        }
+    }
+
+    /**
+     * Class representing a request to remove a batch of players from a game room.
+     */
+    public final static class RemovePlayersFromGameRoomRequest extends PlayersOverGameRoomOperationRequest {
+
+        /**
+         * Private constructor.
+         *
+         * @param gameRoomName The game room's name in which the operation must be done.
+         * @param playerIds    The ids of the players being removed.
+         * @param deadline     The deadline of the request.
+         */
+        private RemovePlayersFromGameRoomRequest(String gameRoomName, List<Long> playerIds, Deadline deadline) {
+            super(gameRoomName, playerIds, deadline);
+        }
+
+        /**
+         * Static method to create a {@link RemovePlayersFromGameRoomRequest}.
+         *
+         * @param gameRoomName The game room's name in which the operation must be done.
+         * @param playerIds    The ids of the players being removed.
+         * @param deadline     The deadline of the request.
+         * @return The new {@link RemovePlayersFromGameRoomRequest}.
+         */
+        public static RemovePlayersFromGameRoomRequest createRequest(String gameRoomName, List<Long> playerIds,
+                                                                     Deadline deadline) {
+            return new RemovePlayersFromGameRoomRequest(gameRoomName, playerIds, deadline);
+        }
+    }
+
+    /**
+     * A request for getting the names of the game rooms in which a player is.
+     */
+    public final static class GetPlayerGameRoomsRequest extends DeadlineRequest {
+
+        /**
+         * The id of the player.
+         */
+        private final long playerId;
+
+        /**
+         * Private constructor.
+         *
+         * @param playerId The id of the player.
+         * @param deadline The deadline of the request.
+         */
+        private GetPlayerGameRoomsRequest(long playerId, Deadline deadline) {
+            super(deadline);
+            this.playerId = playerId;
+        }
+
+        /**
+         * @return The id of the player.
+         */
+        public long getPlayerId() {
+            return playerId;
+        }
+
+        /**
+         * Static method to create a {@link GetPlayerGameRoomsRequest}.
+         *
+         * @param playerId The id of the player.
+         * @param deadline The deadline of the request.
+         * @return The new {@link GetPlayerGameRoomsRequest}.
+         */
+        public static GetPlayerGameRoomsRequest createRequest(long playerId, Deadline deadline) {
+            return new GetPlayerGameRoomsRequest(playerId, deadline);
+        }
+    }
 
     /**
      * A request for getting system monitor's data.
      * Message to be sent to the system monitor to request data from it.
      */
-    public final static class GetSystemMonitorDataRequest extends TimeoutRequest {
+    public final static class GetSystemMonitorDataRequest extends DeadlineRequest {
 
 
         /**
          * Private constructor.
          *
-         * @param timeout The timeout for the request.s
+         * @param deadline The deadline of the request.
          */
-        private GetSystemMonitorDataRequest(long timeout) {
-            super(timeout);
+        private GetSystemMonitorDataRequest(Deadline deadline) {
+            super(deadline);
         }
 
         /**
-         * @param timeout The timeout for the request.s
-         * @return The singleton for this class.
+         * @param deadline The deadline of the request.
+         * @return The new {@link GetSystemMonitorDataRequest}.
          */
-        public static GetSystemMonitorDataRequest getMessage(long timeout) {
-            return new GetSystemMonitorDataRequest(timeout);
+        public static GetSystemMonitorDataRequest getMessage(Deadline deadline) {
+            return new GetSystemMonitorDataRequest(deadline);
         }
     }
 }
@@ -8,19 +8,57 @@ import akka.japi.pf.ReceiveBuilder;
 import scala.concurrent.duration.Duration;
 import scala.concurrent.duration.FiniteDuration;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
  * An {@link akka.actor.Actor} that collects results after sending a request to a bunch of {@link akka.actor.ActorRef}.
+ * When the timeout occurs before every {@link ActorRef} replied, the collected results are discarded
+ * or sent as a partial result, according to the {@link TimeoutPolicy}.
+ * Results can also be streamed (i.e each one is sent to the requester as soon as it arrives,
+ * followed by a {@link CompletedMessage}), so they are not held by this actor.
+ * <p>
+ * When there are more {@link ActorRef}s than the configured fan-out, the aggregation is done as a tree:
+ * the {@link ActorRef}s are split into (at most fan-out) groups, each one aggregated by a child aggregator
+ * (which splits its group again if needed), and this actor merges the results of its children.
+ * This way replies are received by many mailboxes (and dispatcher threads), instead of all of them by this one.
  *
  * @param <T> The concrete type of object expected to receive.
  */
 public class AggregatorActor<T> extends AbstractActor {
 
+    /**
+     * Fan-out indicating the aggregation must not be done as a tree.
+     */
+    public static final int NO_FAN_OUT_LIMIT = Integer.MAX_VALUE;
+
+    /**
+     * The portion of the timeout given to the child aggregators, so their (partial) results
+     * arrive before the timeout of this actor occurs.
+     */
+    private static final double CHILD_TIMEOUT_FACTOR = 0.9;
+
+    /**
+     * Policy indicating what is sent to the requester when the timeout occurs before every {@link ActorRef} replied.
+     */
+    public enum TimeoutPolicy {
+        /**
+         * The collected results are discarded, and a {@link TimeoutMessage} is sent.
+         */
+        DISCARD,
+        /**
+         * The collected results are sent (i.e a {@link PartialResultMessage}, or a {@link CompletedMessage}
+         * when streaming), together with the {@link ActorRef}s that did not reply.
+         */
+        PARTIAL,
+    }
+
     /**
      * The {@link Class} of the object representing the responses.
      */
@@ -36,6 +74,23 @@ public class AggregatorActor<T> extends AbstractActor {
      */
     private final List<ActorRef> actors;
 
+    /**
+     * A {@link Set} holding the {@link ActorRef}s that did not reply yet (or the child aggregators that did not
+     * reply yet, if aggregating as a tree), i.e a reply is only taken from an expected {@link ActorRef}, and only once.
+     */
+    private final Set<ActorRef> pending;
+
+    /**
+     * {@link Map} holding the group of {@link ActorRef}s aggregated by each child aggregator
+     * (empty if not aggregating as a tree).
+     */
+    private final Map<ActorRef, List<ActorRef>> groups;
+
+    /**
+     * The {@link ActorRef}s that the child aggregators reported as missing.
+     */
+    private final List<ActorRef> missing;
+
     /**
      * An {@link ActorRef} to which the aggregation result will be sent.
      */
@@ -46,6 +101,22 @@ public class AggregatorActor<T> extends AbstractActor {
      */
     private final FiniteDuration timeoutDuration;
 
+    /**
+     * The {@link TimeoutPolicy} applied when the timeout occurs.
+     */
+    private final TimeoutPolicy timeoutPolicy;
+
+    /**
+     * Indicates whether each result is sent to the requester as soon as it arrives.
+     */
+    private final boolean streaming;
+
+    /**
+     * The max. amount of {@link ActorRef}s to which this actor sends the request
+     * (or the max. amount of child aggregators, if there are more {@link ActorRef}s).
+     */
+    private final int fanOut;
+
     /**
      * A {@link Cancellable} which will interrupt the process when the timeout occurs.
      * It's initialized when the process starts (i.e the actor receives the signal to start processing).
@@ -63,7 +134,13 @@ public class AggregatorActor<T> extends AbstractActor {
     private final Object startAggregationProcessObject;
 
     /**
-     * {@link Map} holding the result each {@link ActorRef} returned.
+     * Object to be sent to this actor by the scheduler when the timeout occurs
+     * (i.e the timeout is handled as any other message, and not by the scheduler thread).
+     */
+    private final Object timeoutObject;
+
+    /**
+     * {@link Map} holding the result each {@link ActorRef} returned (empty when streaming).
      */
     private final Map<ActorRef, T> result;
 
@@ -75,18 +152,28 @@ public class AggregatorActor<T> extends AbstractActor {
      * @param actors        A {@link List} of {@link ActorRef} to which the request will be sent.
      * @param respondTo     An {@link ActorRef} to which the aggregation result will be sent.
      * @param timeout       The amount of milliseconds to wait till the aggregation process finishes.
+     * @param timeoutPolicy The {@link TimeoutPolicy} applied when the timeout occurs.
+     * @param streaming     Indicates whether each result is sent to the requester as soon as it arrives.
+     * @param fanOut        The max. amount of {@link ActorRef}s to which this actor sends the request.
      */
-    private AggregatorActor(Class<T> responseClass,
-                            Object request, List<ActorRef> actors, ActorRef respondTo, long timeout) {
+    private AggregatorActor(Class<T> responseClass, Object request, List<ActorRef> actors, ActorRef respondTo,
+                            long timeout, TimeoutPolicy timeoutPolicy, boolean streaming, int fanOut) {
         this.responseClass = responseClass;
         this.request = request;
-        this.actors = new LinkedList<>(actors); // Save it in a new private list
+        this.actors = new ArrayList<>(actors); // Save it in a new private list
+        this.pending = new HashSet<>(actors);
+        this.groups = new HashMap<>();
+        this.missing = new ArrayList<>();
         this.respondTo = respondTo;
         this.timeoutDuration = Duration.create(timeout, TimeUnit.MILLISECONDS);
+        this.timeoutPolicy = timeoutPolicy;
+        this.streaming = streaming;
+        this.fanOut = fanOut;
         this.timeoutTask = null;
         this.sent = false;
 
         this.startAggregationProcessObject = new Object();
+        this.timeoutObject = new Object();
         this.result = new HashMap<>();
     }
 
@@ -97,10 +184,24 @@ public class AggregatorActor<T> extends AbstractActor {
         this.getSelf().tell(startAggregationProcessObject, this.getSender());
     }
 
+    @Override
+    public void postStop() {
+        if (timeoutTask != null) {
+            timeoutTask.cancel();
+        }
+    }
+
     @Override
     public Receive createReceive() {
         return ReceiveBuilder.create()
                 .matchEquals(startAggregationProcessObject, obj -> handleAggregationRequest())
+                .matchEquals(timeoutObject, obj -> handleTimeout())
+                .match(SuccessfulResultMessage.class, msg -> groups.containsKey(getSender()),
+                        msg -> handleChildResult(msg.getResult(), Collections.emptyList()))
+                .match(PartialResultMessage.class, msg -> groups.containsKey(getSender()),
+                        msg -> handleChildResult(msg.getResult(), msg.getMissing()))
+                .match(FailMessage.class, msg -> groups.containsKey(getSender()),
+                        msg -> reportFailure(msg.getError()))
                 .match(responseClass, this::handleResponse)
                 .build();
     }
@@ -109,15 +210,61 @@ public class AggregatorActor<T> extends AbstractActor {
      * Handles the aggregation request.
      */
     private void handleAggregationRequest() {
-        if (this.actors.isEmpty()) {
+        if (this.pending.isEmpty()) {
             terminateSuccessful();
             return;
         }
-        // Send the request to each actor
-        this.actors.forEach(actorRef -> actorRef.tell(this.request, this.getSelf()));
+        if (this.actors.size() > fanOut) {
+            startChildAggregators();
+        } else {
+            // Send the request to each actor
+            this.actors.forEach(actorRef -> actorRef.tell(this.request, this.getSelf()));
+        }
         this.timeoutTask = this.getContext().getSystem()
                 .scheduler()
-                .scheduleOnce(timeoutDuration, this::handleTimeout, this.getContext().dispatcher());
+                .scheduleOnce(timeoutDuration, this.getSelf(), timeoutObject, this.getContext().dispatcher(),
+                        this.getSelf());
+    }
+
+    /**
+     * Splits the {@code actors} {@link List} into (at most fan-out) groups of consecutive {@link ActorRef}s,
+     * and starts a child aggregator for each group, which will send its results to this actor.
+     * Child aggregators always send their partial results when their timeout occurs,
+     * so the {@link ActorRef}s that did not reply are known by this actor.
+     */
+    private void startChildAggregators() {
+        this.pending.clear();
+        final int groupSize = (actors.size() + fanOut - 1) / fanOut;
+        final long childTimeout = (long) (timeoutDuration.toMillis() * CHILD_TIMEOUT_FACTOR);
+        for (int from = 0; from < actors.size(); from += groupSize) {
+            // A copy, so the props of the child do not hold a view of the whole list
+            final List<ActorRef> group =
+                    new ArrayList<>(actors.subList(from, Math.min(from + groupSize, actors.size())));
+            final ActorRef child = this.getContext().actorOf(props(responseClass, request, group, this.getSelf(),
+                    childTimeout, TimeoutPolicy.PARTIAL, false, fanOut));
+            this.groups.put(child, group);
+            this.pending.add(child);
+        }
+    }
+
+    /**
+     * Handles the results sent by a child aggregator.
+     *
+     * @param childResult  {@link Map} holding the result each {@link ActorRef} of the child group returned
+     *                     (of the response class, as child aggregators are created with it).
+     * @param childMissing The {@link ActorRef}s of the child group that did not reply.
+     */
+    private void handleChildResult(Map<?, ?> childResult, List<?> childMissing) {
+        if (!pending.remove(this.getSender())) {
+            return;
+        }
+        childResult.forEach((responder, response) -> collect((ActorRef) responder, responseClass.cast(response)));
+        childMissing.forEach(responder -> missing.add((ActorRef) responder));
+
+        if (pending.isEmpty()) {
+            timeoutTask.cancel();
+            handleTimeout();
+        }
     }
 
     /**
@@ -131,28 +278,46 @@ public class AggregatorActor<T> extends AbstractActor {
             return;
         }
         final ActorRef sender = this.getSender();
-        // Do not handle messages from actors that are not in the actors list
-        if (!actors.contains(sender)) {
+        // Do not handle messages from actors that are not expected (or that already replied)
+        if (!pending.remove(sender)) {
             return;
         }
-        result.put(sender, response);
+        collect(sender, response);
 
-        if (result.size() == actors.size()) {
+        if (pending.isEmpty()) {
             timeoutTask.cancel();
             terminateSuccessful();
         }
     }
 
     /**
-     * Callback method to be executed when the aggregation timeout occurs.
+     * Collects the response of an {@link ActorRef} (i.e sends it to the requester if streaming).
+     *
+     * @param responder The {@link ActorRef} that sent the response.
+     * @param response  The response.
+     */
+    private void collect(ActorRef responder, T response) {
+        if (streaming) {
+            this.respondTo.tell(ResponseMessage.getMessage(responder, response), this.getSelf());
+        } else {
+            result.put(responder, response);
+        }
+    }
+
+    /**
+     * Handles the aggregation timeout (or the end of the aggregation if any child aggregator reported missing
+     * {@link ActorRef}s), according to the {@link TimeoutPolicy}.
      */
     private void handleTimeout() {
-        if (result.size() != actors.size()) {
-            reportTimeout();
+        if (pending.isEmpty() && missing.isEmpty()) {
+            terminateSuccessful();
             return;
         }
-
-        terminateSuccessful();
+        if (timeoutPolicy == TimeoutPolicy.PARTIAL) {
+            reportPartialResult();
+            return;
+        }
+        reportTimeout();
     }
 
     /**
@@ -163,7 +328,24 @@ public class AggregatorActor<T> extends AbstractActor {
         if (this.sent) {
             return;
         }
-        this.respondTo.tell(SuccessfulResultMessage.getMessage(result), this.getSelf());
+        this.respondTo.tell(streaming ?
+                CompletedMessage.getMessage(Collections.emptyList()) :
+                SuccessfulResultMessage.getMessage(result), this.getSelf());
+        this.sent = true;
+        stopActor();
+    }
+
+    /**
+     * Terminates the aggregation process sending the results collected so far,
+     * together with the {@link ActorRef}s that did not reply, and stops this {@link akka.actor.Actor}.
+     */
+    private void reportPartialResult() {
+        final List<ActorRef> missing = new ArrayList<>(this.missing);
+        // Pending child aggregators are missing all the ActorRefs of their groups
+        pending.forEach(actor -> missing.addAll(groups.getOrDefault(actor, Collections.singletonList(actor))));
+        this.respondTo.tell(streaming ?
+                CompletedMessage.getMessage(missing) :
+                PartialResultMessage.getMessage(result, missing), this.getSelf());
         this.sent = true;
         stopActor();
     }
@@ -194,7 +376,8 @@ public class AggregatorActor<T> extends AbstractActor {
     }
 
     /**
-     * Create {@link Props} for an {@link akka.actor.Actor} of this type.
+     * Create {@link Props} for an {@link akka.actor.Actor} of this type,
+     * that discards the collected results if the timeout occurs, and sends them all at once.
      *
      * @param responseClass The {@link Class} of the object representing the responses.
      * @param request       The request to be sent to the {@link ActorRef}s.
@@ -206,9 +389,53 @@ public class AggregatorActor<T> extends AbstractActor {
      */
     public static <E> Props props(Class<E> responseClass,
                                   Object request, List<ActorRef> actors, ActorRef respondTo, long timeout) {
+        return props(responseClass, request, actors, respondTo, timeout, TimeoutPolicy.DISCARD, false);
+    }
 
-        return Props.create(AggregatorActor.class,
-                () -> new AggregatorActor<>(responseClass, request, actors, respondTo, timeout));
+    /**
+     * Create {@link Props} for an {@link akka.actor.Actor} of this type, that does not aggregate as a tree.
+     *
+     * @param responseClass The {@link Class} of the object representing the responses.
+     * @param request       The request to be sent to the {@link ActorRef}s.
+     * @param actors        A {@link List} of {@link ActorRef} to which the request will be sent.
+     * @param respondTo     An {@link ActorRef} to which the aggregation result will be sent.
+     * @param timeout       The amount of milliseconds to wait till the aggregation process finishes.
+     * @param timeoutPolicy The {@link TimeoutPolicy} applied when the timeout occurs.
+     * @param streaming     Indicates whether each result is sent to the requester as soon as it arrives
+     *                      (as a {@link ResponseMessage}), instead of sending all of them at the end.
+     * @param <E>           The concrete type of object expected to receive.
+     * @return The created {@link Props}.
+     */
+    public static <E> Props props(Class<E> responseClass, Object request, List<ActorRef> actors,
+                                  ActorRef respondTo, long timeout, TimeoutPolicy timeoutPolicy, boolean streaming) {
+        return props(responseClass, request, actors, respondTo, timeout, timeoutPolicy, streaming, NO_FAN_OUT_LIMIT);
+    }
+
+    /**
+     * Create {@link Props} for an {@link akka.actor.Actor} of this type.
+     *
+     * @param responseClass The {@link Class} of the object representing the responses.
+     * @param request       The request to be sent to the {@link ActorRef}s.
+     * @param actors        A {@link List} of {@link ActorRef} to which the request will be sent.
+     * @param respondTo     An {@link ActorRef} to which the aggregation result will be sent.
+     * @param timeout       The amount of milliseconds to wait till the aggregation process finishes.
+     * @param timeoutPolicy The {@link TimeoutPolicy} applied when the timeout occurs.
+     * @param streaming     Indicates whether each result is sent to the requester as soon as it arrives
+     *                      (as a {@link ResponseMessage}), instead of sending all of them at the end.
+     * @param fanOut        The max. amount of {@link ActorRef}s to which each aggregator sends the request,
+     *                      or {@link #NO_FAN_OUT_LIMIT} if the aggregation must not be done as a tree.
+     * @param <E>           The concrete type of object expected to receive.
+     * @return The created {@link Props}.
+     * @throws IllegalArgumentException If the {@code fanOut} is less than two.
+     */
+    public static <E> Props props(Class<E> responseClass, Object request, List<ActorRef> actors, ActorRef respondTo,
+                                  long timeout, TimeoutPolicy timeoutPolicy, boolean streaming, int fanOut)
+            throws IllegalArgumentException {
+        if (fanOut < 2) {
+            throw new IllegalArgumentException("The fan-out must be at least two");
+        }
+        return Props.create(AggregatorActor.class, () -> new AggregatorActor<>(responseClass, request, actors,
+                respondTo, timeout, timeoutPolicy, streaming, fanOut));
     }
 
 
@@ -227,10 +454,11 @@ public class AggregatorActor<T> extends AbstractActor {
         /**
          * Private constructor.
          *
-         * @param result {@link Map} holding the result each {@link ActorRef} returned.
+         * @param result {@link Map} holding the result each {@link ActorRef} returned
+         *               (not copied, as the aggregator stops once it is sent).
          */
         private SuccessfulResultMessage(Map<ActorRef, E> result) {
-            this.result = new HashMap<>(result);
+            this.result = result;
         }
 
         /**
@@ -247,11 +475,161 @@ public class AggregatorActor<T> extends AbstractActor {
          * @param <R>    The concrete type of the results returned by each {@link ActorRef}.
          * @return The created message.
          */
-        private static <R> SuccessfulResultMessage getMessage(Map<ActorRef, R> result) {
+        private static <R> SuccessfulResultMessage<R> getMessage(Map<ActorRef, R> result) {
             return new SuccessfulResultMessage<>(result);
         }
     }
 
+    /**
+     * A message indicating the timeout occurred before every {@link ActorRef} replied,
+     * including the results collected so far (sent with the {@link TimeoutPolicy#PARTIAL} policy).
+     *
+     * @param <E> The concrete type of the results returned by each {@link ActorRef}.
+     */
+    public static final class PartialResultMessage<E> {
+
+        /**
+         * {@link Map} holding the result each {@link ActorRef} that replied returned.
+         */
+        private final Map<ActorRef, E> result;
+
+        /**
+         * The {@link ActorRef}s that did not reply.
+         */
+        private final List<ActorRef> missing;
+
+        /**
+         * Private constructor.
+         *
+         * @param result  {@link Map} holding the result each {@link ActorRef} that replied returned.
+         * @param missing The {@link ActorRef}s that did not reply.
+         */
+        private PartialResultMessage(Map<ActorRef, E> result, List<ActorRef> missing) {
+            this.result = result;
+            this.missing = missing;
+        }
+
+        /**
+         * @return {@link Map} holding the result each {@link ActorRef} that replied returned.
+         */
+        public Map<ActorRef, E> getResult() {
+            return result;
+        }
+
+        /**
+         * @return The {@link ActorRef}s that did not reply.
+         */
+        public List<ActorRef> getMissing() {
+            return missing;
+        }
+
+        /**
+         * Creates a message of this type.
+         *
+         * @param result  {@link Map} holding the result each {@link ActorRef} that replied returned.
+         * @param missing The {@link ActorRef}s that did not reply.
+         * @param <R>     The concrete type of the results returned by each {@link ActorRef}.
+         * @return The created message.
+         */
+        private static <R> PartialResultMessage<R> getMessage(Map<ActorRef, R> result, List<ActorRef> missing) {
+            return new PartialResultMessage<>(result, missing);
+        }
+    }
+
+    /**
+     * A message holding the result returned by a single {@link ActorRef}, sent as soon as it arrives
+     * when results are streamed.
+     *
+     * @param <E> The concrete type of the result.
+     */
+    public static final class ResponseMessage<E> {
+
+        /**
+         * The {@link ActorRef} that returned the result.
+         */
+        private final ActorRef responder;
+
+        /**
+         * The result returned by the {@link ActorRef}.
+         */
+        private final E response;
+
+        /**
+         * Private constructor.
+         *
+         * @param responder The {@link ActorRef} that returned the result.
+         * @param response  The result returned by the {@link ActorRef}.
+         */
+        private ResponseMessage(ActorRef responder, E response) {
+            this.responder = responder;
+            this.response = response;
+        }
+
+        /**
+         * @return The {@link ActorRef} that returned the result.
+         */
+        public ActorRef getResponder() {
+            return responder;
+        }
+
+        /**
+         * @return The result returned by the {@link ActorRef}.
+         */
+        public E getResponse() {
+            return response;
+        }
+
+        /**
+         * Creates a message of this type.
+         *
+         * @param responder The {@link ActorRef} that returned the result.
+         * @param response  The result returned by the {@link ActorRef}.
+         * @param <R>       The concrete type of the result.
+         * @return The created message.
+         */
+        private static <R> ResponseMessage<R> getMessage(ActorRef responder, R response) {
+            return new ResponseMessage<>(responder, response);
+        }
+    }
+
+    /**
+     * A message indicating a streamed aggregation finished (i.e no more {@link ResponseMessage}s will be sent),
+     * including the {@link ActorRef}s that did not reply (if the timeout occurred).
+     */
+    public static final class CompletedMessage {
+
+        /**
+         * The {@link ActorRef}s that did not reply (empty if all of them replied).
+         */
+        private final List<ActorRef> missing;
+
+        /**
+         * Private constructor.
+         *
+         * @param missing The {@link ActorRef}s that did not reply.
+         */
+        private CompletedMessage(List<ActorRef> missing) {
+            this.missing = missing;
+        }
+
+        /**
+         * @return The {@link ActorRef}s that did not reply (empty if all of them replied).
+         */
+        public List<ActorRef> getMissing() {
+            return missing;
+        }
+
+        /**
+         * Creates a message of this type.
+         *
+         * @param missing The {@link ActorRef}s that did not reply.
+         * @return The created message.
+         */
+        private static CompletedMessage getMessage(List<ActorRef> missing) {
+            return new CompletedMessage(missing);
+        }
+    }
+
     /**
      * A message indicating the process was interrupted because of timeout.
      */
@@ -0,0 +1,93 @@
+package ar.edu.itba.tav.game_rooms.utils;
+
+import java.io.Serializable;
+
+/**
+ * The point in time by which a request must be answered (i.e after it, whoever made the request already gave up,
+ * so there is no point in keeping working on it).
+ * The deadline is kept as wall clock time (and not as a duration), so it can be carried by a request from hop to hop
+ * (even to another node, as long as clocks are synchronized), each one using the time left.
+ */
+public final class Deadline implements Serializable {
+
+    /**
+     * The serial version UID (deadlines travel with requests to other nodes).
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The {@link Deadline} of requests that can take any time.
+     */
+    private static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+    /**
+     * The time (in milliseconds since the epoch) by which the request must be answered.
+     */
+    private final long time;
+
+    /**
+     * Private constructor.
+     *
+     * @param time The time (in milliseconds since the epoch) by which the request must be answered.
+     */
+    private Deadline(long time) {
+        this.time = time;
+    }
+
+    /**
+     * @return {@code true} if this deadline does not limit the time of the request, or {@code false} otherwise.
+     */
+    public boolean isNone() {
+        return time == Long.MAX_VALUE;
+    }
+
+    /**
+     * @return {@code true} if this deadline has passed, or {@code false} otherwise.
+     */
+    public boolean isOverdue() {
+        return !isNone() && System.currentTimeMillis() >= time;
+    }
+
+    /**
+     * @return The time (in milliseconds) left until this deadline (zero if it has passed),
+     * or {@link Long#MAX_VALUE} if this deadline does not limit the time of the request.
+     */
+    public long timeLeft() {
+        return isNone() ? Long.MAX_VALUE : Math.max(time - System.currentTimeMillis(), 0);
+    }
+
+    /**
+     * Returns the time left until this deadline, or the given {@code timeout} if this deadline does not limit
+     * the time of the request (i.e the timeout to be used when waiting for a hop to answer).
+     *
+     * @param timeout The time (in milliseconds) to be used if this deadline does not limit the time of the request.
+     * @return The time (in milliseconds) left.
+     */
+    public long timeLeftOr(long timeout) {
+        return isNone() ? timeout : timeLeft();
+    }
+
+    @Override
+    public String toString() {
+        return isNone() ? "Deadline(none)" : "Deadline(" + timeLeft() + " ms left)";
+    }
+
+    /**
+     * Returns the {@link Deadline} of requests that can take any time.
+     *
+     * @return The {@link Deadline}.
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    /**
+     * Creates a {@link Deadline} the given {@code budget} from now.
+     *
+     * @param budget The time (in milliseconds) from now by which the request must be answered.
+     * @return The created {@link Deadline}.
+     */
+    public static Deadline in(long budget) {
+        return new Deadline(System.currentTimeMillis() + Math.max(budget, 0));
+    }
+}
@@ -0,0 +1,267 @@
+package ar.edu.itba.tav.game_rooms.utils;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive {@code long} values (i.e values are not boxed, and no node is allocated per value).
+ * Small sets (up to {@value #SMALL_MAX_SIZE} values) are kept in an inline array that is scanned linearly.
+ * Bigger sets are kept in an open addressing hash table with linear probing,
+ * which is at most half full (removals shift back the following entries, so no tombstones are left).
+ * This class is not thread safe.
+ */
+public final class LongHashSet {
+
+    /**
+     * The max. amount of values held in the inline array representation.
+     */
+    private static final int SMALL_MAX_SIZE = 16;
+
+    /**
+     * The initial length of the inline array when the expected size is bigger than {@link #SMALL_MAX_SIZE}.
+     */
+    private static final int SMALL_INITIAL_LENGTH = 4;
+
+    /**
+     * The value marking a free slot in the hash table representation
+     * (the value itself is tracked by {@link #containsFreeValue}).
+     */
+    private static final long FREE = 0L;
+
+    /**
+     * Multiplier used to spread the values over the hash table (i.e 2^64 divided by the golden ratio).
+     */
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The values array: the inline array (whose first {@link #size} positions hold the values),
+     * or the hash table (whose length is a power of two).
+     */
+    private long[] values;
+
+    /**
+     * The amount of values in this set.
+     */
+    private int size;
+
+    /**
+     * Indicates whether the {@link #values} array is a hash table.
+     */
+    private boolean hashed;
+
+    /**
+     * Indicates whether the {@link #FREE} value is in this set (only used by the hash table representation).
+     */
+    private boolean containsFreeValue;
+
+    /**
+     * Constructor.
+     *
+     * @param expectedSize The expected max. size of this set (e.g the capacity of a game room).
+     */
+    public LongHashSet(int expectedSize) {
+        this.values = new long[expectedSize > 0 && expectedSize <= SMALL_MAX_SIZE ?
+                expectedSize : SMALL_INITIAL_LENGTH];
+        this.size = 0;
+        this.hashed = false;
+        this.containsFreeValue = false;
+    }
+
+    /**
+     * @return The amount of values in this set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Indicates whether the given {@code value} is in this set.
+     *
+     * @param value The value to be checked.
+     * @return {@code true} if the value is in this set, or {@code false} otherwise.
+     */
+    public boolean contains(long value) {
+        if (!hashed) {
+            return indexOfInline(value) >= 0;
+        }
+        if (value == FREE) {
+            return containsFreeValue;
+        }
+        final int mask = values.length - 1;
+        for (int i = slot(value, mask); values[i] != FREE; i = (i + 1) & mask) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the given {@code value} into this set.
+     *
+     * @param value The value to be added.
+     * @return {@code true} if the value was added, or {@code false} if it was already in this set.
+     */
+    public boolean add(long value) {
+        if (!hashed) {
+            if (indexOfInline(value) >= 0) {
+                return false;
+            }
+            if (size < SMALL_MAX_SIZE) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, Math.min(values.length * 2, SMALL_MAX_SIZE));
+                }
+                values[size++] = value;
+                return true;
+            }
+            toHashTable();
+        }
+        if (value == FREE) {
+            if (containsFreeValue) {
+                return false;
+            }
+            containsFreeValue = true;
+            size++;
+            return true;
+        }
+        final int mask = values.length - 1;
+        int i = slot(value, mask);
+        for (; values[i] != FREE; i = (i + 1) & mask) {
+            if (values[i] == value) {
+                return false;
+            }
+        }
+        values[i] = value;
+        size++;
+        if (size * 2 > values.length) {
+            rehash(values.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the given {@code value} from this set.
+     *
+     * @param value The value to be removed.
+     * @return {@code true} if the value was removed, or {@code false} if it was not in this set.
+     */
+    public boolean remove(long value) {
+        if (!hashed) {
+            final int index = indexOfInline(value);
+            if (index < 0) {
+                return false;
+            }
+            values[index] = values[--size];
+            return true;
+        }
+        if (value == FREE) {
+            if (!containsFreeValue) {
+                return false;
+            }
+            containsFreeValue = false;
+            size--;
+            return true;
+        }
+        final int mask = values.length - 1;
+        int gap = slot(value, mask);
+        for (; values[gap] != value; gap = (gap + 1) & mask) {
+            if (values[gap] == FREE) {
+                return false;
+            }
+        }
+        // Shift back the following entries whose probe sequence passes through the gap
+        for (int i = (gap + 1) & mask; values[i] != FREE; i = (i + 1) & mask) {
+            final int ideal = slot(values[i], mask);
+            if (((i - ideal) & mask) >= ((i - gap) & mask)) {
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        values[gap] = FREE;
+        size--;
+        return true;
+    }
+
+    /**
+     * @return A new array with the values in this set, in ascending order.
+     */
+    public long[] toSortedArray() {
+        final long[] array;
+        if (!hashed) {
+            array = Arrays.copyOf(values, size);
+        } else {
+            array = new long[size];
+            int index = 0;
+            if (containsFreeValue) {
+                array[index++] = FREE;
+            }
+            for (long value : values) {
+                if (value != FREE) {
+                    array[index++] = value;
+                }
+            }
+        }
+        Arrays.sort(array);
+        return array;
+    }
+
+    /**
+     * Returns the index of the given {@code value} in the inline array.
+     *
+     * @param value The value to be searched.
+     * @return The index of the value, or {@code -1} if it is not in the inline array.
+     */
+    private int indexOfInline(long value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the values from the inline array into a hash table.
+     */
+    private void toHashTable() {
+        final long[] inline = values;
+        final int inlineSize = size;
+        this.values = new long[SMALL_MAX_SIZE * 4];
+        this.size = 0;
+        this.hashed = true;
+        for (int i = 0; i < inlineSize; i++) {
+            add(inline[i]);
+        }
+    }
+
+    /**
+     * Moves the values of the hash table into a new hash table with the given {@code length}.
+     *
+     * @param length The length of the new hash table (a power of two).
+     */
+    private void rehash(int length) {
+        final long[] old = values;
+        final int mask = length - 1;
+        this.values = new long[length];
+        for (long value : old) {
+            if (value != FREE) {
+                int i = slot(value, mask);
+                while (values[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                values[i] = value;
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of the hash table in which the given {@code value} should be.
+     *
+     * @param value The value.
+     * @param mask  The mask of the hash table (i.e its length minus one).
+     * @return The slot for the value.
+     */
+    /* package */ static int slot(long value, int mask) {
+        final long hash = value * GOLDEN_RATIO;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
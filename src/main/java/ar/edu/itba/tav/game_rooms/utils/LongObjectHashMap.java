@@ -0,0 +1,193 @@
+package ar.edu.itba.tav.game_rooms.utils;
+
+/**
+ * A map from primitive {@code long} keys to objects (i.e keys are not boxed, and no node is allocated per entry).
+ * Entries are kept in an open addressing hash table with linear probing,
+ * which is at most half full (removals shift back the following entries, so no tombstones are left).
+ * This class is not thread safe.
+ *
+ * @param <V> The type of the values.
+ */
+public final class LongObjectHashMap<V> {
+
+    /**
+     * The initial length of the hash table.
+     */
+    private static final int INITIAL_LENGTH = 16;
+
+    /**
+     * The key marking a free slot in the hash table (the entry with this key is kept in {@link #freeKeyValue}).
+     */
+    private static final long FREE = 0L;
+
+    /**
+     * Multiplier used to spread the keys over the hash table (i.e 2^64 divided by the golden ratio).
+     */
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The keys of the hash table (whose length is a power of two).
+     */
+    private long[] keys;
+
+    /**
+     * The values of the hash table (i.e the value of each key is in the same position).
+     */
+    private Object[] values;
+
+    /**
+     * The value of the {@link #FREE} key, or {@code null} if it is not in this map.
+     */
+    private V freeKeyValue;
+
+    /**
+     * The amount of entries in this map.
+     */
+    private int size;
+
+    /**
+     * Constructor.
+     */
+    public LongObjectHashMap() {
+        this.keys = new long[INITIAL_LENGTH];
+        this.values = new Object[INITIAL_LENGTH];
+        this.freeKeyValue = null;
+        this.size = 0;
+    }
+
+    /**
+     * @return The amount of entries in this map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the value of the given {@code key}.
+     *
+     * @param key The key.
+     * @return The value, or {@code null} if the key is not in this map.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == FREE) {
+            return freeKeyValue;
+        }
+        final int mask = keys.length - 1;
+        for (int i = slot(key, mask); keys[i] != FREE; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sets the value of the given {@code key}.
+     *
+     * @param key   The key.
+     * @param value The value (not {@code null}).
+     * @return The previous value of the key, or {@code null} if it was not in this map.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (key == FREE) {
+            final V previous = freeKeyValue;
+            if (previous == null) {
+                size++;
+            }
+            freeKeyValue = value;
+            return previous;
+        }
+        final int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for (; keys[i] != FREE; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                final V previous = (V) values[i];
+                values[i] = value;
+                return previous;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the given {@code key} from this map.
+     *
+     * @param key The key.
+     * @return The value of the removed key, or {@code null} if it was not in this map.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == FREE) {
+            final V previous = freeKeyValue;
+            if (previous != null) {
+                size--;
+            }
+            freeKeyValue = null;
+            return previous;
+        }
+        final int mask = keys.length - 1;
+        int gap = slot(key, mask);
+        for (; keys[gap] != key; gap = (gap + 1) & mask) {
+            if (keys[gap] == FREE) {
+                return null;
+            }
+        }
+        final V previous = (V) values[gap];
+        // Shift back the following entries whose probe sequence passes through the gap
+        for (int i = (gap + 1) & mask; keys[i] != FREE; i = (i + 1) & mask) {
+            final int ideal = slot(keys[i], mask);
+            if (((i - ideal) & mask) >= ((i - gap) & mask)) {
+                keys[gap] = keys[i];
+                values[gap] = values[i];
+                gap = i;
+            }
+        }
+        keys[gap] = FREE;
+        values[gap] = null;
+        size--;
+        return previous;
+    }
+
+    /**
+     * Moves the entries of the hash table into a new hash table with the given {@code length}.
+     *
+     * @param length The length of the new hash table (a power of two).
+     */
+    private void rehash(int length) {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+        final int mask = length - 1;
+        this.keys = new long[length];
+        this.values = new Object[length];
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != FREE) {
+                int i = slot(oldKeys[j], mask);
+                while (keys[i] != FREE) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Returns the slot of the hash table in which the given {@code key} should be.
+     *
+     * @param key  The key.
+     * @param mask The mask of the hash table (i.e its length minus one).
+     * @return The slot for the key.
+     */
+    private static int slot(long key, int mask) {
+        final long hash = key * GOLDEN_RATIO;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,296 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.cluster.Cluster;
+import akka.cluster.MemberStatus;
+import akka.pattern.PatternsCS;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.AddPlayerMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.CreateGameRoomMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomCreationResult;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomDataMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomRemovalResult;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GetAllGameRoomsMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GetSpecificGameRoomMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.PlayerOperationResult;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.RemoveGameRoomMessage;
+import ar.edu.itba.tav.game_rooms.utils.Deadline;
+import com.typesafe.config.ConfigFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Tests for {@link ClusteredGameRoomsManagerActor}, with a cluster of two nodes (i.e two {@link ActorSystem}s
+ * joined through loopback ports) in which each node runs its own manager.
+ */
+public class ClusteredGameRoomsManagerActorTest {
+
+    /**
+     * The amount of game rooms created in each test.
+     */
+    private static final int GAME_ROOMS = 20;
+
+    /**
+     * The time (in milliseconds) given to each request.
+     */
+    private static final long TIMEOUT = 5000;
+
+    /**
+     * The max. time (in milliseconds) to wait for the cluster to converge (e.g the index to be replicated).
+     */
+    private static final long CONVERGENCE_TIMEOUT = 30_000;
+
+    private ActorSystem first;
+
+    private ActorSystem second;
+
+    private ActorRef firstManager;
+
+    private ActorRef secondManager;
+
+    @Before
+    public void setUp() {
+        first = node();
+        second = node();
+        Cluster.get(first).join(Cluster.get(first).selfAddress());
+        Cluster.get(second).join(Cluster.get(first).selfAddress());
+        awaitCondition(() -> upMembers(first) == 2 && upMembers(second) == 2);
+        firstManager = first.actorOf(ClusteredGameRoomsManagerActor.getProps());
+        secondManager = second.actorOf(ClusteredGameRoomsManagerActor.getProps());
+        // The sharding coordinator might take a while to start
+        awaitCondition(() -> answers(firstManager) && answers(secondManager));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Await.result(second.terminate(), Duration.create(30, TimeUnit.SECONDS));
+        Await.result(first.terminate(), Duration.create(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void gameRoomsAreOperatedAndListedFromAnyNode() throws Exception {
+        final List<String> names = createGameRooms(firstManager);
+        Assert.assertEquals(PlayerOperationResult.SUCCESSFUL,
+                ask(secondManager, AddPlayerMessage.getMessage(names.get(3), 7L, deadline())));
+        Assert.assertArrayEquals(new long[]{7L}, getGameRoom(firstManager, names.get(3))
+                .orElseThrow(AssertionError::new).getPlayers());
+        Assert.assertFalse(getGameRoom(secondManager, "missing").isPresent());
+
+        awaitCondition(() -> listedNames(secondManager, null, GAME_ROOMS + 1).equals(names));
+        Assert.assertEquals(names.subList(0, 5), listedNames(secondManager, null, 5));
+        Assert.assertEquals(names.subList(6, 11), listedNames(secondManager, names.get(5), 5));
+
+        // Pages are only short at the end of the listing, even right after removing game rooms
+        for (int i = 0; i < 6; i++) {
+            Assert.assertEquals(GameRoomRemovalResult.REMOVED,
+                    ask(firstManager, RemoveGameRoomMessage.getMessage(names.get(i), deadline())));
+        }
+        Assert.assertEquals(names.subList(6, 11), listedNames(secondManager, null, 5));
+        Assert.assertEquals(names.subList(6, GAME_ROOMS), listedNames(secondManager, null, GAME_ROOMS));
+    }
+
+    @Test
+    public void gameRoomsOfRemovedNodeAreNotListed() throws Exception {
+        final List<String> names = createGameRooms(secondManager);
+        awaitCondition(() -> listedNames(firstManager, null, GAME_ROOMS).equals(names));
+        final Map<String, Long> versions = new HashMap<>();
+        for (String name : names) {
+            versions.put(name, getGameRoom(firstManager, name).orElseThrow(AssertionError::new).getVersion());
+        }
+
+        Cluster.get(second).leave(Cluster.get(second).selfAddress());
+        awaitCondition(() -> members(first) == 1);
+        awaitCondition(() -> listedNames(firstManager, null, GAME_ROOMS).size() < GAME_ROOMS);
+
+        // The game rooms of the removed node are lost, and no longer listed
+        final List<String> listed = listedNames(firstManager, null, GAME_ROOMS);
+        final List<String> lost = new ArrayList<>();
+        for (String name : names) {
+            final boolean exists = getGameRoom(firstManager, name).isPresent();
+            Assert.assertEquals(exists, listed.contains(name));
+            if (!exists) {
+                lost.add(name);
+            }
+        }
+        Assert.assertFalse(lost.isEmpty());
+
+        // Game rooms created again in the remaining node get greater versions than the lost ones
+        for (String name : lost) {
+            Assert.assertEquals(GameRoomCreationResult.CREATED,
+                    ask(firstManager, CreateGameRoomMessage.getMessage(name, 4, deadline())));
+            Assert.assertTrue(getGameRoom(firstManager, name).orElseThrow(AssertionError::new).getVersion()
+                    > versions.get(name));
+        }
+    }
+
+    /**
+     * Starts a node of the cluster, listening on a random loopback port.
+     *
+     * @return The {@link ActorSystem} of the node.
+     */
+    private static ActorSystem node() {
+        // Nodes leaving the cluster log errors, as the other node stops answering them
+        return ActorSystem.create("cluster-test", ConfigFactory.parseString("akka.loglevel = OFF\n"
+                + "akka.stdout-loglevel = OFF\n"
+                + "akka.remote.netty.tcp.port = 0\n"
+                + "akka.cluster.jmx.multi-mbeans-in-same-jvm = on")
+                .withFallback(ConfigFactory.parseResources("cluster.conf"))
+                .withFallback(ConfigFactory.load()));
+    }
+
+    /**
+     * Creates the game rooms of a test through the given {@code manager}.
+     *
+     * @param manager The {@link ActorRef} of the game rooms manager.
+     * @return The names of the created game rooms, ordered.
+     * @throws Exception If a game room could not be created.
+     */
+    private static List<String> createGameRooms(ActorRef manager) throws Exception {
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < GAME_ROOMS; i++) {
+            final String name = String.format("room-%02d", i);
+            Assert.assertEquals(GameRoomCreationResult.CREATED,
+                    ask(manager, CreateGameRoomMessage.getMessage(name, 4, deadline())));
+            names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * Retrieves the game room with the given {@code name} through the given {@code manager}.
+     *
+     * @param manager The {@link ActorRef} of the game rooms manager.
+     * @param name    The name of the game room.
+     * @return The data of the game room, or empty if it does not exist.
+     * @throws Exception If the game room could not be retrieved.
+     */
+    private static Optional<GameRoomDataMessage> getGameRoom(ActorRef manager, String name) throws Exception {
+        return ((Optional<?>) ask(manager, GetSpecificGameRoomMessage.getMessage(name, deadline())))
+                .map(GameRoomDataMessage.class::cast);
+    }
+
+    /**
+     * Indicates whether the given {@code manager} answers requests (i.e the cluster sharding is ready).
+     *
+     * @param manager The {@link ActorRef} of the game rooms manager.
+     * @return {@code true} if a game room could be retrieved through the manager, or {@code false} otherwise.
+     */
+    private static boolean answers(ActorRef manager) {
+        try {
+            getGameRoom(manager, "missing");
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the names of the game rooms in the given page, retrieved through the given {@code manager}.
+     *
+     * @param manager The {@link ActorRef} of the game rooms manager.
+     * @param after   The name of the game room after which the page starts, or {@code null}.
+     * @param limit   The max. amount of game rooms in the page.
+     * @return The names of the game rooms in the page.
+     */
+    private static List<String> listedNames(ActorRef manager, String after, int limit) {
+        try {
+            final Object page = ask(manager, GetAllGameRoomsMessage.getMessage(after, limit, deadline()));
+            Assert.assertTrue("The page is partial", page instanceof List);
+            return ((List<?>) page).stream()
+                    .map(gameRoom -> ((GameRoomDataMessage) gameRoom).getName())
+                    .collect(Collectors.toList());
+        } catch (Exception e) {
+            throw new AssertionError("The page could not be retrieved", e);
+        }
+    }
+
+    /**
+     * Sends the given {@code message} to the given {@code manager}, waiting for its reply.
+     *
+     * @param manager The {@link ActorRef} of the game rooms manager.
+     * @param message The message.
+     * @return The reply.
+     * @throws Exception If the reply is a failure, or it did not arrive in time.
+     */
+    private static Object ask(ActorRef manager, Object message) throws Exception {
+        return PatternsCS.ask(manager, message, TIMEOUT).toCompletableFuture().get(TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return The {@link Deadline} of a request.
+     */
+    private static Deadline deadline() {
+        return Deadline.in(TIMEOUT);
+    }
+
+    /**
+     * Returns the amount of members of the cluster, as seen by the given node.
+     *
+     * @param node The {@link ActorSystem} of the node.
+     * @return The amount of members.
+     */
+    private static long members(ActorSystem node) {
+        return StreamSupport.stream(Cluster.get(node).state().getMembers().spliterator(), false).count();
+    }
+
+    /**
+     * Returns the amount of members of the cluster that are up, as seen by the given node.
+     *
+     * @param node The {@link ActorSystem} of the node.
+     * @return The amount of members that are up.
+     */
+    private static long upMembers(ActorSystem node) {
+        return StreamSupport.stream(Cluster.get(node).state().getMembers().spliterator(), false)
+                .filter(member -> member.status() == MemberStatus.up())
+                .count();
+    }
+
+    /**
+     * Waits until the given {@code condition} holds (i.e the cluster converged).
+     * Assertions that fail while checking the condition are taken as the condition not holding yet.
+     *
+     * @param condition The condition.
+     */
+    private static void awaitCondition(BooleanSupplier condition) {
+        final long end = System.currentTimeMillis() + CONVERGENCE_TIMEOUT;
+        while (!holds(condition)) {
+            if (System.currentTimeMillis() > end) {
+                throw new AssertionError("The cluster did not converge in time");
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    /**
+     * Checks the given {@code condition}, taking a failed assertion as the condition not holding.
+     *
+     * @param condition The condition.
+     * @return {@code true} if the condition holds, or {@code false} otherwise.
+     */
+    private static boolean holds(BooleanSupplier condition) {
+        try {
+            return condition.getAsBoolean();
+        } catch (AssertionError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomDataMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.PlayerOperationResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for {@link GameRoomStore}.
+ */
+public class GameRoomStoreTest {
+
+    /**
+     * The name of the game room used by the tests.
+     */
+    private static final String GAME_ROOM = "room";
+
+    @Test
+    public void sameVersionAlwaysHasSamePlayers() throws Exception {
+        final GameRoomStore store = new GameRoomStore(new PlayerDirectory(false));
+        store.createGameRoom(GAME_ROOM, 64);
+        final Map<Long, long[]> snapshots = new ConcurrentHashMap<>();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            final List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < 4; writer++) {
+                final long firstPlayer = writer * 16;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < 5_000; round++) {
+                        final long playerId = firstPlayer + round % 16;
+                        store.addPlayer(GAME_ROOM, playerId);
+                        store.addPlayers(GAME_ROOM, Arrays.asList(playerId + 1000, playerId + 2000));
+                        store.removePlayer(GAME_ROOM, playerId);
+                        store.removePlayers(GAME_ROOM, Arrays.asList(playerId + 1000, playerId + 2000));
+                    }
+                    return null;
+                }));
+            }
+            final List<Future<?>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 2; reader++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    while (running.get()) {
+                        final GameRoomDataMessage snapshot = store.getGameRoom(GAME_ROOM)
+                                .orElseThrow(IllegalStateException::new);
+                        final long[] previous = snapshots.putIfAbsent(snapshot.getVersion(), snapshot.getPlayers());
+                        if (previous != null && !Arrays.equals(previous, snapshot.getPlayers())) {
+                            throw new AssertionError("Version " + snapshot.getVersion() + " with different players: "
+                                    + Arrays.toString(previous) + " and " + Arrays.toString(snapshot.getPlayers()));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(1, TimeUnit.MINUTES);
+            }
+            running.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        final GameRoomDataMessage last = store.getGameRoom(GAME_ROOM).orElseThrow(IllegalStateException::new);
+        Assert.assertEquals(0, last.getPlayers().length);
+        Assert.assertFalse(snapshots.isEmpty());
+    }
+
+    @Test
+    public void playerJoiningAgainWhileLeavingIsKept() throws Exception {
+        final PlayerDirectory playerDirectory = new PlayerDirectory(true);
+        final GameRoomStore store = new GameRoomStore(playerDirectory);
+        final List<String> gameRooms = Arrays.asList("a", "b");
+        for (String gameRoom : gameRooms) {
+            store.createGameRoom(gameRoom, 4);
+        }
+        final long playerId = 7L;
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            // The player keeps joining the game rooms (again), while the previous joins make it leave them
+            final List<Future<?>> joiners = new ArrayList<>();
+            for (int joiner = 0; joiner < 4; joiner++) {
+                final int firstGameRoom = joiner;
+                joiners.add(executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < 100_000; round++) {
+                        final String gameRoom = gameRooms.get((firstGameRoom + round) % gameRooms.size());
+                        if (round % 2 == 0) {
+                            Assert.assertEquals(PlayerOperationResult.SUCCESSFUL, store.addPlayer(gameRoom, playerId));
+                        } else {
+                            store.addPlayers(gameRoom, Collections.singletonList(playerId));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> joiner : joiners) {
+                joiner.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // The player is only in the game room the directory registers it in
+        final List<String> registered = playerDirectory.lookup(playerId);
+        Assert.assertEquals(1, registered.size());
+        for (String gameRoom : gameRooms) {
+            final long[] players = store.getGameRoom(gameRoom).orElseThrow(IllegalStateException::new).getPlayers();
+            Assert.assertArrayEquals(gameRoom.equals(registered.get(0)) ? new long[]{playerId} : new long[0], players);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomDataMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Tests for {@link OffHeapGameRoomRegistry}.
+ */
+public class OffHeapGameRoomRegistryTest {
+
+    /**
+     * A suffix that makes a game room name span several blocks.
+     */
+    private static final String LONG_NAME_SUFFIX = "-with-a-name-spanning-several-blocks-of-chars";
+
+    @Test
+    public void pagesFollowNameOrder() {
+        final OffHeapGameRoomRegistry registry = new OffHeapGameRoomRegistry();
+        final NavigableMap<String, Integer> expected = new TreeMap<>();
+        final Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            // Long names span several blocks, and share prefixes
+            final String name = "room-" + random.nextInt(10_000) + (i % 7 == 0 ? LONG_NAME_SUFFIX : "");
+            if (expected.containsKey(name)) {
+                registry.remove(expected.remove(name));
+                Assert.assertEquals(OffHeapGameRoomRegistry.NONE, registry.lookup(name));
+            } else {
+                expected.put(name, registry.create(name, 4, 0));
+            }
+        }
+        Assert.assertEquals(expected.size(), registry.size());
+        assertPage(expected, registry, null, Integer.MAX_VALUE);
+        assertPage(expected, registry, null, 10);
+        assertPage(expected, registry, "room-5", 100);
+        assertPage(expected, registry, expected.firstKey(), 3);
+        assertPage(expected, registry, expected.lastKey(), 3);
+        assertPage(expected, registry, "zzz", 3);
+        // Walking all the pages
+        String after = null;
+        int seen = 0;
+        int[] page;
+        while ((page = registry.page(after, 128)).length > 0) {
+            seen += page.length;
+            after = registry.snapshot(page[page.length - 1]).getName();
+        }
+        Assert.assertEquals(expected.size(), seen);
+    }
+
+    @Test
+    public void playersOperationsMatchSets() {
+        final OffHeapGameRoomRegistry registry = new OffHeapGameRoomRegistry();
+        final Map<Integer, Set<Long>> expected = new HashMap<>();
+        final List<Integer> slots = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final int slot = registry.create("room-" + i, Integer.MAX_VALUE, 0);
+            slots.add(slot);
+            expected.put(slot, new TreeSet<>());
+        }
+        final Random random = new Random(11);
+        for (int i = 0; i < 200_000; i++) {
+            final int slot = slots.get(random.nextInt(slots.size()));
+            final Set<Long> players = expected.get(slot);
+            // Rooms grow up to some thousands of players and shrink back, so tables are doubled and halved
+            final boolean growing = (i / 20_000) % 2 == 0;
+            final long playerId = random.nextInt(growing ? 4_000 : 400) - 100;
+            if (random.nextInt(3) == (growing ? 0 : 1)) {
+                Assert.assertEquals(players.remove(playerId), registry.removePlayer(slot, playerId));
+            } else if (!registry.containsPlayer(slot, playerId)) {
+                Assert.assertFalse(players.contains(playerId));
+                registry.addPlayer(slot, playerId);
+                players.add(playerId);
+            }
+            Assert.assertEquals(players.contains(playerId), registry.containsPlayer(slot, playerId));
+            Assert.assertEquals(players.size(), registry.players(slot));
+        }
+        for (int slot : slots) {
+            final long[] sorted = expected.get(slot).stream().mapToLong(Long::longValue).toArray();
+            Assert.assertArrayEquals(sorted, registry.snapshot(slot).getPlayers());
+            for (long playerId : sorted) {
+                Assert.assertTrue(registry.removePlayer(slot, playerId));
+            }
+            Assert.assertEquals(0, registry.snapshot(slot).getPlayers().length);
+            registry.remove(slot);
+        }
+        Assert.assertEquals(0, registry.size());
+    }
+
+    /**
+     * Asserts that the given page of the given {@link OffHeapGameRoomRegistry} holds the expected game rooms.
+     *
+     * @param expected The expected game rooms (their slots, by name).
+     * @param registry The {@link OffHeapGameRoomRegistry}.
+     * @param after    The name of the game room after which the page starts, or {@code null}.
+     * @param limit    The max. amount of game rooms in the page.
+     */
+    private static void assertPage(NavigableMap<String, Integer> expected, OffHeapGameRoomRegistry registry,
+                                   String after, int limit) {
+        final List<String> expectedNames = new ArrayList<>();
+        for (String name : after == null ? expected.keySet() : expected.tailMap(after, false).keySet()) {
+            if (expectedNames.size() == limit) {
+                break;
+            }
+            expectedNames.add(name);
+        }
+        final List<String> names = new ArrayList<>();
+        for (int slot : registry.page(after, limit)) {
+            final GameRoomDataMessage snapshot = registry.snapshot(slot);
+            names.add(snapshot.getName());
+        }
+        Assert.assertEquals(expectedNames, names);
+    }
+}
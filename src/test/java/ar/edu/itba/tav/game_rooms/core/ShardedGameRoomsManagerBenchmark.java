@@ -0,0 +1,160 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.pattern.PatternsCS;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.AddPlayerMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.CreateGameRoomMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GetSpecificGameRoomMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.RemovePlayerMessage;
+import ar.edu.itba.tav.game_rooms.utils.Deadline;
+import com.typesafe.config.ConfigFactory;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Throughput benchmark of the {@link ShardedGameRoomsManagerActor} with an increasing amount of shards,
+ * sending game room operations (i.e adding and removing players, and retrieving game rooms) to it.
+ * It is not run with the rest of the tests (as its name does not end with {@code Test});
+ * run it with {@code mvn test -Dtest=ShardedGameRoomsManagerBenchmark}.
+ * The amount of operations per run can be changed with the {@code benchmark.operations} system property.
+ * Throughput should grow with the amount of shards up to the amount of available processors.
+ */
+public class ShardedGameRoomsManagerBenchmark {
+
+    /**
+     * The amount of operations sent in each run.
+     */
+    private static final int OPERATIONS = Integer.getInteger("benchmark.operations", 300_000);
+
+    /**
+     * The amount of operations sent in the warm-up run.
+     */
+    private static final int WARM_UP_OPERATIONS = OPERATIONS / 3;
+
+    /**
+     * The max. amount of operations waiting for their reply at the same time.
+     */
+    private static final int IN_FLIGHT = 1024;
+
+    /**
+     * The amount of game rooms over which operations are done.
+     */
+    private static final int GAME_ROOMS = 1024;
+
+    /**
+     * The amount of different players added into (and removed from) each game room.
+     */
+    private static final int PLAYERS = 64;
+
+    private static ActorSystem system;
+
+    @BeforeClass
+    public static void setUp() {
+        system = ActorSystem.create("benchmark", ConfigFactory.parseString("akka.loglevel = WARNING")
+                .withFallback(ConfigFactory.load()));
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        Await.result(system.terminate(), Duration.create(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void throughputByAmountOfShards() throws Exception {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final Map<Integer, Double> throughputs = new LinkedHashMap<>();
+        run(1, WARM_UP_OPERATIONS);
+        for (int shards = 1; shards <= Math.max(4, processors * 2); shards *= 2) {
+            throughputs.put(shards, run(shards, OPERATIONS));
+        }
+        System.out.printf("Sharded game rooms manager throughput (%d operations, %d processors):%n",
+                OPERATIONS, processors);
+        final double base = throughputs.get(1);
+        throughputs.forEach((shards, throughput) -> System.out.printf("  %3d shards: %,12.0f ops/s (x%.2f)%n",
+                shards, throughput, throughput / base));
+    }
+
+    /**
+     * Creates a manager with the given amount of shards and its game rooms,
+     * and sends it the given amount of operations, measuring the throughput.
+     *
+     * @param shards     The amount of shards.
+     * @param operations The amount of operations.
+     * @return The throughput (in operations per second).
+     * @throws Exception If the operations could not be completed.
+     */
+    private static double run(int shards, int operations) throws Exception {
+        final ActorRef manager = system.actorOf(ShardedGameRoomsManagerActor.getProps(shards,
+                new GameRoomDirectory(), new PlayerDirectory(false), 0));
+        final CompletableFuture<?>[] creations = new CompletableFuture<?>[GAME_ROOMS];
+        for (int i = 0; i < GAME_ROOMS; i++) {
+            creations[i] = ask(manager, CreateGameRoomMessage.getMessage(gameRoomName(i), PLAYERS, Deadline.none()));
+        }
+        CompletableFuture.allOf(creations).get(1, TimeUnit.MINUTES);
+
+        final Random random = new Random(shards);
+        final Semaphore inFlight = new Semaphore(IN_FLIGHT);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final long start = System.nanoTime();
+        for (int i = 0; i < operations && failure.get() == null; i++) {
+            final String gameRoomName = gameRoomName(random.nextInt(GAME_ROOMS));
+            final long playerId = random.nextInt(PLAYERS);
+            final Object message;
+            switch (i % 3) {
+                case 0:
+                    message = AddPlayerMessage.getMessage(gameRoomName, playerId, Deadline.none());
+                    break;
+                case 1:
+                    message = RemovePlayerMessage.getMessage(gameRoomName, playerId, Deadline.none());
+                    break;
+                default:
+                    message = GetSpecificGameRoomMessage.getMessage(gameRoomName, Deadline.none());
+            }
+            inFlight.acquire();
+            ask(manager, message).whenComplete((reply, e) -> {
+                if (e != null) {
+                    failure.compareAndSet(null, e);
+                }
+                inFlight.release();
+            });
+        }
+        inFlight.acquire(IN_FLIGHT);
+        final long elapsed = System.nanoTime() - start;
+        system.stop(manager);
+        if (failure.get() != null) {
+            throw new AssertionError("An operation failed", failure.get());
+        }
+        return operations * 1e9 / elapsed;
+    }
+
+    /**
+     * Sends the given {@code message} to the given {@code manager}, waiting for its reply.
+     *
+     * @param manager The {@link ActorRef} of the game rooms manager.
+     * @param message The message.
+     * @return A {@link CompletableFuture} that will be completed with the reply.
+     */
+    private static CompletableFuture<Object> ask(ActorRef manager, Object message) {
+        return PatternsCS.ask(manager, message, 30_000).toCompletableFuture();
+    }
+
+    /**
+     * @param index The index of a game room.
+     * @return The name of the game room with the given {@code index}.
+     */
+    private static String gameRoomName(int index) {
+        return "room-" + index;
+    }
+}
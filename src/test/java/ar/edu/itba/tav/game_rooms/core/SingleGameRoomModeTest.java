@@ -0,0 +1,273 @@
+package ar.edu.itba.tav.game_rooms.core;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Props;
+import akka.japi.pf.ReceiveBuilder;
+import akka.pattern.PatternsCS;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.AddPlayerMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.AddPlayersMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.CreateGameRoomMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomCreationResult;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomDataMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GetSpecificGameRoomMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.LeaveGameRoomMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.PlayerOperationResult;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.PlayerResult;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.PlayersOperationResultMessage;
+import ar.edu.itba.tav.game_rooms.utils.Deadline;
+import com.typesafe.config.ConfigFactory;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for the single game room mode of the actors and off-heap engines,
+ * in which a player that joins a game room is removed from its previous one through a {@link LeaveGameRoomMessage}.
+ * The leaves are held by the tests, so a player joins its previous game room again while its leave is pending.
+ */
+public class SingleGameRoomModeTest {
+
+    /**
+     * The id of the player used by the tests.
+     */
+    private static final long PLAYER = 7L;
+
+    /**
+     * The time (in milliseconds) given to each request.
+     */
+    private static final long TIMEOUT = 5000;
+
+    private static ActorSystem system;
+
+    @BeforeClass
+    public static void setUp() {
+        system = ActorSystem.create("single-game-room-test", ConfigFactory.parseString("akka.loglevel = WARNING")
+                .withFallback(ConfigFactory.load()));
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        Await.result(system.terminate(), Duration.create(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void gameRoomActorKeepsPlayerJoiningAgainWhileLeaving() throws Exception {
+        joinAgainWhileLeaving(false, this::gameRoomActors);
+    }
+
+    @Test
+    public void gameRoomActorKeepsPlayersJoiningAgainInBatchWhileLeaving() throws Exception {
+        joinAgainWhileLeaving(true, this::gameRoomActors);
+    }
+
+    @Test
+    public void offHeapManagerKeepsPlayerJoiningAgainWhileLeaving() throws Exception {
+        joinAgainWhileLeaving(false, this::offHeapManagers);
+    }
+
+    @Test
+    public void offHeapManagerKeepsPlayersJoiningAgainInBatchWhileLeaving() throws Exception {
+        joinAgainWhileLeaving(true, this::offHeapManagers);
+    }
+
+    /**
+     * Makes the player join the game room "a", then "b", and then "a" again before it left "a"
+     * (i.e the leave sent when joining "b" is delivered once the player joined "a" again).
+     * The player must end up in "a" only.
+     *
+     * @param batch   Indicates whether the player joins "a" again through a batch operation.
+     * @param engine  Starts the engine, returning the {@link ActorRef}s holding the game rooms "a" and "b".
+     * @throws Exception If an operation fails.
+     */
+    private void joinAgainWhileLeaving(boolean batch, Engine engine) throws Exception {
+        final PlayerDirectory playerDirectory = new PlayerDirectory(true);
+        final BlockingQueue<HeldLeave> leaves = new LinkedBlockingQueue<>();
+        final ActorRef[] gameRooms = engine.start(playerDirectory, leaves);
+        final ActorRef a = gameRooms[0];
+        final ActorRef b = gameRooms[1];
+
+        Assert.assertEquals(PlayerOperationResult.SUCCESSFUL,
+                ask(a, AddPlayerMessage.getMessage("a", PLAYER, deadline())).get(TIMEOUT, TimeUnit.MILLISECONDS));
+        final CompletableFuture<Object> joinB = ask(b, AddPlayerMessage.getMessage("b", PLAYER, deadline()));
+        final HeldLeave leaveA = leaves.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+        Assert.assertNotNull(leaveA);
+        Assert.assertEquals("a", leaveA.message.getGameRoomName());
+
+        // The player joins "a" again, where it still is
+        final CompletableFuture<Object> joinA = ask(a, batch ?
+                AddPlayersMessage.getMessage("a", Collections.singletonList(PLAYER), deadline()) :
+                AddPlayerMessage.getMessage("a", PLAYER, deadline()));
+        final HeldLeave leaveB = leaves.poll(TIMEOUT, TimeUnit.MILLISECONDS);
+        Assert.assertNotNull(leaveB);
+        Assert.assertEquals("b", leaveB.message.getGameRoomName());
+
+        a.tell(leaveA, ActorRef.noSender());
+        b.tell(leaveB, ActorRef.noSender());
+        Assert.assertEquals(PlayerOperationResult.SUCCESSFUL, joinB.get(TIMEOUT, TimeUnit.MILLISECONDS));
+        final Object joinAResult = joinA.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        if (batch) {
+            Assert.assertEquals(Collections.singletonList(PlayerResult.ALREADY_IN_GAME_ROOM),
+                    ((PlayersOperationResultMessage) joinAResult).getPlayerResults());
+        } else {
+            Assert.assertEquals(PlayerOperationResult.SUCCESSFUL, joinAResult);
+        }
+
+        Assert.assertArrayEquals(new long[]{PLAYER}, getGameRoom(a, "a").getPlayers());
+        Assert.assertArrayEquals(new long[0], getGameRoom(b, "b").getPlayers());
+        Assert.assertEquals(Collections.singletonList("a"), playerDirectory.lookup(PLAYER));
+    }
+
+    /**
+     * Starts the game rooms "a" and "b" as {@link GameRoomActor}s, whose leaves are held by the given queue.
+     *
+     * @param playerDirectory The {@link PlayerDirectory} in which the players are registered.
+     * @param leaves          The {@link BlockingQueue} holding the leaves sent by the game rooms.
+     * @return The {@link ActorRef}s of the parents of the game rooms.
+     */
+    private ActorRef[] gameRoomActors(PlayerDirectory playerDirectory, BlockingQueue<HeldLeave> leaves) {
+        final ActorRef router = holder(null, leaves);
+        return new ActorRef[]{
+                holder(GameRoomActor.props("a", 4, 0, 0, playerDirectory, router), leaves),
+                holder(GameRoomActor.props("b", 4, 0, 0, playerDirectory, router), leaves),
+        };
+    }
+
+    /**
+     * Starts the game rooms "a" and "b" in two {@link OffHeapGameRoomsManagerActor}s,
+     * whose parents hold the leaves in the given queue.
+     *
+     * @param playerDirectory The {@link PlayerDirectory} in which the players are registered.
+     * @param leaves          The {@link BlockingQueue} holding the leaves sent by the managers.
+     * @return The {@link ActorRef}s of the parents of the managers.
+     * @throws Exception If a game room could not be created.
+     */
+    private ActorRef[] offHeapManagers(PlayerDirectory playerDirectory, BlockingQueue<HeldLeave> leaves)
+            throws Exception {
+        final ActorRef[] managers = new ActorRef[2];
+        final String[] names = {"a", "b"};
+        for (int i = 0; i < managers.length; i++) {
+            managers[i] = holder(OffHeapGameRoomsManagerActor.getProps(playerDirectory), leaves);
+            Assert.assertEquals(GameRoomCreationResult.CREATED, ask(managers[i],
+                    CreateGameRoomMessage.getMessage(names[i], 4, deadline())).get(TIMEOUT, TimeUnit.MILLISECONDS));
+        }
+        return managers;
+    }
+
+    /**
+     * Starts a {@link LeavesHolderActor}.
+     *
+     * @param childProps The {@link Props} of its child, or {@code null} if it has no child.
+     * @param leaves     The {@link BlockingQueue} in which it holds the leaves.
+     * @return The {@link ActorRef} of the {@link LeavesHolderActor}.
+     */
+    private static ActorRef holder(Props childProps, BlockingQueue<HeldLeave> leaves) {
+        return system.actorOf(Props.create(LeavesHolderActor.class, () -> new LeavesHolderActor(childProps, leaves)));
+    }
+
+    /**
+     * Retrieves the data of a game room.
+     *
+     * @param gameRoom The {@link ActorRef} holding the game room.
+     * @param name     The name of the game room.
+     * @return The {@link GameRoomDataMessage}.
+     * @throws Exception If the game room could not be retrieved.
+     */
+    private static GameRoomDataMessage getGameRoom(ActorRef gameRoom, String name) throws Exception {
+        return ((Optional<?>) ask(gameRoom, GetSpecificGameRoomMessage.getMessage(name, deadline()))
+                .get(TIMEOUT, TimeUnit.MILLISECONDS))
+                .map(GameRoomDataMessage.class::cast)
+                .orElseThrow(AssertionError::new);
+    }
+
+    /**
+     * Sends the given {@code message} to the given {@code actor}, returning the wait for its reply.
+     *
+     * @param actor   The {@link ActorRef}.
+     * @param message The message.
+     * @return The {@link CompletableFuture} of the reply.
+     */
+    private static CompletableFuture<Object> ask(ActorRef actor, Object message) {
+        return PatternsCS.ask(actor, message, TIMEOUT).toCompletableFuture();
+    }
+
+    /**
+     * @return The {@link Deadline} of a request.
+     */
+    private static Deadline deadline() {
+        return Deadline.in(TIMEOUT);
+    }
+
+    /**
+     * Starts an engine in single game room mode, holding the game rooms "a" and "b".
+     */
+    @FunctionalInterface
+    private interface Engine {
+
+        /**
+         * Starts the engine.
+         *
+         * @param playerDirectory The {@link PlayerDirectory} in which the players are registered.
+         * @param leaves          The {@link BlockingQueue} in which the leaves sent by the engine are held.
+         * @return The {@link ActorRef}s holding the game rooms "a" and "b".
+         * @throws Exception If the engine could not be started.
+         */
+        ActorRef[] start(PlayerDirectory playerDirectory, BlockingQueue<HeldLeave> leaves) throws Exception;
+    }
+
+    /**
+     * A {@link LeaveGameRoomMessage} held by a test, with the sender waiting for its reply.
+     */
+    private static final class HeldLeave {
+
+        private final LeaveGameRoomMessage message;
+
+        private final ActorRef sender;
+
+        private HeldLeave(LeaveGameRoomMessage message, ActorRef sender) {
+            this.message = message;
+            this.sender = sender;
+        }
+    }
+
+    /**
+     * {@link akka.actor.Actor} that holds the {@link LeaveGameRoomMessage}s it receives (i.e sent by the engine),
+     * delivering them to its child once it receives them back as {@link HeldLeave}s.
+     * Any other message is forwarded to its child, but those sent by the child (e.g published game room changes).
+     */
+    private static final class LeavesHolderActor extends AbstractActor {
+
+        private final ActorRef child;
+
+        private final BlockingQueue<HeldLeave> leaves;
+
+        private LeavesHolderActor(Props childProps, BlockingQueue<HeldLeave> leaves) {
+            this.child = childProps == null ? null : getContext().actorOf(childProps);
+            this.leaves = leaves;
+        }
+
+        @Override
+        public Receive createReceive() {
+            return ReceiveBuilder.create()
+                    .match(HeldLeave.class, msg -> child.tell(msg.message, msg.sender))
+                    .match(LeaveGameRoomMessage.class, msg -> leaves.add(new HeldLeave(msg, getSender())))
+                    .matchAny(msg -> {
+                        if (!getSender().equals(child)) {
+                            child.forward(msg, getContext());
+                        }
+                    })
+                    .build();
+        }
+    }
+}
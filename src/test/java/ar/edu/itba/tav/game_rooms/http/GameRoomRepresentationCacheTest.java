@@ -0,0 +1,48 @@
+package ar.edu.itba.tav.game_rooms.http;
+
+import akka.util.ByteString;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomDataMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link GameRoomRepresentationCache}.
+ */
+public class GameRoomRepresentationCacheTest {
+
+    /**
+     * The amount of game rooms read over the max. amount of cached representations.
+     */
+    private static final int OVERFLOW = 10;
+
+    @Test
+    public void leastRecentlyUsedRepresentationsAreEvicted() {
+        final GameRoomRepresentationCache cache = new GameRoomRepresentationCache();
+        read(cache, "first");
+        for (int i = 0; i < GameRoomRepresentationCache.MAX_CACHED_REPRESENTATIONS - 1; i++) {
+            read(cache, "room-" + i);
+        }
+        read(cache, "first"); // The first game room is now the most recently used
+        for (int i = 0; i < OVERFLOW; i++) {
+            read(cache, "other-" + i);
+        }
+        Assert.assertEquals(GameRoomRepresentationCache.MAX_CACHED_REPRESENTATIONS, cache.getSize());
+        Assert.assertEquals(OVERFLOW, cache.getEvictions());
+
+        final long hits = cache.getHits();
+        read(cache, "first");
+        read(cache, "room-0"); // Evicted
+        Assert.assertEquals(hits + 1, cache.getHits());
+    }
+
+    /**
+     * Reads the representation of the game room with the given {@code name} through the given {@code cache}.
+     *
+     * @param cache The {@link GameRoomRepresentationCache}.
+     * @param name  The name of the game room.
+     */
+    private static void read(GameRoomRepresentationCache cache, String name) {
+        cache.getRepresentation(new GameRoomDataMessage(name, 4, new long[0], 0), "/game-rooms/" + name,
+                () -> ByteString.fromString(name));
+    }
+}
@@ -0,0 +1,132 @@
+package ar.edu.itba.tav.game_rooms.http;
+
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.GameRoomDataMessage;
+import ar.edu.itba.tav.game_rooms.messages.GameRoomOperationMessages.PartialGameRoomsPageMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link GameRoomsListCoalescer}.
+ */
+public class GameRoomsListCoalescerTest {
+
+    /**
+     * A staleness window long enough for a page not to expire during a test.
+     */
+    private static final long STALENESS_WINDOW = TimeUnit.MINUTES.toMillis(1);
+
+    @Test
+    public void concurrentRequestsShareCompletePages() throws Exception {
+        final GameRoomsListCoalescer coalescer = new GameRoomsListCoalescer(STALENESS_WINDOW);
+        final CompletableFuture<GameRoomsPage> retrieval = new CompletableFuture<>();
+        final AtomicInteger retrievals = new AtomicInteger();
+        final CompletionStage<GameRoomsPage> first = coalescer.getGameRooms(null, 10,
+                () -> count(retrievals, retrieval));
+        final CompletionStage<GameRoomsPage> second = coalescer.getGameRooms(null, 10,
+                () -> count(retrievals, new CompletableFuture<>()));
+        retrieval.complete(GameRoomsPage.fromReply(page()));
+        Assert.assertFalse(first.toCompletableFuture().get().isPartial());
+        Assert.assertFalse(second.toCompletableFuture().get().isPartial());
+        // Within the staleness window, the page keeps being shared
+        Assert.assertSame(first.toCompletableFuture().get(), coalescer.getGameRooms(null, 10,
+                () -> count(retrievals, new CompletableFuture<>())).toCompletableFuture().get());
+        Assert.assertEquals(1, retrievals.get());
+    }
+
+    @Test
+    public void partialPagesAreNotShared() throws Exception {
+        final GameRoomsListCoalescer coalescer = new GameRoomsListCoalescer(STALENESS_WINDOW);
+        final CompletableFuture<GameRoomsPage> retrieval = new CompletableFuture<>();
+        final AtomicInteger retrievals = new AtomicInteger();
+        final CompletionStage<GameRoomsPage> first = coalescer.getGameRooms(null, 10,
+                () -> count(retrievals, retrieval));
+        // The waiting request retrieves the page itself once the shared retrieval turns out partial
+        final CompletionStage<GameRoomsPage> second = coalescer.getGameRooms(null, 10,
+                () -> count(retrievals, CompletableFuture.completedFuture(GameRoomsPage.fromReply(page()))));
+        retrieval.complete(GameRoomsPage.fromReply(PartialGameRoomsPageMessage.getMessage(page(), 1)));
+        Assert.assertTrue(first.toCompletableFuture().get().isPartial());
+        Assert.assertFalse(second.toCompletableFuture().get().isPartial());
+        Assert.assertEquals(2, retrievals.get());
+        // The partial page is not kept for the staleness window either
+        Assert.assertFalse(coalescer.getGameRooms(null, 10, () -> count(retrievals,
+                CompletableFuture.completedFuture(GameRoomsPage.fromReply(page()))))
+                .toCompletableFuture().get().isPartial());
+        Assert.assertEquals(3, retrievals.get());
+    }
+
+    @Test
+    public void updatesOnlyDropPagesThatMayHoldTheGameRoom() throws Exception {
+        final GameRoomsListCoalescer coalescer = new GameRoomsListCoalescer(STALENESS_WINDOW);
+        final AtomicInteger retrievals = new AtomicInteger();
+        // A full page holding "b" and "d", and the (not full) page after it
+        retrieve(coalescer, null, 2, retrievals, "b", "d");
+        retrieve(coalescer, "d", 2, retrievals, "f");
+        Assert.assertEquals(2, retrievals.get());
+
+        coalescer.invalidate("e");
+        retrieve(coalescer, null, 2, retrievals, "b", "d");
+        Assert.assertEquals(2, retrievals.get());
+        retrieve(coalescer, "d", 2, retrievals, "e", "f");
+        Assert.assertEquals(3, retrievals.get());
+
+        coalescer.invalidate("c");
+        retrieve(coalescer, "d", 2, retrievals, "e", "f");
+        Assert.assertEquals(3, retrievals.get());
+        retrieve(coalescer, null, 2, retrievals, "b", "c");
+        Assert.assertEquals(4, retrievals.get());
+    }
+
+    /**
+     * Requests a page from the given {@code coalescer}, retrieving the given game rooms if it is not shared,
+     * and asserts that the game rooms of the returned page are the given ones if it was retrieved.
+     *
+     * @param coalescer  The {@link GameRoomsListCoalescer}.
+     * @param after      The name of the game room after which the page starts, or {@code null}.
+     * @param limit      The max. amount of game rooms in the page.
+     * @param retrievals The amount of retrievals so far.
+     * @param names      The names of the game rooms retrieved if the page is not shared.
+     * @throws Exception If the page could not be retrieved.
+     */
+    private static void retrieve(GameRoomsListCoalescer coalescer, String after, int limit,
+                                 AtomicInteger retrievals, String... names) throws Exception {
+        final int before = retrievals.get();
+        final List<GameRoomDataMessage> gameRooms = new ArrayList<>();
+        for (String name : names) {
+            gameRooms.add(new GameRoomDataMessage(name, 4, new long[0], 1));
+        }
+        final GameRoomsPage page = coalescer.getGameRooms(after, limit, () -> count(retrievals,
+                CompletableFuture.completedFuture(GameRoomsPage.fromReply(gameRooms))))
+                .toCompletableFuture().get();
+        if (retrievals.get() > before) {
+            Assert.assertEquals(gameRooms, page.getGameRooms());
+        }
+    }
+
+    /**
+     * Counts a retrieval of a page.
+     *
+     * @param retrievals The amount of retrievals so far.
+     * @param retrieval  The retrieval.
+     * @return The given {@code retrieval}.
+     */
+    private static CompletionStage<GameRoomsPage> count(AtomicInteger retrievals,
+                                                        CompletionStage<GameRoomsPage> retrieval) {
+        retrievals.incrementAndGet();
+        return retrieval;
+    }
+
+    /**
+     * @return A page of game rooms.
+     */
+    private static List<GameRoomDataMessage> page() {
+        return Collections.singletonList(new GameRoomDataMessage("room", 4, new long[0], 1));
+    }
+}
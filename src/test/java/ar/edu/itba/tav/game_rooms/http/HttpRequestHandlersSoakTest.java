@@ -0,0 +1,160 @@
+package ar.edu.itba.tav.game_rooms.http;
+
+import akka.actor.ActorIdentity;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Identify;
+import akka.actor.Inbox;
+import akka.http.javadsl.ConnectHttp;
+import akka.http.javadsl.Http;
+import akka.http.javadsl.model.HttpRequest;
+import akka.http.javadsl.model.HttpResponse;
+import akka.japi.Pair;
+import akka.stream.ActorMaterializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import ar.edu.itba.tav.game_rooms.core.GameRoomDirectory;
+import ar.edu.itba.tav.game_rooms.core.PlayerDirectory;
+import ar.edu.itba.tav.game_rooms.core.ShardedGameRoomsManagerActor;
+import ar.edu.itba.tav.game_rooms.core.SystemMonitorActor;
+import com.typesafe.config.ConfigFactory;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+import scala.util.Try;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Soak test of the pool of {@link HttpRequestHandlerActor}s: the amount of actors must stay flat
+ * no matter how many requests are handled (i.e no actor is created per request).
+ * The amount of requests can be changed with the {@code soak.requests} system property
+ * (e.g {@code mvn test -Dtest=HttpRequestHandlersSoakTest -Dsoak.requests=1000000} for a full soak).
+ */
+public class HttpRequestHandlersSoakTest {
+
+    /**
+     * The amount of requests sent (kept low by default so the test suite stays fast).
+     */
+    private static final int REQUESTS = Integer.getInteger("soak.requests", 20_000);
+
+    /**
+     * The amount of request handlers in the pool.
+     */
+    private static final int HANDLERS = 4;
+
+    private ActorSystem system;
+
+    private ActorMaterializer materializer;
+
+    private int port;
+
+    @Before
+    public void setUp() throws IOException {
+        system = ActorSystem.create("soak", ConfigFactory
+                .parseString("akka.loglevel = WARNING\n" +
+                        "akka.http.host-connection-pool.max-connections = 16\n" +
+                        "akka.http.host-connection-pool.max-open-requests = 1024\n" +
+                        "akka.http.host-connection-pool.pipelining-limit = 8")
+                .withFallback(ConfigFactory.load()));
+        materializer = ActorMaterializer.create(system);
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        final GameRoomDirectory gameRoomDirectory = new GameRoomDirectory();
+        final PlayerDirectory playerDirectory = new PlayerDirectory(false);
+        final ActorRef gameRoomsManager = system.actorOf(ShardedGameRoomsManagerActor
+                .getProps(2, gameRoomDirectory, playerDirectory, 0), "game_rooms_manager");
+        final ActorRef systemMonitor = system.actorOf(SystemMonitorActor.getProps(), "system_monitor");
+        final HttpServerSettings settings = HttpServerSettings.create(HANDLERS, -1, false, 0, Collections.emptyMap());
+        HttpServer.createServer(system, gameRoomsManager, gameRoomDirectory, playerDirectory, systemMonitor, settings)
+                .start(port);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Http.get(system).shutdownAllConnectionPools().toCompletableFuture().get(10, TimeUnit.SECONDS);
+        Await.result(system.terminate(), Duration.create(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void actorsCountStaysFlat() throws Exception {
+        sendRequests(1_000);
+        final int topLevelActors = countActors("/user/*");
+        Assert.assertEquals(HANDLERS, countActors("/user/http_request_handlers-*/*"));
+
+        final LongAdder notFound = sendRequests(REQUESTS);
+
+        Assert.assertEquals(REQUESTS, notFound.sum());
+        Assert.assertEquals(topLevelActors, countActors("/user/*"));
+        Assert.assertEquals(HANDLERS, countActors("/user/http_request_handlers-*/*"));
+    }
+
+    @Test
+    public void severalServersInTheSameSystem() {
+        final HttpServerSettings settings = HttpServerSettings.create(1, -1, false, 0, Collections.emptyMap());
+        HttpServer.createServer(system, system.deadLetters(), null, system.deadLetters(), settings);
+        Assert.assertEquals(2, countActors("/user/http_request_handlers-*"));
+    }
+
+    /**
+     * Sends the given amount of requests for a game room that does not exist,
+     * waiting for all the responses.
+     *
+     * @param amount The amount of requests.
+     * @return The amount of {@code 404 Not Found} responses.
+     * @throws Exception If the requests could not be completed.
+     */
+    private LongAdder sendRequests(int amount) throws Exception {
+        final LongAdder notFound = new LongAdder();
+        final HttpRequest request = HttpRequest.GET("/game-rooms/missing");
+        Source.range(1, amount)
+                .map(i -> Pair.create(request, i))
+                .via(Http.get(system).<Integer>cachedHostConnectionPool(ConnectHttp.toHost("localhost", port),
+                        materializer))
+                .map(Pair::first)
+                .map(Try::get)
+                .map(response -> {
+                    response.discardEntityBytes(materializer);
+                    if (response.status().intValue() == 404) {
+                        notFound.increment();
+                    }
+                    return response;
+                })
+                .runWith(Sink.<HttpResponse>ignore(), materializer)
+                .toCompletableFuture()
+                .get(1, TimeUnit.HOURS);
+        return notFound;
+    }
+
+    /**
+     * Counts the actors that match the given path (which can include wildcards).
+     *
+     * @param path The path of the actors.
+     * @return The amount of actors.
+     */
+    private int countActors(String path) {
+        final Inbox inbox = Inbox.create(system);
+        system.actorSelection(path).tell(new Identify(path), inbox.getRef());
+        int count = 0;
+        try {
+            //noinspection InfiniteLoopStatement
+            while (true) {
+                final Object reply = inbox.receive(Duration.create(500, TimeUnit.MILLISECONDS));
+                if (reply instanceof ActorIdentity && ((ActorIdentity) reply).getActorRef().isPresent()) {
+                    count++;
+                }
+            }
+        } catch (TimeoutException e) {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ar.edu.itba.tav.game_rooms.http;
+
+import akka.util.ByteString;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tests for {@link LineSplitter}.
+ */
+public class LineSplitterTest {
+
+    @Test
+    public void linesSplitAcrossChunks() throws Exception {
+        Assert.assertEquals(Arrays.asList("ab", "", "cde", "f"), split(8, "a", "b\n\nc", "de\nf\n", "g"));
+    }
+
+    @Test
+    public void oversizedLinesAreReplacedWithEmpty() throws Exception {
+        Assert.assertEquals(Arrays.asList("abcd", null, null, "ef"),
+                split(4, "abcd\nabcde\nab", "cdefgh", "ijk\n", "ef\n"));
+    }
+
+    /**
+     * Splits the given chunks with a new {@link LineSplitter}.
+     *
+     * @param maxLineLength The max. length of a line.
+     * @param chunks        The chunks of the stream.
+     * @return The split lines (with {@code null} in place of oversized lines).
+     * @throws Exception Never.
+     */
+    private static List<String> split(int maxLineLength, String... chunks) throws Exception {
+        final LineSplitter splitter = new LineSplitter(maxLineLength);
+        final List<String> lines = new ArrayList<>();
+        for (String chunk : chunks) {
+            for (Optional<ByteString> line : splitter.apply(ByteString.fromString(chunk))) {
+                lines.add(line.map(ByteString::utf8String).orElse(null));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,193 @@
+package ar.edu.itba.tav.game_rooms.utils;
+
+import akka.actor.AbstractActor;
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.actor.Inbox;
+import akka.actor.Props;
+import akka.japi.pf.ReceiveBuilder;
+import ar.edu.itba.tav.game_rooms.utils.AggregatorActor.CompletedMessage;
+import ar.edu.itba.tav.game_rooms.utils.AggregatorActor.PartialResultMessage;
+import ar.edu.itba.tav.game_rooms.utils.AggregatorActor.ResponseMessage;
+import ar.edu.itba.tav.game_rooms.utils.AggregatorActor.SuccessfulResultMessage;
+import ar.edu.itba.tav.game_rooms.utils.AggregatorActor.TimeoutPolicy;
+import com.typesafe.config.ConfigFactory;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+import scala.concurrent.duration.FiniteDuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link AggregatorActor}, aggregating as a tree (i.e with more responders than the fan-out).
+ */
+public class AggregatorActorTest {
+
+    /**
+     * The request sent to the responders.
+     */
+    private static final String REQUEST = "request";
+
+    /**
+     * The fan-out of the aggregators (i.e small, so the responders are aggregated by a tree of several levels).
+     */
+    private static final int FAN_OUT = 2;
+
+    /**
+     * The amount of responders.
+     */
+    private static final int RESPONDERS = 7;
+
+    /**
+     * The timeout (in milliseconds) of the aggregation.
+     */
+    private static final long TIMEOUT = 1000;
+
+    /**
+     * The max. time to wait for the aggregation result.
+     */
+    private static final FiniteDuration WAIT = Duration.create(10, TimeUnit.SECONDS);
+
+    private static ActorSystem system;
+
+    @BeforeClass
+    public static void setUp() {
+        system = ActorSystem.create("aggregator-test", ConfigFactory.parseString("akka.loglevel = WARNING")
+                .withFallback(ConfigFactory.load()));
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        Await.result(system.terminate(), Duration.create(30, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void treeCollectsEveryResponse() throws Exception {
+        final List<ActorRef> responders = responders(-1);
+        final Inbox inbox = Inbox.create(system);
+        system.actorOf(AggregatorActor.props(String.class, REQUEST, responders, inbox.getRef(), TIMEOUT,
+                TimeoutPolicy.PARTIAL, false, FAN_OUT));
+        final Object result = inbox.receive(WAIT);
+        Assert.assertTrue(result instanceof SuccessfulResultMessage);
+        Assert.assertEquals(expected(responders, -1), ((SuccessfulResultMessage<?>) result).getResult());
+    }
+
+    @Test
+    public void treeReportsRespondersOfTimedOutChild() throws Exception {
+        final int silent = 4;
+        final List<ActorRef> responders = responders(silent);
+        final Inbox inbox = Inbox.create(system);
+        system.actorOf(AggregatorActor.props(String.class, REQUEST, responders, inbox.getRef(), TIMEOUT,
+                TimeoutPolicy.PARTIAL, false, FAN_OUT));
+        final Object result = inbox.receive(WAIT);
+        Assert.assertTrue(result instanceof PartialResultMessage);
+        final PartialResultMessage<?> partial = (PartialResultMessage<?>) result;
+        Assert.assertEquals(expected(responders, silent), partial.getResult());
+        Assert.assertEquals(Collections.singletonList(responders.get(silent)), partial.getMissing());
+    }
+
+    @Test
+    public void streamingTreeReportsRespondersOfTimedOutChild() throws Exception {
+        final int silent = 0;
+        final List<ActorRef> responders = responders(silent);
+        final Inbox inbox = Inbox.create(system);
+        system.actorOf(AggregatorActor.props(String.class, REQUEST, responders, inbox.getRef(), TIMEOUT,
+                TimeoutPolicy.PARTIAL, true, FAN_OUT));
+        final Map<ActorRef, Object> responses = new HashMap<>();
+        Object message;
+        while ((message = inbox.receive(WAIT)) instanceof ResponseMessage) {
+            final ResponseMessage<?> response = (ResponseMessage<?>) message;
+            Assert.assertNull(responses.put(response.getResponder(), response.getResponse()));
+        }
+        Assert.assertTrue(message instanceof CompletedMessage);
+        Assert.assertEquals(expected(responders, silent), responses);
+        Assert.assertEquals(Collections.singletonList(responders.get(silent)),
+                ((CompletedMessage) message).getMissing());
+    }
+
+    @Test
+    public void treeDiscardsResultsOnTimeout() throws Exception {
+        final Inbox inbox = Inbox.create(system);
+        system.actorOf(AggregatorActor.props(String.class, REQUEST, responders(RESPONDERS - 1), inbox.getRef(),
+                TIMEOUT, TimeoutPolicy.DISCARD, false, FAN_OUT));
+        Assert.assertTrue(inbox.receive(WAIT) instanceof AggregatorActor.TimeoutMessage);
+    }
+
+    /**
+     * Starts the responders, which reply their name to the request.
+     *
+     * @param silent The index of the responder that never replies, or a negative value if all of them reply.
+     * @return The {@link ActorRef}s of the responders.
+     */
+    private static List<ActorRef> responders(int silent) {
+        final List<ActorRef> responders = new ArrayList<>(RESPONDERS);
+        for (int i = 0; i < RESPONDERS; i++) {
+            responders.add(system.actorOf(Responder.props(i != silent)));
+        }
+        return responders;
+    }
+
+    /**
+     * Returns the responses expected from the given responders.
+     *
+     * @param responders The {@link ActorRef}s of the responders.
+     * @param silent     The index of the responder that never replies, or a negative value if all of them reply.
+     * @return The expected responses, by responder.
+     */
+    private static Map<ActorRef, Object> expected(List<ActorRef> responders, int silent) {
+        final Map<ActorRef, Object> expected = new HashMap<>();
+        for (int i = 0; i < responders.size(); i++) {
+            if (i != silent) {
+                expected.put(responders.get(i), responders.get(i).path().name());
+            }
+        }
+        return expected;
+    }
+
+    /**
+     * An {@link akka.actor.Actor} that replies its name to the request (or never replies, if it is silent).
+     */
+    private static final class Responder extends AbstractActor {
+
+        /**
+         * Indicates whether this responder replies the request.
+         */
+        private final boolean replies;
+
+        /**
+         * Private constructor.
+         *
+         * @param replies Indicates whether this responder replies the request.
+         */
+        private Responder(boolean replies) {
+            this.replies = replies;
+        }
+
+        @Override
+        public Receive createReceive() {
+            return ReceiveBuilder.create()
+                    .matchEquals(REQUEST, request -> replies, request -> getSender()
+                            .tell(getSelf().path().name(), getSelf()))
+                    .build();
+        }
+
+        /**
+         * Create {@link Props} for an {@link akka.actor.Actor} of this type.
+         *
+         * @param replies Indicates whether the responder replies the request.
+         * @return The created {@link Props}.
+         */
+        private static Props props(boolean replies) {
+            return Props.create(Responder.class, () -> new Responder(replies));
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package ar.edu.itba.tav.game_rooms.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Tests for {@link LongHashSet}.
+ */
+public class LongHashSetTest {
+
+    /**
+     * The mask of the hash table right after the inline array is promoted
+     * (i.e a table of 64 slots, which is kept while the set holds at most 32 values).
+     */
+    private static final int PROMOTED_MASK = 63;
+
+    @Test
+    public void addContainsAndRemoveInline() {
+        final LongHashSet set = new LongHashSet(4);
+        Assert.assertTrue(set.add(3));
+        Assert.assertTrue(set.add(0));
+        Assert.assertTrue(set.add(-7));
+        Assert.assertFalse(set.add(3));
+        Assert.assertEquals(3, set.size());
+        Assert.assertTrue(set.contains(0));
+        Assert.assertFalse(set.contains(1));
+        Assert.assertTrue(set.remove(3));
+        Assert.assertFalse(set.remove(3));
+        Assert.assertArrayEquals(new long[]{-7, 0}, set.toSortedArray());
+    }
+
+    @Test
+    public void promotionKeepsValues() {
+        final LongHashSet set = new LongHashSet(16);
+        final Set<Long> expected = new HashSet<>();
+        // Zero is the free slot marker of the hash table, so it must survive the promotion too
+        for (long value = 0; value < 40; value++) {
+            Assert.assertTrue(set.add(value));
+            expected.add(value);
+            assertSameValues(expected, set);
+        }
+        for (long value = 0; value < 40; value += 2) {
+            Assert.assertTrue(set.remove(value));
+            expected.remove(value);
+            assertSameValues(expected, set);
+        }
+        Assert.assertFalse(set.contains(0));
+        Assert.assertTrue(set.add(0));
+        Assert.assertTrue(set.contains(0));
+    }
+
+    @Test
+    public void removalsAcrossPromotionPoint() {
+        final LongHashSet set = new LongHashSet(0);
+        final Set<Long> expected = new HashSet<>();
+        for (int round = 0; round < 5; round++) {
+            for (long value = 1; value <= 17; value++) {
+                Assert.assertEquals(expected.add(value * 31), set.add(value * 31));
+            }
+            for (long value = 1; value <= 17; value += 3) {
+                Assert.assertEquals(expected.remove(value * 31), set.remove(value * 31));
+            }
+            assertSameValues(expected, set);
+        }
+    }
+
+    @Test
+    public void deletionChainsWrappingAroundTheTable() {
+        // Values whose probe sequences start at the last slots, so their chains wrap into the first ones
+        final List<Long> chain = new ArrayList<>();
+        chain.addAll(valuesInSlot(PROMOTED_MASK, 4, 1));
+        chain.addAll(valuesInSlot(PROMOTED_MASK - 1, 2, 1));
+        chain.addAll(valuesInSlot(0, 3, 1));
+        chain.addAll(valuesInSlot(1, 2, 1));
+        // Fillers far from the chain, so the set is promoted to a hash table
+        final List<Long> fillers = new ArrayList<>();
+        for (int slot = 20; fillers.size() < 17 - chain.size() + 4; slot++) {
+            fillers.addAll(valuesInSlot(slot, 1, 1_000_000));
+        }
+
+        for (int removedIndex = 0; removedIndex < chain.size(); removedIndex++) {
+            final LongHashSet set = new LongHashSet(0);
+            final Set<Long> expected = new HashSet<>();
+            fillers.forEach(value -> {
+                set.add(value);
+                expected.add(value);
+            });
+            chain.forEach(value -> {
+                set.add(value);
+                expected.add(value);
+            });
+            Assert.assertTrue(set.remove(chain.get(removedIndex)));
+            expected.remove(chain.get(removedIndex));
+            assertSameValues(expected, set);
+            // Removing the rest of the chain in reverse order shifts back entries over the table end each time
+            for (int i = chain.size() - 1; i >= 0; i--) {
+                if (i != removedIndex) {
+                    Assert.assertTrue(set.remove(chain.get(i)));
+                    expected.remove(chain.get(i));
+                    assertSameValues(expected, set);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void randomOperationsMatchHashSet() {
+        final Random random = new Random(42);
+        final LongHashSet set = new LongHashSet(8);
+        final Set<Long> expected = new HashSet<>();
+        for (int i = 0; i < 200_000; i++) {
+            // A small range of values, so there are many collisions, removals and re-additions
+            final long value = random.nextInt(300) - 150;
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(expected.remove(value), set.remove(value));
+            } else {
+                Assert.assertEquals(expected.add(value), set.add(value));
+            }
+            Assert.assertEquals(expected.contains(value), set.contains(value));
+            Assert.assertEquals(expected.size(), set.size());
+        }
+        assertSameValues(expected, set);
+    }
+
+    /**
+     * Returns values whose probe sequence starts in the given slot of a just promoted hash table.
+     *
+     * @param slot   The slot.
+     * @param amount The amount of values.
+     * @param from   The value from which values are searched.
+     * @return The values.
+     */
+    private static List<Long> valuesInSlot(int slot, int amount, long from) {
+        final List<Long> values = new ArrayList<>(amount);
+        for (long value = from; values.size() < amount; value++) {
+            if (LongHashSet.slot(value, PROMOTED_MASK) == slot) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Asserts that the given {@link LongHashSet} holds exactly the given values.
+     *
+     * @param expected The expected values.
+     * @param set      The {@link LongHashSet}.
+     */
+    private static void assertSameValues(Set<Long> expected, LongHashSet set) {
+        Assert.assertEquals(expected.size(), set.size());
+        expected.forEach(value -> Assert.assertTrue("Missing " + value, set.contains(value)));
+        final long[] sorted = expected.stream().mapToLong(Long::longValue).sorted().toArray();
+        Assert.assertArrayEquals(sorted, set.toSortedArray());
+        Assert.assertEquals(sorted.length, Arrays.stream(set.toSortedArray()).distinct().count());
+    }
+}